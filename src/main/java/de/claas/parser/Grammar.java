@@ -1,10 +1,28 @@
 package de.claas.parser;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import de.claas.parser.automata.Lexer;
+import de.claas.parser.exceptions.CyclicRuleException;
 import de.claas.parser.exceptions.ParserException;
+import de.claas.parser.exceptions.ParserLimitException;
+import de.claas.parser.results.CompactTree;
+import de.claas.parser.results.ErrorNode;
 import de.claas.parser.results.IntermediateNode;
+import de.claas.parser.results.NodeInterner;
+import de.claas.parser.rules.Decorator;
 import de.claas.parser.rules.NonTerminal;
+import de.claas.parser.visitors.GrammarAnalysis;
 import de.claas.parser.visitors.Parser;
-import de.claas.parser.visitors.RemoveIntermediateNodes;
+import de.claas.parser.visitors.RegularSubgrammars;
 
 /**
  * The class {@link Grammar}. It is intended to parse sentences of a given
@@ -17,15 +35,370 @@ import de.claas.parser.visitors.RemoveIntermediateNodes;
 public class Grammar {
 
 	private final NonTerminal start;
+	private ParserLimits limits = new ParserLimits();
+	private final Set<String> syncRules = new LinkedHashSet<>();
+	private final GrammarAnalysis analysis;
+	private final int analyzedHashCode;
+	private NodeInterner interner;
+	private RegularSubgrammars regularSubgrammars;
+	private final Set<String> lexicalRules = new LinkedHashSet<>();
+	private Lexer lexer;
+	private boolean orderedChoice = false;
+	private NonTerminal skipRule;
+	private RegularSubgrammars compiledSkipRule;
+	private final Set<String> skippingRules = new LinkedHashSet<>();
+	private final Set<String> memoizedRules = new LinkedHashSet<>();
 
 	/**
-	 * Constructs a new {@link Grammar} with the specified parameter.
+	 * Constructs a new {@link Grammar} with the specified parameter. The
+	 * grammar is analyzed once (see {@link GrammarAnalysis}) and rejected if it
+	 * contains unsupported cycles (i.e. left-recursive rules that do not pass
+	 * through any {@link NonTerminal}) or unbounded repetitions of nullable
+	 * rules. Left-recursive {@link NonTerminal}s are supported.
 	 * 
 	 * @param grammar
 	 *            the grammar's initial {@link NonTerminal} rule
+	 * @throws CyclicRuleException
+	 *             if the grammar contains rules that would be revisited
+	 *             without processing any data
 	 */
 	public Grammar(NonTerminal grammar) {
 		this.start = grammar;
+		this.analysis = new GrammarAnalysis(grammar);
+		this.analysis.verify();
+		this.analyzedHashCode = grammar.hashCode();
+	}
+
+	/**
+	 * Returns the analysis of this grammar's rules (e.g. which rules are
+	 * nullable). The analysis reflects the rules at construction time.
+	 * 
+	 * @return the analysis of this grammar's rules
+	 */
+	public GrammarAnalysis getAnalysis() {
+		return this.analysis;
+	}
+
+	/**
+	 * Returns <code>true</code> if the analysis still reflects this grammar's
+	 * rules (see {@link #getAnalysis()}). Rules remain mutable after
+	 * construction (e.g. {@link Rule#addChild(Rule)}). A change to any rule
+	 * that is reachable from the initial rule is detected by means of the
+	 * initial rule's hash code (see {@link Rule#hashCode()}).
+	 * 
+	 * @return <code>true</code> if no reachable rule changed since
+	 *         construction
+	 */
+	public boolean isAnalysisCurrent() {
+		return this.start.hashCode() == this.analyzedHashCode;
+	}
+
+	/**
+	 * Returns the limits that apply to every parse of this grammar.
+	 * 
+	 * @return the limits that apply to every parse of this grammar
+	 */
+	public ParserLimits getLimits() {
+		return this.limits;
+	}
+
+	/**
+	 * Sets the limits that apply to every parse of this grammar. Exceeding any
+	 * of the limits causes a {@link ParserLimitException} to be thrown (even
+	 * by methods that otherwise return <code>null</code> for invalid data).
+	 * 
+	 * @param limits
+	 *            the limits that apply to every parse of this grammar
+	 */
+	public void setLimits(ParserLimits limits) {
+		this.limits = limits;
+	}
+
+	/**
+	 * Returns the names of the non-terminal rules at which parsing
+	 * resynchronizes in recovery mode (see
+	 * {@link #parseWithRecovery(String, List)}).
+	 * 
+	 * @return the names of the synchronization rules
+	 */
+	public Set<String> getSyncRules() {
+		return Collections.unmodifiableSet(this.syncRules);
+	}
+
+	/**
+	 * Sets the names of the non-terminal rules at which parsing resynchronizes
+	 * in recovery mode (see {@link #parseWithRecovery(String, List)}).
+	 * 
+	 * @param names
+	 *            the names of the synchronization rules
+	 */
+	public void setSyncRules(String... names) {
+		this.syncRules.clear();
+		this.syncRules.addAll(Arrays.asList(names));
+	}
+
+	/**
+	 * Returns the interner that shares structurally identical subtrees of
+	 * parsed trees. Returns <code>null</code> if subtrees are not shared.
+	 * 
+	 * @return the interner or <code>null</code>
+	 */
+	public NodeInterner getInterner() {
+		return this.interner;
+	}
+
+	/**
+	 * Sets the interner that shares structurally identical subtrees of parsed
+	 * trees (see {@link NodeInterner}). Trees that are returned by this grammar
+	 * share repeated sub-derivations with each other (and with all other trees
+	 * that were interned by the same interner). Such trees must not be
+	 * modified. By default, no interner is set and subtrees are not shared.
+	 * 
+	 * @param interner
+	 *            the interner or <code>null</code> if subtrees should not be
+	 *            shared
+	 */
+	public void setInterner(NodeInterner interner) {
+		this.interner = interner;
+	}
+
+	/**
+	 * Returns <code>true</code> if every disjunction is an ordered disjunction
+	 * (see {@link #setOrderedChoice(boolean)}).
+	 * 
+	 * @return <code>true</code> if every disjunction is an ordered
+	 *         disjunction, <code>false</code> otherwise
+	 */
+	public boolean isOrderedChoice() {
+		return this.orderedChoice;
+	}
+
+	/**
+	 * Sets whether every disjunction is an ordered disjunction (see
+	 * {@link Parser#setOrderedChoice(boolean)}). If so, every disjunction
+	 * commits to the first alternative that is successfully processed rather
+	 * than trying all alternatives in search of the longest one. This changes
+	 * the parsed trees of disjunctions whose alternatives can process the
+	 * same data (see {@link GrammarAnalysis#getOrderSensitiveDisjunctions()}).
+	 * By default, only disjunctions that are ordered themselves (see
+	 * {@link de.claas.parser.rules.Disjunction#isOrdered()}) are ordered.
+	 * 
+	 * @param orderedChoice
+	 *            whether every disjunction is an ordered disjunction
+	 * @throws IllegalArgumentException
+	 *             if any of the lexical rules cannot be compiled for the
+	 *             specified choice (see {@link #setLexicalRules(String...)})
+	 */
+	public void setOrderedChoice(boolean orderedChoice) {
+		if (this.orderedChoice == orderedChoice)
+			return;
+		boolean previous = this.orderedChoice;
+		this.orderedChoice = orderedChoice;
+		try {
+			if (this.lexer != null)
+				setLexicalRules(this.lexicalRules.toArray(new String[this.lexicalRules.size()]));
+		} catch (IllegalArgumentException e) {
+			this.orderedChoice = previous;
+			throw e;
+		}
+		if (this.regularSubgrammars != null)
+			this.regularSubgrammars = new RegularSubgrammars(this.start, orderedChoice);
+		this.compiledSkipRule = compileSkipRule(this.skipRule);
+	}
+
+	/**
+	 * Returns <code>true</code> if regular non-terminals are matched by
+	 * compiled automata (see {@link #setRegularMatching(boolean)}).
+	 * 
+	 * @return <code>true</code> if regular non-terminals are matched by
+	 *         compiled automata, <code>false</code> otherwise
+	 */
+	public boolean isRegularMatching() {
+		return this.regularSubgrammars != null;
+	}
+
+	/**
+	 * Sets whether regular non-terminals are matched by compiled automata (see
+	 * {@link RegularSubgrammars}). If so, the regular non-terminals are
+	 * compiled once and every parse matches them in a single step. Their
+	 * subtrees are only built if a tree is requested. Parsed trees, values
+	 * and error messages are unchanged. By default, regular non-terminals are
+	 * not compiled.
+	 * 
+	 * @param regularMatching
+	 *            whether regular non-terminals are matched by compiled
+	 *            automata
+	 */
+	public void setRegularMatching(boolean regularMatching) {
+		if (!regularMatching)
+			this.regularSubgrammars = null;
+		else if (this.regularSubgrammars == null)
+			this.regularSubgrammars = new RegularSubgrammars(this.start, this.orderedChoice);
+	}
+
+	/**
+	 * Returns the names of the lexical non-terminal rules (see
+	 * {@link #setLexicalRules(String...)}).
+	 * 
+	 * @return the names of the lexical rules
+	 */
+	public Set<String> getLexicalRules() {
+		return Collections.unmodifiableSet(this.lexicalRules);
+	}
+
+	/**
+	 * Sets the names of the lexical non-terminal rules. If any are set, then
+	 * every parse is preceded by a lexer that splits the data into tokens of
+	 * these rules (see {@link Lexer}). Lexical rules then succeed only if the
+	 * token at the current offset is of their kind, and they process the
+	 * whole token in a single step (see
+	 * {@link Parser#setTokens(de.claas.parser.automata.Tokens)}). Thus, a
+	 * lexical rule fails wherever another lexical rule describes a longer
+	 * prefix of the data. If several lexical rules describe the longest
+	 * prefix, then the rule whose name comes first takes precedence. By
+	 * default, no rules are lexical (i.e. the data is parsed character by
+	 * character).
+	 * 
+	 * @param names
+	 *            the names of the lexical rules (in the order of precedence)
+	 * @throws IllegalArgumentException
+	 *             if any of the lexical rules is not regular (see
+	 *             {@link RegularSubgrammars#createLexer(List)})
+	 */
+	public void setLexicalRules(String... names) {
+		Set<String> lexicalRules = new LinkedHashSet<>(Arrays.asList(names));
+		List<NonTerminal> rules = new ArrayList<>();
+		for (String name : lexicalRules) {
+			for (NonTerminal rule : findNonTerminals(Collections.singleton(name)))
+				rules.add(rule);
+		}
+		this.lexer = rules.isEmpty() ? null : RegularSubgrammars.createLexer(rules, this.orderedChoice);
+		this.lexicalRules.clear();
+		this.lexicalRules.addAll(lexicalRules);
+	}
+
+	/**
+	 * Returns the skip rule (see {@link #setSkipRule(NonTerminal, String...)}).
+	 * 
+	 * @return the skip rule or <code>null</code>
+	 */
+	public NonTerminal getSkipRule() {
+		return this.skipRule;
+	}
+
+	/**
+	 * Returns the names of the skipping non-terminal rules (see
+	 * {@link #setSkipRule(NonTerminal, String...)}).
+	 * 
+	 * @return the names of the skipping rules
+	 */
+	public Set<String> getSkippingRules() {
+		return Collections.unmodifiableSet(this.skippingRules);
+	}
+
+	/**
+	 * Sets the skip rule (e.g. white space or comments) and the names of the
+	 * skipping non-terminal rules. If set, then the data that is described by
+	 * the skip rule is skipped implicitly within the skipping rules (i.e.
+	 * before every terminal and every nested non-terminal of a skipping rule
+	 * as well as after every skipping rule). Skipped data does not appear in
+	 * parsed trees. Nested rules that are not skipping themselves are
+	 * processed like tokens (i.e. nothing is skipped within them). Thus, the
+	 * grammar does not need to spell out insignificant data between tokens.
+	 * The skip rule is compiled if it is regular (see
+	 * {@link RegularSubgrammars}). By default, nothing is skipped.
+	 * 
+	 * @param rule
+	 *            the skip rule or <code>null</code> (to skip nothing)
+	 * @param names
+	 *            the names of the skipping rules
+	 * @throws IllegalArgumentException
+	 *             if the skip rule is one of the skipping rules
+	 * @throws CyclicRuleException
+	 *             if the skip rule contains rules that would be revisited
+	 *             without processing any data
+	 */
+	public void setSkipRule(NonTerminal rule, String... names) {
+		Set<String> skippingRules = new LinkedHashSet<>();
+		if (rule != null) {
+			skippingRules.addAll(Arrays.asList(names));
+			if (skippingRules.contains(rule.getName()))
+				throw new IllegalArgumentException("Skip rule must not be skipping: " + rule.getName());
+			new GrammarAnalysis(rule).verify();
+		}
+		this.skipRule = rule;
+		this.compiledSkipRule = compileSkipRule(rule);
+		this.skippingRules.clear();
+		this.skippingRules.addAll(skippingRules);
+	}
+
+	/**
+	 * Returns the names of the memoized non-terminal rules (see
+	 * {@link #setMemoizedRules(String...)}).
+	 * 
+	 * @return the names of the memoized rules
+	 */
+	public Set<String> getMemoizedRules() {
+		return Collections.unmodifiableSet(this.memoizedRules);
+	}
+
+	/**
+	 * Sets the names of the memoized non-terminal rules (see
+	 * {@link Parser#setMemoizedRules(java.util.Collection)}). The results of
+	 * these rules are stored per offset during every parse and reused
+	 * whenever they are re-invoked at the same offset. Parsed trees, values
+	 * and error messages are unchanged, but semantic actions are not applied
+	 * again for reused results. By default, no rules are memoized (see
+	 * {@link #adaptMemoization(String...)}).
+	 * 
+	 * @param names
+	 *            the names of the memoized rules
+	 */
+	public void setMemoizedRules(String... names) {
+		this.memoizedRules.clear();
+		this.memoizedRules.addAll(Arrays.asList(names));
+	}
+
+	/**
+	 * Parses the specified (warm-up) data and returns a profile of how often
+	 * the non-terminal rules are re-invoked at the same offset (see
+	 * {@link MemoizationProfile}). The data is parsed without memoization.
+	 * Data that cannot be parsed is profiled nonetheless.
+	 * 
+	 * @param data
+	 *            the data that is being profiled
+	 * @return the profile of the rules
+	 * @throws ParserLimitException
+	 *             if any of the limits is exceeded (see
+	 *             {@link #setLimits(ParserLimits)})
+	 */
+	public MemoizationProfile profileMemoization(String... data) {
+		MemoizationProfile profile = new MemoizationProfile();
+		for (String sample : data) {
+			Parser parser = createParser(new State(sample), null);
+			parser.setMemoizedRules(Collections.emptyList());
+			parser.setProfile(profile);
+			tryVisit(parser);
+		}
+		return profile;
+	}
+
+	/**
+	 * Profiles the specified (warm-up) data (see
+	 * {@link #profileMemoization(String...)}) and memoizes exactly the rules
+	 * that benefit from memoization (see
+	 * {@link MemoizationProfile#getRecommendedRules()}).
+	 * 
+	 * @param data
+	 *            the data that is being profiled
+	 * @return the profile of the rules (i.e. the report of the trade-off
+	 *         between time and memory per rule)
+	 */
+	public MemoizationProfile adaptMemoization(String... data) {
+		MemoizationProfile profile = profileMemoization(data);
+		Set<String> names = profile.getRecommendedRules();
+		setMemoizedRules(names.toArray(new String[names.size()]));
+		return profile;
 	}
 
 	/**
@@ -85,13 +458,10 @@ public class Grammar {
 	 */
 	public Node tryParse(String data, boolean retainIntermediateNodes) {
 		State state = new State(data);
-		Parser parser = new Parser(state);
-		this.start.visit(parser);
-
-		Node result = parser.getResult();
-		if (result != null && !retainIntermediateNodes)
-			result.visit(new RemoveIntermediateNodes());
-		return result;
+		Parser parser = createParser(state, null);
+		if (!tryVisit(parser))
+			return null;
+		return parser.getResult(retainIntermediateNodes, this.interner);
 	}
 
 	/**
@@ -114,15 +484,361 @@ public class Grammar {
 	 *             passed into the constructor)
 	 */
 	public Node parse(String data, boolean retainIntermediateNodes) {
+		return parseAll(data).getResult(retainIntermediateNodes, this.interner);
+	}
+
+	/**
+	 * Parses and returns the compact tree of terminals and non-terminals that
+	 * represents the specified data. Any intermediate nodes (and thus
+	 * non-essential nodes) are removed. If the given data is in any way
+	 * invalid, then <code>null</code> is returned.
+	 * <p>
+	 * Unlike {@link #tryParse(String)}, no {@link Node}s are created. The
+	 * returned tree can be converted into a tree of {@link Node}s on demand
+	 * (see {@link CompactTree#toNode()}).
+	 * 
+	 * @param data
+	 *            the data that is being parsed
+	 * @return the compact tree of terminals and non-terminals that represents
+	 *         the specified data
+	 */
+	public CompactTree tryParseCompact(String data) {
+		State state = new State(data);
+		Parser parser = createParser(state, null);
+		if (!tryVisit(parser))
+			return null;
+		return parser.getCompactResult(false);
+	}
+
+	/**
+	 * Parses and returns the compact tree of terminals and non-terminals that
+	 * represents the specified data. Any intermediate nodes (and thus
+	 * non-essential nodes) are removed. If the given data is in any way
+	 * invalid, then a {@link ParserException} is thrown.
+	 * <p>
+	 * Unlike {@link #parse(String)}, no {@link Node}s are created. The returned
+	 * tree can be converted into a tree of {@link Node}s on demand (see
+	 * {@link CompactTree#toNode()}).
+	 * 
+	 * @param data
+	 *            the data that is being parsed
+	 * @return the compact tree of terminals and non-terminals that represents
+	 *         the specified data
+	 * @throws ParserException
+	 *             if the data is invalid (e.g. contains illegal tokens or the
+	 *             data is otherwise not in accordance with the grammar that was
+	 *             passed into the constructor)
+	 */
+	public CompactTree parseCompact(String data) {
+		return parseAll(data).getCompactResult(false);
+	}
+
+	/**
+	 * Parses and returns the tree of terminals and non-terminals that
+	 * represents the specified data in recovery mode. Any intermediate nodes
+	 * (and thus non-essential nodes) are removed. Invalid data is skipped up to
+	 * the next offset at which any of the synchronization rules (see
+	 * {@link #setSyncRules(String...)}) can be processed. Skipped data is
+	 * represented by {@link ErrorNode}s and an error (with its position) is
+	 * added to the given list for each of them. Trailing data that cannot be
+	 * processed is reported as error, too.
+	 * <p>
+	 * Recovery only takes place within repetitions that (directly) reference a
+	 * synchronization rule (e.g. a list of rules). Without synchronization
+	 * rules, only the valid prefix of the data is returned and the remaining
+	 * data is reported as a single error.
+	 * 
+	 * @param data
+	 *            the data that is being parsed
+	 * @param errors
+	 *            the list to which errors are added
+	 * @return the tree of terminals and non-terminals that represents the
+	 *         (valid parts of the) specified data
+	 * @throws ParserException
+	 *             if the data is invalid and parsing cannot recover
+	 */
+	public Node parseWithRecovery(String data, List<ParserException> errors) {
+		State state = new State(data);
+		Parser parser = createParser(state, null);
+		parser.setRegularSubgrammars(null);
+		parser.setSyncRules(findNonTerminals(this.syncRules));
+		this.start.visit(parser);
+		if (!parser.hasResult())
+			throw createException(parser, state, data);
+
+		errors.addAll(parser.getErrors());
+		if (state.getOffset() != data.length())
+			errors.add(createException(parser, state, data));
+		return parser.getResult(false, this.interner);
+	}
+
+	/**
+	 * Parses the specified data and reports the derivation to the given
+	 * listener. No tree of {@link Node}s is created. The listener is only
+	 * notified about the final derivation (i.e. after the data has
+	 * successfully been parsed). If the given data is in any way invalid, then
+	 * the listener is not notified and <code>false</code> is returned.
+	 * 
+	 * @param data
+	 *            the data that is being parsed
+	 * @param listener
+	 *            the listener
+	 * @return <code>true</code> if the data was successfully parsed,
+	 *         <code>false</code> otherwise
+	 */
+	public boolean tryParse(String data, ParseListener listener) {
+		State state = new State(data);
+		Parser parser = createParser(state, null);
+		if (!tryVisit(parser))
+			return false;
+		return parser.replayResult(listener);
+	}
+
+	/**
+	 * Parses the specified data and reports the derivation to the given
+	 * listener. No tree of {@link Node}s is created. The listener is only
+	 * notified about the final derivation (i.e. after the data has
+	 * successfully been parsed). If the given data is in any way invalid, then
+	 * a {@link ParserException} is thrown and the listener is not notified.
+	 * 
+	 * @param data
+	 *            the data that is being parsed
+	 * @param listener
+	 *            the listener
+	 * @throws ParserException
+	 *             if the data is invalid (e.g. contains illegal tokens or the
+	 *             data is otherwise not in accordance with the grammar that was
+	 *             passed into the constructor)
+	 */
+	public void parse(String data, ParseListener listener) {
+		parseAll(data).replayResult(listener);
+	}
+
+	/**
+	 * Parses the specified data and returns its value as computed by the given
+	 * semantic actions. The actions are executed while parsing and no tree of
+	 * {@link Node}s is created. The value of the initial rule is returned. If
+	 * no action is attached to the initial rule, then the first value of its
+	 * descendants (or <code>null</code>) is returned. If the given data is in
+	 * any way invalid, then <code>null</code> is returned.
+	 * 
+	 * @param data
+	 *            the data that is being parsed
+	 * @param actions
+	 *            the semantic actions
+	 * @param <R>
+	 *            the type of value
+	 * @return the value of the specified data
+	 */
+	public <R> R tryEvaluate(String data, SemanticActions<R> actions) {
 		State state = new State(data);
-		Parser parser = new Parser(state);
+		Parser parser = createParser(state, actions);
+		if (!tryVisit(parser))
+			return null;
+		return parser.hasResult() ? firstValue(parser) : null;
+	}
+
+	/**
+	 * Parses the specified data and returns its value as computed by the given
+	 * semantic actions. The actions are executed while parsing and no tree of
+	 * {@link Node}s is created. The value of the initial rule is returned. If
+	 * no action is attached to the initial rule, then the first value of its
+	 * descendants (or <code>null</code>) is returned. If the given data is in
+	 * any way invalid, then a {@link ParserException} is thrown.
+	 * 
+	 * @param data
+	 *            the data that is being parsed
+	 * @param actions
+	 *            the semantic actions
+	 * @param <R>
+	 *            the type of value
+	 * @return the value of the specified data
+	 * @throws ParserException
+	 *             if the data is invalid (e.g. contains illegal tokens or the
+	 *             data is otherwise not in accordance with the grammar that was
+	 *             passed into the constructor)
+	 */
+	public <R> R evaluate(String data, SemanticActions<R> actions) {
+		return firstValue(parseAll(data, actions));
+	}
+
+	/**
+	 * A helper function that creates a parser for the specified state. The
+	 * parser supports left-recursive rules (based on this grammar's analysis).
+	 * Cycle checks are disabled, because the grammar was verified during
+	 * construction, unless a rule changed since then (see
+	 * {@link #isAnalysisCurrent()}). Regular non-terminals are matched by compiled automata if
+	 * enabled (see {@link #setRegularMatching(boolean)}). The data is split
+	 * into tokens if lexical rules are set (see
+	 * {@link #setLexicalRules(String...)}).
+	 * 
+	 * @param state
+	 *            the state
+	 * @param actions
+	 *            the semantic actions or <code>null</code>
+	 * @return the parser
+	 */
+	private Parser createParser(State state, SemanticActions<?> actions) {
+		Parser parser = new Parser(state, actions, this.limits);
+		parser.setAnalysis(this.analysis);
+		parser.setCycleChecks(!isAnalysisCurrent());
+		parser.setOrderedChoice(this.orderedChoice);
+		parser.setRegularSubgrammars(this.regularSubgrammars);
+		if (this.lexer != null)
+			parser.setTokens(this.lexer.tokenize(state.getData()));
+		if (this.skipRule != null)
+			parser.setSkipRule(this.skipRule, this.compiledSkipRule, findNonTerminals(this.skippingRules));
+		parser.setMemoizedRules(findNonTerminals(this.memoizedRules));
+		return parser;
+	}
+
+	/**
+	 * A helper function that compiles the specified skip rule (see
+	 * {@link #setSkipRule(NonTerminal, String...)}). Returns
+	 * <code>null</code> if the skip rule is not regular.
+	 * 
+	 * @param rule
+	 *            the skip rule or <code>null</code>
+	 * @return the compiled skip rule or <code>null</code>
+	 */
+	private RegularSubgrammars compileSkipRule(NonTerminal rule) {
+		if (rule == null)
+			return null;
+		RegularSubgrammars compiled = new RegularSubgrammars(rule, this.orderedChoice);
+		return compiled.getAutomaton(rule) != null ? compiled : null;
+	}
+
+	/**
+	 * A helper function that parses the data of the specified parser. Returns
+	 * <code>false</code> if a rule failed after a cut (see
+	 * {@link Parser#getCutOffset()}), since the failure is final. Exceeded
+	 * limits are not caught.
+	 * 
+	 * @param parser
+	 *            the parser
+	 * @return <code>true</code> if the parser processed the data (successfully
+	 *         or not), <code>false</code> if a rule failed after a cut
+	 * @throws ParserLimitException
+	 *             if any of the limits is exceeded
+	 */
+	private boolean tryVisit(Parser parser) {
+		try {
+			this.start.visit(parser);
+			return true;
+		} catch (ParserLimitException e) {
+			throw e;
+		} catch (ParserException e) {
+			// a rule failed after a cut (see Parser#getCutOffset())
+			return false;
+		}
+	}
+
+	/**
+	 * A helper function that returns the first value of the specified
+	 * parser's result (or <code>null</code>).
+	 * 
+	 * @param parser
+	 *            the parser
+	 * @param <R>
+	 *            the type of value
+	 * @return the first value of the parser's result
+	 */
+	@SuppressWarnings("unchecked")
+	private static <R> R firstValue(Parser parser) {
+		List<Object> values = parser.getValues();
+		return values.isEmpty() ? null : (R) values.get(0);
+	}
+
+	/**
+	 * A helper function that parses the specified data. If the given data is
+	 * in any way invalid, then a {@link ParserException} is thrown.
+	 * 
+	 * @param data
+	 *            the data that is being parsed
+	 * @return the parser that successfully processed all of the data
+	 * @throws ParserException
+	 *             if the data is invalid
+	 */
+	private Parser parseAll(String data) {
+		return parseAll(data, null);
+	}
+
+	/**
+	 * A helper function that parses the specified data while executing the
+	 * given semantic actions. If the given data is in any way invalid, then a
+	 * {@link ParserException} is thrown.
+	 * 
+	 * @param data
+	 *            the data that is being parsed
+	 * @param actions
+	 *            the semantic actions or <code>null</code>
+	 * @return the parser that successfully processed all of the data
+	 * @throws ParserException
+	 *             if the data is invalid. The exception captures the farthest
+	 *             offset that was reached (along with the terminal symbols that
+	 *             were expected there)
+	 */
+	private Parser parseAll(String data, SemanticActions<?> actions) {
+		State state = new State(data);
+		Parser parser = createParser(state, actions);
 		this.start.visit(parser);
+		if (!parser.hasResult() || state.getOffset() != data.length())
+			throw createException(parser, state, data);
+		return parser;
+	}
+
+	/**
+	 * A helper function that creates an exception for data that could not
+	 * (fully) be processed. The exception captures the farthest offset that
+	 * was reached (along with the terminal symbols that were expected there).
+	 * 
+	 * @param parser
+	 *            the parser
+	 * @param state
+	 *            the state
+	 * @param data
+	 *            the data that was parsed
+	 * @return the exception
+	 */
+	private static ParserException createException(Parser parser, State state, String data) {
+		int offset = parser.hasResult() ? state.getOffset() : 0;
+		if (parser.getFarthestOffset() >= offset) {
+			return new ParserException("Could not process all tokens.", data, parser.getFarthestOffset(),
+					parser.getFarthestExpected(), parser.getFarthestRule());
+		}
+		return new ParserException("Could not process all tokens.", data, offset, Collections.emptyList(), null);
+	}
+
+	/**
+	 * A helper function that returns all non-terminal rules (reachable from
+	 * the initial rule) with any of the specified names.
+	 * 
+	 * @param names
+	 *            the names
+	 * @return the non-terminal rules with any of the specified names
+	 */
+	private List<NonTerminal> findNonTerminals(Set<String> names) {
+		List<NonTerminal> result = new ArrayList<>();
+		if (names.isEmpty())
+			return result;
 
-		Node result = parser.getResult();
-		if (result == null || !state.getUnprocessedData().isEmpty())
-			throw new ParserException("Could not process all tokens.");
-		if (!retainIntermediateNodes)
-			result.visit(new RemoveIntermediateNodes());
+		Set<Rule> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+		Deque<Rule> pending = new ArrayDeque<>();
+		pending.push(this.start);
+		while (!pending.isEmpty()) {
+			Rule rule = pending.pop();
+			if (!visited.add(rule))
+				continue;
+			if (rule instanceof NonTerminal && names.contains(((NonTerminal) rule).getName()))
+				result.add((NonTerminal) rule);
+			if (rule instanceof Decorator) {
+				pending.push(((Decorator) rule).getRule());
+			} else {
+				for (Rule child : rule) {
+					pending.push(child);
+				}
+			}
+		}
 		return result;
 	}
 }
@@ -0,0 +1,218 @@
+package de.claas.parser;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import de.claas.parser.visitors.Parser;
+
+/**
+ * The class {@link MemoizationProfile}. It is intended to collect how often
+ * {@link de.claas.parser.rules.NonTerminal}s are re-invoked at the same offset
+ * while parsing (see {@link Parser#setProfile(MemoizationProfile)}). Only
+ * re-invocations benefit from memoization (see
+ * {@link Parser#setMemoizedRules(java.util.Collection)}). The profile can be
+ * collected over any number of (warm-up) parses.
+ * <p>
+ * For every rule, the profile reports the trade-off between time and memory:
+ * The time that memoization would save is measured in rule invocations (i.e.
+ * the invocations that were spent on re-invocations). The memory that
+ * memoization would cost is measured in memo entries (i.e. one per offset)
+ * and in the records that would be copied into these entries. A rule is
+ * recommended for memoization if it saves more invocations than it costs
+ * entries and records (see {@link #getRecommendedRules()}).
+ *
+ * @author Claas Ahlrichs
+ */
+public class MemoizationProfile {
+
+	private final Map<String, RuleProfile> rules = new TreeMap<>();
+
+	/**
+	 * Records a single invocation of a non-terminal.
+	 *
+	 * @param name
+	 *            the name of the non-terminal
+	 * @param reinvocation
+	 *            whether the non-terminal was already invoked at the same
+	 *            offset (during the same parse)
+	 * @param invocations
+	 *            the number of rule invocations that were spent on the
+	 *            invocation (including the non-terminal itself)
+	 * @param records
+	 *            the number of records that the invocation produced (i.e.
+	 *            <code>0</code> if it failed)
+	 */
+	public void record(String name, boolean reinvocation, long invocations, int records) {
+		RuleProfile rule = this.rules.get(name);
+		if (rule == null) {
+			rule = new RuleProfile(name);
+			this.rules.put(name, rule);
+		}
+		rule.invocations++;
+		if (reinvocation) {
+			rule.reinvocations++;
+			rule.savedInvocations += invocations;
+		} else {
+			rule.storedRecords += records;
+		}
+	}
+
+	/**
+	 * Returns the profiles of all recorded non-terminals (ordered by name).
+	 *
+	 * @return the profiles of all recorded non-terminals
+	 */
+	public List<RuleProfile> getRules() {
+		return Collections.unmodifiableList(new ArrayList<>(this.rules.values()));
+	}
+
+	/**
+	 * Returns the profile of the non-terminal with the specified name.
+	 *
+	 * @param name
+	 *            the name of the non-terminal
+	 * @return the profile of the non-terminal or <code>null</code> if it was
+	 *         never invoked
+	 */
+	public RuleProfile getRule(String name) {
+		return this.rules.get(name);
+	}
+
+	/**
+	 * Returns the names of the non-terminals that benefit from memoization
+	 * (see {@link RuleProfile#isBeneficial()}).
+	 *
+	 * @return the names of the non-terminals that benefit from memoization
+	 */
+	public Set<String> getRecommendedRules() {
+		Set<String> result = new LinkedHashSet<>();
+		for (RuleProfile rule : this.rules.values()) {
+			if (rule.isBeneficial())
+				result.add(rule.getName());
+		}
+		return result;
+	}
+
+	/**
+	 * Returns a report of the trade-off between time and memory with one
+	 * line per recorded non-terminal.
+	 *
+	 * @return the report
+	 */
+	@Override
+	public String toString() {
+		StringBuilder report = new StringBuilder();
+		report.append(String.format("%-24s %12s %12s %12s %12s %12s %s%n", "rule", "invocations", "reinvocations",
+				"saved", "entries", "records", "memoize"));
+		for (RuleProfile rule : this.rules.values()) {
+			report.append(String.format("%-24s %12d %12d %12d %12d %12d %s%n", rule.getName(),
+					new Long(rule.getInvocations()), new Long(rule.getReinvocations()),
+					new Long(rule.getSavedInvocations()), new Long(rule.getEntries()),
+					new Long(rule.getStoredRecords()), rule.isBeneficial() ? "yes" : "no"));
+		}
+		return report.toString();
+	}
+
+	/**
+	 * The class {@link RuleProfile}. It is intended to hold the profile of a
+	 * single non-terminal (see {@link MemoizationProfile}).
+	 *
+	 * @author Claas Ahlrichs
+	 */
+	public static class RuleProfile {
+
+		private final String name;
+		private long invocations = 0;
+		private long reinvocations = 0;
+		private long savedInvocations = 0;
+		private long storedRecords = 0;
+
+		/**
+		 * Constructs a new {@link RuleProfile} with the specified parameter.
+		 *
+		 * @param name
+		 *            the name of the non-terminal
+		 */
+		RuleProfile(String name) {
+			this.name = name;
+		}
+
+		/**
+		 * Returns the name of the non-terminal.
+		 *
+		 * @return the name of the non-terminal
+		 */
+		public String getName() {
+			return this.name;
+		}
+
+		/**
+		 * Returns the number of invocations of the non-terminal.
+		 *
+		 * @return the number of invocations
+		 */
+		public long getInvocations() {
+			return this.invocations;
+		}
+
+		/**
+		 * Returns the number of invocations at offsets at which the
+		 * non-terminal was already invoked (i.e. invocations that memoization
+		 * would answer).
+		 *
+		 * @return the number of re-invocations
+		 */
+		public long getReinvocations() {
+			return this.reinvocations;
+		}
+
+		/**
+		 * Returns the number of rule invocations that were spent on
+		 * re-invocations (i.e. the time that memoization would save).
+		 *
+		 * @return the number of rule invocations that memoization would save
+		 */
+		public long getSavedInvocations() {
+			return this.savedInvocations;
+		}
+
+		/**
+		 * Returns the number of memo entries (i.e. distinct offsets) that
+		 * memoization would store.
+		 *
+		 * @return the number of memo entries
+		 */
+		public long getEntries() {
+			return this.invocations - this.reinvocations;
+		}
+
+		/**
+		 * Returns the number of records that memoization would copy into its
+		 * entries (i.e. the size of all successfully processed subtrees).
+		 *
+		 * @return the number of stored records
+		 */
+		public long getStoredRecords() {
+			return this.storedRecords;
+		}
+
+		/**
+		 * Returns whether the non-terminal benefits from memoization (i.e. it
+		 * saves more rule invocations than it costs memo entries and
+		 * records).
+		 *
+		 * @return <code>true</code> if the non-terminal benefits from
+		 *         memoization, <code>false</code> otherwise
+		 */
+		public boolean isBeneficial() {
+			return this.savedInvocations > getEntries() + this.storedRecords;
+		}
+
+	}
+
+}
@@ -1,8 +1,11 @@
 package de.claas.parser;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
 
 import de.claas.parser.results.NonTerminalNode;
 import de.claas.parser.results.TerminalNode;
@@ -28,6 +31,13 @@ import de.claas.parser.visitors.NodeHashCode;
  * nodes capture the context in which leaf nodes occurred.
  * <p>
  * The hierarchy of this class resembles the <i>composite</i> design pattern.
+ * <p>
+ * The hash code of a node reflects the whole tree below that node (see
+ * {@link NodeHashCode}). It is cached and maintained incrementally. Every node
+ * knows the nodes it was added to (i.e. its parents). Whenever a node is
+ * modified, the cached hash codes of the node and all of its ancestors are
+ * invalidated. The next time a hash code is needed, only invalidated nodes are
+ * updated.
  * 
  * @author Claas Ahlrichs
  * 
@@ -43,6 +53,20 @@ public abstract class Node implements Iterable<Node> {
 	 */
 	private final List<Node> children = new ArrayList<>();
 
+	/**
+	 * Internal reference to the (first) parent of this node. Parents are
+	 * notified whenever the hash code of this node becomes invalid. Any further
+	 * parents are kept in {@link #otherParents}.
+	 */
+	private Node parent;
+
+	/**
+	 * Internal list of parents besides {@link #parent}. The list is only
+	 * created if this node is added to more than one parent (or more than once
+	 * to the same parent).
+	 */
+	private List<Node> otherParents;
+
 	/**
 	 * Internal flag for signaling that the hash code needs to be updated. The
 	 * actual update is done in a lazy fashion (i.e. hash code is updated the
@@ -50,6 +74,20 @@ public abstract class Node implements Iterable<Node> {
 	 */
 	private boolean invalidHashCode = true;
 
+	/**
+	 * Internal flag for signaling that the cached hash code was determined for
+	 * a tree that contains cycles. Such hash codes are not reused when the hash
+	 * codes of ancestors are updated.
+	 */
+	private boolean cyclicHashCode;
+
+	/**
+	 * Internal flag for signaling that an ancestor cached its hash code while
+	 * the hash code of this node was invalid. Invalidations are passed on to
+	 * the parents of such nodes.
+	 */
+	private boolean propagateInvalidation;
+
 	/**
 	 * Internally cached hash code. The hash code is kept in local storage for
 	 * performance reasons. It will be updated in accordance with the
@@ -68,7 +106,11 @@ public abstract class Node implements Iterable<Node> {
 	 */
 	public boolean addChild(Node node) {
 		invalidateHashCode();
-		return node != null ? this.children.add(node) : false;
+		if (node == null)
+			return false;
+		this.children.add(node);
+		node.addParent(this);
+		return true;
 	}
 
 	/**
@@ -82,7 +124,27 @@ public abstract class Node implements Iterable<Node> {
 	 */
 	public boolean removeChild(Node node) {
 		invalidateHashCode();
-		return this.children.remove(node);
+		int index = this.children.indexOf(node);
+		if (index < 0)
+			return false;
+		this.children.remove(index).removeParent(this);
+		return true;
+	}
+
+	/**
+	 * Removes all (child) nodes. Returns <code>true</code> if any child was
+	 * removed. Otherwise <code>false</code> is returned.
+	 * 
+	 * @return <code>true</code> if any child was removed. <code>false</code>
+	 *         otherwise
+	 */
+	public boolean removeChildren() {
+		invalidateHashCode();
+		boolean hadChildren = !this.children.isEmpty();
+		for (Node child : this.children)
+			child.removeParent(this);
+		this.children.clear();
+		return hadChildren;
 	}
 
 	/**
@@ -111,24 +173,34 @@ public abstract class Node implements Iterable<Node> {
 
 	/**
 	 * Notifies this node that its hash code is invalid. The hash code will be
-	 * lazily updated the time it is needed.
+	 * lazily updated the time it is needed. The notification is passed on to
+	 * all ancestors whose hash code is still valid.
 	 */
 	protected void invalidateHashCode() {
-		this.invalidHashCode = true;
+		List<Node> pending = null;
+		Node node = this;
+		while (node != null) {
+			Node next = null;
+			if (!node.invalidHashCode || node.propagateInvalidation) {
+				node.invalidHashCode = true;
+				node.propagateInvalidation = false;
+				next = node.parent;
+				if (node.otherParents != null) {
+					if (pending == null)
+						pending = new ArrayList<>();
+					pending.addAll(node.otherParents);
+				}
+			}
+			if (next == null && pending != null && !pending.isEmpty())
+				next = pending.remove(pending.size() - 1);
+			node = next;
+		}
 	}
 
 	@Override
 	public int hashCode() {
-		// it is acceptable that the hash code only changes if (local) fields
-		// are changed. This hash code has no way of knowing whether any child
-		// was modified, since this hash code was last updated, and does not
-		// reflect any such changes in any of its children.
-		if (this.invalidHashCode) {
-			NodeHashCode visitor = new NodeHashCode();
-			this.visit(visitor);
-			this.hashCode = visitor.getHashCode();
-			this.invalidHashCode = false;
-		}
+		if (this.invalidHashCode)
+			updateHashCode();
 		return this.hashCode;
 	}
 
@@ -139,4 +211,122 @@ public abstract class Node implements Iterable<Node> {
 		return visitor.isEquality();
 	}
 
+	/**
+	 * A helper function that registers the specified node as parent of this
+	 * node.
+	 * 
+	 * @param node
+	 *            the parent
+	 */
+	private void addParent(Node node) {
+		if (this.parent == null) {
+			this.parent = node;
+		} else {
+			if (this.otherParents == null)
+				this.otherParents = new ArrayList<>(1);
+			this.otherParents.add(node);
+		}
+	}
+
+	/**
+	 * A helper function that unregisters the specified node as parent of this
+	 * node. Parents are compared by identity. Only one registration is removed
+	 * if the specified node was registered more than once.
+	 * 
+	 * @param node
+	 *            the parent
+	 */
+	private void removeParent(Node node) {
+		if (this.parent == node) {
+			this.parent = this.otherParents != null && !this.otherParents.isEmpty()
+					? this.otherParents.remove(this.otherParents.size() - 1) : null;
+		} else if (this.otherParents != null) {
+			for (int i = this.otherParents.size() - 1; i >= 0; i--) {
+				if (this.otherParents.get(i) == node) {
+					this.otherParents.remove(i);
+					break;
+				}
+			}
+		}
+	}
+
+	/**
+	 * A helper function that updates the hash code of this node. The hash code
+	 * of a node is the sum of its own (local) hash code and the hash codes of
+	 * its children. Only nodes with an invalid hash code are updated. The tree
+	 * is processed iteratively (i.e. with an explicit stack rather than Java
+	 * frames). If the tree contains a cycle, the hash code is determined by
+	 * walking the whole tree (see {@link #updateCyclicHashCode()}).
+	 */
+	private void updateHashCode() {
+		NodeHashCode local = new NodeHashCode(false);
+		Set<Node> visitedPath = Collections.newSetFromMap(new IdentityHashMap<>());
+		List<Node> path = new ArrayList<>();
+		List<Iterator<Node>> iterators = new ArrayList<>();
+		Node next = this;
+		while (next != null || !path.isEmpty()) {
+			if (next != null) {
+				int previous = local.getHashCode();
+				next.visit(local);
+				next.hashCode = local.getHashCode() - previous;
+				visitedPath.add(next);
+				path.add(next);
+				iterators.add(next.children.iterator());
+				next = null;
+			}
+
+			int top = path.size() - 1;
+			Node node = path.get(top);
+			Iterator<Node> iterator = iterators.get(top);
+			if (iterator.hasNext()) {
+				Node child = iterator.next();
+				if (!child.invalidHashCode && !child.cyclicHashCode) {
+					node.hashCode += child.hashCode;
+				} else if (child.invalidHashCode && !visitedPath.contains(child)) {
+					next = child;
+				} else {
+					updateCyclicHashCode();
+					return;
+				}
+			} else {
+				path.remove(top);
+				iterators.remove(top);
+				visitedPath.remove(node);
+				node.invalidHashCode = false;
+				node.cyclicHashCode = false;
+				node.propagateInvalidation = false;
+				if (top > 0)
+					path.get(top - 1).hashCode += node.hashCode;
+			}
+		}
+	}
+
+	/**
+	 * A helper function that updates the hash code of this node by walking the
+	 * whole tree (see {@link NodeHashCode}). This is necessary for trees that
+	 * contain cycles. Since nodes below this node may keep invalid hash codes,
+	 * these nodes are marked such that future invalidations are passed on to
+	 * this node.
+	 */
+	private void updateCyclicHashCode() {
+		NodeHashCode visitor = new NodeHashCode();
+		this.visit(visitor);
+
+		Set<Node> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+		List<Node> pending = new ArrayList<>();
+		pending.add(this);
+		while (!pending.isEmpty()) {
+			Node node = pending.remove(pending.size() - 1);
+			if (node.invalidHashCode && visited.add(node)) {
+				node.propagateInvalidation = true;
+				pending.addAll(node.children);
+			}
+		}
+
+		this.hashCode = visitor.getHashCode();
+		this.invalidHashCode = false;
+		this.cyclicHashCode = true;
+		this.propagateInvalidation = false;
+	}
+
 }
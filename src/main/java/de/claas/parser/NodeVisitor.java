@@ -1,6 +1,7 @@
 package de.claas.parser;
 
 import de.claas.parser.exceptions.CyclicNodeException;
+import de.claas.parser.results.ErrorNode;
 import de.claas.parser.results.IntermediateNode;
 import de.claas.parser.results.NonTerminalNode;
 import de.claas.parser.results.TerminalNode;
@@ -42,6 +43,17 @@ public interface NodeVisitor {
 		}
 	}
 
+	/**
+	 * Called by {@link ErrorNode}-nodes. The default implementation treats the
+	 * given node like any other {@link TerminalNode}.
+	 * 
+	 * @param node
+	 *            the node
+	 */
+	default void visitErrorNode(ErrorNode node) {
+		visitTerminalNode(node);
+	}
+
 	/**
 	 * Called by {@link NonTerminalNode}-nodes.
 	 * 
@@ -0,0 +1,80 @@
+package de.claas.parser;
+
+import de.claas.parser.results.ErrorNode;
+import de.claas.parser.results.IntermediateNode;
+import de.claas.parser.results.NonTerminalNode;
+import de.claas.parser.results.TerminalNode;
+
+/**
+ * Superclass of all event-based parse listeners. This class is intended to
+ * receive the derivation of a parsed sentence as a stream of events (rather
+ * than as a tree of {@link Node} instances). Implementations of this class
+ * will process or interpret parsed sentences without materializing them.
+ * <p>
+ * Listeners are only notified about the final (i.e. accepted) derivation.
+ * Speculative work that was discarded while parsing (e.g. alternatives that
+ * were not chosen) is never reported. Events are reported in document order.
+ * Intermediate results (see {@link IntermediateNode}) are not reported.
+ * <p>
+ * Events are reported once the whole data was parsed, since any part of the
+ * derivation may still be discarded by backtracking until then. Thus, the
+ * derivation is kept in a compact form (see
+ * {@link de.claas.parser.results.CompactTreeBuilder}) while parsing, and memory
+ * use still grows with the size of the data. Only the tree of {@link Node}
+ * instances is never created.
+ * 
+ * @author Claas Ahlrichs
+ * 
+ * @see Grammar#parse(String, ParseListener)
+ */
+public interface ParseListener {
+
+	/**
+	 * Called when a non-terminal symbol (see {@link NonTerminalNode}) is
+	 * entered.
+	 * 
+	 * @param name
+	 *            the name of the non-terminal symbol
+	 * @param start
+	 *            the offset at which the non-terminal symbol starts
+	 */
+	void enterNonTerminal(String name, int start);
+
+	/**
+	 * Called when a non-terminal symbol (see {@link NonTerminalNode}) is
+	 * exited. This happens after all of its children were reported.
+	 * 
+	 * @param name
+	 *            the name of the non-terminal symbol
+	 * @param start
+	 *            the offset at which the non-terminal symbol starts
+	 * @param end
+	 *            the offset at which the non-terminal symbol ends (exclusive)
+	 */
+	void exitNonTerminal(String name, int start, int end);
+
+	/**
+	 * Called for terminal symbols (see {@link TerminalNode}).
+	 * 
+	 * @param start
+	 *            the offset at which the terminal symbol starts
+	 * @param end
+	 *            the offset at which the terminal symbol ends (exclusive)
+	 */
+	void terminal(int start, int end);
+
+	/**
+	 * Called for invalid data that was skipped while parsing in recovery mode
+	 * (see {@link ErrorNode}). The default implementation ignores the skipped
+	 * data.
+	 * 
+	 * @param start
+	 *            the offset at which the skipped data starts
+	 * @param end
+	 *            the offset at which the skipped data ends (exclusive)
+	 */
+	default void error(int start, int end) {
+		// ignored by default
+	}
+
+}
@@ -0,0 +1,152 @@
+package de.claas.parser;
+
+import java.util.function.BooleanSupplier;
+
+import de.claas.parser.exceptions.ParserLimitException;
+import de.claas.parser.visitors.Parser;
+
+/**
+ * The class {@link ParserLimits}. It is intended to bound the effort that a
+ * {@link Parser} spends on a single parse. Pathological inputs can cause an
+ * exponential amount of backtracking. Exceeding any of the configured limits
+ * causes the parser to fail quickly with a {@link ParserLimitException}.
+ * <p>
+ * By default, no limits are imposed. The wall-clock deadline and the
+ * cancellation are checked periodically (i.e. every
+ * {@link #getCheckInterval()} rule invocations) in order to keep the overhead
+ * negligible.
+ * 
+ * @author Claas Ahlrichs
+ */
+public class ParserLimits {
+
+	private long maximumInvocations = Long.MAX_VALUE;
+	private long maximumBacktracks = Long.MAX_VALUE;
+	private int maximumDepth = Integer.MAX_VALUE;
+	private long timeout = Long.MAX_VALUE;
+	private BooleanSupplier cancellation = null;
+	private int checkInterval = 1024;
+
+	/**
+	 * Returns the maximum number of rule invocations per parse.
+	 * 
+	 * @return the maximum number of rule invocations per parse
+	 */
+	public long getMaximumInvocations() {
+		return this.maximumInvocations;
+	}
+
+	/**
+	 * Sets the maximum number of rule invocations per parse.
+	 * 
+	 * @param maximumInvocations
+	 *            the maximum number of rule invocations per parse
+	 */
+	public void setMaximumInvocations(long maximumInvocations) {
+		this.maximumInvocations = maximumInvocations;
+	}
+
+	/**
+	 * Returns the maximum number of backtracks (i.e. reverted states) per
+	 * parse.
+	 * 
+	 * @return the maximum number of backtracks per parse
+	 */
+	public long getMaximumBacktracks() {
+		return this.maximumBacktracks;
+	}
+
+	/**
+	 * Sets the maximum number of backtracks (i.e. reverted states) per parse.
+	 * 
+	 * @param maximumBacktracks
+	 *            the maximum number of backtracks per parse
+	 */
+	public void setMaximumBacktracks(long maximumBacktracks) {
+		this.maximumBacktracks = maximumBacktracks;
+	}
+
+	/**
+	 * Returns the maximum depth (i.e. number of nested rule invocations).
+	 * 
+	 * @return the maximum depth
+	 */
+	public int getMaximumDepth() {
+		return this.maximumDepth;
+	}
+
+	/**
+	 * Sets the maximum depth (i.e. number of nested rule invocations). Nested
+	 * rules are kept on the heap (rather than the Java stack) while parsing,
+	 * so this is the only bound on the nesting depth of parsed data.
+	 * 
+	 * @param maximumDepth
+	 *            the maximum depth
+	 */
+	public void setMaximumDepth(int maximumDepth) {
+		this.maximumDepth = maximumDepth;
+	}
+
+	/**
+	 * Returns the wall-clock timeout (in milliseconds) per parse.
+	 * 
+	 * @return the wall-clock timeout (in milliseconds) per parse
+	 */
+	public long getTimeout() {
+		return this.timeout;
+	}
+
+	/**
+	 * Sets the wall-clock timeout (in milliseconds) per parse.
+	 * 
+	 * @param timeout
+	 *            the wall-clock timeout (in milliseconds) per parse
+	 */
+	public void setTimeout(long timeout) {
+		this.timeout = timeout;
+	}
+
+	/**
+	 * Returns the cooperative cancellation (or <code>null</code>). A parse is
+	 * cancelled as soon as the cancellation returns <code>true</code>.
+	 * 
+	 * @return the cooperative cancellation
+	 */
+	public BooleanSupplier getCancellation() {
+		return this.cancellation;
+	}
+
+	/**
+	 * Sets the cooperative cancellation. A parse is cancelled as soon as the
+	 * cancellation returns <code>true</code>.
+	 * 
+	 * @param cancellation
+	 *            the cooperative cancellation or <code>null</code>
+	 */
+	public void setCancellation(BooleanSupplier cancellation) {
+		this.cancellation = cancellation;
+	}
+
+	/**
+	 * Returns the number of rule invocations between two consecutive checks of
+	 * the timeout and the cancellation.
+	 * 
+	 * @return the number of rule invocations between two consecutive checks
+	 */
+	public int getCheckInterval() {
+		return this.checkInterval;
+	}
+
+	/**
+	 * Sets the number of rule invocations between two consecutive checks of
+	 * the timeout and the cancellation.
+	 * 
+	 * @param checkInterval
+	 *            the number of rule invocations between two consecutive
+	 *            checks (at least one)
+	 */
+	public void setCheckInterval(int checkInterval) {
+		this.checkInterval = Math.max(1, checkInterval);
+	}
+
+}
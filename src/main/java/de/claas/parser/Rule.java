@@ -1,8 +1,11 @@
 package de.claas.parser;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
 
 import de.claas.parser.visitors.RuleEquality;
 import de.claas.parser.visitors.RuleHashCode;
@@ -16,6 +19,12 @@ import de.claas.parser.visitors.RuleHashCode;
  * The hierarchy of this class resembles the <i>composite</i> design pattern.
  * This is due to the fact that {@link Grammar} instances can largely be
  * described by a tree of nested (grammar) rules.
+ * <p>
+ * The hash code of a rule reflects all nested rules (see {@link RuleHashCode}).
+ * It is cached and maintained incrementally. Every rule knows the rules it is
+ * nested in (i.e. its parents). Whenever a rule is modified, the cached hash
+ * codes of the rule and all of its ancestors are invalidated. The next time a
+ * hash code is needed, only invalidated rules are updated.
  * 
  * @author Claas Ahlrichs
  * 
@@ -31,6 +40,20 @@ public abstract class Rule implements Iterable<Rule> {
 	 */
 	private final List<Rule> children = new ArrayList<>();
 
+	/**
+	 * Internal reference to the (first) parent of this rule. Parents are
+	 * notified whenever the hash code of this rule becomes invalid. Any further
+	 * parents are kept in {@link #otherParents}.
+	 */
+	private Rule parent;
+
+	/**
+	 * Internal list of parents besides {@link #parent}. The list is only
+	 * created if this rule is nested in more than one parent (or more than
+	 * once in the same parent).
+	 */
+	private List<Rule> otherParents;
+
 	/**
 	 * Internal flag for signaling that the hash code needs to be updated. The
 	 * actual update is done in a lazy fashion (i.e. hash code is updated the
@@ -38,6 +61,20 @@ public abstract class Rule implements Iterable<Rule> {
 	 */
 	private boolean invalidHashCode = true;
 
+	/**
+	 * Internal flag for signaling that the cached hash code was determined for
+	 * rules that contain cycles. Such hash codes are not reused when the hash
+	 * codes of ancestors are updated.
+	 */
+	private boolean cyclicHashCode;
+
+	/**
+	 * Internal flag for signaling that an ancestor cached its hash code while
+	 * the hash code of this rule was invalid. Invalidations are passed on to
+	 * the parents of such rules.
+	 */
+	private boolean propagateInvalidation;
+
 	/**
 	 * Internally cached hash code. The hash code is kept in local storage for
 	 * performance reasons. It will be updated in accordance with the
@@ -70,7 +107,11 @@ public abstract class Rule implements Iterable<Rule> {
 	 */
 	public boolean addChild(Rule rule) {
 		invalidateHashCode();
-		return rule != null && this.children.add(rule);
+		if (rule == null)
+			return false;
+		this.children.add(rule);
+		attachNestedRule(rule);
+		return true;
 	}
 
 	/**
@@ -84,7 +125,11 @@ public abstract class Rule implements Iterable<Rule> {
 	 */
 	public boolean removeChild(Rule rule) {
 		invalidateHashCode();
-		return this.children.remove(rule);
+		int index = this.children.indexOf(rule);
+		if (index < 0)
+			return false;
+		this.children.remove(index).removeParent(this);
+		return true;
 	}
 
 	/**
@@ -112,25 +157,63 @@ public abstract class Rule implements Iterable<Rule> {
 	public abstract void visit(RuleVisitor visitor);
 
 	/**
-	 * Notifies this node that its hash code is invalid. The hash code will be
-	 * lazily updated the time it is needed.
+	 * Returns the rules that are directly nested in this rule (i.e. the rules
+	 * that contribute to the hash code of this rule). By default, these are
+	 * the children of this rule.
+	 * 
+	 * @return the rules that are directly nested in this rule
+	 */
+	protected Iterator<Rule> nestedRules() {
+		return this.children.iterator();
+	}
+
+	/**
+	 * Registers this rule as parent of the specified (nested) rule. Parents
+	 * are notified whenever the hash code of a nested rule becomes invalid.
+	 * 
+	 * @param rule
+	 *            the nested rule
+	 */
+	protected void attachNestedRule(Rule rule) {
+		if (rule.parent == null) {
+			rule.parent = this;
+		} else {
+			if (rule.otherParents == null)
+				rule.otherParents = new ArrayList<>(1);
+			rule.otherParents.add(this);
+		}
+	}
+
+	/**
+	 * Notifies this rule that its hash code is invalid. The hash code will be
+	 * lazily updated the time it is needed. The notification is passed on to
+	 * all ancestors whose hash code is still valid.
 	 */
 	protected void invalidateHashCode() {
-		this.invalidHashCode = true;
+		List<Rule> pending = null;
+		Rule rule = this;
+		while (rule != null) {
+			Rule next = null;
+			if (!rule.invalidHashCode || rule.propagateInvalidation) {
+				rule.invalidHashCode = true;
+				rule.propagateInvalidation = false;
+				next = rule.parent;
+				if (rule.otherParents != null) {
+					if (pending == null)
+						pending = new ArrayList<>();
+					pending.addAll(rule.otherParents);
+				}
+			}
+			if (next == null && pending != null && !pending.isEmpty())
+				next = pending.remove(pending.size() - 1);
+			rule = next;
+		}
 	}
 
 	@Override
 	public int hashCode() {
-		// it is acceptable that the hash code only changes if (local) fields
-		// are changed. This hash code has no way of knowing whether any child
-		// was modified, since this hash code was last updated, and does not
-		// reflect any such changes in any of its children.
-		if (this.invalidHashCode) {
-			RuleHashCode visitor = new RuleHashCode();
-			this.visit(visitor);
-			this.hashCode = visitor.getHashCode();
-			this.invalidHashCode = false;
-		}
+		if (this.invalidHashCode)
+			updateHashCode();
 		return this.hashCode;
 	}
 
@@ -141,4 +224,106 @@ public abstract class Rule implements Iterable<Rule> {
 		return visitor.isEquality();
 	}
 
+	/**
+	 * A helper function that unregisters the specified rule as parent of this
+	 * rule. Parents are compared by identity. Only one registration is removed
+	 * if the specified rule was registered more than once.
+	 * 
+	 * @param rule
+	 *            the parent
+	 */
+	private void removeParent(Rule rule) {
+		if (this.parent == rule) {
+			this.parent = this.otherParents != null && !this.otherParents.isEmpty()
+					? this.otherParents.remove(this.otherParents.size() - 1) : null;
+		} else if (this.otherParents != null) {
+			for (int i = this.otherParents.size() - 1; i >= 0; i--) {
+				if (this.otherParents.get(i) == rule) {
+					this.otherParents.remove(i);
+					break;
+				}
+			}
+		}
+	}
+
+	/**
+	 * A helper function that updates the hash code of this rule. The hash code
+	 * of a rule is the sum of its own (local) hash code and the hash codes of
+	 * its nested rules. Only rules with an invalid hash code are updated. The
+	 * rules are processed iteratively (i.e. with an explicit stack rather than
+	 * Java frames). If the rules contain a cycle, the hash code is determined
+	 * by visiting all nested rules (see {@link #updateCyclicHashCode()}).
+	 */
+	private void updateHashCode() {
+		RuleHashCode local = new RuleHashCode(false);
+		Set<Rule> visitedPath = Collections.newSetFromMap(new IdentityHashMap<>());
+		List<Rule> path = new ArrayList<>();
+		List<Iterator<Rule>> iterators = new ArrayList<>();
+		Rule next = this;
+		while (next != null || !path.isEmpty()) {
+			if (next != null) {
+				int previous = local.getHashCode();
+				next.visit(local);
+				next.hashCode = local.getHashCode() - previous;
+				visitedPath.add(next);
+				path.add(next);
+				iterators.add(next.nestedRules());
+				next = null;
+			}
+
+			int top = path.size() - 1;
+			Rule rule = path.get(top);
+			Iterator<Rule> iterator = iterators.get(top);
+			if (iterator.hasNext()) {
+				Rule child = iterator.next();
+				if (!child.invalidHashCode && !child.cyclicHashCode) {
+					rule.hashCode += child.hashCode;
+				} else if (child.invalidHashCode && !visitedPath.contains(child)) {
+					next = child;
+				} else {
+					updateCyclicHashCode();
+					return;
+				}
+			} else {
+				path.remove(top);
+				iterators.remove(top);
+				visitedPath.remove(rule);
+				rule.invalidHashCode = false;
+				rule.cyclicHashCode = false;
+				rule.propagateInvalidation = false;
+				if (top > 0)
+					path.get(top - 1).hashCode += rule.hashCode;
+			}
+		}
+	}
+
+	/**
+	 * A helper function that updates the hash code of this rule by visiting
+	 * all nested rules (see {@link RuleHashCode}). This is necessary for rules
+	 * that contain cycles. Since nested rules may keep invalid hash codes,
+	 * these rules are marked such that future invalidations are passed on to
+	 * this rule.
+	 */
+	private void updateCyclicHashCode() {
+		RuleHashCode visitor = new RuleHashCode();
+		this.visit(visitor);
+
+		Set<Rule> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+		List<Rule> pending = new ArrayList<>();
+		pending.add(this);
+		while (!pending.isEmpty()) {
+			Rule rule = pending.remove(pending.size() - 1);
+			if (rule.invalidHashCode && visited.add(rule)) {
+				rule.propagateInvalidation = true;
+				for (Iterator<Rule> iterator = rule.nestedRules(); iterator.hasNext();)
+					pending.add(iterator.next());
+			}
+		}
+
+		this.hashCode = visitor.getHashCode();
+		this.invalidHashCode = false;
+		this.cyclicHashCode = true;
+		this.propagateInvalidation = false;
+	}
+
 }
\ No newline at end of file
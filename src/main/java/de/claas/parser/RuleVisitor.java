@@ -1,13 +1,17 @@
 package de.claas.parser;
 
 import de.claas.parser.exceptions.CyclicRuleException;
+import de.claas.parser.rules.AndPredicate;
 import de.claas.parser.rules.CharacterValue;
 import de.claas.parser.rules.Conjunction;
+import de.claas.parser.rules.Cut;
 import de.claas.parser.rules.Disjunction;
 import de.claas.parser.rules.NonTerminal;
+import de.claas.parser.rules.NotPredicate;
 import de.claas.parser.rules.NumberValue;
 import de.claas.parser.rules.Optional;
 import de.claas.parser.rules.Repetition;
+import de.claas.parser.rules.SeparatedRepetition;
 
 /**
  * Superclass of all rule-based visitors. This class is intended to model a
@@ -82,6 +86,50 @@ public interface RuleVisitor {
 	 */
 	void visitRepetition(Repetition rule);
 
+	/**
+	 * Called by {@link SeparatedRepetition}-rules.
+	 * 
+	 * @param rule
+	 *            the rule
+	 * @throws CyclicRuleException
+	 *             if the visited rule is part of a cyclic graph (i.e. the rule
+	 *             references itself either directly or indirectly) and if this
+	 *             cannot be handled by the visitor
+	 */
+	void visitSeparatedRepetition(SeparatedRepetition rule);
+
+	/**
+	 * Called by {@link AndPredicate}-rules.
+	 * 
+	 * @param rule
+	 *            the rule
+	 * @throws CyclicRuleException
+	 *             if the visited rule is part of a cyclic graph (i.e. the rule
+	 *             references itself either directly or indirectly) and if this
+	 *             cannot be handled by the visitor
+	 */
+	void visitAndPredicate(AndPredicate rule);
+
+	/**
+	 * Called by {@link NotPredicate}-rules.
+	 * 
+	 * @param rule
+	 *            the rule
+	 * @throws CyclicRuleException
+	 *             if the visited rule is part of a cyclic graph (i.e. the rule
+	 *             references itself either directly or indirectly) and if this
+	 *             cannot be handled by the visitor
+	 */
+	void visitNotPredicate(NotPredicate rule);
+
+	/**
+	 * Called by {@link Cut}-rules.
+	 * 
+	 * @param rule
+	 *            the rule
+	 */
+	void visitCut(Cut rule);
+
 	/**
 	 * Called by {@link CharacterValue}-rules.
 	 * 
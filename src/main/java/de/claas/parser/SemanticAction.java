@@ -0,0 +1,43 @@
+package de.claas.parser;
+
+import java.util.List;
+
+import de.claas.parser.rules.NonTerminal;
+
+/**
+ * Superclass of all semantic actions. This class is intended to model an
+ * action that is executed while parsing (rather than after parsing) whenever a
+ * {@link NonTerminal} rule was successfully processed. The action computes the
+ * value of the non-terminal symbol from the processed data and from the values
+ * of its descendants, in the style of an attribute grammar (i.e. values are
+ * passed up the derivation).
+ * <p>
+ * Actions may be executed for speculative work (e.g. alternatives that are
+ * eventually discarded). As such, actions should not have side-effects.
+ * 
+ * @author Claas Ahlrichs
+ * 
+ * @param <R>
+ *            the type of value
+ * @see SemanticActions
+ */
+@FunctionalInterface
+public interface SemanticAction<R> {
+
+	/**
+	 * Returns the value of a non-terminal symbol.
+	 * 
+	 * @param data
+	 *            the data that is being parsed
+	 * @param start
+	 *            the offset at which the non-terminal symbol starts
+	 * @param end
+	 *            the offset at which the non-terminal symbol ends (exclusive)
+	 * @param values
+	 *            the values of the closest descendants that have an action (in
+	 *            document order)
+	 * @return the value of the non-terminal symbol
+	 */
+	R apply(String data, int start, int end, List<R> values);
+
+}
@@ -0,0 +1,52 @@
+package de.claas.parser;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import de.claas.parser.rules.NonTerminal;
+
+/**
+ * The class {@link SemanticActions}. It is intended to attach
+ * {@link SemanticAction}s to {@link NonTerminal} rules (by name). Non-terminal
+ * symbols without an action pass the values of their descendants on to their
+ * parents.
+ * 
+ * @author Claas Ahlrichs
+ * 
+ * @param <R>
+ *            the type of value
+ * @see Grammar#evaluate(String, SemanticActions)
+ */
+public class SemanticActions<R> {
+
+	private final Map<String, SemanticAction<R>> actions = new HashMap<>();
+
+	/**
+	 * Attaches the specified action to all non-terminal symbols with the given
+	 * name. Any previously attached action is replaced.
+	 * 
+	 * @param name
+	 *            the name of the non-terminal symbols
+	 * @param action
+	 *            the action
+	 * @return this instance
+	 */
+	public SemanticActions<R> put(String name, SemanticAction<R> action) {
+		this.actions.put(name, action);
+		return this;
+	}
+
+	/**
+	 * Returns the action that is attached to non-terminal symbols with the
+	 * specified name. Returns <code>null</code> if no action is attached.
+	 * 
+	 * @param name
+	 *            the name of the non-terminal symbols
+	 * @return the action that is attached to non-terminal symbols with the
+	 *         specified name
+	 */
+	public SemanticAction<R> get(String name) {
+		return this.actions.get(name);
+	}
+
+}
@@ -99,6 +99,30 @@ public class State {
 		return null;
 	}
 
+	/**
+	 * Returns the processed data if the specified number of characters was
+	 * successfully processed (regardless of their values). Otherwise (i.e. if
+	 * less data remains), <code>null</code> is returned.
+	 * 
+	 * @param length
+	 *            the number of characters
+	 * 
+	 * @return the processed data if the specified number of characters was
+	 *         successfully processed, otherwise <code>null</code>
+	 */
+	public String skip(int length) {
+		if (length < 0 || this.offset + length > this.data.length())
+			return null;
+
+		String actualToken = this.data.substring(this.offset, this.offset + length);
+		this.offset += length;
+		if (!this.steps.isEmpty()) {
+			int sum = this.steps.pop().intValue() + length;
+			this.steps.push(new Integer(sum));
+		}
+		return actualToken;
+	}
+
 	/**
 	 * Returns the unprocessed data of this state. An empty string is returned
 	 * if all data were processed. The returned string is the trailing part of
@@ -126,6 +150,17 @@ public class State {
 		return this.data.substring(0, this.offset);
 	}
 
+	/**
+	 * Returns the offset of this state. The offset corresponds to the number of
+	 * processed characters (i.e. it equals the length of
+	 * {@link #getProcessedData()} without creating that string).
+	 * 
+	 * @return the offset of this state
+	 */
+	public int getOffset() {
+		return this.offset;
+	}
+
 	/**
 	 * Returns the data that is being processed by this state. The returned data
 	 * corresponds to what was specified during construction. While the data is
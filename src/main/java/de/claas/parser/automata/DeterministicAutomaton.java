@@ -0,0 +1,389 @@
+package de.claas.parser.automata;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The class {@link DeterministicAutomaton}. It is intended to match data
+ * against a regular language by means of a deterministic finite automaton.
+ * Instances are created by {@link NondeterministicAutomaton}s (see
+ * {@link NondeterministicAutomaton#determinize(int, int, int)}).
+ * <p>
+ * The alphabet is compressed into classes of characters (i.e. characters
+ * that this automaton does not distinguish). The class of ASCII characters is
+ * looked up in a table, the class of any other character is looked up by a
+ * binary search. Transitions are kept in a single table with one row per
+ * state and one column per class. Matching is greedy (i.e. the longest
+ * accepted prefix of the data is matched, see
+ * {@link #match(CharSequence, int)}). Accepting states tell which of the
+ * converted fragments they accept (see {@link #getAccepted(int)}).
+ * <p>
+ * While matching, the terminal symbols that fail at the farthest offset can
+ * be tracked (see {@link #match(CharSequence, int, FarthestFailure)}). They
+ * are kept in a second table with one set of failing terminal symbols per
+ * state and class.
+ * <p>
+ * Runs of ASCII characters that do not change the state (e.g. white space or
+ * the body of a comment) are skipped eight characters at a time if the data is
+ * a {@link PackedText} (see {@link #skip(int, CharSequence, int)}).
+ * <p>
+ * Instances of this class are immutable. Thus, they can be shared between
+ * threads.
+ *
+ * @author Claas Ahlrichs
+ */
+public class DeterministicAutomaton {
+
+	private static final int ASCII = 128;
+	private static final int MAXIMUM_LOOP_RANGES = 4;
+	private static final byte NO_LOOP_FAILURES = 0;
+	private static final byte ALL_LOOP_FAILURES = 1;
+	private static final byte SOME_LOOP_FAILURES = 2;
+
+	private final int[] segmentStarts;
+	private final int[] segmentClasses;
+	private final int[] asciiClasses = new int[ASCII];
+	private final int classes;
+	private final int[] transitions;
+	private final int[] accepted;
+	private final long[][] loops;
+	private final int[] failures;
+	private final int[] endFailures;
+	private final int[][] failureSets;
+	private final byte[] loopFailures;
+	private final int maximumPosition;
+
+	/**
+	 * Constructs a new {@link DeterministicAutomaton} with the specified
+	 * parameters. The first state is the start state.
+	 *
+	 * @param segmentStarts
+	 *            the sorted first characters of the segments of characters
+	 *            (starting with <code>0</code>)
+	 * @param segmentClasses
+	 *            the class of each segment of characters
+	 * @param classes
+	 *            the number of classes
+	 * @param transitions
+	 *            the transitions (i.e. one row per state and one column per
+	 *            class). A transition of <code>-1</code> fails
+	 * @param accepted
+	 *            the fragment that each of the states accepts or
+	 *            <code>-1</code> if a state is not accepting
+	 * @param failures
+	 *            the index of the set of failing terminal symbols (i.e. one
+	 *            row per state and one column per class) or <code>-1</code>
+	 *            if no terminal symbol fails
+	 * @param endFailures
+	 *            the index of the set of terminal symbols that fail at the end
+	 *            of the data (i.e. one per state) or <code>-1</code> if no
+	 *            terminal symbol fails
+	 * @param failureSets
+	 *            the sets of failing terminal symbols (i.e. pairs of origin
+	 *            and position that are ordered by position)
+	 */
+	DeterministicAutomaton(int[] segmentStarts, int[] segmentClasses, int classes, int[] transitions,
+			int[] accepted, int[] failures, int[] endFailures, int[][] failureSets) {
+		this.segmentStarts = segmentStarts;
+		this.segmentClasses = segmentClasses;
+		this.classes = classes;
+		this.transitions = transitions;
+		this.accepted = accepted;
+		this.failures = failures;
+		this.endFailures = endFailures;
+		this.failureSets = failureSets;
+		for (char c = 0; c < ASCII; c++)
+			this.asciiClasses[c] = lookup(c);
+		this.loops = new long[accepted.length][];
+		this.loopFailures = new byte[accepted.length];
+		for (int state = 0; state < accepted.length; state++) {
+			this.loops[state] = loop(state);
+			this.loopFailures[state] = loopFailures(state);
+		}
+		int position = 0;
+		for (int[] set : failureSets) {
+			for (int i = 1; i < set.length; i += 2)
+				position = Math.max(position, set[i]);
+		}
+		this.maximumPosition = position;
+	}
+
+	/**
+	 * Returns the number of states.
+	 *
+	 * @return the number of states
+	 */
+	public int getNumberOfStates() {
+		return this.accepted.length;
+	}
+
+	/**
+	 * Returns the number of classes of characters (i.e. the size of the
+	 * compressed alphabet).
+	 *
+	 * @return the number of classes of characters
+	 */
+	public int getNumberOfClasses() {
+		return this.classes;
+	}
+
+	/**
+	 * Returns the class of the specified character.
+	 *
+	 * @param c
+	 *            the character
+	 * @return the class of the specified character
+	 */
+	public int getClassOf(char c) {
+		return c < ASCII ? this.asciiClasses[c] : lookup(c);
+	}
+
+	/**
+	 * Returns whether the specified state is accepting.
+	 *
+	 * @param state
+	 *            the state
+	 * @return <code>true</code> if the specified state is accepting,
+	 *         <code>false</code> otherwise
+	 */
+	public boolean isAccepting(int state) {
+		return this.accepted[state] >= 0;
+	}
+
+	/**
+	 * Returns the index of the fragment that the specified state accepts (see
+	 * {@link NondeterministicAutomaton#determinize(int, int[], int)}). If a
+	 * state accepts several fragments, then the first one is returned.
+	 * Returns <code>-1</code> if the specified state is not accepting.
+	 *
+	 * @param state
+	 *            the state
+	 * @return the index of the accepted fragment or <code>-1</code>
+	 */
+	public int getAccepted(int state) {
+		return this.accepted[state];
+	}
+
+	/**
+	 * Returns the state that follows the specified state for the specified
+	 * class of characters. Returns <code>-1</code> if the class of characters
+	 * is not accepted in the specified state.
+	 *
+	 * @param state
+	 *            the state
+	 * @param c
+	 *            the class of characters
+	 * @return the following state or <code>-1</code>
+	 */
+	public int getTransition(int state, int c) {
+		return this.transitions[state * this.classes + c];
+	}
+
+	/**
+	 * Returns the end of the run of characters (starting at the specified
+	 * offset) that do not change the specified state (i.e. the state loops on
+	 * these characters). Returns the specified offset if the character at the
+	 * offset changes the state. Runs of ASCII characters are skipped eight
+	 * characters at a time if the data is a {@link PackedText}.
+	 *
+	 * @param state
+	 *            the state
+	 * @param data
+	 *            the data
+	 * @param offset
+	 *            the offset at which the run starts
+	 * @return the (exclusive) end of the run
+	 */
+	public int skip(int state, CharSequence data, int offset) {
+		long[] bounds = this.loops[state];
+		PackedText text = bounds != null && data instanceof PackedText ? (PackedText) data : null;
+		int length = data.length();
+		int i = offset;
+		while (i < length) {
+			if (text != null)
+				i = text.skip(i, bounds);
+			if (i >= length || getTransition(state, getClassOf(data.charAt(i))) != state)
+				break;
+			i++;
+		}
+		return i;
+	}
+
+	/**
+	 * Returns the (exclusive) end of the longest prefix of the specified data
+	 * (starting at the specified offset) that is accepted by this automaton.
+	 * Returns <code>-1</code> if no prefix (not even the empty one) is
+	 * accepted. Runs of characters that do not change the state are skipped
+	 * by words if the data is a {@link PackedText} (see
+	 * {@link #skip(int, CharSequence, int)}).
+	 *
+	 * @param data
+	 *            the data
+	 * @param offset
+	 *            the offset at which matching starts
+	 * @return the end of the longest accepted prefix or <code>-1</code>
+	 */
+	public int match(CharSequence data, int offset) {
+		int state = 0;
+		int end = this.accepted[0] >= 0 ? offset : -1;
+		int length = data.length();
+		boolean packed = data instanceof PackedText;
+		for (int i = offset; i < length; i++) {
+			char c = data.charAt(i);
+			int next = this.transitions[state * this.classes + (c < ASCII ? this.asciiClasses[c] : lookup(c))];
+			if (next < 0)
+				break;
+			if (packed && next == state && this.loops[state] != null)
+				i = skip(state, data, i + 1) - 1;
+			state = next;
+			if (this.accepted[state] >= 0)
+				end = i + 1;
+		}
+		return end;
+	}
+
+	/**
+	 * Returns the (exclusive) end of the longest prefix of the specified data
+	 * (starting at the specified offset) that is accepted by this automaton
+	 * (see {@link #match(CharSequence, int)}). Additionally, the terminal
+	 * symbols that fail at the farthest offset are added to the specified
+	 * failure (i.e. a terminal symbol fails at the offset at which it
+	 * started). Matching continues beyond the longest accepted prefix until
+	 * no transition applies, so that failures beyond the returned end are
+	 * tracked as well. Runs of characters that do not change the state are
+	 * still skipped by words, unless only some of their characters make a
+	 * terminal symbol fail.
+	 *
+	 * @param data
+	 *            the data
+	 * @param offset
+	 *            the offset at which matching starts
+	 * @param failure
+	 *            the failure to which failing terminal symbols are added
+	 * @return the end of the longest accepted prefix or <code>-1</code>
+	 */
+	public int match(CharSequence data, int offset, FarthestFailure failure) {
+		int state = 0;
+		int end = this.accepted[0] >= 0 ? offset : -1;
+		int length = data.length();
+		boolean packed = data instanceof PackedText;
+		int i = offset;
+		for (; i < length; i++) {
+			char c = data.charAt(i);
+			int index = state * this.classes + (c < ASCII ? this.asciiClasses[c] : lookup(c));
+			if (this.failures[index] >= 0)
+				fail(failure, this.failureSets[this.failures[index]], i);
+			int next = this.transitions[index];
+			if (next < 0)
+				break;
+			if (packed && next == state && this.loops[state] != null
+					&& this.loopFailures[state] != SOME_LOOP_FAILURES) {
+				int run = skip(state, data, i + 1);
+				if (this.loopFailures[state] == ALL_LOOP_FAILURES) {
+					// earlier characters of the run fail at nearer offsets
+					for (int j = Math.max(i + 1, run - 1 - this.maximumPosition); j < run; j++)
+						fail(failure, this.failureSets[this.failures[state * this.classes + getClassOf(data.charAt(j))]],
+								j);
+				}
+				i = run - 1;
+			}
+			state = next;
+			if (this.accepted[state] >= 0)
+				end = i + 1;
+		}
+		if (i >= length && this.endFailures[state] >= 0)
+			fail(failure, this.failureSets[this.endFailures[state]], length);
+		return end;
+	}
+
+	/**
+	 * A helper function that adds the terminal symbols of the specified set to
+	 * the specified failure. The terminal symbols could not process the
+	 * character at the specified offset.
+	 *
+	 * @param failure
+	 *            the failure
+	 * @param set
+	 *            the set of failing terminal symbols (i.e. pairs of origin
+	 *            and position that are ordered by position)
+	 * @param offset
+	 *            the offset of the character that could not be processed
+	 */
+	private static void fail(FarthestFailure failure, int[] set, int offset) {
+		if (offset - set[1] < failure.getOffset())
+			return;
+		for (int i = 0; i < set.length; i += 2)
+			failure.add(offset - set[i + 1], set[i]);
+	}
+
+	/**
+	 * A helper function that returns whether none, all or only some of the
+	 * classes of characters that do not change the specified state make a
+	 * terminal symbol fail.
+	 *
+	 * @param state
+	 *            the state
+	 * @return {@link #NO_LOOP_FAILURES}, {@link #ALL_LOOP_FAILURES} or
+	 *         {@link #SOME_LOOP_FAILURES}
+	 */
+	private byte loopFailures(int state) {
+		boolean none = true;
+		boolean all = true;
+		for (int c = 0; c < this.classes; c++) {
+			if (getTransition(state, c) != state)
+				continue;
+			if (this.failures[state * this.classes + c] >= 0)
+				none = false;
+			else
+				all = false;
+		}
+		return none ? NO_LOOP_FAILURES : all ? ALL_LOOP_FAILURES : SOME_LOOP_FAILURES;
+	}
+
+	/**
+	 * A helper function that returns the bounds (see
+	 * {@link PackedText#bounds(int[])}) of the ASCII characters that do not
+	 * change the specified state. Returns <code>null</code> if there are no
+	 * such characters or if they form too many ranges.
+	 *
+	 * @param state
+	 *            the state
+	 * @return the bounds of the ASCII characters that do not change the state
+	 *         or <code>null</code>
+	 */
+	private long[] loop(int state) {
+		List<Integer> ranges = new ArrayList<>();
+		for (int c = 0; c < ASCII; c++) {
+			if (getTransition(state, this.asciiClasses[c]) != state)
+				continue;
+			int size = ranges.size();
+			if (size > 0 && ranges.get(size - 1).intValue() == c - 1)
+				ranges.set(size - 1, new Integer(c));
+			else {
+				ranges.add(new Integer(c));
+				ranges.add(new Integer(c));
+			}
+		}
+		if (ranges.isEmpty() || ranges.size() > 2 * MAXIMUM_LOOP_RANGES)
+			return null;
+		int[] pairs = new int[ranges.size()];
+		for (int i = 0; i < pairs.length; i++)
+			pairs[i] = ranges.get(i).intValue();
+		return PackedText.bounds(pairs);
+	}
+
+	/**
+	 * A helper function that looks up the class of the specified character by
+	 * means of a binary search.
+	 *
+	 * @param c
+	 *            the character
+	 * @return the class of the specified character
+	 */
+	private int lookup(char c) {
+		int segment = Arrays.binarySearch(this.segmentStarts, c);
+		return this.segmentClasses[segment >= 0 ? segment : -segment - 2];
+	}
+
+}
@@ -0,0 +1,97 @@
+package de.claas.parser.automata;
+
+import java.util.Arrays;
+
+/**
+ * The class {@link FarthestFailure}. It is intended to collect the terminal
+ * symbols that failed at the farthest offset while a
+ * {@link DeterministicAutomaton} matched data (see
+ * {@link DeterministicAutomaton#match(CharSequence, int, FarthestFailure)}).
+ * Terminal symbols are identified by the origins of their transitions (see
+ * {@link NondeterministicAutomaton#addTransition(int, int[], int, int, int)}).
+ * A terminal symbol fails at the offset at which it started (i.e. not at the
+ * offset of the character that could not be processed).
+ * <p>
+ * Origins are kept in ascending order without duplicates. Thus, terminal
+ * symbols are reported in the order in which they were added to the
+ * nondeterministic automaton if origins are assigned in that order.
+ *
+ * @author Claas Ahlrichs
+ */
+public class FarthestFailure {
+
+	private int offset = -1;
+	private int[] origins = new int[4];
+	private int size = 0;
+
+	/**
+	 * Forgets all failures.
+	 */
+	public void reset() {
+		this.offset = -1;
+		this.size = 0;
+	}
+
+	/**
+	 * Returns the farthest offset at which a terminal symbol failed. Returns
+	 * <code>-1</code> if no terminal symbol failed.
+	 *
+	 * @return the farthest offset or <code>-1</code>
+	 */
+	public int getOffset() {
+		return this.offset;
+	}
+
+	/**
+	 * Returns the number of terminal symbols that failed at the farthest
+	 * offset.
+	 *
+	 * @return the number of terminal symbols
+	 */
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * Returns the origin of the terminal symbol that failed at the farthest
+	 * offset with the specified index (in ascending order of origins).
+	 *
+	 * @param index
+	 *            the index
+	 * @return the origin of the terminal symbol
+	 */
+	public int getOrigin(int index) {
+		if (index < 0 || index >= this.size)
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.size);
+		return this.origins[index];
+	}
+
+	/**
+	 * Records that the terminal symbol with the specified origin failed at the
+	 * specified offset. The failure is ignored if a terminal symbol already
+	 * failed at a farther offset.
+	 *
+	 * @param offset
+	 *            the offset at which the terminal symbol started
+	 * @param origin
+	 *            the origin of the terminal symbol
+	 */
+	public void add(int offset, int origin) {
+		if (offset < this.offset)
+			return;
+		if (offset > this.offset) {
+			this.offset = offset;
+			this.size = 0;
+		}
+		int index = Arrays.binarySearch(this.origins, 0, this.size, origin);
+		if (index >= 0)
+			return;
+		index = -index - 1;
+		if (this.size == this.origins.length)
+			this.origins = Arrays.copyOf(this.origins, this.size * 2);
+		System.arraycopy(this.origins, index, this.origins, index + 1, this.size - index);
+		this.origins[index] = origin;
+		this.size++;
+	}
+
+}
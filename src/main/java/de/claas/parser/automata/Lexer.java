@@ -0,0 +1,143 @@
+package de.claas.parser.automata;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import de.claas.parser.rules.NonTerminal;
+
+/**
+ * The class {@link Lexer}. It is intended to split data into tokens (see
+ * {@link Tokens}) by means of a single {@link DeterministicAutomaton} that was
+ * generated from a list of lexical {@link NonTerminal}s (see
+ * {@link de.claas.parser.visitors.RegularSubgrammars#createLexer(List)}).
+ * <p>
+ * The token at any offset is the longest prefix of the data (starting at the
+ * offset) that is described by any of the lexical non-terminals (i.e. maximal
+ * munch). If several lexical non-terminals describe the longest prefix, then
+ * the non-terminal that comes first in the list takes precedence. The index
+ * of a lexical non-terminal in the list is the kind of its tokens (see
+ * {@link #getKind(NonTerminal)}).
+ * <p>
+ * Instances of this class are immutable. Thus, they can be shared between
+ * threads.
+ *
+ * @author Claas Ahlrichs
+ */
+public class Lexer {
+
+	private final List<NonTerminal> rules;
+	private final Map<NonTerminal, Integer> kinds = new IdentityHashMap<>();
+	private final List<Set<String>> nestedNames = new ArrayList<>();
+	private final DeterministicAutomaton automaton;
+	private final boolean caseInsensitive;
+
+	/**
+	 * Constructs a new {@link Lexer} with the specified parameters. The
+	 * automaton must accept the index of the lexical non-terminal that
+	 * describes the matched data (see
+	 * {@link DeterministicAutomaton#getAccepted(int)}).
+	 *
+	 * @param rules
+	 *            the lexical non-terminals
+	 * @param nestedNames
+	 *            the names of the non-terminals that are nested in each of
+	 *            the lexical non-terminals
+	 * @param automaton
+	 *            the automaton
+	 * @param caseInsensitive
+	 *            whether any of the lexical non-terminals contains
+	 *            case-insensitive terminals
+	 */
+	public Lexer(List<NonTerminal> rules, List<Set<String>> nestedNames, DeterministicAutomaton automaton,
+			boolean caseInsensitive) {
+		if (rules.size() != nestedNames.size())
+			throw new IllegalArgumentException("Nested names are required for every lexical rule.");
+		this.rules = Collections.unmodifiableList(new ArrayList<>(rules));
+		for (int kind = 0; kind < rules.size(); kind++) {
+			this.kinds.putIfAbsent(rules.get(kind), new Integer(kind));
+			this.nestedNames.add(Collections.unmodifiableSet(new LinkedHashSet<>(nestedNames.get(kind))));
+		}
+		this.automaton = automaton;
+		this.caseInsensitive = caseInsensitive;
+	}
+
+	/**
+	 * Returns the lexical non-terminals (in the order of precedence).
+	 *
+	 * @return the lexical non-terminals
+	 */
+	public List<NonTerminal> getRules() {
+		return this.rules;
+	}
+
+	/**
+	 * Returns the kind of the tokens of the specified non-terminal (i.e. its
+	 * index in the list of lexical non-terminals). Returns <code>-1</code> if
+	 * the specified non-terminal is not lexical.
+	 *
+	 * @param rule
+	 *            the non-terminal
+	 * @return the kind of the tokens of the specified non-terminal or
+	 *         <code>-1</code>
+	 */
+	public int getKind(NonTerminal rule) {
+		Integer kind = this.kinds.get(rule);
+		return kind == null ? -1 : kind.intValue();
+	}
+
+	/**
+	 * Returns the names of the non-terminals that are nested in the specified
+	 * lexical non-terminal (see
+	 * {@link de.claas.parser.visitors.RegularSubgrammars#getNestedNames(NonTerminal)}).
+	 *
+	 * @param rule
+	 *            the lexical non-terminal
+	 * @return the names of the nested non-terminals
+	 */
+	public Set<String> getNestedNames(NonTerminal rule) {
+		int kind = getKind(rule);
+		return kind < 0 ? Collections.emptySet() : this.nestedNames.get(kind);
+	}
+
+	/**
+	 * Returns the automaton that matches the tokens.
+	 *
+	 * @return the automaton that matches the tokens
+	 */
+	public DeterministicAutomaton getAutomaton() {
+		return this.automaton;
+	}
+
+	/**
+	 * Returns <code>true</code> if any of the lexical non-terminals contains
+	 * case-insensitive terminals. Such terminals are compared against the
+	 * upper case data (see {@link String#toUpperCase()}). Thus, this lexer
+	 * only applies to data whose upper case has the same length.
+	 *
+	 * @return <code>true</code> if any lexical non-terminal contains
+	 *         case-insensitive terminals, <code>false</code> otherwise
+	 */
+	public boolean isCaseInsensitive() {
+		return this.caseInsensitive;
+	}
+
+	/**
+	 * Splits the specified data into tokens. Returns <code>null</code> if this
+	 * lexer does not apply to the data (see {@link #isCaseInsensitive()}).
+	 *
+	 * @param data
+	 *            the data
+	 * @return the tokens of the specified data or <code>null</code>
+	 */
+	public Tokens tokenize(String data) {
+		if (this.caseInsensitive && data.toUpperCase().length() != data.length())
+			return null;
+		return new Tokens(this, data);
+	}
+
+}
@@ -0,0 +1,789 @@
+package de.claas.parser.automata;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * The class {@link NondeterministicAutomaton}. It is intended to build a
+ * nondeterministic finite automaton over characters (i.e. states that are
+ * connected by epsilon transitions and by transitions that are labeled with
+ * sets of characters). Fragments of the automaton (i.e. a start state and an
+ * accepting state) can be converted into {@link DeterministicAutomaton}s by
+ * means of the subset construction (see
+ * {@link #determinize(int, int, int)}).
+ * <p>
+ * Sets of characters are specified as sorted, disjoint and inclusive ranges
+ * (e.g. <code>{'0', '9', 'a', 'f'}</code>). Internally, all characters are
+ * partitioned into equivalence classes (i.e. characters that are contained in
+ * exactly the same sets). Thus, the subset construction considers classes of
+ * characters rather than individual characters.
+ * <p>
+ * Transitions that leave the accepting state of a fragment are ignored while
+ * the fragment is analyzed or converted. Thus, fragments can be analyzed
+ * independently of the fragments that follow them. Several fragments that
+ * share a start state can be converted at once (see
+ * {@link #determinize(int, int[], int)}). This is useful for lexers, which
+ * have to tell which of their tokens was matched.
+ * <p>
+ * Transitions can be attributed to the terminal symbols from which they
+ * originate (see {@link #addTransition(int, int[], int, int, int)}). The
+ * converted automaton then tells which terminal symbols failed at the farthest
+ * offset (see {@link FarthestFailure}).
+ *
+ * @author Claas Ahlrichs
+ */
+public class NondeterministicAutomaton {
+
+	private static final int INITIAL_CAPACITY = 16;
+
+	private final List<int[]> sets = new ArrayList<>();
+	private final List<int[]> origins = new ArrayList<>();
+	private int[][] labels = new int[INITIAL_CAPACITY][];
+	private int[][] targets = new int[INITIAL_CAPACITY][];
+	private int[] counts = new int[INITIAL_CAPACITY];
+	private int size = 0;
+	private int[] segmentStarts;
+	private int[] segmentClasses;
+	private int[][] setClasses;
+	private int classes;
+
+	/**
+	 * Adds and returns a new state.
+	 *
+	 * @return the new state
+	 */
+	public int addState() {
+		if (this.size == this.counts.length) {
+			int capacity = this.size * 2;
+			this.labels = Arrays.copyOf(this.labels, capacity);
+			this.targets = Arrays.copyOf(this.targets, capacity);
+			this.counts = Arrays.copyOf(this.counts, capacity);
+		}
+		this.labels[this.size] = new int[2];
+		this.targets[this.size] = new int[2];
+		return this.size++;
+	}
+
+	/**
+	 * Returns the number of states.
+	 *
+	 * @return the number of states
+	 */
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * Adds an epsilon transition (i.e. a transition that does not process any
+	 * character) between the specified states.
+	 *
+	 * @param from
+	 *            the source state
+	 * @param to
+	 *            the target state
+	 */
+	public void addEpsilon(int from, int to) {
+		addEdge(from, -1, to);
+	}
+
+	/**
+	 * Adds a transition between the specified states that processes any of
+	 * the specified characters.
+	 *
+	 * @param from
+	 *            the source state
+	 * @param ranges
+	 *            the sorted, disjoint and inclusive ranges of characters (i.e.
+	 *            pairs of first and last character)
+	 * @param to
+	 *            the target state
+	 * @throws IllegalArgumentException
+	 *             if the ranges are not sorted, disjoint and inclusive
+	 */
+	public void addTransition(int from, int[] ranges, int to) {
+		addTransition(from, ranges, to, -1, 0);
+	}
+
+	/**
+	 * Adds a transition between the specified states that processes any of
+	 * the specified characters. The transition originates from the specified
+	 * terminal symbol (i.e. it processes the character of the terminal symbol
+	 * at the specified position). The terminal symbol fails if the transition
+	 * cannot process the next character (see {@link FarthestFailure}). The
+	 * set of characters may be empty (i.e. the terminal symbol always fails).
+	 *
+	 * @param from
+	 *            the source state
+	 * @param ranges
+	 *            the sorted, disjoint and inclusive ranges of characters (i.e.
+	 *            pairs of first and last character)
+	 * @param to
+	 *            the target state
+	 * @param origin
+	 *            the (non-negative) origin of the transition or
+	 *            <code>-1</code> if it is not attributed to a terminal symbol
+	 * @param position
+	 *            the position of the processed character within the terminal
+	 *            symbol
+	 * @throws IllegalArgumentException
+	 *             if the ranges are not sorted, disjoint and inclusive
+	 */
+	public void addTransition(int from, int[] ranges, int to, int origin, int position) {
+		if (ranges.length % 2 != 0)
+			throw new IllegalArgumentException("Ranges must consist of pairs of characters.");
+		int previous = -1;
+		for (int i = 0; i < ranges.length; i += 2) {
+			if (ranges[i] <= previous || ranges[i] > ranges[i + 1] || ranges[i + 1] > Character.MAX_VALUE)
+				throw new IllegalArgumentException("Ranges must be sorted, disjoint and inclusive.");
+			previous = ranges[i + 1];
+		}
+		this.sets.add(ranges.clone());
+		this.origins.add(origin < 0 ? null : new int[] { origin, position });
+		this.segmentStarts = null;
+		addEdge(from, this.sets.size() - 1, to);
+	}
+
+	/**
+	 * Returns whether the fragment with the specified start and accepting
+	 * state accepts the empty string.
+	 *
+	 * @param start
+	 *            the start state of the fragment
+	 * @param accept
+	 *            the accepting state of the fragment
+	 * @return <code>true</code> if the fragment accepts the empty string,
+	 *         <code>false</code> otherwise
+	 */
+	public boolean isNullable(int start, int accept) {
+		return closure(singleton(start), singleton(accept)).get(accept);
+	}
+
+	/**
+	 * Returns the classes of characters (see {@link #getClassOf(char)}) with
+	 * which any non-empty string that is accepted by the specified fragment
+	 * starts. Returns <code>null</code> if the fragment's deterministic
+	 * automaton would exceed the specified number of states.
+	 *
+	 * @param start
+	 *            the start state of the fragment
+	 * @param accept
+	 *            the accepting state of the fragment
+	 * @param maximumStates
+	 *            the maximum number of deterministic states
+	 * @return the classes of characters that start accepted strings or
+	 *         <code>null</code>
+	 */
+	public BitSet getFirstClasses(int start, int accept, int maximumStates) {
+		Subsets subsets = subsets(start, new int[] { accept }, maximumStates);
+		if (subsets == null)
+			return null;
+		BitSet first = new BitSet();
+		for (int c = 0; c < this.classes; c++) {
+			if (subsets.transitions[c] >= 0)
+				first.set(c);
+		}
+		return first;
+	}
+
+	/**
+	 * Returns the classes of characters (see {@link #getClassOf(char)}) with
+	 * which any accepted string of the specified fragment can be extended
+	 * towards another accepted string. Returns <code>null</code> if the
+	 * fragment's deterministic automaton would exceed the specified number of
+	 * states.
+	 *
+	 * @param start
+	 *            the start state of the fragment
+	 * @param accept
+	 *            the accepting state of the fragment
+	 * @param maximumStates
+	 *            the maximum number of deterministic states
+	 * @return the classes of characters that extend accepted strings or
+	 *         <code>null</code>
+	 */
+	public BitSet getContinuationClasses(int start, int accept, int maximumStates) {
+		Subsets subsets = subsets(start, new int[] { accept }, maximumStates);
+		if (subsets == null)
+			return null;
+		BitSet continuation = new BitSet();
+		for (int state = 0; state < subsets.accepted.length; state++) {
+			if (subsets.accepted[state] < 0)
+				continue;
+			for (int c = 0; c < this.classes; c++) {
+				if (subsets.transitions[state * this.classes + c] >= 0)
+					continuation.set(c);
+			}
+		}
+		return continuation;
+	}
+
+	/**
+	 * Returns the class of the specified character. Characters of the same
+	 * class are contained in exactly the same sets of characters (i.e. they
+	 * cannot be distinguished by this automaton).
+	 *
+	 * @param c
+	 *            the character
+	 * @return the class of the specified character
+	 */
+	public int getClassOf(char c) {
+		computeClasses();
+		int segment = Arrays.binarySearch(this.segmentStarts, c);
+		return this.segmentClasses[segment >= 0 ? segment : -segment - 2];
+	}
+
+	/**
+	 * Converts the fragment with the specified start and accepting state into
+	 * a {@link DeterministicAutomaton}. The alphabet of the returned automaton
+	 * is compressed (i.e. classes of characters that the returned automaton
+	 * does not distinguish are merged). Returns <code>null</code> if the
+	 * deterministic automaton would exceed the specified number of states.
+	 *
+	 * @param start
+	 *            the start state of the fragment
+	 * @param accept
+	 *            the accepting state of the fragment
+	 * @param maximumStates
+	 *            the maximum number of deterministic states
+	 * @return the deterministic automaton or <code>null</code>
+	 */
+	public DeterministicAutomaton determinize(int start, int accept, int maximumStates) {
+		return determinize(start, new int[] { accept }, maximumStates);
+	}
+
+	/**
+	 * Converts the fragments with the specified (shared) start state and the
+	 * specified accepting states into a single {@link DeterministicAutomaton}.
+	 * The returned automaton is minimal (i.e. equivalent states are merged, so
+	 * that runs of characters that do not change the state can be skipped, see
+	 * {@link DeterministicAutomaton#skip(int, CharSequence, int)}). It tells which of the fragments was accepted (see
+	 * {@link DeterministicAutomaton#getAccepted(int)}). If several fragments
+	 * accept the same string, then the fragment that comes first in the
+	 * specified accepting states takes precedence. Returns <code>null</code>
+	 * if the deterministic automaton would exceed the specified number of
+	 * states.
+	 *
+	 * @param start
+	 *            the start state of the fragments
+	 * @param accepts
+	 *            the accepting states of the fragments
+	 * @param maximumStates
+	 *            the maximum number of deterministic states
+	 * @return the deterministic automaton or <code>null</code>
+	 */
+	public DeterministicAutomaton determinize(int start, int[] accepts, int maximumStates) {
+		Subsets subsets = subsets(start, accepts, maximumStates);
+		if (subsets == null)
+			return null;
+		subsets = minimize(addFailures(subsets, accepts));
+
+		// merge classes that have identical transitions
+		int states = subsets.accepted.length;
+		int[] mapping = new int[this.classes];
+		Map<List<Integer>, Integer> columns = new HashMap<>();
+		for (int c = 0; c < this.classes; c++) {
+			List<Integer> column = new ArrayList<>(states);
+			for (int state = 0; state < states; state++) {
+				column.add(new Integer(subsets.transitions[state * this.classes + c]));
+				column.add(new Integer(subsets.failures[state * this.classes + c]));
+			}
+			Integer compressed = columns.get(column);
+			if (compressed == null) {
+				compressed = new Integer(columns.size());
+				columns.put(column, compressed);
+			}
+			mapping[c] = compressed.intValue();
+		}
+		int compressedClasses = columns.size();
+		int[] transitions = new int[states * compressedClasses];
+		int[] failures = new int[states * compressedClasses];
+		for (int state = 0; state < states; state++) {
+			for (int c = 0; c < this.classes; c++) {
+				transitions[state * compressedClasses + mapping[c]] = subsets.transitions[state * this.classes + c];
+				failures[state * compressedClasses + mapping[c]] = subsets.failures[state * this.classes + c];
+			}
+		}
+
+		// merge adjacent segments of the same (compressed) class
+		List<Integer> starts = new ArrayList<>();
+		List<Integer> startClasses = new ArrayList<>();
+		for (int segment = 0; segment < this.segmentStarts.length; segment++) {
+			int c = mapping[this.segmentClasses[segment]];
+			if (startClasses.isEmpty() || startClasses.get(startClasses.size() - 1).intValue() != c) {
+				starts.add(new Integer(this.segmentStarts[segment]));
+				startClasses.add(new Integer(c));
+			}
+		}
+		int[] compressedStarts = new int[starts.size()];
+		int[] compressedSegmentClasses = new int[starts.size()];
+		for (int i = 0; i < compressedStarts.length; i++) {
+			compressedStarts[i] = starts.get(i).intValue();
+			compressedSegmentClasses[i] = startClasses.get(i).intValue();
+		}
+		return new DeterministicAutomaton(compressedStarts, compressedSegmentClasses, compressedClasses, transitions,
+				subsets.accepted, failures, subsets.endFailures,
+				subsets.failureSets.toArray(new int[subsets.failureSets.size()][]));
+	}
+
+	/**
+	 * A helper function that adds a transition.
+	 *
+	 * @param from
+	 *            the source state
+	 * @param label
+	 *            the index of the set of characters or <code>-1</code> for
+	 *            an epsilon transition
+	 * @param to
+	 *            the target state
+	 */
+	private void addEdge(int from, int label, int to) {
+		if (from < 0 || from >= this.size || to < 0 || to >= this.size)
+			throw new IllegalArgumentException("State does not exist.");
+		int count = this.counts[from];
+		if (count == this.labels[from].length) {
+			this.labels[from] = Arrays.copyOf(this.labels[from], count * 2);
+			this.targets[from] = Arrays.copyOf(this.targets[from], count * 2);
+		}
+		this.labels[from][count] = label;
+		this.targets[from][count] = to;
+		this.counts[from]++;
+	}
+
+	/**
+	 * A helper function that partitions all characters into equivalence
+	 * classes (unless this was already done for the current sets).
+	 */
+	private void computeClasses() {
+		if (this.segmentStarts != null)
+			return;
+
+		TreeSet<Integer> boundaries = new TreeSet<>();
+		boundaries.add(new Integer(0));
+		for (int[] set : this.sets) {
+			for (int i = 0; i < set.length; i += 2) {
+				boundaries.add(new Integer(set[i]));
+				if (set[i + 1] < Character.MAX_VALUE)
+					boundaries.add(new Integer(set[i + 1] + 1));
+			}
+		}
+
+		int[] starts = new int[boundaries.size()];
+		int index = 0;
+		for (Integer boundary : boundaries)
+			starts[index++] = boundary.intValue();
+
+		Map<BitSet, Integer> signatures = new HashMap<>();
+		List<BitSet> members = new ArrayList<>();
+		int[] classesOfSegments = new int[starts.length];
+		for (int segment = 0; segment < starts.length; segment++) {
+			BitSet signature = new BitSet();
+			for (int set = 0; set < this.sets.size(); set++) {
+				if (contains(this.sets.get(set), starts[segment]))
+					signature.set(set);
+			}
+			Integer c = signatures.get(signature);
+			if (c == null) {
+				c = new Integer(signatures.size());
+				signatures.put(signature, c);
+				members.add(signature);
+			}
+			classesOfSegments[segment] = c.intValue();
+		}
+
+		this.classes = signatures.size();
+		this.setClasses = new int[this.sets.size()][];
+		for (int set = 0; set < this.sets.size(); set++) {
+			BitSet classesOfSet = new BitSet();
+			for (int c = 0; c < this.classes; c++) {
+				if (members.get(c).get(set))
+					classesOfSet.set(c);
+			}
+			this.setClasses[set] = classesOfSet.stream().toArray();
+		}
+		this.segmentStarts = starts;
+		this.segmentClasses = classesOfSegments;
+	}
+
+	/**
+	 * A helper function that returns whether the specified set of characters
+	 * contains the specified character.
+	 *
+	 * @param set
+	 *            the sorted, disjoint and inclusive ranges of characters
+	 * @param c
+	 *            the character
+	 * @return <code>true</code> if the set contains the character,
+	 *         <code>false</code> otherwise
+	 */
+	private static boolean contains(int[] set, int c) {
+		for (int i = 0; i < set.length; i += 2) {
+			if (c < set[i])
+				return false;
+			if (c <= set[i + 1])
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * A helper function that returns a set that contains the specified state
+	 * only.
+	 *
+	 * @param state
+	 *            the state
+	 * @return the set that contains the specified state
+	 */
+	private static BitSet singleton(int state) {
+		BitSet set = new BitSet();
+		set.set(state);
+		return set;
+	}
+
+	/**
+	 * A helper function that returns the epsilon closure of the specified
+	 * states. Transitions that leave the specified accepting states are
+	 * ignored.
+	 *
+	 * @param states
+	 *            the states
+	 * @param accepts
+	 *            the accepting states
+	 * @return the epsilon closure of the specified states
+	 */
+	private BitSet closure(BitSet states, BitSet accepts) {
+		BitSet closure = (BitSet) states.clone();
+		Deque<Integer> pending = new ArrayDeque<>();
+		states.stream().forEach(state -> pending.push(new Integer(state)));
+		while (!pending.isEmpty()) {
+			int state = pending.pop().intValue();
+			if (accepts.get(state))
+				continue;
+			for (int edge = 0; edge < this.counts[state]; edge++) {
+				int target = this.targets[state][edge];
+				if (this.labels[state][edge] < 0 && !closure.get(target)) {
+					closure.set(target);
+					pending.push(new Integer(target));
+				}
+			}
+		}
+		return closure;
+	}
+
+	/**
+	 * A helper function that applies the subset construction to the fragments
+	 * with the specified start and accepting states. Deterministic states that
+	 * cannot reach an accepting state are removed (i.e. their transitions
+	 * point to <code>-1</code>). The first deterministic state is the start
+	 * state. Returns <code>null</code> if the specified number of states is
+	 * exceeded.
+	 *
+	 * @param start
+	 *            the start state of the fragments
+	 * @param accepts
+	 *            the accepting states of the fragments
+	 * @param maximumStates
+	 *            the maximum number of deterministic states
+	 * @return the deterministic states or <code>null</code>
+	 */
+	private Subsets subsets(int start, int[] accepts, int maximumStates) {
+		computeClasses();
+		BitSet accept = new BitSet();
+		for (int state : accepts)
+			accept.set(state);
+		Map<BitSet, Integer> indices = new HashMap<>();
+		List<BitSet> states = new ArrayList<>();
+		BitSet initial = closure(singleton(start), accept);
+		indices.put(initial, new Integer(0));
+		states.add(initial);
+
+		int[] transitions = new int[INITIAL_CAPACITY * this.classes];
+		BitSet[] moves = new BitSet[this.classes];
+		for (int index = 0; index < states.size(); index++) {
+			Arrays.fill(moves, null);
+			BitSet current = states.get(index);
+			for (int state = current.nextSetBit(0); state >= 0; state = current.nextSetBit(state + 1)) {
+				if (accept.get(state))
+					continue;
+				for (int edge = 0; edge < this.counts[state]; edge++) {
+					int label = this.labels[state][edge];
+					if (label < 0)
+						continue;
+					for (int c : this.setClasses[label]) {
+						if (moves[c] == null)
+							moves[c] = new BitSet();
+						moves[c].set(this.targets[state][edge]);
+					}
+				}
+			}
+
+			if ((index + 1) * this.classes > transitions.length)
+				transitions = Arrays.copyOf(transitions, transitions.length * 2);
+			for (int c = 0; c < this.classes; c++) {
+				if (moves[c] == null) {
+					transitions[index * this.classes + c] = -1;
+					continue;
+				}
+				BitSet target = closure(moves[c], accept);
+				Integer targetIndex = indices.get(target);
+				if (targetIndex == null) {
+					if (states.size() >= maximumStates)
+						return null;
+					targetIndex = new Integer(states.size());
+					indices.put(target, targetIndex);
+					states.add(target);
+				}
+				transitions[index * this.classes + c] = targetIndex.intValue();
+			}
+		}
+
+		int count = states.size();
+		int[] accepted = new int[count];
+		boolean[] live = new boolean[count];
+		for (int state = 0; state < count; state++) {
+			accepted[state] = -1;
+			for (int fragment = accepts.length - 1; fragment >= 0; fragment--) {
+				if (states.get(state).get(accepts[fragment]))
+					accepted[state] = fragment;
+			}
+			live[state] = accepted[state] >= 0;
+		}
+
+		// remove states that cannot reach an accepting state
+		boolean changed = true;
+		while (changed) {
+			changed = false;
+			for (int state = 0; state < count; state++) {
+				for (int c = 0; c < this.classes && !live[state]; c++) {
+					int target = transitions[state * this.classes + c];
+					if (target >= 0 && live[target]) {
+						live[state] = true;
+						changed = true;
+					}
+				}
+			}
+		}
+		int[] trimmed = Arrays.copyOf(transitions, count * this.classes);
+		for (int i = 0; i < trimmed.length; i++) {
+			if (trimmed[i] >= 0 && !live[trimmed[i]])
+				trimmed[i] = -1;
+		}
+		return new Subsets(trimmed, accepted, states);
+	}
+
+	/**
+	 * A helper function that determines the terminal symbols that fail in the
+	 * specified deterministic states (see {@link FarthestFailure}). A terminal
+	 * symbol fails for a class of characters if one of its transitions leaves
+	 * the state and either does not process the class or leads to a state
+	 * that cannot reach an accepting state. All terminal symbols fail at the
+	 * end of the data. Sets of failing terminal symbols are shared and
+	 * consist of pairs of origin and position (ordered by position).
+	 *
+	 * @param subsets
+	 *            the deterministic states
+	 * @param accepts
+	 *            the accepting states of the fragments
+	 * @return the deterministic states along with their failing terminal
+	 *         symbols
+	 */
+	private Subsets addFailures(Subsets subsets, int[] accepts) {
+		BitSet accept = new BitSet();
+		for (int state : accepts)
+			accept.set(state);
+		int count = subsets.accepted.length;
+		int[] failures = new int[count * this.classes];
+		int[] endFailures = new int[count];
+		Map<List<Integer>, Integer> indices = new HashMap<>();
+		List<int[]> failureSets = new ArrayList<>();
+		for (int index = 0; index < count; index++) {
+			List<Integer> sets = new ArrayList<>();
+			BitSet current = subsets.states.get(index);
+			for (int state = current.nextSetBit(0); state >= 0; state = current.nextSetBit(state + 1)) {
+				if (accept.get(state))
+					continue;
+				for (int edge = 0; edge < this.counts[state]; edge++) {
+					int label = this.labels[state][edge];
+					if (label >= 0 && this.origins.get(label) != null)
+						sets.add(new Integer(label));
+				}
+			}
+			sets.sort((a, b) -> {
+				int[] first = this.origins.get(a.intValue());
+				int[] second = this.origins.get(b.intValue());
+				return first[1] != second[1] ? Integer.compare(first[1], second[1])
+						: Integer.compare(first[0], second[0]);
+			});
+
+			for (int c = 0; c < this.classes; c++) {
+				boolean stuck = subsets.transitions[index * this.classes + c] < 0;
+				List<Integer> failing = new ArrayList<>();
+				for (Integer set : sets) {
+					if (stuck || Arrays.binarySearch(this.setClasses[set.intValue()], c) < 0)
+						addOrigin(failing, this.origins.get(set.intValue()));
+				}
+				failures[index * this.classes + c] = intern(failing, indices, failureSets);
+			}
+			List<Integer> failing = new ArrayList<>();
+			for (Integer set : sets)
+				addOrigin(failing, this.origins.get(set.intValue()));
+			endFailures[index] = intern(failing, indices, failureSets);
+		}
+		return new Subsets(subsets.transitions, subsets.accepted, null, failures, endFailures, failureSets);
+	}
+
+	/**
+	 * A helper function that adds the specified pair of origin and position
+	 * to the specified set of failing terminal symbols (unless it was already
+	 * added).
+	 *
+	 * @param failing
+	 *            the set of failing terminal symbols
+	 * @param origin
+	 *            the pair of origin and position
+	 */
+	private static void addOrigin(List<Integer> failing, int[] origin) {
+		for (int i = 0; i < failing.size(); i += 2) {
+			if (failing.get(i).intValue() == origin[0] && failing.get(i + 1).intValue() == origin[1])
+				return;
+		}
+		failing.add(new Integer(origin[0]));
+		failing.add(new Integer(origin[1]));
+	}
+
+	/**
+	 * A helper function that returns the index of the specified set of
+	 * failing terminal symbols. Equal sets share an index. Returns
+	 * <code>-1</code> if the set is empty.
+	 *
+	 * @param failing
+	 *            the set of failing terminal symbols
+	 * @param indices
+	 *            the indices of all known sets
+	 * @param failureSets
+	 *            all known sets
+	 * @return the index of the set or <code>-1</code>
+	 */
+	private static int intern(List<Integer> failing, Map<List<Integer>, Integer> indices, List<int[]> failureSets) {
+		if (failing.isEmpty())
+			return -1;
+		Integer index = indices.get(failing);
+		if (index == null) {
+			index = new Integer(failureSets.size());
+			indices.put(failing, index);
+			int[] set = new int[failing.size()];
+			for (int i = 0; i < set.length; i++)
+				set[i] = failing.get(i).intValue();
+			failureSets.add(set);
+		}
+		return index.intValue();
+	}
+
+	/**
+	 * A helper function that merges equivalent deterministic states (i.e.
+	 * states that accept the same fragment and whose transitions lead to
+	 * equivalent states) by means of partition refinement. States with
+	 * different failing terminal symbols are not merged. The start state
+	 * remains the first state.
+	 *
+	 * @param subsets
+	 *            the deterministic states
+	 * @return the minimal deterministic states
+	 */
+	private Subsets minimize(Subsets subsets) {
+		int count = subsets.accepted.length;
+		int[] blocks = new int[count];
+		Map<List<Integer>, Integer> initial = new HashMap<>();
+		for (int state = 0; state < count; state++) {
+			List<Integer> signature = new ArrayList<>(this.classes + 2);
+			signature.add(new Integer(subsets.accepted[state]));
+			signature.add(new Integer(subsets.endFailures[state]));
+			for (int c = 0; c < this.classes; c++)
+				signature.add(new Integer(subsets.failures[state * this.classes + c]));
+			Integer block = initial.get(signature);
+			if (block == null) {
+				block = new Integer(initial.size());
+				initial.put(signature, block);
+			}
+			blocks[state] = block.intValue();
+		}
+		int size = -1;
+		while (true) {
+			Map<List<Integer>, Integer> signatures = new HashMap<>();
+			int[] refined = new int[count];
+			for (int state = 0; state < count; state++) {
+				List<Integer> signature = new ArrayList<>(this.classes + 1);
+				signature.add(new Integer(blocks[state]));
+				for (int c = 0; c < this.classes; c++) {
+					int target = subsets.transitions[state * this.classes + c];
+					signature.add(new Integer(target < 0 ? -1 : blocks[target]));
+				}
+				Integer block = signatures.get(signature);
+				if (block == null) {
+					block = new Integer(signatures.size());
+					signatures.put(signature, block);
+				}
+				refined[state] = block.intValue();
+			}
+			blocks = refined;
+			if (signatures.size() == size)
+				break;
+			size = signatures.size();
+		}
+
+		int[] transitions = new int[size * this.classes];
+		int[] accepted = new int[size];
+		int[] failures = new int[size * this.classes];
+		int[] endFailures = new int[size];
+		for (int state = count - 1; state >= 0; state--) {
+			int block = blocks[state];
+			accepted[block] = subsets.accepted[state];
+			endFailures[block] = subsets.endFailures[state];
+			for (int c = 0; c < this.classes; c++) {
+				int target = subsets.transitions[state * this.classes + c];
+				transitions[block * this.classes + c] = target < 0 ? -1 : blocks[target];
+				failures[block * this.classes + c] = subsets.failures[state * this.classes + c];
+			}
+		}
+		return new Subsets(transitions, accepted, null, failures, endFailures, subsets.failureSets);
+	}
+
+	/**
+	 * The class {@link Subsets}. It is intended to hold the result of the
+	 * subset construction (see
+	 * {@link NondeterministicAutomaton#subsets(int, int[], int)}).
+	 *
+	 * @author Claas Ahlrichs
+	 */
+	private static class Subsets {
+
+		private final int[] transitions;
+		private final int[] accepted;
+		private final List<BitSet> states;
+		private final int[] failures;
+		private final int[] endFailures;
+		private final List<int[]> failureSets;
+
+		Subsets(int[] transitions, int[] accepted, List<BitSet> states) {
+			this(transitions, accepted, states, null, null, null);
+		}
+
+		Subsets(int[] transitions, int[] accepted, List<BitSet> states, int[] failures, int[] endFailures,
+				List<int[]> failureSets) {
+			this.transitions = transitions;
+			this.accepted = accepted;
+			this.states = states;
+			this.failures = failures;
+			this.endFailures = endFailures;
+			this.failureSets = failureSets;
+		}
+
+	}
+
+}
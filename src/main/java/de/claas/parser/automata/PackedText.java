@@ -0,0 +1,148 @@
+package de.claas.parser.automata;
+
+import java.util.Arrays;
+
+/**
+ * The class {@link PackedText}. It is an implementation of the interface
+ * {@link CharSequence}. It is intended to scan runs of ASCII characters (e.g.
+ * white space or digits) eight characters at a time. The text is packed into
+ * long words once during construction (i.e. one byte per character).
+ * Non-ASCII characters are packed as <code>0x80</code>, which is never part
+ * of a run (see {@link #skip(int, long[])}).
+ * <p>
+ * Runs are scanned by means of bit tricks on whole words (i.e. SIMD within a
+ * register): For every byte of a word, the high bit tells whether the byte is
+ * within a range of characters. Comparisons never borrow across bytes,
+ * because ASCII characters do not use the high bit.
+ *
+ * @author Claas Ahlrichs
+ */
+public class PackedText implements CharSequence {
+
+	private static final long LOW_BITS = 0x0101010101010101L;
+	private static final long HIGH_BITS = 0x8080808080808080L;
+
+	private final String text;
+	private final long[] words;
+
+	/**
+	 * Constructs a new {@link PackedText} with the specified parameter.
+	 *
+	 * @param text
+	 *            the text
+	 */
+	public PackedText(String text) {
+		this.text = text;
+		this.words = new long[(text.length() >>> 3) + 2];
+		Arrays.fill(this.words, HIGH_BITS);
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			if (c < 0x80)
+				this.words[i >>> 3] ^= (long) (c | 0x80) << ((i & 7) << 3);
+		}
+	}
+
+	/**
+	 * Returns the bounds of the specified ranges of ASCII characters in the
+	 * form that is expected by {@link #skip(int, long[])}.
+	 *
+	 * @param ranges
+	 *            the sorted, disjoint and inclusive ranges of ASCII characters
+	 *            (e.g. <code>{'0', '9', 'a', 'f'}</code>)
+	 * @return the bounds of the specified ranges
+	 * @throws IllegalArgumentException
+	 *             if any of the ranges is not within the ASCII characters
+	 */
+	public static long[] bounds(int[] ranges) {
+		if (ranges.length % 2 != 0)
+			throw new IllegalArgumentException("Ranges must be pairs of characters.");
+		long[] bounds = new long[ranges.length];
+		for (int i = 0; i < ranges.length; i += 2) {
+			if (ranges[i] < 0 || ranges[i] > ranges[i + 1] || ranges[i + 1] >= 0x80)
+				throw new IllegalArgumentException("Ranges must be within the ASCII characters.");
+			bounds[i] = ranges[i] * LOW_BITS;
+			bounds[i + 1] = (ranges[i + 1] + 1) * LOW_BITS;
+		}
+		return bounds;
+	}
+
+	/**
+	 * Returns the end of the run of characters (starting at the specified
+	 * offset) that are within any of the specified ranges (see
+	 * {@link #bounds(int[])}). Returns the specified offset if the character
+	 * at the offset is not within any range. Returns the length of the text if
+	 * the run reaches the end of the text.
+	 *
+	 * @param offset
+	 *            the offset at which the run starts
+	 * @param bounds
+	 *            the bounds of the ranges of ASCII characters
+	 * @return the (exclusive) end of the run
+	 */
+	public int skip(int offset, long[] bounds) {
+		int length = this.text.length();
+		for (int i = offset; i < length; i += 8) {
+			long word = word(i);
+			long within = 0;
+			for (int range = 0; range < bounds.length; range += 2)
+				within |= atLeast(word, bounds[range]) & ~atLeast(word, bounds[range + 1]);
+			long outside = ~(within & ~word) & HIGH_BITS;
+			if (outside != 0)
+				return Math.min(length, i + (Long.numberOfTrailingZeros(outside) >>> 3));
+		}
+		return Math.max(offset, length);
+	}
+
+	/**
+	 * A helper function that returns the eight characters (one per byte) that
+	 * start at the specified offset. The first character is in the lowest
+	 * byte.
+	 *
+	 * @param offset
+	 *            the offset
+	 * @return the eight characters that start at the specified offset
+	 */
+	private long word(int offset) {
+		int index = offset >>> 3;
+		int shift = (offset & 7) << 3;
+		if (shift == 0)
+			return this.words[index];
+		return (this.words[index] >>> shift) | (this.words[index + 1] << (64 - shift));
+	}
+
+	/**
+	 * A helper function that sets the high bit of every byte of the specified
+	 * word that is at least the (repeated) bound. Bytes must be ASCII
+	 * characters and the bound must not exceed <code>0x80</code>.
+	 *
+	 * @param word
+	 *            the word
+	 * @param bound
+	 *            the repeated bound
+	 * @return the high bits of the bytes that are at least the bound
+	 */
+	private static long atLeast(long word, long bound) {
+		return ((word | HIGH_BITS) - bound) & HIGH_BITS;
+	}
+
+	@Override
+	public int length() {
+		return this.text.length();
+	}
+
+	@Override
+	public char charAt(int index) {
+		return this.text.charAt(index);
+	}
+
+	@Override
+	public CharSequence subSequence(int start, int end) {
+		return this.text.subSequence(start, end);
+	}
+
+	@Override
+	public String toString() {
+		return this.text;
+	}
+
+}
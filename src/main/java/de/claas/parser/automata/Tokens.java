@@ -0,0 +1,157 @@
+package de.claas.parser.automata;
+
+import java.util.Arrays;
+
+/**
+ * The class {@link Tokens}. It is intended to hold the tokens of some data
+ * (see {@link Lexer#tokenize(String)}) in a compact form (i.e. the kind and
+ * end of the token at every offset are kept in arrays that are indexed by
+ * offset).
+ * <p>
+ * The data is split into tokens from left to right during construction.
+ * Characters that do not start a token are skipped. The tokens at other
+ * offsets (e.g. offsets within a token) are determined on demand. Either way,
+ * the token at an offset does not depend on the preceding data (see
+ * {@link Lexer}). Tokens are matched on the {@link PackedText} of the data.
+ *
+ * @author Claas Ahlrichs
+ */
+public class Tokens {
+
+	private static final int UNKNOWN = -2;
+
+	private final Lexer lexer;
+	private final String data;
+	private final PackedText text;
+	private final int[] kinds;
+	private final int[] ends;
+	private int[] starts = new int[16];
+	private int size = 0;
+
+	/**
+	 * Constructs new {@link Tokens} with the specified parameters.
+	 *
+	 * @param lexer
+	 *            the lexer
+	 * @param data
+	 *            the data
+	 */
+	Tokens(Lexer lexer, String data) {
+		this.lexer = lexer;
+		this.data = data;
+		this.text = new PackedText(data);
+		this.kinds = new int[data.length() + 1];
+		this.ends = new int[data.length() + 1];
+		Arrays.fill(this.kinds, UNKNOWN);
+		for (int offset = 0; offset < data.length();) {
+			int end = getEnd(offset);
+			if (end > offset) {
+				if (this.size == this.starts.length)
+					this.starts = Arrays.copyOf(this.starts, this.size * 2);
+				this.starts[this.size++] = offset;
+				offset = end;
+			} else
+				offset++;
+		}
+	}
+
+	/**
+	 * Returns the lexer that created these tokens.
+	 *
+	 * @return the lexer
+	 */
+	public Lexer getLexer() {
+		return this.lexer;
+	}
+
+	/**
+	 * Returns the data.
+	 *
+	 * @return the data
+	 */
+	public String getData() {
+		return this.data;
+	}
+
+	/**
+	 * Returns the number of tokens (i.e. the tokens that were found while
+	 * splitting the data from left to right).
+	 *
+	 * @return the number of tokens
+	 */
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * Returns the offset at which the specified token starts.
+	 *
+	 * @param index
+	 *            the index of the token
+	 * @return the offset at which the specified token starts
+	 */
+	public int getStart(int index) {
+		if (index < 0 || index >= this.size)
+			throw new IndexOutOfBoundsException("Token does not exist: " + index);
+		return this.starts[index];
+	}
+
+	/**
+	 * Returns the kind of the token at the specified offset (see
+	 * {@link Lexer#getKind(de.claas.parser.rules.NonTerminal)}). Returns
+	 * <code>-1</code> if no token starts at the specified offset.
+	 *
+	 * @param offset
+	 *            the offset
+	 * @return the kind of the token at the specified offset or
+	 *         <code>-1</code>
+	 */
+	public int getKind(int offset) {
+		if (this.kinds[offset] == UNKNOWN)
+			scan(offset);
+		return this.kinds[offset];
+	}
+
+	/**
+	 * Returns the (exclusive) end of the token at the specified offset.
+	 * Returns <code>-1</code> if no token starts at the specified offset.
+	 *
+	 * @param offset
+	 *            the offset
+	 * @return the end of the token at the specified offset or <code>-1</code>
+	 */
+	public int getEnd(int offset) {
+		if (this.kinds[offset] == UNKNOWN)
+			scan(offset);
+		return this.ends[offset];
+	}
+
+	/**
+	 * A helper function that determines the token at the specified offset
+	 * (i.e. the longest match of the lexer's automaton).
+	 *
+	 * @param offset
+	 *            the offset
+	 */
+	private void scan(int offset) {
+		DeterministicAutomaton automaton = this.lexer.getAutomaton();
+		int kind = automaton.getAccepted(0);
+		int end = kind >= 0 ? offset : -1;
+		int state = 0;
+		for (int i = offset; i < this.data.length(); i++) {
+			int next = automaton.getTransition(state, automaton.getClassOf(this.data.charAt(i)));
+			if (next < 0)
+				break;
+			if (next == state)
+				i = automaton.skip(state, this.text, i + 1) - 1;
+			state = next;
+			if (automaton.isAccepting(state)) {
+				kind = automaton.getAccepted(state);
+				end = i + 1;
+			}
+		}
+		this.kinds[offset] = kind;
+		this.ends[offset] = end;
+	}
+
+}
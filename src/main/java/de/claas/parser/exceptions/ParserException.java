@@ -1,5 +1,9 @@
 package de.claas.parser.exceptions;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
 import de.claas.parser.visitors.Parser;
 
 /**
@@ -14,6 +18,12 @@ public class ParserException extends RuntimeException {
 
 	private static final long serialVersionUID = 7967586094665395837L;
 
+	private final int offset;
+	private final int line;
+	private final int column;
+	private final List<String> expected;
+	private final String rule;
+
 	/**
 	 * Constructs a new {@link ParserException} with the specified parameter.
 	 * 
@@ -23,6 +33,11 @@ public class ParserException extends RuntimeException {
 	 */
 	public ParserException(String message) {
 		super(message);
+		this.offset = -1;
+		this.line = -1;
+		this.column = -1;
+		this.expected = Collections.emptyList();
+		this.rule = null;
 	}
 
 	/**
@@ -35,6 +50,11 @@ public class ParserException extends RuntimeException {
 	 */
 	public ParserException(Throwable cause) {
 		super(cause);
+		this.offset = -1;
+		this.line = -1;
+		this.column = -1;
+		this.expected = Collections.emptyList();
+		this.rule = null;
 	}
 
 	/**
@@ -50,6 +70,155 @@ public class ParserException extends RuntimeException {
 	 */
 	public ParserException(String message, Throwable cause) {
 		super(message, cause);
+		this.offset = -1;
+		this.line = -1;
+		this.column = -1;
+		this.expected = Collections.emptyList();
+		this.rule = null;
+	}
+
+	/**
+	 * Constructs a new {@link ParserException} with the specified parameters.
+	 * The position (i.e. offset, line and column) and the expected
+	 * alternatives are appended to the detail message.
+	 * 
+	 * @param message
+	 *            the detail message (which is saved for later retrieval by the
+	 *            Throwable.getMessage() method)
+	 * @param data
+	 *            the data that was parsed
+	 * @param offset
+	 *            the offset at which the data is invalid
+	 * @param expected
+	 *            the (textual representation of) terminal symbols that were
+	 *            expected at the offset
+	 * @param rule
+	 *            the name of the innermost non-terminal symbol at the offset
+	 *            or <code>null</code>
+	 */
+	public ParserException(String message, String data, int offset, List<String> expected, String rule) {
+		super(describe(message, data, offset, expected, rule));
+		this.offset = offset;
+		this.line = line(data, offset);
+		this.column = column(data, offset);
+		this.expected = Collections.unmodifiableList(new ArrayList<>(expected));
+		this.rule = rule;
+	}
+
+	/**
+	 * Returns the offset at which the data is invalid. Returns <code>-1</code>
+	 * if the offset is unknown.
+	 * 
+	 * @return the offset at which the data is invalid
+	 */
+	public int getOffset() {
+		return this.offset;
+	}
+
+	/**
+	 * Returns the line (starting at one) at which the data is invalid. Returns
+	 * <code>-1</code> if the line is unknown.
+	 * 
+	 * @return the line at which the data is invalid
+	 */
+	public int getLine() {
+		return this.line;
+	}
+
+	/**
+	 * Returns the column (starting at one) at which the data is invalid.
+	 * Returns <code>-1</code> if the column is unknown.
+	 * 
+	 * @return the column at which the data is invalid
+	 */
+	public int getColumn() {
+		return this.column;
+	}
+
+	/**
+	 * Returns the (textual representation of) terminal symbols that were
+	 * expected at the offset. The returned list is empty if no terminal symbol
+	 * was expected (e.g. the end of data was expected) or if the expected
+	 * terminal symbols are unknown.
+	 * 
+	 * @return the terminal symbols that were expected at the offset
+	 */
+	public List<String> getExpected() {
+		return this.expected;
+	}
+
+	/**
+	 * Returns the name of the innermost non-terminal symbol at the offset.
+	 * Returns <code>null</code> if the non-terminal symbol is unknown.
+	 * 
+	 * @return the name of the innermost non-terminal symbol at the offset
+	 */
+	public String getRule() {
+		return this.rule;
+	}
+
+	/**
+	 * A helper function that returns the line (starting at one) of the
+	 * specified offset.
+	 * 
+	 * @param data
+	 *            the data
+	 * @param offset
+	 *            the offset
+	 * @return the line of the specified offset
+	 */
+	private static int line(String data, int offset) {
+		int line = 1;
+		for (int i = 0; i < offset && i < data.length(); i++) {
+			if (data.charAt(i) == '\n')
+				line++;
+		}
+		return line;
+	}
+
+	/**
+	 * A helper function that returns the column (starting at one) of the
+	 * specified offset.
+	 * 
+	 * @param data
+	 *            the data
+	 * @param offset
+	 *            the offset
+	 * @return the column of the specified offset
+	 */
+	private static int column(String data, int offset) {
+		int lineStart = data.lastIndexOf('\n', offset - 1) + 1;
+		return offset - lineStart + 1;
+	}
+
+	/**
+	 * A helper function that appends the position and the expected
+	 * alternatives to the specified message.
+	 * 
+	 * @param message
+	 *            the detail message
+	 * @param data
+	 *            the data that was parsed
+	 * @param offset
+	 *            the offset at which the data is invalid
+	 * @param expected
+	 *            the terminal symbols that were expected at the offset
+	 * @param rule
+	 *            the name of the innermost non-terminal symbol or
+	 *            <code>null</code>
+	 * @return the detail message
+	 */
+	private static String describe(String message, String data, int offset, List<String> expected, String rule) {
+		StringBuilder builder = new StringBuilder(message);
+		builder.append(String.format(" Unexpected input at line %d, column %d (offset %d)", line(data, offset),
+				column(data, offset), offset));
+		if (rule != null)
+			builder.append(String.format(" in '%s'", rule));
+		if (expected.isEmpty())
+			builder.append(", expected end of data.");
+		else
+			builder.append(", expected one of: ").append(String.join(", ", expected)).append('.');
+		return builder.toString();
 	}
 
 }
@@ -0,0 +1,110 @@
+package de.claas.parser.exceptions;
+
+import de.claas.parser.ParserLimits;
+import de.claas.parser.visitors.Parser;
+
+/**
+ * The class {@link ParserLimitException}. It is thrown to indicate that a
+ * {@link Parser} exceeded one of its limits (see {@link ParserLimits}) and
+ * therefore stopped parsing. The exception captures the budget that was
+ * consumed up to that point.
+ * 
+ * @author Claas Ahlrichs
+ */
+public class ParserLimitException extends ParserException {
+
+	private static final long serialVersionUID = -3419265271513794730L;
+
+	/**
+	 * The limits that can be exceeded.
+	 */
+	public enum Limit {
+		/** The maximum number of rule invocations. */
+		INVOCATIONS,
+		/** The maximum number of backtracks. */
+		BACKTRACKS,
+		/** The maximum depth. */
+		DEPTH,
+		/** The wall-clock timeout. */
+		TIMEOUT,
+		/** The cooperative cancellation. */
+		CANCELLATION
+	}
+
+	private final Limit limit;
+	private final long invocations;
+	private final long backtracks;
+	private final int depth;
+	private final long elapsedTime;
+
+	/**
+	 * Constructs a new {@link ParserLimitException} with the specified
+	 * parameters.
+	 * 
+	 * @param limit
+	 *            the exceeded limit
+	 * @param invocations
+	 *            the number of rule invocations
+	 * @param backtracks
+	 *            the number of backtracks
+	 * @param depth
+	 *            the depth
+	 * @param elapsedTime
+	 *            the elapsed time (in milliseconds)
+	 */
+	public ParserLimitException(Limit limit, long invocations, long backtracks, int depth, long elapsedTime) {
+		super(String.format("Exceeded limit %s (invocations: %d, backtracks: %d, depth: %d, elapsed time: %d ms).",
+				limit, invocations, backtracks, depth, elapsedTime));
+		this.limit = limit;
+		this.invocations = invocations;
+		this.backtracks = backtracks;
+		this.depth = depth;
+		this.elapsedTime = elapsedTime;
+	}
+
+	/**
+	 * Returns the exceeded limit.
+	 * 
+	 * @return the exceeded limit
+	 */
+	public Limit getLimit() {
+		return this.limit;
+	}
+
+	/**
+	 * Returns the number of rule invocations.
+	 * 
+	 * @return the number of rule invocations
+	 */
+	public long getInvocations() {
+		return this.invocations;
+	}
+
+	/**
+	 * Returns the number of backtracks.
+	 * 
+	 * @return the number of backtracks
+	 */
+	public long getBacktracks() {
+		return this.backtracks;
+	}
+
+	/**
+	 * Returns the depth.
+	 * 
+	 * @return the depth
+	 */
+	public int getDepth() {
+		return this.depth;
+	}
+
+	/**
+	 * Returns the elapsed time (in milliseconds).
+	 * 
+	 * @return the elapsed time (in milliseconds)
+	 */
+	public long getElapsedTime() {
+		return this.elapsedTime;
+	}
+
+}
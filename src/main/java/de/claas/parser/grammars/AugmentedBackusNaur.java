@@ -12,6 +12,7 @@ import de.claas.parser.rules.NonTerminal;
 import de.claas.parser.rules.NumberValue;
 import de.claas.parser.rules.Optional;
 import de.claas.parser.rules.Repetition;
+import de.claas.parser.visitors.RuleDeduplication;
 
 /**
  * The class {@link AugmentedBackusNaur}. It represents a grammar for grammars
@@ -83,12 +84,15 @@ public class AugmentedBackusNaur extends Grammar {
 	}
 
 	/**
-	 * Returns the above described grammar.
+	 * Returns the above described grammar. Rules that are created more than
+	 * once (e.g. "c-wsp" or "DIGIT") are deduplicated (see
+	 * {@link RuleDeduplication}), such that every distinct rule exists exactly
+	 * once.
 	 * 
 	 * @return the above described grammar
 	 */
 	private static NonTerminal grammar() {
-		return ruleList();
+		return (NonTerminal) new RuleDeduplication(ruleList()).getResult();
 	}
 
 	/**
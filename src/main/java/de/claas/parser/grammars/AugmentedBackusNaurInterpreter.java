@@ -17,8 +17,10 @@ import de.claas.parser.rules.CharacterValue;
 import de.claas.parser.rules.Conjunction;
 import de.claas.parser.rules.Disjunction;
 import de.claas.parser.rules.NonTerminal;
+import de.claas.parser.rules.NumberValue;
 import de.claas.parser.rules.Optional;
 import de.claas.parser.rules.Repetition;
+import de.claas.parser.rules.SeparatedRepetition;
 import de.claas.parser.visitors.Interpreter;
 import de.claas.parser.visitors.UpdateNonTerminalReferences;
 
@@ -27,6 +29,12 @@ import de.claas.parser.visitors.UpdateNonTerminalReferences;
  * the interface {@link Interpreter}. It is intended to interpret
  * {@link Node}-trees that correspond to the {@link AugmentedBackusNaur}
  * grammar.
+ * <p>
+ * Optionally, separated lists (i.e. concatenations such as
+ * <code>element *(separator element)</code>) are interpreted as
+ * {@link SeparatedRepetition}s (see
+ * {@link #AugmentedBackusNaurInterpreter(boolean)}). The repeated element
+ * must be the same rule name or terminal value on both sides.
  *
  * @author Claas Ahlrichs
  */
@@ -43,12 +51,28 @@ public class AugmentedBackusNaurInterpreter extends Interpreter<Rule> {
 	private static final String CASE_SENSITIVE = "%s";
 	private static final String CASE_INSENSITIVE = "%i";
 	private final Map<String, NonTerminal> rules = new HashMap<>();
+	private final boolean separatedRepetitions;
 
 	/**
 	 * Constructs a new {@link AugmentedBackusNaurInterpreter} with default
-	 * parameters.
+	 * parameters. Calling this constructor is equivalent to calling
+	 * <code>{@link AugmentedBackusNaurInterpreter#AugmentedBackusNaurInterpreter(boolean)}</code>
+	 * without separated repetitions.
 	 */
 	public AugmentedBackusNaurInterpreter() {
+		this(false);
+	}
+
+	/**
+	 * Constructs a new {@link AugmentedBackusNaurInterpreter} with the
+	 * specified parameter.
+	 * 
+	 * @param separatedRepetitions
+	 *            whether separated lists are interpreted as
+	 *            {@link SeparatedRepetition}s
+	 */
+	public AugmentedBackusNaurInterpreter(boolean separatedRepetitions) {
+		this.separatedRepetitions = separatedRepetitions;
 		expectNonTerminalNode("rulelist");
 	}
 
@@ -316,6 +340,8 @@ public class AugmentedBackusNaurInterpreter extends Interpreter<Rule> {
 			}
 		}
 
+		if (this.separatedRepetitions && createdConjunction)
+			rule = toSeparatedRepetitions(rule);
 		return rule;
 	}
 
@@ -462,7 +488,15 @@ public class AugmentedBackusNaurInterpreter extends Interpreter<Rule> {
 		expectNonTerminalNode("alternation");
 		if (child != null) {
 			child.visit(this);
-			rule = new Optional(getResult());
+			rule = getResult();
+			if (this.separatedRepetitions && rule instanceof SeparatedRepetition
+					&& ((SeparatedRepetition) rule).getMinimumNumberOfRepetions() == 1) {
+				SeparatedRepetition list = (SeparatedRepetition) rule;
+				rule = new SeparatedRepetition(list.getElement(), list.getSeparator(), 0,
+						list.getMaximumNumberOfRepetions());
+			} else {
+				rule = new Optional(rule);
+			}
 			child = nextChild(true, null, children);
 		}
 
@@ -730,6 +764,69 @@ public class AugmentedBackusNaurInterpreter extends Interpreter<Rule> {
 		return condition && children.hasNext() ? children.next() : child;
 	}
 
+	/**
+	 * A support function that replaces separated lists (i.e. an element that
+	 * is followed by a repetition of a separator and the same element) within
+	 * the specified conjunction by {@link SeparatedRepetition}s. Returns the
+	 * only remaining child if the whole conjunction is a separated list.
+	 * 
+	 * @param rule
+	 *            the conjunction
+	 * @return the conjunction with separated repetitions
+	 */
+	private static Rule toSeparatedRepetitions(Rule rule) {
+		List<Rule> children = new ArrayList<>();
+		rule.forEach(children::add);
+		List<Rule> result = new ArrayList<>();
+		for (int i = 0; i < children.size(); i++) {
+			Rule element = children.get(i);
+			Rule next = i + 1 < children.size() ? children.get(i + 1) : null;
+			if (next == null || next.getClass() != Repetition.class
+					|| !(((Repetition) next).getRule() instanceof Conjunction)) {
+				result.add(element);
+				continue;
+			}
+
+			Repetition repetition = (Repetition) next;
+			List<Rule> group = new ArrayList<>();
+			repetition.getRule().forEach(group::add);
+			if (group.size() < 2 || !isSameElement(element, group.get(group.size() - 1))) {
+				result.add(element);
+				continue;
+			}
+
+			group.remove(group.size() - 1);
+			Rule separator = group.size() == 1 ? group.get(0) : new Conjunction(group.toArray(new Rule[group.size()]));
+			int min = repetition.getMinimumNumberOfRepetions();
+			int max = repetition.getMaximumNumberOfRepetions();
+			result.add(new SeparatedRepetition(element, separator, min + 1,
+					max == Integer.MAX_VALUE ? max : max + 1));
+			i++;
+		}
+		if (result.size() == 1)
+			return result.get(0);
+		return result.size() == children.size() ? rule : new Conjunction(result.toArray(new Rule[result.size()]));
+	}
+
+	/**
+	 * A support function that returns whether both specified rules describe
+	 * the same element of a separated list (i.e. the same rule name or equal
+	 * terminal values).
+	 * 
+	 * @param rule
+	 *            the element
+	 * @param other
+	 *            the repeated element
+	 * @return <code>true</code> if both rules describe the same element,
+	 *         <code>false</code> otherwise
+	 */
+	private static boolean isSameElement(Rule rule, Rule other) {
+		if (rule == other)
+			return true;
+		boolean terminal = rule instanceof CharacterValue || rule instanceof NumberValue;
+		return terminal && rule.equals(other);
+	}
+
 	/**
 	 * A support function that skips any number of "c-wsp"-nodes. Returns the
 	 * first child is not a "c-wsp"-node.
@@ -1,7 +1,9 @@
 package de.claas.parser.grammars;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
@@ -12,13 +14,17 @@ import de.claas.parser.Grammar;
 import de.claas.parser.Rule;
 import de.claas.parser.RuleVisitor;
 import de.claas.parser.exceptions.CyclicRuleException;
+import de.claas.parser.rules.AndPredicate;
 import de.claas.parser.rules.CharacterValue;
 import de.claas.parser.rules.Conjunction;
+import de.claas.parser.rules.Cut;
 import de.claas.parser.rules.Disjunction;
 import de.claas.parser.rules.NonTerminal;
+import de.claas.parser.rules.NotPredicate;
 import de.claas.parser.rules.NumberValue;
 import de.claas.parser.rules.Optional;
 import de.claas.parser.rules.Repetition;
+import de.claas.parser.rules.SeparatedRepetition;
 
 /**
  * The class {@link AugmentedBackusNaurPrinter}. It is an implementation of the
@@ -26,7 +32,10 @@ import de.claas.parser.rules.Repetition;
  * {@link Grammar} by turning it into a human readable string. The resulting
  * string is in augmented Backus Naur form. Details on syntax and grammar can be
  * found in <a href="https://www.ietf.org/rfc/rfc5234.txt">RFC 5234</a> and
- * <a href="https://www.ietf.org/rfc/rfc7405.txt">RFC 7405</a>.
+ * <a href="https://www.ietf.org/rfc/rfc7405.txt">RFC 7405</a>. Syntactic
+ * predicates and cuts are not part of the augmented Backus Naur form. They are
+ * printed as <code>&amp;(rule)</code>, <code>!(rule)</code> and
+ * <code>^</code> (i.e. in the notation of parsing expression grammars).
  * <p>
  * This visitor is meant for one-time use, only. As such, it should not be used
  * to visualize multiple grammars.
@@ -36,7 +45,7 @@ import de.claas.parser.rules.Repetition;
 public class AugmentedBackusNaurPrinter implements RuleVisitor {
 
 	private static final String DEFAULT_LINE_NEWLINE = "\r\n";
-	private final Set<Rule> visitedPath = new HashSet<>();
+	private final Set<Rule> visitedPath = Collections.newSetFromMap(new IdentityHashMap<>());
 	private final Set<Rule> visitedNonTerminals = new HashSet<>();
 	private final List<String> printedRules = new ArrayList<>();
 	private final String lineSeparator;
@@ -117,6 +126,42 @@ public class AugmentedBackusNaurPrinter implements RuleVisitor {
 		}
 	}
 
+	@Override
+	public void visitSeparatedRepetition(SeparatedRepetition rule) {
+		if (this.visitedPath.add(rule)) {
+			for (Rule child : rule)
+				child.visit(this);
+			this.visitedPath.remove(rule);
+		} else {
+			throw new CyclicRuleException(rule);
+		}
+	}
+
+	@Override
+	public void visitAndPredicate(AndPredicate rule) {
+		if (this.visitedPath.add(rule)) {
+			rule.getRule().visit(this);
+			this.visitedPath.remove(rule);
+		} else {
+			throw new CyclicRuleException(rule);
+		}
+	}
+
+	@Override
+	public void visitNotPredicate(NotPredicate rule) {
+		if (this.visitedPath.add(rule)) {
+			rule.getRule().visit(this);
+			this.visitedPath.remove(rule);
+		} else {
+			throw new CyclicRuleException(rule);
+		}
+	}
+
+	@Override
+	public void visitCut(Cut rule) {
+		// nothing to be done
+	}
+
 	@Override
 	public void visitTerminal(CharacterValue rule) {
 		// nothing to be done
@@ -145,7 +190,7 @@ public class AugmentedBackusNaurPrinter implements RuleVisitor {
 	 */
 	private static class NonTerminalPrinter implements RuleVisitor {
 
-		private final Set<Rule> visitedPath = new HashSet<>();
+		private final Set<Rule> visitedPath = Collections.newSetFromMap(new IdentityHashMap<>());
 		private final StringBuilder stringBuilder = new StringBuilder();
 
 		/**
@@ -235,6 +280,73 @@ public class AugmentedBackusNaurPrinter implements RuleVisitor {
 			}
 		}
 
+		@Override
+		public void visitSeparatedRepetition(SeparatedRepetition rule) {
+			if (this.visitedPath.add(rule)) {
+				int min = rule.getMinimumNumberOfRepetions();
+				int max = rule.getMaximumNumberOfRepetions();
+				int remainingMin = Math.max(0, min - 1);
+				int remainingMax = max == Integer.MAX_VALUE ? max : Math.max(0, max - 1);
+				if (min == 0)
+					this.stringBuilder.append("*1(");
+				this.stringBuilder.append("(");
+				rule.getElement().visit(this);
+				this.stringBuilder.append(" ");
+				if (remainingMin == remainingMax) {
+					this.stringBuilder.append(remainingMin);
+				} else {
+					if (remainingMin > 0)
+						this.stringBuilder.append(remainingMin);
+					this.stringBuilder.append("*");
+					if (remainingMax != Integer.MAX_VALUE)
+						this.stringBuilder.append(remainingMax);
+				}
+				this.stringBuilder.append("(");
+				if (rule.getSeparator() != null) {
+					rule.getSeparator().visit(this);
+					this.stringBuilder.append(" ");
+				}
+				rule.getElement().visit(this);
+				this.stringBuilder.append("))");
+				if (min == 0)
+					this.stringBuilder.append(")");
+				this.visitedPath.remove(rule);
+			} else {
+				throw new CyclicRuleException(rule);
+			}
+		}
+
+		@Override
+		public void visitAndPredicate(AndPredicate rule) {
+			if (this.visitedPath.add(rule)) {
+				this.stringBuilder.append("&");
+				this.stringBuilder.append("(");
+				rule.getRule().visit(this);
+				this.stringBuilder.append(")");
+				this.visitedPath.remove(rule);
+			} else {
+				throw new CyclicRuleException(rule);
+			}
+		}
+
+		@Override
+		public void visitNotPredicate(NotPredicate rule) {
+			if (this.visitedPath.add(rule)) {
+				this.stringBuilder.append("!");
+				this.stringBuilder.append("(");
+				rule.getRule().visit(this);
+				this.stringBuilder.append(")");
+				this.visitedPath.remove(rule);
+			} else {
+				throw new CyclicRuleException(rule);
+			}
+		}
+
+		@Override
+		public void visitCut(Cut rule) {
+			this.stringBuilder.append("^");
+		}
+
 		@Override
 		public void visitTerminal(CharacterValue rule) {
 			this.stringBuilder.append("'");
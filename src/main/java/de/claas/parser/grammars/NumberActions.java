@@ -0,0 +1,155 @@
+package de.claas.parser.grammars;
+
+import java.util.List;
+
+import de.claas.parser.Grammar;
+import de.claas.parser.SemanticActions;
+
+/**
+ * The class {@link NumberActions}. It is an implementation of the class
+ * {@link SemanticActions}. It is intended to compute the value of sentences
+ * that correspond to the {@link Number} grammar while they are being parsed
+ * (see {@link Grammar#evaluate(String, SemanticActions)}). The computed values
+ * equal those of the {@link NumberInterpreter}, but neither a tree of nodes
+ * nor any intermediate strings are created.
+ *
+ * @author Claas Ahlrichs
+ */
+public class NumberActions extends SemanticActions<java.lang.Number> {
+
+	/**
+	 * Constructs a new {@link NumberActions} with default parameters.
+	 */
+	public NumberActions() {
+		put("number", NumberActions::number);
+		put("integer", NumberActions::integer);
+		put("frac", NumberActions::fraction);
+		put("exp", NumberActions::exponent);
+	}
+
+	/**
+	 * Returns the value of "number" non-terminal symbols. The values of its
+	 * descendants are the integer-part followed by the optional
+	 * fractional-part and the optional exponent-part.
+	 * 
+	 * @param data
+	 *            the data that is being parsed
+	 * @param start
+	 *            the offset at which the non-terminal symbol starts
+	 * @param end
+	 *            the offset at which the non-terminal symbol ends
+	 * @param values
+	 *            the values of the integer-, fractional- and exponent-part
+	 * @return the number
+	 */
+	private static java.lang.Number number(String data, int start, int end, List<java.lang.Number> values) {
+		int sign = data.charAt(start) == '-' ? -1 : 1;
+		boolean hasFraction = false;
+		boolean hasExponent = false;
+		for (int offset = start; offset < end; offset++) {
+			char c = data.charAt(offset);
+			hasFraction |= c == '.';
+			hasExponent |= c == 'e' || c == 'E';
+		}
+
+		java.lang.Number integer = values.get(0);
+		java.lang.Number fraction = hasFraction ? values.get(1) : null;
+		java.lang.Number exponent = hasExponent ? values.get(values.size() - 1) : null;
+		if (fraction != null && exponent != null)
+			return new Double((integer.doubleValue() + fraction.doubleValue()) * exponent.doubleValue() * sign);
+		else if (fraction != null)
+			return new Double((integer.doubleValue() + fraction.doubleValue()) * sign);
+		else if (exponent != null)
+			return new Double(integer.doubleValue() * exponent.doubleValue() * sign);
+		else
+			return new Integer(integer.intValue() * sign);
+	}
+
+	/**
+	 * Returns the value of "integer" non-terminal symbols.
+	 * 
+	 * @param data
+	 *            the data that is being parsed
+	 * @param start
+	 *            the offset at which the non-terminal symbol starts
+	 * @param end
+	 *            the offset at which the non-terminal symbol ends
+	 * @param values
+	 *            not used
+	 * @return the integer-part of a number
+	 */
+	private static java.lang.Number integer(String data, int start, int end, List<java.lang.Number> values) {
+		return new Integer(parseDigits(data, start, end));
+	}
+
+	/**
+	 * Returns the value of "frac" non-terminal symbols (i.e. a decimal point
+	 * followed by digits).
+	 * 
+	 * @param data
+	 *            the data that is being parsed
+	 * @param start
+	 *            the offset at which the non-terminal symbol starts
+	 * @param end
+	 *            the offset at which the non-terminal symbol ends
+	 * @param values
+	 *            not used
+	 * @return the fractional-part of a number
+	 */
+	private static java.lang.Number fraction(String data, int start, int end, List<java.lang.Number> values) {
+		// the decimal point is parsed along with the digits
+		return new Double(Double.parseDouble(data.substring(start, end)));
+	}
+
+	/**
+	 * Returns the value of "exp" non-terminal symbols (i.e. an "e" followed by
+	 * an optional sign and digits).
+	 * 
+	 * @param data
+	 *            the data that is being parsed
+	 * @param start
+	 *            the offset at which the non-terminal symbol starts
+	 * @param end
+	 *            the offset at which the non-terminal symbol ends
+	 * @param values
+	 *            not used
+	 * @return the exponent-part of a number
+	 */
+	private static java.lang.Number exponent(String data, int start, int end, List<java.lang.Number> values) {
+		int offset = start + 1;
+		int sign = 1;
+		if (data.charAt(offset) == '-' || data.charAt(offset) == '+') {
+			sign = data.charAt(offset) == '-' ? -1 : 1;
+			offset++;
+		}
+		return new Double(Math.pow(10.0, sign * parseDigits(data, offset, end)));
+	}
+
+	/**
+	 * A helper function that parses the digits within the specified range. Like
+	 * the {@link NumberInterpreter}, digits that exceed the range of an
+	 * <code>int</code> are rejected (see {@link Integer#parseInt(String)}).
+	 * 
+	 * @param data
+	 *            the data that is being parsed
+	 * @param start
+	 *            the offset of the first digit
+	 * @param end
+	 *            the offset after the last digit
+	 * @return the parsed digits
+	 * @throws NumberFormatException
+	 *             if the digits exceed the range of an <code>int</code>
+	 */
+	private static int parseDigits(String data, int start, int end) {
+		int number = 0;
+		try {
+			for (int offset = start; offset < end; offset++) {
+				number = Math.addExact(Math.multiplyExact(number, 10), data.charAt(offset) - '0');
+			}
+		} catch (ArithmeticException e) {
+			throw new NumberFormatException("For input string: \"" + data.substring(start, end) + "\"");
+		}
+		return number;
+	}
+
+}
@@ -0,0 +1,91 @@
+package de.claas.parser.optimizers;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import de.claas.parser.Rule;
+import de.claas.parser.rules.Conjunction;
+import de.claas.parser.rules.Disjunction;
+
+/**
+ * The class {@link FlattenRules}. It is an implementation of the class
+ * {@link RuleRewriter}. It is intended to flatten associative rules. A
+ * {@link Conjunction} that is nested in a conjunction is replaced by its
+ * children. The same applies to a {@link Disjunction} that is nested in a
+ * disjunction. Afterwards, conjunctions and disjunctions with a single child
+ * are replaced by that child. Thus, the parser processes fewer (intermediate)
+ * rules.
+ * <p>
+ * Empty conjunctions are never processed successfully. Thus, they are not
+ * flattened. Empty disjunctions are never processed successfully either, but
+ * they can be removed from disjunctions.
+ * <p>
+ * Flattening nested disjunctions does not change which alternative is chosen,
+ * since the longest alternative is chosen regardless of how the alternatives
+ * are grouped (and ties are resolved in favor of the later alternative).
+ * Similarly, the first successful alternative of an ordered disjunction (see
+ * {@link Disjunction#isOrdered()}) does not depend on the grouping. However,
+ * ordered and unordered disjunctions are not flattened into each other.
+ *
+ * @author Claas Ahlrichs
+ */
+public class FlattenRules extends RuleRewriter {
+
+	@Override
+	protected Rule rewriteConjunction(Conjunction rule, List<Rule> children) {
+		List<Rule> flattened = flatten(rule, children);
+		if (flattened.size() == 1)
+			return flattened.get(0);
+		return new Conjunction(flattened.toArray(new Rule[flattened.size()]));
+	}
+
+	@Override
+	protected Rule rewriteDisjunction(Disjunction rule, List<Rule> children) {
+		List<Rule> flattened = flatten(rule, children);
+		if (flattened.size() == 1)
+			return flattened.get(0);
+		return new Disjunction(rule.isOrdered(), flattened.toArray(new Rule[flattened.size()]));
+	}
+
+	/**
+	 * A helper function that replaces (complete) children of the same kind as
+	 * the specified rule by their own children. Empty conjunctions are
+	 * retained.
+	 *
+	 * @param rule
+	 *            the original rule
+	 * @param children
+	 *            the rewritten children
+	 * @return the flattened children
+	 */
+	private List<Rule> flatten(Rule rule, List<Rule> children) {
+		List<Rule> flattened = new ArrayList<>();
+		for (Rule child : children) {
+			if (isSameKind(rule, child) && isComplete(child) && (child.hasChildren() || child instanceof Disjunction)) {
+				for (Rule grandchild : child)
+					flattened.add(grandchild);
+			} else
+				flattened.add(child);
+		}
+		return flattened;
+	}
+
+	/**
+	 * A helper function that returns <code>true</code> if the specified rules
+	 * are of the same kind (i.e. of the same type and, for disjunctions, with
+	 * the same choice).
+	 *
+	 * @param rule
+	 *            the rule
+	 * @param other
+	 *            the other rule
+	 * @return <code>true</code> if the rules are of the same kind,
+	 *         <code>false</code> otherwise
+	 */
+	private static boolean isSameKind(Rule rule, Rule other) {
+		if (rule.getClass() != other.getClass())
+			return false;
+		return !(rule instanceof Disjunction) || ((Disjunction) rule).isOrdered() == ((Disjunction) other).isOrdered();
+	}
+
+}
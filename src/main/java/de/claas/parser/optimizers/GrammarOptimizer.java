@@ -0,0 +1,114 @@
+package de.claas.parser.optimizers;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import de.claas.parser.Grammar;
+import de.claas.parser.grammars.AugmentedBackusNaurInterpreter;
+import de.claas.parser.results.IntermediateNode;
+import de.claas.parser.rules.NonTerminal;
+
+/**
+ * The class {@link GrammarOptimizer}. It is intended to rewrite a graph of
+ * rules into an equivalent graph of rules that can be parsed more efficiently
+ * (e.g. rules that were created by the {@link AugmentedBackusNaurInterpreter}).
+ * The optimization is a pipeline of {@link OptimizerPass}es that are applied
+ * in the order in which they were added. The original graph of rules is not
+ * modified.
+ * <p>
+ * Optimized grammars accept the same data as the original grammars. By default,
+ * named {@link NonTerminal}s are retained (see
+ * {@link #setRetainNonTerminals(boolean)}). Thus, trees without intermediate
+ * nodes (see {@link Grammar#parse(String)}) are unchanged. However, the
+ * {@link IntermediateNode}s of optimized grammars are likely to differ.
+ *
+ * @author Claas Ahlrichs
+ */
+public class GrammarOptimizer {
+
+	private final List<OptimizerPass> passes = new ArrayList<>();
+	private boolean retainNonTerminals = true;
+
+	/**
+	 * Constructs a new {@link GrammarOptimizer} with default parameters. The
+	 * default pipeline flattens associative rules, inlines trivial
+	 * non-terminals, removes no-op optionals, left-factors disjunctions and
+	 * finally flattens the factored rules.
+	 */
+	public GrammarOptimizer() {
+		this(new FlattenRules(), new InlineNonTerminals(), new RemoveNoOpOptionals(), new LeftFactorDisjunctions(),
+				new FlattenRules());
+	}
+
+	/**
+	 * Constructs a new {@link GrammarOptimizer} with the specified parameter.
+	 *
+	 * @param passes
+	 *            the passes of this optimizer (in order of application)
+	 */
+	public GrammarOptimizer(OptimizerPass... passes) {
+		for (OptimizerPass pass : passes)
+			addPass(pass);
+	}
+
+	/**
+	 * Adds the specified pass to the end of the pipeline.
+	 *
+	 * @param pass
+	 *            the pass
+	 */
+	public void addPass(OptimizerPass pass) {
+		this.passes.add(pass);
+	}
+
+	/**
+	 * Returns the passes of this optimizer (in order of application).
+	 *
+	 * @return the passes of this optimizer
+	 */
+	public List<OptimizerPass> getPasses() {
+		return Collections.unmodifiableList(this.passes);
+	}
+
+	/**
+	 * Returns <code>true</code> if named {@link NonTerminal}s are retained. If
+	 * so, the non-terminal nodes of parsed trees are unchanged by the
+	 * optimization. Defaults to <code>true</code>.
+	 *
+	 * @return <code>true</code> if named non-terminals are retained,
+	 *         <code>false</code> otherwise
+	 */
+	public boolean isRetainNonTerminals() {
+		return this.retainNonTerminals;
+	}
+
+	/**
+	 * Sets whether named {@link NonTerminal}s are retained. If not, trivial
+	 * non-terminals may be inlined and their names disappear from parsed trees
+	 * (as well as from parse listeners, semantic actions and synchronization
+	 * rules). The start rule is always retained.
+	 *
+	 * @param retainNonTerminals
+	 *            whether named non-terminals are retained
+	 */
+	public void setRetainNonTerminals(boolean retainNonTerminals) {
+		this.retainNonTerminals = retainNonTerminals;
+	}
+
+	/**
+	 * Returns an optimized copy of the specified grammar. All passes are
+	 * applied in order. The specified grammar is not modified.
+	 *
+	 * @param grammar
+	 *            the start rule of the grammar
+	 * @return the start rule of the optimized grammar
+	 */
+	public NonTerminal optimize(NonTerminal grammar) {
+		NonTerminal current = grammar;
+		for (OptimizerPass pass : this.passes)
+			current = pass.optimize(current, this);
+		return current;
+	}
+
+}
@@ -0,0 +1,29 @@
+package de.claas.parser.optimizers;
+
+import de.claas.parser.rules.NonTerminal;
+import de.claas.parser.rules.Terminal;
+
+/**
+ * The class {@link InlineNonTerminals}. It is an implementation of the class
+ * {@link RuleRewriter}. It is intended to replace trivial {@link NonTerminal}s
+ * by the rules they decorate. A non-terminal is trivial if it decorates a
+ * {@link Terminal} or another non-terminal (i.e. an alias). Thus, the parser
+ * does not have to enter and exit such non-terminals.
+ * <p>
+ * Inlined non-terminals disappear from parsed trees. Consequently, this pass
+ * does nothing while named non-terminals are retained (see
+ * {@link GrammarOptimizer#isRetainNonTerminals()}). The start rule of the
+ * grammar is never inlined.
+ *
+ * @author Claas Ahlrichs
+ */
+public class InlineNonTerminals extends RuleRewriter {
+
+	@Override
+	protected boolean isInlined(NonTerminal rule) {
+		if (getOptimizer().isRetainNonTerminals())
+			return false;
+		return rule.getRule() instanceof Terminal || rule.getRule() instanceof NonTerminal;
+	}
+
+}
@@ -0,0 +1,162 @@
+package de.claas.parser.optimizers;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import de.claas.parser.Rule;
+import de.claas.parser.rules.Conjunction;
+import de.claas.parser.rules.Disjunction;
+
+/**
+ * The class {@link LeftFactorDisjunctions}. It is an implementation of the
+ * class {@link RuleRewriter}. It is intended to left-factor the alternatives
+ * of {@link Disjunction}s. Adjacent alternatives that start with the same
+ * (i.e. equal) rules are replaced by a single {@link Conjunction} of their
+ * common prefix and a disjunction of their remainders. For instance,
+ * <code>a b c / a b d / e</code> is replaced by <code>a b (c / d) / e</code>.
+ * Thus, the parser processes the common prefix once rather than once per
+ * alternative.
+ * <p>
+ * Only adjacent alternatives are factored. In doing so, the longest
+ * alternative is still chosen and ties are still resolved in favor of the
+ * later alternative. The common prefix is always shorter than the factored
+ * alternatives, since empty remainders (i.e. empty conjunctions) would never
+ * be processed successfully. The created conjunctions are not flattened (see
+ * {@link FlattenRules}).
+ * <p>
+ * Ordered disjunctions (see {@link Disjunction#isOrdered()}) are factored the
+ * same way, since processing the common prefix once does not change which
+ * alternative succeeds first. The created disjunctions are ordered if the
+ * factored disjunction is ordered.
+ *
+ * @author Claas Ahlrichs
+ */
+public class LeftFactorDisjunctions extends RuleRewriter {
+
+	@Override
+	protected Rule rewriteDisjunction(Disjunction rule, List<Rule> children) {
+		List<Rule> alternatives = factor(children, rule.isOrdered());
+		return new Disjunction(rule.isOrdered(), alternatives.toArray(new Rule[alternatives.size()]));
+	}
+
+	/**
+	 * A helper function that left-factors the specified alternatives. Runs of
+	 * adjacent alternatives with a common prefix are replaced by a single
+	 * alternative. The common prefix is shorter than every alternative of the
+	 * run. The remainders of the replaced alternatives are factored, too.
+	 *
+	 * @param alternatives
+	 *            the alternatives
+	 * @param ordered
+	 *            whether the alternatives are ordered
+	 * @return the factored alternatives
+	 */
+	private List<Rule> factor(List<Rule> alternatives, boolean ordered) {
+		List<Rule> factored = new ArrayList<>();
+		int start = 0;
+		while (start < alternatives.size()) {
+			List<Rule> first = sequence(alternatives.get(start));
+			int prefix = first.size() - 1;
+			int end = start + 1;
+			while (end < alternatives.size() && prefix > 0) {
+				List<Rule> next = sequence(alternatives.get(end));
+				int common = commonPrefix(first, next, Math.min(prefix, next.size() - 1));
+				if (common == 0)
+					break;
+				prefix = common;
+				end++;
+			}
+
+			if (end - start < 2) {
+				factored.add(alternatives.get(start));
+			} else {
+				List<Rule> remainders = new ArrayList<>();
+				for (int i = start; i < end; i++) {
+					List<Rule> sequence = sequence(alternatives.get(i));
+					remainders.add(toRule(sequence.subList(prefix, sequence.size())));
+				}
+				List<Rule> children = new ArrayList<>(first.subList(0, prefix));
+				List<Rule> inner = factor(remainders, ordered);
+				children.add(inner.size() == 1 ? inner.get(0)
+						: new Disjunction(ordered, inner.toArray(new Rule[inner.size()])));
+				factored.add(new Conjunction(children.toArray(new Rule[children.size()])));
+			}
+			start = end;
+		}
+		return factored;
+	}
+
+	/**
+	 * A helper function that returns the length of the common prefix of the
+	 * specified sequences. At most the specified number of rules is compared.
+	 *
+	 * @param sequence
+	 *            the first sequence
+	 * @param other
+	 *            the other sequence
+	 * @param limit
+	 *            the maximum length of the common prefix
+	 * @return the length of the common prefix
+	 */
+	private int commonPrefix(List<Rule> sequence, List<Rule> other, int limit) {
+		int length = Math.min(limit, other.size());
+		for (int i = 0; i < length; i++) {
+			if (!isSame(sequence.get(i), other.get(i)))
+				return i;
+		}
+		return length;
+	}
+
+	/**
+	 * A helper function that returns <code>true</code> if the specified
+	 * (rewritten) rules are interchangeable. Incomplete rules are only
+	 * interchangeable with themselves.
+	 *
+	 * @param rule
+	 *            the rule
+	 * @param other
+	 *            the other rule
+	 * @return <code>true</code> if the rules are interchangeable,
+	 *         <code>false</code> otherwise
+	 */
+	private boolean isSame(Rule rule, Rule other) {
+		if (rule == other)
+			return true;
+		return isComplete(rule) && isComplete(other) && rule.equals(other);
+	}
+
+	/**
+	 * A helper function that returns the specified alternative as sequence of
+	 * rules. The sequence of a (complete) {@link Conjunction} are its
+	 * children. The sequence of any other rule is the rule itself.
+	 *
+	 * @param alternative
+	 *            the alternative
+	 * @return the sequence of rules
+	 */
+	private List<Rule> sequence(Rule alternative) {
+		if (alternative instanceof Conjunction && isComplete(alternative)) {
+			List<Rule> sequence = new ArrayList<>();
+			for (Rule child : alternative)
+				sequence.add(child);
+			return sequence;
+		}
+		return Collections.singletonList(alternative);
+	}
+
+	/**
+	 * A helper function that returns a rule that processes the specified
+	 * sequence of rules.
+	 *
+	 * @param sequence
+	 *            the sequence of rules
+	 * @return the rule that processes the sequence
+	 */
+	private static Rule toRule(List<Rule> sequence) {
+		if (sequence.size() == 1)
+			return sequence.get(0);
+		return new Conjunction(sequence.toArray(new Rule[sequence.size()]));
+	}
+
+}
@@ -0,0 +1,33 @@
+package de.claas.parser.optimizers;
+
+import de.claas.parser.rules.NonTerminal;
+
+/**
+ * Superclass of all optimizer passes. This class is intended to model a single
+ * transformation of a graph of rules (see {@link GrammarOptimizer}).
+ * Implementations of this class will rewrite rule-hierarchies into equivalent
+ * rule-hierarchies that can be processed more efficiently.
+ * <p>
+ * A pass must not modify the specified graph of rules. Instead, it returns a
+ * (partially) rewritten copy. The returned graph of rules must accept the same
+ * data as the original graph of rules.
+ *
+ * @author Claas Ahlrichs
+ */
+public interface OptimizerPass {
+
+	/**
+	 * Returns an optimized copy of the specified grammar (i.e. the start rule
+	 * of a graph of rules). The specified grammar is not modified.
+	 *
+	 * @param grammar
+	 *            the start rule of the grammar
+	 * @param optimizer
+	 *            the optimizer that applies this pass. Provides the options of
+	 *            the optimization (e.g.
+	 *            {@link GrammarOptimizer#isRetainNonTerminals()})
+	 * @return the start rule of the optimized grammar
+	 */
+	NonTerminal optimize(NonTerminal grammar, GrammarOptimizer optimizer);
+
+}
@@ -0,0 +1,39 @@
+package de.claas.parser.optimizers;
+
+import de.claas.parser.Rule;
+import de.claas.parser.rules.NonTerminal;
+import de.claas.parser.rules.Optional;
+import de.claas.parser.visitors.GrammarAnalysis;
+
+/**
+ * The class {@link RemoveNoOpOptionals}. It is an implementation of the class
+ * {@link RuleRewriter}. It is intended to remove {@link Optional}s that have
+ * no effect. An optional rule has no effect if its decorated rule never fails
+ * (see {@link GrammarAnalysis#isInfallible(Rule)}). This includes nested
+ * optionals (e.g. <code>[[rule]]</code>) and nullable rules without syntactic
+ * predicates.
+ *
+ * @author Claas Ahlrichs
+ */
+public class RemoveNoOpOptionals extends RuleRewriter {
+
+	private GrammarAnalysis analysis;
+
+	@Override
+	public NonTerminal optimize(NonTerminal grammar, GrammarOptimizer optimizer) {
+		this.analysis = new GrammarAnalysis(grammar);
+		try {
+			return super.optimize(grammar, optimizer);
+		} finally {
+			this.analysis = null;
+		}
+	}
+
+	@Override
+	protected Rule rewriteOptional(Optional rule, Rule child) {
+		if (child != null && this.analysis.isInfallible(rule.getRule()))
+			return child;
+		return super.rewriteOptional(rule, child);
+	}
+
+}
@@ -0,0 +1,422 @@
+package de.claas.parser.optimizers;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import de.claas.parser.Rule;
+import de.claas.parser.RuleVisitor;
+import de.claas.parser.rules.AndPredicate;
+import de.claas.parser.rules.CharacterValue;
+import de.claas.parser.rules.Conjunction;
+import de.claas.parser.rules.Cut;
+import de.claas.parser.rules.Decorator;
+import de.claas.parser.rules.Disjunction;
+import de.claas.parser.rules.NonTerminal;
+import de.claas.parser.rules.NotPredicate;
+import de.claas.parser.rules.NumberValue;
+import de.claas.parser.rules.Optional;
+import de.claas.parser.rules.Repetition;
+import de.claas.parser.rules.SeparatedRepetition;
+
+/**
+ * The class {@link RuleRewriter}. It is an implementation of the interfaces
+ * {@link RuleVisitor} and {@link OptimizerPass}. It is intended to be the base
+ * of passes that rewrite a graph of {@link Rule}s bottom-up. Nested rules are
+ * rewritten before the rules that contain them. Subclasses decide how a rule
+ * is rebuilt from its rewritten nested rules (e.g.
+ * {@link #rewriteConjunction(Conjunction, List)}). By default, rules are
+ * copied as they are. Terminals are immutable and never copied.
+ * <p>
+ * Rules are tracked by identity. Every rule is rewritten once, such that
+ * shared rules remain shared. Copies of {@link NonTerminal}s are created
+ * before their nested rules are rewritten. Thus, recursive non-terminals are
+ * rewritten into recursive copies. Other rules that (directly or indirectly)
+ * contain themselves are copied without being rewritten (i.e. without calling
+ * any of the subclass' hooks). Such copies remain incomplete until all of
+ * their nested rules were rewritten (see {@link #isComplete(Rule)}).
+ * <p>
+ * The original graph of rules is not modified. Instances of this class can be
+ * reused for any number of grammars.
+ *
+ * @author Claas Ahlrichs
+ */
+public abstract class RuleRewriter implements RuleVisitor, OptimizerPass {
+
+	private final Map<Rule, Rule> rewrittenRules = new IdentityHashMap<>();
+	private final Map<Rule, Rule> placeholders = new IdentityHashMap<>();
+	private final Set<Rule> incompleteRules = Collections.newSetFromMap(new IdentityHashMap<>());
+	private final Set<Rule> visitedPath = Collections.newSetFromMap(new IdentityHashMap<>());
+	private GrammarOptimizer optimizer;
+	private NonTerminal grammar;
+	private Rule result;
+
+	@Override
+	public NonTerminal optimize(NonTerminal grammar, GrammarOptimizer optimizer) {
+		this.optimizer = optimizer;
+		this.grammar = grammar;
+		try {
+			return (NonTerminal) rewrite(grammar);
+		} finally {
+			this.rewrittenRules.clear();
+			this.placeholders.clear();
+			this.incompleteRules.clear();
+			this.visitedPath.clear();
+			this.optimizer = null;
+			this.grammar = null;
+			this.result = null;
+		}
+	}
+
+	/**
+	 * Returns the optimizer that applies this pass. Returns <code>null</code>
+	 * if no grammar is being optimized.
+	 *
+	 * @return the optimizer that applies this pass
+	 */
+	protected GrammarOptimizer getOptimizer() {
+		return this.optimizer;
+	}
+
+	/**
+	 * Returns the start rule of the grammar that is being optimized. Returns
+	 * <code>null</code> if no grammar is being optimized.
+	 *
+	 * @return the start rule of the grammar that is being optimized
+	 */
+	protected NonTerminal getGrammar() {
+		return this.grammar;
+	}
+
+	/**
+	 * Returns the rewritten copy of the specified (original) rule. The rule is
+	 * rewritten on first use. If the rule is already being rewritten (i.e. the
+	 * rule contains itself), then an incomplete copy is returned.
+	 *
+	 * @param rule
+	 *            the original rule
+	 * @return the rewritten rule
+	 */
+	protected Rule rewrite(Rule rule) {
+		Rule rewritten = this.rewrittenRules.get(rule);
+		if (rewritten != null)
+			return rewritten;
+		if (!this.visitedPath.add(rule)) {
+			Rule placeholder = this.placeholders.get(rule);
+			if (placeholder == null) {
+				placeholder = createPlaceholder(rule);
+				this.placeholders.put(rule, placeholder);
+				this.incompleteRules.add(placeholder);
+			}
+			return placeholder;
+		}
+
+		try {
+			rule.visit(this);
+			rewritten = this.result;
+		} finally {
+			this.visitedPath.remove(rule);
+		}
+		this.rewrittenRules.put(rule, rewritten);
+		return rewritten;
+	}
+
+	/**
+	 * Returns <code>true</code> if the specified (rewritten) rule is complete.
+	 * Incomplete rules are copies of rules that contain themselves and whose
+	 * nested rules are still being rewritten. Incomplete rules must not be
+	 * inspected (e.g. iterated or compared).
+	 *
+	 * @param rule
+	 *            the rewritten rule
+	 * @return <code>true</code> if the specified rule is complete,
+	 *         <code>false</code> otherwise
+	 */
+	protected boolean isComplete(Rule rule) {
+		return !this.incompleteRules.contains(rule);
+	}
+
+	/**
+	 * Returns <code>true</code> if the specified {@link NonTerminal} is
+	 * replaced by its (rewritten) decorated rule. The start rule of the grammar
+	 * is never inlined. The default implementation returns <code>false</code>.
+	 *
+	 * @param rule
+	 *            the original non-terminal
+	 * @return <code>true</code> if the non-terminal is inlined,
+	 *         <code>false</code> otherwise
+	 */
+	protected boolean isInlined(NonTerminal rule) {
+		return false;
+	}
+
+	/**
+	 * Returns the rewritten {@link Conjunction}. The default implementation
+	 * returns a copy with the specified children.
+	 *
+	 * @param rule
+	 *            the original rule
+	 * @param children
+	 *            the rewritten children of the original rule
+	 * @return the rewritten rule
+	 */
+	protected Rule rewriteConjunction(Conjunction rule, List<Rule> children) {
+		return new Conjunction(children.toArray(new Rule[children.size()]));
+	}
+
+	/**
+	 * Returns the rewritten {@link Disjunction}. The default implementation
+	 * returns a copy with the specified children.
+	 *
+	 * @param rule
+	 *            the original rule
+	 * @param children
+	 *            the rewritten children of the original rule
+	 * @return the rewritten rule
+	 */
+	protected Rule rewriteDisjunction(Disjunction rule, List<Rule> children) {
+		return new Disjunction(rule.isOrdered(), children.toArray(new Rule[children.size()]));
+	}
+
+	/**
+	 * Returns the rewritten {@link Optional}. The default implementation
+	 * returns a copy with the specified decorated rule.
+	 *
+	 * @param rule
+	 *            the original rule
+	 * @param child
+	 *            the rewritten decorated rule (or <code>null</code>)
+	 * @return the rewritten rule
+	 */
+	protected Rule rewriteOptional(Optional rule, Rule child) {
+		return new Optional(child);
+	}
+
+	/**
+	 * Returns the rewritten {@link Repetition}. The default implementation
+	 * returns a copy with the specified decorated rule.
+	 *
+	 * @param rule
+	 *            the original rule
+	 * @param child
+	 *            the rewritten decorated rule (or <code>null</code>)
+	 * @return the rewritten rule
+	 */
+	protected Rule rewriteRepetition(Repetition rule, Rule child) {
+		return new Repetition(child, rule.getMinimumNumberOfRepetions(), rule.getMaximumNumberOfRepetions());
+	}
+
+	/**
+	 * Returns the rewritten {@link SeparatedRepetition}. The default
+	 * implementation returns a copy with the specified element and separator.
+	 *
+	 * @param rule
+	 *            the original rule
+	 * @param element
+	 *            the rewritten repeatable rule (or <code>null</code>)
+	 * @param separator
+	 *            the rewritten separator (or <code>null</code>)
+	 * @return the rewritten rule
+	 */
+	protected Rule rewriteSeparatedRepetition(SeparatedRepetition rule, Rule element, Rule separator) {
+		return new SeparatedRepetition(element, separator, rule.getMinimumNumberOfRepetions(),
+				rule.getMaximumNumberOfRepetions());
+	}
+
+	/**
+	 * Returns the rewritten {@link AndPredicate}. The default implementation
+	 * returns a copy with the specified decorated rule.
+	 *
+	 * @param rule
+	 *            the original rule
+	 * @param child
+	 *            the rewritten decorated rule (or <code>null</code>)
+	 * @return the rewritten rule
+	 */
+	protected Rule rewriteAndPredicate(AndPredicate rule, Rule child) {
+		return new AndPredicate(child);
+	}
+
+	/**
+	 * Returns the rewritten {@link NotPredicate}. The default implementation
+	 * returns a copy with the specified decorated rule.
+	 *
+	 * @param rule
+	 *            the original rule
+	 * @param child
+	 *            the rewritten decorated rule (or <code>null</code>)
+	 * @return the rewritten rule
+	 */
+	protected Rule rewriteNotPredicate(NotPredicate rule, Rule child) {
+		return new NotPredicate(child);
+	}
+
+	@Override
+	public void visitConjunction(Conjunction rule) {
+		List<Rule> children = rewriteChildren(rule);
+		Rule placeholder = completePlaceholder(rule, children);
+		this.result = placeholder != null ? placeholder : rewriteConjunction(rule, children);
+	}
+
+	@Override
+	public void visitDisjunction(Disjunction rule) {
+		List<Rule> children = rewriteChildren(rule);
+		Rule placeholder = completePlaceholder(rule, children);
+		this.result = placeholder != null ? placeholder : rewriteDisjunction(rule, children);
+	}
+
+	@Override
+	public void visitNonTerminal(NonTerminal rule) {
+		if (rule != this.grammar && rule.getRule() != null && isInlined(rule)) {
+			Rule child = rewrite(rule.getRule());
+			Rule placeholder = completePlaceholder(rule, Collections.singletonList(child));
+			this.result = placeholder != null ? placeholder : child;
+		} else {
+			NonTerminal copy = new NonTerminal(rule.getName(), rule.getComment(), null);
+			this.rewrittenRules.put(rule, copy);
+			if (rule.getRule() != null)
+				copy.setRule(rewrite(rule.getRule()));
+			this.result = copy;
+		}
+	}
+
+	@Override
+	public void visitOptional(Optional rule) {
+		List<Rule> children = rewriteChildren(rule);
+		Rule placeholder = completePlaceholder(rule, children);
+		this.result = placeholder != null ? placeholder
+				: rewriteOptional(rule, children.isEmpty() ? null : children.get(0));
+	}
+
+	@Override
+	public void visitRepetition(Repetition rule) {
+		List<Rule> children = rewriteChildren(rule);
+		Rule placeholder = completePlaceholder(rule, children);
+		this.result = placeholder != null ? placeholder
+				: rewriteRepetition(rule, children.isEmpty() ? null : children.get(0));
+	}
+
+	@Override
+	public void visitSeparatedRepetition(SeparatedRepetition rule) {
+		List<Rule> children = rewriteChildren(rule);
+		Rule placeholder = completePlaceholder(rule, children);
+		this.result = placeholder != null ? placeholder
+				: rewriteSeparatedRepetition(rule, children.isEmpty() ? null : children.get(0),
+						children.size() > 1 ? children.get(1) : null);
+	}
+
+	@Override
+	public void visitAndPredicate(AndPredicate rule) {
+		List<Rule> children = rewriteChildren(rule);
+		Rule placeholder = completePlaceholder(rule, children);
+		this.result = placeholder != null ? placeholder
+				: rewriteAndPredicate(rule, children.isEmpty() ? null : children.get(0));
+	}
+
+	@Override
+	public void visitNotPredicate(NotPredicate rule) {
+		List<Rule> children = rewriteChildren(rule);
+		Rule placeholder = completePlaceholder(rule, children);
+		this.result = placeholder != null ? placeholder
+				: rewriteNotPredicate(rule, children.isEmpty() ? null : children.get(0));
+	}
+
+	@Override
+	public void visitCut(Cut rule) {
+		this.result = rule;
+	}
+
+	@Override
+	public void visitTerminal(CharacterValue rule) {
+		this.result = rule;
+	}
+
+	@Override
+	public void visitTerminal(NumberValue rule) {
+		this.result = rule;
+	}
+
+	/**
+	 * A helper function that rewrites the rules that are directly nested in
+	 * the specified rule. For {@link Decorator}s, this is the decorated rule
+	 * (if any). For all other rules, these are the children.
+	 *
+	 * @param rule
+	 *            the original rule
+	 * @return the rewritten nested rules
+	 */
+	private List<Rule> rewriteChildren(Rule rule) {
+		List<Rule> children = new ArrayList<>();
+		if (rule instanceof Decorator) {
+			Rule child = ((Decorator) rule).getRule();
+			if (child != null)
+				children.add(rewrite(child));
+		} else {
+			for (Rule child : rule)
+				children.add(rewrite(child));
+		}
+		return children;
+	}
+
+	/**
+	 * A helper function that completes the incomplete copy of the specified
+	 * rule (if any) with the specified nested rules. Returns
+	 * <code>null</code> if the rule does not contain itself (i.e. there is no
+	 * incomplete copy).
+	 *
+	 * @param rule
+	 *            the original rule
+	 * @param children
+	 *            the rewritten nested rules
+	 * @return the completed copy or <code>null</code>
+	 */
+	private Rule completePlaceholder(Rule rule, List<Rule> children) {
+		Rule placeholder = this.placeholders.remove(rule);
+		if (placeholder == null)
+			return null;
+		for (Rule child : children) {
+			if (placeholder instanceof Decorator)
+				((Decorator) placeholder).setRule(child);
+			else
+				placeholder.addChild(child);
+		}
+		this.incompleteRules.remove(placeholder);
+		return placeholder;
+	}
+
+	/**
+	 * A helper function that creates an incomplete copy (i.e. without nested
+	 * rules) of the specified rule.
+	 *
+	 * @param rule
+	 *            the original rule
+	 * @return the incomplete copy
+	 */
+	private static Rule createPlaceholder(Rule rule) {
+		if (rule instanceof NonTerminal) {
+			NonTerminal nonTerminal = (NonTerminal) rule;
+			return new NonTerminal(nonTerminal.getName(), nonTerminal.getComment(), null);
+		} else if (rule instanceof Optional) {
+			return new Optional(null);
+		} else if (rule instanceof AndPredicate) {
+			return new AndPredicate(null);
+		} else if (rule instanceof NotPredicate) {
+			return new NotPredicate(null);
+		} else if (rule instanceof Repetition) {
+			Repetition repetition = (Repetition) rule;
+			return new Repetition(null, repetition.getMinimumNumberOfRepetions(),
+					repetition.getMaximumNumberOfRepetions());
+		} else if (rule instanceof SeparatedRepetition) {
+			SeparatedRepetition repetition = (SeparatedRepetition) rule;
+			return new SeparatedRepetition(null, null, repetition.getMinimumNumberOfRepetions(),
+					repetition.getMaximumNumberOfRepetions());
+		} else if (rule instanceof Disjunction) {
+			return new Disjunction(((Disjunction) rule).isOrdered());
+		}
+		return new Conjunction();
+	}
+
+}
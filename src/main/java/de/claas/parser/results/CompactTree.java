@@ -0,0 +1,432 @@
+package de.claas.parser.results;
+
+import java.util.Arrays;
+
+import de.claas.parser.Grammar;
+import de.claas.parser.Node;
+import de.claas.parser.NodeVisitor;
+
+/**
+ * The class {@link CompactTree}. It is intended to represent parsed sentences
+ * in a compact form. Instead of a tree of {@link Node} instances, the tree is
+ * stored as parallel <code>int</code> arrays (i.e. kind, name, start offset,
+ * end offset, first child and next sibling) that reference the parsed data and
+ * a shared table of names. Terminal symbols are not copied, they are stored as
+ * offsets into the parsed data. Nodes are identified by their index, where the
+ * root has index zero (0) and nodes are stored in pre-order.
+ * <p>
+ * A compact tree can be walked with a {@link Cursor} (see {@link #cursor()}).
+ * Subtrees (or the whole tree) are converted into a tree of {@link Node}s on
+ * demand (see {@link #toNode()} and {@link #toNode(int)}).
+ *
+ * @author Claas Ahlrichs
+ *
+ * @see Grammar#parseCompact(String)
+ *
+ */
+public class CompactTree {
+
+	/**
+	 * The kind of nodes that represent terminal symbols (see
+	 * {@link TerminalNode}).
+	 */
+	public static final int TERMINAL = 0;
+
+	/**
+	 * The kind of nodes that represent non-terminal symbols (see
+	 * {@link NonTerminalNode}).
+	 */
+	public static final int NON_TERMINAL = 1;
+
+	/**
+	 * The kind of nodes that represent intermediate results (see
+	 * {@link IntermediateNode}).
+	 */
+	public static final int INTERMEDIATE = 2;
+
+	/**
+	 * The kind of nodes that represent skipped (invalid) data (see
+	 * {@link ErrorNode}).
+	 */
+	public static final int ERROR = 3;
+
+	private final String data;
+	private final String[] names;
+	private final int[] kinds;
+	private final int[] nameIds;
+	private final int[] starts;
+	private final int[] ends;
+	private final int[] firstChildren;
+	private final int[] nextSiblings;
+
+	/**
+	 * Constructs a new {@link CompactTree} with the specified parameters. All
+	 * arrays (except for the names) must be of the same length.
+	 *
+	 * @param data
+	 *            the parsed data
+	 * @param names
+	 *            the table of names
+	 * @param kinds
+	 *            the kind of each node
+	 * @param nameIds
+	 *            the index (into the table of names) of each node or
+	 *            <code>-1</code> if the node has no name
+	 * @param starts
+	 *            the start offset of each node
+	 * @param ends
+	 *            the end offset of each node
+	 * @param firstChildren
+	 *            the first child of each node or <code>-1</code>
+	 * @param nextSiblings
+	 *            the next sibling of each node or <code>-1</code>
+	 */
+	public CompactTree(String data, String[] names, int[] kinds, int[] nameIds, int[] starts, int[] ends,
+			int[] firstChildren, int[] nextSiblings) {
+		this.data = data;
+		this.names = names;
+		this.kinds = kinds;
+		this.nameIds = nameIds;
+		this.starts = starts;
+		this.ends = ends;
+		this.firstChildren = firstChildren;
+		this.nextSiblings = nextSiblings;
+	}
+
+	/**
+	 * Returns the parsed data.
+	 *
+	 * @return the parsed data
+	 */
+	public String getData() {
+		return this.data;
+	}
+
+	/**
+	 * Returns the number of nodes in this tree.
+	 *
+	 * @return the number of nodes in this tree
+	 */
+	public int size() {
+		return this.kinds.length;
+	}
+
+	/**
+	 * Returns the kind of the specified node (see {@link #TERMINAL},
+	 * {@link #NON_TERMINAL}, {@link #INTERMEDIATE} and {@link #ERROR}).
+	 *
+	 * @param node
+	 *            the node
+	 * @return the kind of the specified node
+	 */
+	public int getKind(int node) {
+		return this.kinds[node];
+	}
+
+	/**
+	 * Returns the name of the specified node. Returns <code>null</code> if the
+	 * node does not represent a non-terminal symbol.
+	 *
+	 * @param node
+	 *            the node
+	 * @return the name of the specified node
+	 */
+	public String getName(int node) {
+		int nameId = this.nameIds[node];
+		return nameId >= 0 ? this.names[nameId] : null;
+	}
+
+	/**
+	 * Returns the start offset of the specified node.
+	 *
+	 * @param node
+	 *            the node
+	 * @return the start offset of the specified node
+	 */
+	public int getStart(int node) {
+		return this.starts[node];
+	}
+
+	/**
+	 * Returns the end offset of the specified node.
+	 *
+	 * @param node
+	 *            the node
+	 * @return the end offset of the specified node
+	 */
+	public int getEnd(int node) {
+		return this.ends[node];
+	}
+
+	/**
+	 * Returns the data that is covered by the specified node.
+	 *
+	 * @param node
+	 *            the node
+	 * @return the data that is covered by the specified node
+	 */
+	public String getText(int node) {
+		return this.data.substring(this.starts[node], this.ends[node]);
+	}
+
+	/**
+	 * Returns the first child of the specified node. Returns <code>-1</code>
+	 * if the node has no children.
+	 *
+	 * @param node
+	 *            the node
+	 * @return the first child of the specified node
+	 */
+	public int getFirstChild(int node) {
+		return this.firstChildren[node];
+	}
+
+	/**
+	 * Returns the next sibling of the specified node. Returns <code>-1</code>
+	 * if the node has no next sibling.
+	 *
+	 * @param node
+	 *            the node
+	 * @return the next sibling of the specified node
+	 */
+	public int getNextSibling(int node) {
+		return this.nextSiblings[node];
+	}
+
+	/**
+	 * Returns a new {@link Cursor} that is positioned at the root of this
+	 * tree.
+	 *
+	 * @return a new cursor
+	 */
+	public Cursor cursor() {
+		return new Cursor();
+	}
+
+	/**
+	 * Converts this tree into a tree of {@link Node}s.
+	 *
+	 * @return the tree of nodes
+	 */
+	public Node toNode() {
+		return toNode(0);
+	}
+
+	/**
+	 * Converts the subtree of the specified node into a tree of {@link Node}s.
+	 * Other parts of this tree are not converted.
+	 *
+	 * @param node
+	 *            the root of the subtree
+	 * @return the tree of nodes
+	 */
+	public Node toNode(int node) {
+		int[] pending = new int[16];
+		Node[] pendingNodes = new Node[16];
+		int count = 0;
+
+		Node root = createNode(node);
+		pending[count] = node;
+		pendingNodes[count++] = root;
+		while (count > 0) {
+			int parent = pending[--count];
+			Node parentNode = pendingNodes[count];
+			pendingNodes[count] = null;
+			for (int child = this.firstChildren[parent]; child >= 0; child = this.nextSiblings[child]) {
+				Node childNode = createNode(child);
+				parentNode.addChild(childNode);
+				if (this.firstChildren[child] >= 0) {
+					if (count == pending.length) {
+						pending = Arrays.copyOf(pending, count * 2);
+						pendingNodes = Arrays.copyOf(pendingNodes, count * 2);
+					}
+					pending[count] = child;
+					pendingNodes[count++] = childNode;
+				}
+			}
+		}
+		return root;
+	}
+
+	/**
+	 * A helper function that creates a {@link Node} for the specified node
+	 * (without children).
+	 *
+	 * @param node
+	 *            the node
+	 * @return the node
+	 */
+	private Node createNode(int node) {
+		switch (this.kinds[node]) {
+		case TERMINAL:
+			return new TerminalNode(getText(node));
+		case NON_TERMINAL:
+			return new NonTerminalNode(getName(node));
+		case ERROR:
+			return new ErrorNode(getText(node));
+		default:
+			return new IntermediateNode();
+		}
+	}
+
+	/**
+	 * The class {@link Cursor}. It is intended to walk a {@link CompactTree}
+	 * without converting it into a tree of {@link Node}s. A cursor is
+	 * positioned at a single node and can be moved to the node's first child,
+	 * next sibling or parent.
+	 *
+	 * @author Claas Ahlrichs
+	 */
+	public class Cursor {
+
+		private int[] path = new int[16];
+		private int depth = 0;
+
+		/**
+		 * Constructs a new {@link Cursor} that is positioned at the root of the
+		 * tree.
+		 */
+		Cursor() {
+			this.path[0] = 0;
+		}
+
+		/**
+		 * Returns the index of the current node.
+		 *
+		 * @return the index of the current node
+		 */
+		public int getNode() {
+			return this.path[this.depth];
+		}
+
+		/**
+		 * Returns the depth of the current node. The root has depth zero (0).
+		 *
+		 * @return the depth of the current node
+		 */
+		public int getDepth() {
+			return this.depth;
+		}
+
+		/**
+		 * Returns the kind of the current node.
+		 *
+		 * @return the kind of the current node
+		 * @see CompactTree#getKind(int)
+		 */
+		public int getKind() {
+			return CompactTree.this.getKind(getNode());
+		}
+
+		/**
+		 * Returns the name of the current node.
+		 *
+		 * @return the name of the current node
+		 * @see CompactTree#getName(int)
+		 */
+		public String getName() {
+			return CompactTree.this.getName(getNode());
+		}
+
+		/**
+		 * Returns the start offset of the current node.
+		 *
+		 * @return the start offset of the current node
+		 */
+		public int getStart() {
+			return CompactTree.this.getStart(getNode());
+		}
+
+		/**
+		 * Returns the end offset of the current node.
+		 *
+		 * @return the end offset of the current node
+		 */
+		public int getEnd() {
+			return CompactTree.this.getEnd(getNode());
+		}
+
+		/**
+		 * Returns the data that is covered by the current node.
+		 *
+		 * @return the data that is covered by the current node
+		 */
+		public String getText() {
+			return CompactTree.this.getText(getNode());
+		}
+
+		/**
+		 * Moves this cursor to the first child of the current node. Returns
+		 * <code>false</code> (and does not move) if the node has no children.
+		 *
+		 * @return <code>true</code> if the cursor was moved, <code>false</code>
+		 *         otherwise
+		 */
+		public boolean gotoFirstChild() {
+			int child = getFirstChild(getNode());
+			if (child < 0)
+				return false;
+			if (this.depth + 1 == this.path.length)
+				this.path = Arrays.copyOf(this.path, this.path.length * 2);
+			this.path[++this.depth] = child;
+			return true;
+		}
+
+		/**
+		 * Moves this cursor to the next sibling of the current node. Returns
+		 * <code>false</code> (and does not move) if the node has no next
+		 * sibling. The root never has siblings.
+		 *
+		 * @return <code>true</code> if the cursor was moved, <code>false</code>
+		 *         otherwise
+		 */
+		public boolean gotoNextSibling() {
+			if (this.depth == 0)
+				return false;
+			int sibling = getNextSibling(getNode());
+			if (sibling < 0)
+				return false;
+			this.path[this.depth] = sibling;
+			return true;
+		}
+
+		/**
+		 * Moves this cursor to the parent of the current node. Returns
+		 * <code>false</code> (and does not move) if the cursor is positioned at
+		 * the root.
+		 *
+		 * @return <code>true</code> if the cursor was moved, <code>false</code>
+		 *         otherwise
+		 */
+		public boolean gotoParent() {
+			if (this.depth == 0)
+				return false;
+			this.depth--;
+			return true;
+		}
+
+		/**
+		 * Converts the subtree of the current node into a tree of {@link Node}s.
+		 *
+		 * @return the tree of nodes
+		 * @see CompactTree#toNode(int)
+		 */
+		public Node toNode() {
+			return CompactTree.this.toNode(getNode());
+		}
+
+		/**
+		 * Converts the subtree of the current node into a tree of {@link Node}s
+		 * and passes it to the specified visitor. This allows existing
+		 * {@link NodeVisitor}s to process parts of a compact tree.
+		 *
+		 * @param visitor
+		 *            the visitor
+		 */
+		public void visit(NodeVisitor visitor) {
+			toNode().visit(visitor);
+		}
+
+	}
+
+}
@@ -0,0 +1,902 @@
+package de.claas.parser.results;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import de.claas.parser.Node;
+import de.claas.parser.ParseListener;
+import de.claas.parser.visitors.Parser;
+
+/**
+ * The class {@link CompactTreeBuilder}. It is intended to record the nodes of a
+ * parse tree while the tree is being parsed (see {@link Parser}). Nodes are
+ * recorded in pre-order as flat records (i.e. kind, name, start offset, end
+ * offset and parent) in parallel <code>int</code> arrays. No {@link Node}
+ * instances are created while parsing. Instead, recorded subtrees are converted
+ * into a {@link CompactTree} (see {@link #build(int, boolean)}) or into a tree
+ * of {@link Node}s (see {@link #toNode(int, boolean)}) on demand. Recorded
+ * subtrees can also be reported to a {@link ParseListener} (see
+ * {@link #replay(int, ParseListener)}).
+ * <p>
+ * Records are opened and closed in a nested fashion (see {@link #open(int,
+ * String, int)} and {@link #close(int, int)}). Speculatively recorded nodes
+ * (e.g. of alternatives that are discarded) are dropped by truncating the
+ * records (see {@link #abort(int)} and {@link #truncate(int)}).
+ * <p>
+ * Optionally, values (e.g. computed by semantic actions) are kept on a stack
+ * alongside the records (see {@link #pushValue(Object)}). Values are dropped
+ * together with the records that were open when they were added.
+ * <p>
+ * A record can refer to the subtree of an earlier record instead of copying
+ * it (see {@link #refer(int, int)}). This allows a subtree to be extended
+ * step by step (e.g. the seed of a left-recursive rule) without copying it in
+ * every step. References are resolved by copying the referring subtree (see
+ * {@link #copy(int)}). Subtrees that contain references cannot be converted
+ * otherwise.
+ *
+ * @author Claas Ahlrichs
+ */
+public class CompactTreeBuilder {
+
+	/**
+	 * The kind of records that refer to the subtree of another record (see
+	 * {@link #refer(int, int)}).
+	 */
+	public static final int REFERENCE = -1;
+
+	private static final int INITIAL_CAPACITY = 64;
+
+	private final String data;
+	private final List<String> names = new ArrayList<>();
+	private final Map<String, Integer> nameIds = new HashMap<>();
+	private int[] kinds = new int[INITIAL_CAPACITY];
+	private int[] nameIdsByRecord = new int[INITIAL_CAPACITY];
+	private int[] starts = new int[INITIAL_CAPACITY];
+	private int[] ends = new int[INITIAL_CAPACITY];
+	private int[] parents = new int[INITIAL_CAPACITY];
+	private int[] valueMarks = new int[INITIAL_CAPACITY];
+	private Object[] values = new Object[INITIAL_CAPACITY];
+	private int valueCount = 0;
+	private int size = 0;
+	private int current = -1;
+
+	/**
+	 * Constructs a new {@link CompactTreeBuilder} with the specified parameter.
+	 *
+	 * @param data
+	 *            the data that is being parsed
+	 */
+	public CompactTreeBuilder(String data) {
+		this.data = data;
+	}
+
+	/**
+	 * Returns the data that is being parsed.
+	 *
+	 * @return the data that is being parsed
+	 */
+	public String getData() {
+		return this.data;
+	}
+
+	/**
+	 * Returns the number of records.
+	 *
+	 * @return the number of records
+	 */
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * Returns the record that is currently open (i.e. the record that will
+	 * become the parent of newly opened records). Returns <code>-1</code> if
+	 * no record is open.
+	 *
+	 * @return the record that is currently open
+	 */
+	public int getCurrent() {
+		return this.current;
+	}
+
+	/**
+	 * Returns the kind of the specified record (see
+	 * {@link CompactTree#TERMINAL}, {@link CompactTree#NON_TERMINAL},
+	 * {@link CompactTree#INTERMEDIATE}, {@link CompactTree#ERROR} and
+	 * {@link #REFERENCE}).
+	 *
+	 * @param record
+	 *            the record
+	 * @return the kind of the specified record
+	 */
+	public int getKind(int record) {
+		return this.kinds[record];
+	}
+
+	/**
+	 * Returns the name of the specified record. Returns <code>null</code> if
+	 * the record does not represent a non-terminal node.
+	 *
+	 * @param record
+	 *            the record
+	 * @return the name of the specified record
+	 */
+	public String getName(int record) {
+		int nameId = this.nameIdsByRecord[record];
+		return nameId >= 0 && this.kinds[record] != REFERENCE ? this.names.get(nameId) : null;
+	}
+
+	/**
+	 * Returns the start offset of the specified record.
+	 *
+	 * @param record
+	 *            the record
+	 * @return the start offset of the specified record
+	 */
+	public int getStart(int record) {
+		return this.starts[record];
+	}
+
+	/**
+	 * Returns the end offset of the specified record.
+	 *
+	 * @param record
+	 *            the record
+	 * @return the end offset of the specified record
+	 */
+	public int getEnd(int record) {
+		return this.ends[record];
+	}
+
+	/**
+	 * Returns the parent of the specified record. Returns <code>-1</code> if
+	 * the record has no parent.
+	 *
+	 * @param record
+	 *            the record
+	 * @return the parent of the specified record
+	 */
+	public int getParent(int record) {
+		return this.parents[record];
+	}
+
+	/**
+	 * Opens and returns a new record. The record becomes a child of the
+	 * currently open record (see {@link #getCurrent()}) and is itself the
+	 * currently open record until it is closed or aborted.
+	 *
+	 * @param kind
+	 *            the kind of record (see {@link CompactTree#TERMINAL},
+	 *            {@link CompactTree#NON_TERMINAL},
+	 *            {@link CompactTree#INTERMEDIATE} and
+	 *            {@link CompactTree#ERROR})
+	 * @param name
+	 *            the name of the non-terminal node or <code>null</code>
+	 * @param start
+	 *            the start offset
+	 * @return the new record
+	 */
+	public int open(int kind, String name, int start) {
+		ensureCapacity(this.size + 1);
+		int record = this.size++;
+		this.kinds[record] = kind;
+		this.nameIdsByRecord[record] = nameId(name);
+		this.starts[record] = start;
+		this.ends[record] = start;
+		this.parents[record] = this.current;
+		this.valueMarks[record] = this.valueCount;
+		this.current = record;
+		return record;
+	}
+
+	/**
+	 * Adds and returns a new (closed) record. The record becomes a child of
+	 * the currently open record (see {@link #getCurrent()}).
+	 *
+	 * @param kind
+	 *            the kind of record (see {@link CompactTree#TERMINAL},
+	 *            {@link CompactTree#NON_TERMINAL},
+	 *            {@link CompactTree#INTERMEDIATE} and
+	 *            {@link CompactTree#ERROR})
+	 * @param name
+	 *            the name of the non-terminal node or <code>null</code>
+	 * @param start
+	 *            the start offset
+	 * @param end
+	 *            the end offset
+	 * @return the new record
+	 */
+	public int add(int kind, String name, int start, int end) {
+		int record = open(kind, name, start);
+		close(record, end);
+		return record;
+	}
+
+	/**
+	 * Adds and returns a new (closed) record that refers to the subtree of the
+	 * specified earlier record (i.e. the subtree is not copied). The record
+	 * becomes a child of the currently open record (see {@link #getCurrent()})
+	 * and it spans the same data as the referenced record. The values of the
+	 * referenced subtree are added again. The referenced records must not be
+	 * dropped as long as the reference is kept.
+	 *
+	 * @param root
+	 *            the root record of the referenced subtree
+	 * @param end
+	 *            the (exclusive) end of the referenced subtree (i.e. the
+	 *            number of records when the subtree was complete)
+	 * @return the new record
+	 */
+	public int refer(int root, int end) {
+		int valueStart = this.valueMarks[root];
+		int valueEnd = end < this.size ? this.valueMarks[end] : this.valueCount;
+		int record = add(REFERENCE, null, this.starts[root], this.ends[root]);
+		this.nameIdsByRecord[record] = root;
+		for (int value = valueStart; value < valueEnd; value++) {
+			pushValue(this.values[value]);
+		}
+		return record;
+	}
+
+	/**
+	 * Returns the records of the subtree of the specified record in pre-order,
+	 * where references (see {@link #refer(int, int)}) are replaced by the
+	 * records of the referenced subtrees.
+	 *
+	 * @param root
+	 *            the root record
+	 * @return the records of the subtree (with resolved references)
+	 */
+	public int[] resolve(int root) {
+		return resolve(root, null);
+	}
+
+	/**
+	 * Closes the specified record. Its parent becomes the currently open
+	 * record.
+	 *
+	 * @param record
+	 *            the record
+	 * @param end
+	 *            the end offset
+	 */
+	public void close(int record, int end) {
+		this.ends[record] = end;
+		this.current = this.parents[record];
+	}
+
+	/**
+	 * Aborts the specified record. The record and all records that were added
+	 * after it are dropped. Its parent becomes the currently open record.
+	 *
+	 * @param record
+	 *            the record
+	 */
+	public void abort(int record) {
+		this.current = this.parents[record];
+		truncate(record);
+	}
+
+	/**
+	 * Drops all records that were added after the specified mark (see
+	 * {@link #size()}). Values that were added after the mark are dropped as
+	 * well. The currently open record remains unchanged.
+	 *
+	 * @param mark
+	 *            the number of records to retain
+	 */
+	public void truncate(int mark) {
+		if (mark < this.size) {
+			int valueMark = this.valueMarks[mark];
+			Arrays.fill(this.values, valueMark, this.valueCount, null);
+			this.valueCount = valueMark;
+			this.size = mark;
+		}
+	}
+
+	/**
+	 * Adds the specified value. The value is associated with the currently
+	 * open record (or the most recently closed record) and it is dropped when
+	 * that record is aborted (see {@link #abort(int)} or
+	 * {@link #truncate(int)}).
+	 *
+	 * @param value
+	 *            the value
+	 */
+	public void pushValue(Object value) {
+		if (this.valueCount == this.values.length)
+			this.values = Arrays.copyOf(this.values, this.valueCount * 2);
+		this.values[this.valueCount++] = value;
+	}
+
+	/**
+	 * Returns the values that were added since the specified record was
+	 * opened (in the order in which they were added).
+	 *
+	 * @param record
+	 *            the record
+	 * @return the values that were added since the specified record was opened
+	 */
+	public List<Object> getValues(int record) {
+		return Arrays.asList(Arrays.copyOfRange(this.values, this.valueMarks[record], this.valueCount));
+	}
+
+	/**
+	 * Removes and returns the values that were added since the specified
+	 * record was opened (in the order in which they were added).
+	 *
+	 * @param record
+	 *            the record
+	 * @return the values that were added since the specified record was opened
+	 */
+	public List<Object> popValues(int record) {
+		List<Object> result = getValues(record);
+		int valueMark = this.valueMarks[record];
+		Arrays.fill(this.values, valueMark, this.valueCount, null);
+		this.valueCount = valueMark;
+		return result;
+	}
+
+	/**
+	 * Returns a copy of the subtree of the specified record (including the
+	 * values that were added while the subtree was recorded). The copy is
+	 * independent of this builder's records and can be added again later on
+	 * (see {@link #paste(Subtree)}), even after the original records were
+	 * dropped. References (see {@link #refer(int, int)}) are resolved (i.e.
+	 * the copy contains the records of the referenced subtrees instead).
+	 *
+	 * @param root
+	 *            the root record
+	 * @return the copy of the subtree
+	 */
+	public Subtree copy(int root) {
+		int end = subtreeEnd(root);
+		int length = end - root;
+		int valueStart = this.valueMarks[root];
+		int valueEnd = end < this.size ? this.valueMarks[end] : this.valueCount;
+		int[] subtreeParents = new int[length];
+		int[] subtreeValueMarks = new int[length];
+		for (int i = 1; i < length; i++) {
+			if (this.kinds[root + i] == REFERENCE)
+				return copyResolved(root, valueStart, valueEnd);
+			subtreeParents[i] = this.parents[root + i] - root;
+			subtreeValueMarks[i] = this.valueMarks[root + i] - valueStart;
+		}
+		return new Subtree(Arrays.copyOfRange(this.kinds, root, end),
+				Arrays.copyOfRange(this.nameIdsByRecord, root, end), Arrays.copyOfRange(this.starts, root, end),
+				Arrays.copyOfRange(this.ends, root, end), subtreeParents, subtreeValueMarks,
+				Arrays.copyOfRange(this.values, valueStart, valueEnd));
+	}
+
+	/**
+	 * Adds (a copy of) the specified subtree and returns its root record. The
+	 * root becomes a child of the currently open record (see
+	 * {@link #getCurrent()}). The subtree must have been copied from this
+	 * builder (see {@link #copy(int)}).
+	 *
+	 * @param subtree
+	 *            the subtree
+	 * @return the root record of the added subtree
+	 */
+	public int paste(Subtree subtree) {
+		int length = subtree.kinds.length;
+		int root = this.size;
+		int valueStart = this.valueCount;
+		ensureCapacity(root + length);
+		System.arraycopy(subtree.kinds, 0, this.kinds, root, length);
+		System.arraycopy(subtree.nameIds, 0, this.nameIdsByRecord, root, length);
+		System.arraycopy(subtree.starts, 0, this.starts, root, length);
+		System.arraycopy(subtree.ends, 0, this.ends, root, length);
+		this.parents[root] = this.current;
+		this.valueMarks[root] = valueStart;
+		for (int i = 1; i < length; i++) {
+			this.parents[root + i] = subtree.parents[i] + root;
+			this.valueMarks[root + i] = subtree.valueMarks[i] + valueStart;
+		}
+		this.size += length;
+		for (Object value : subtree.values) {
+			pushValue(value);
+		}
+		return root;
+	}
+
+	/**
+	 * Converts the subtree of the specified record into a {@link CompactTree}.
+	 * The specified record becomes the root of the returned tree. Optionally
+	 * intermediate records (and thus non-essential nodes) can be removed. The
+	 * root is always retained.
+	 *
+	 * @param root
+	 *            the root record
+	 * @param retainIntermediateNodes
+	 *            whether intermediate records should be retained
+	 * @return the compact tree
+	 */
+	public CompactTree build(int root, boolean retainIntermediateNodes) {
+		int end = subtreeEnd(root);
+		int[] mapping = new int[end - root];
+		int count = 0;
+		for (int record = root; record < end; record++) {
+			if (record == root || retainIntermediateNodes || this.kinds[record] != CompactTree.INTERMEDIATE)
+				mapping[record - root] = count++;
+			else
+				mapping[record - root] = -1;
+		}
+
+		int[] treeKinds = new int[count];
+		int[] treeNames = new int[count];
+		int[] treeStarts = new int[count];
+		int[] treeEnds = new int[count];
+		int[] treeFirstChildren = new int[count];
+		int[] treeNextSiblings = new int[count];
+		int[] lastChildren = new int[count];
+		Arrays.fill(treeFirstChildren, -1);
+		Arrays.fill(treeNextSiblings, -1);
+		Arrays.fill(lastChildren, -1);
+		for (int record = root; record < end; record++) {
+			int node = mapping[record - root];
+			if (node < 0)
+				continue;
+			treeKinds[node] = this.kinds[record];
+			treeNames[node] = this.nameIdsByRecord[record];
+			treeStarts[node] = this.starts[record];
+			treeEnds[node] = this.ends[record];
+			if (record != root) {
+				int parent = retainedParent(record, root, mapping);
+				if (treeFirstChildren[parent] < 0)
+					treeFirstChildren[parent] = node;
+				else
+					treeNextSiblings[lastChildren[parent]] = node;
+				lastChildren[parent] = node;
+			}
+		}
+		String[] treeNameTable = this.names.toArray(new String[this.names.size()]);
+		return new CompactTree(this.data, treeNameTable, treeKinds, treeNames, treeStarts, treeEnds,
+				treeFirstChildren, treeNextSiblings);
+	}
+
+	/**
+	 * Converts the subtree of the specified record into a tree of
+	 * {@link Node}s. Optionally {@link IntermediateNode}s (and thus
+	 * non-essential nodes) can be removed. The root is always retained.
+	 *
+	 * @param root
+	 *            the root record
+	 * @param retainIntermediateNodes
+	 *            whether {@link IntermediateNode} instances should be retained
+	 * @return the tree of nodes
+	 */
+	public Node toNode(int root, boolean retainIntermediateNodes) {
+		int end = subtreeEnd(root);
+		Node[] nodes = new Node[end - root];
+		int[] mapping = new int[end - root];
+		for (int record = root; record < end; record++) {
+			boolean retained = record == root || retainIntermediateNodes
+					|| this.kinds[record] != CompactTree.INTERMEDIATE;
+			mapping[record - root] = retained ? record - root : -1;
+			if (!retained)
+				continue;
+
+			Node node = createNode(record);
+			nodes[record - root] = node;
+			if (record != root)
+				nodes[retainedParent(record, root, mapping)].addChild(node);
+		}
+		return nodes[0];
+	}
+
+	/**
+	 * Converts the subtree of the specified record into a tree of
+	 * {@link Node}s, where structurally identical subtrees are shared (see
+	 * {@link NodeInterner}). Optionally {@link IntermediateNode}s (and thus
+	 * non-essential nodes) can be removed. The root is always retained. The
+	 * tree is built bottom-up (i.e. children are interned before their
+	 * parents).
+	 *
+	 * @param root
+	 *            the root record
+	 * @param retainIntermediateNodes
+	 *            whether {@link IntermediateNode} instances should be retained
+	 * @param interner
+	 *            the interner that shares structurally identical subtrees or
+	 *            <code>null</code> if subtrees should not be shared
+	 * @return the tree of nodes
+	 */
+	public Node toNode(int root, boolean retainIntermediateNodes, NodeInterner interner) {
+		if (interner == null)
+			return toNode(root, retainIntermediateNodes);
+
+		int end = subtreeEnd(root);
+		int[] mapping = new int[end - root];
+		int[] firstChildren = new int[end - root];
+		int[] nextSiblings = new int[end - root];
+		int[] lastChildren = new int[end - root];
+		Arrays.fill(firstChildren, -1);
+		Arrays.fill(nextSiblings, -1);
+		for (int record = root; record < end; record++) {
+			boolean retained = record == root || retainIntermediateNodes
+					|| this.kinds[record] != CompactTree.INTERMEDIATE;
+			mapping[record - root] = retained ? record - root : -1;
+			if (retained && record != root) {
+				int parent = retainedParent(record, root, mapping);
+				if (firstChildren[parent] < 0)
+					firstChildren[parent] = record - root;
+				else
+					nextSiblings[lastChildren[parent]] = record - root;
+				lastChildren[parent] = record - root;
+			}
+		}
+
+		Node[] nodes = new Node[end - root];
+		for (int record = end - 1; record >= root; record--) {
+			int index = record - root;
+			if (mapping[index] < 0)
+				continue;
+
+			Node node = createNode(record);
+			for (int child = firstChildren[index]; child >= 0; child = nextSiblings[child]) {
+				node.addChild(nodes[child]);
+				nodes[child] = null;
+			}
+			Node canonical = interner.intern(node);
+			if (canonical != node)
+				node.removeChildren();
+			nodes[index] = canonical;
+		}
+		return nodes[0];
+	}
+
+	/**
+	 * Reports the subtree of the specified record to the given listener. The
+	 * records are reported in pre-order (i.e. in document order), where
+	 * intermediate records are skipped. No {@link Node}s are created.
+	 *
+	 * @param root
+	 *            the root record
+	 * @param listener
+	 *            the listener
+	 */
+	public void replay(int root, ParseListener listener) {
+		int end = subtreeEnd(root);
+		int[] path = new int[16];
+		int depth = 0;
+		for (int record = root; record < end; record++) {
+			while (depth > 0 && path[depth - 1] != this.parents[record]) {
+				exit(path[--depth], listener);
+			}
+
+			int kind = this.kinds[record];
+			if (kind == CompactTree.TERMINAL) {
+				listener.terminal(this.starts[record], this.ends[record]);
+			} else if (kind == CompactTree.ERROR) {
+				listener.error(this.starts[record], this.ends[record]);
+			} else {
+				if (kind == CompactTree.NON_TERMINAL)
+					listener.enterNonTerminal(getName(record), this.starts[record]);
+				if (depth == path.length)
+					path = Arrays.copyOf(path, depth * 2);
+				path[depth++] = record;
+			}
+		}
+		while (depth > 0) {
+			exit(path[--depth], listener);
+		}
+	}
+
+	/**
+	 * A helper function that reports the end of the specified record to the
+	 * given listener (unless it is an intermediate record).
+	 *
+	 * @param record
+	 *            the record
+	 * @param listener
+	 *            the listener
+	 */
+	private void exit(int record, ParseListener listener) {
+		if (this.kinds[record] == CompactTree.NON_TERMINAL)
+			listener.exitNonTerminal(getName(record), this.starts[record], this.ends[record]);
+	}
+
+	/**
+	 * A helper function that creates a {@link Node} for the specified record.
+	 *
+	 * @param record
+	 *            the record
+	 * @return the node
+	 */
+	private Node createNode(int record) {
+		switch (this.kinds[record]) {
+		case CompactTree.TERMINAL:
+			return new TerminalNode(this.data.substring(this.starts[record], this.ends[record]));
+		case CompactTree.NON_TERMINAL:
+			return new NonTerminalNode(getName(record));
+		case CompactTree.ERROR:
+			return new ErrorNode(this.data.substring(this.starts[record], this.ends[record]));
+		default:
+			return new IntermediateNode();
+		}
+	}
+
+	/**
+	 * A helper function that returns the (mapped) index of the closest
+	 * retained ancestor of the specified record.
+	 *
+	 * @param record
+	 *            the record
+	 * @param root
+	 *            the root record
+	 * @param mapping
+	 *            the mapping of records (relative to the root) onto retained
+	 *            indices (or <code>-1</code> if not retained)
+	 * @return the (mapped) index of the closest retained ancestor
+	 */
+	private int retainedParent(int record, int root, int[] mapping) {
+		int parent = this.parents[record];
+		while (mapping[parent - root] < 0) {
+			parent = this.parents[parent];
+		}
+		return mapping[parent - root];
+	}
+
+	/**
+	 * A helper function that returns the (exclusive) end of the subtree of the
+	 * specified record. Since records are stored in pre-order, all descendants
+	 * of a record immediately follow it.
+	 *
+	 * @param root
+	 *            the root record
+	 * @return the (exclusive) end of the subtree
+	 */
+	private int subtreeEnd(int root) {
+		if (root < 0 || root >= this.size)
+			throw new IndexOutOfBoundsException("Record does not exist: " + root);
+		int end = root + 1;
+		while (end < this.size && this.parents[end] >= root) {
+			end++;
+		}
+		return end;
+	}
+
+	/**
+	 * A helper function that returns a copy of the subtree of the specified
+	 * record, where references are resolved (see {@link #copy(int)}). The
+	 * values of referenced subtrees were added again by the references.
+	 * Thus, only the values of the specified subtree are copied.
+	 *
+	 * @param root
+	 *            the root record
+	 * @param valueStart
+	 *            the first value of the subtree
+	 * @param valueEnd
+	 *            the (exclusive) end of the subtree's values
+	 * @return the copy of the subtree
+	 */
+	private Subtree copyResolved(int root, int valueStart, int valueEnd) {
+		int[][] relations = new int[2][];
+		int[] records = resolve(root, relations);
+		int length = records.length;
+		int[] subtreeKinds = new int[length];
+		int[] subtreeNameIds = new int[length];
+		int[] subtreeStarts = new int[length];
+		int[] subtreeEnds = new int[length];
+		for (int i = 0; i < length; i++) {
+			subtreeKinds[i] = this.kinds[records[i]];
+			subtreeNameIds[i] = this.nameIdsByRecord[records[i]];
+			subtreeStarts[i] = this.starts[records[i]];
+			subtreeEnds[i] = this.ends[records[i]];
+		}
+		int[] subtreeValueMarks = relations[1];
+		for (int i = 0; i < length; i++)
+			subtreeValueMarks[i] -= valueStart;
+		return new Subtree(subtreeKinds, subtreeNameIds, subtreeStarts, subtreeEnds, relations[0], subtreeValueMarks,
+				Arrays.copyOfRange(this.values, valueStart, valueEnd));
+	}
+
+	/**
+	 * A helper function that returns the records of the subtree of the
+	 * specified record in pre-order, where references are replaced by the
+	 * records of the referenced subtrees (see {@link #resolve(int)}).
+	 * Optionally, the parent of each returned record (relative to the root)
+	 * and its value mark (as if the referenced subtrees had been recorded in
+	 * place) are returned as well. References are resolved iteratively,
+	 * since they may be nested deeply (e.g. one per step of a growing seed).
+	 *
+	 * @param root
+	 *            the root record
+	 * @param relations
+	 *            an array that receives the parents and value marks or
+	 *            <code>null</code>
+	 * @return the records of the subtree (with resolved references)
+	 */
+	private int[] resolve(int root, int[][] relations) {
+		int[] records = new int[INITIAL_CAPACITY];
+		int[] resolvedParents = new int[INITIAL_CAPACITY];
+		int[] resolvedValueMarks = new int[INITIAL_CAPACITY];
+		int count = 0;
+
+		Deque<Range> pending = new ArrayDeque<>();
+		Range range = new Range(root, subtreeEnd(root), -1, 0);
+		while (true) {
+			if (range.next >= range.end) {
+				if (pending.isEmpty())
+					break;
+				range = pending.pop();
+				continue;
+			}
+			int record = range.next++;
+			if (this.kinds[record] == REFERENCE) {
+				pending.push(range);
+				int target = this.nameIdsByRecord[record];
+				range = new Range(target, subtreeEnd(target), range.mapping[this.parents[record] - range.root],
+						this.valueMarks[record] + range.valueOffset - this.valueMarks[target]);
+				continue;
+			}
+			if (count == records.length) {
+				records = Arrays.copyOf(records, count * 2);
+				resolvedParents = Arrays.copyOf(resolvedParents, count * 2);
+				resolvedValueMarks = Arrays.copyOf(resolvedValueMarks, count * 2);
+			}
+			records[count] = record;
+			resolvedParents[count] = record == range.root ? range.parent
+					: range.mapping[this.parents[record] - range.root];
+			resolvedValueMarks[count] = this.valueMarks[record] + range.valueOffset;
+			range.mapping[record - range.root] = count++;
+		}
+		if (relations != null) {
+			relations[0] = Arrays.copyOf(resolvedParents, count);
+			relations[1] = Arrays.copyOf(resolvedValueMarks, count);
+		}
+		return Arrays.copyOf(records, count);
+	}
+
+	/**
+	 * A helper function that returns the id of the specified name. Returns
+	 * <code>-1</code> if the name is <code>null</code>.
+	 *
+	 * @param name
+	 *            the name
+	 * @return the id of the specified name
+	 */
+	private int nameId(String name) {
+		if (name == null)
+			return -1;
+		Integer nameId = this.nameIds.get(name);
+		if (nameId == null) {
+			nameId = new Integer(this.names.size());
+			this.names.add(name);
+			this.nameIds.put(name, nameId);
+		}
+		return nameId.intValue();
+	}
+
+	/**
+	 * A helper function that grows the record arrays if needed.
+	 *
+	 * @param capacity
+	 *            the minimum capacity
+	 */
+	private void ensureCapacity(int capacity) {
+		if (capacity > this.kinds.length) {
+			int newCapacity = Math.max(capacity, this.kinds.length * 2);
+			this.kinds = Arrays.copyOf(this.kinds, newCapacity);
+			this.nameIdsByRecord = Arrays.copyOf(this.nameIdsByRecord, newCapacity);
+			this.starts = Arrays.copyOf(this.starts, newCapacity);
+			this.ends = Arrays.copyOf(this.ends, newCapacity);
+			this.parents = Arrays.copyOf(this.parents, newCapacity);
+			this.valueMarks = Arrays.copyOf(this.valueMarks, newCapacity);
+		}
+	}
+
+	/**
+	 * The class {@link Range}. It is intended to hold a range of records
+	 * (i.e. a subtree) while references are resolved (see
+	 * {@link CompactTreeBuilder#resolve(int)}).
+	 *
+	 * @author Claas Ahlrichs
+	 */
+	private static class Range {
+
+		private final int root;
+		private final int end;
+		private final int parent;
+		private final int valueOffset;
+		private final int[] mapping;
+		private int next;
+
+		/**
+		 * Constructs a new {@link Range} with the specified parameters.
+		 *
+		 * @param root
+		 *            the root record of the range
+		 * @param end
+		 *            the (exclusive) end of the range
+		 * @param parent
+		 *            the resolved parent of the root record
+		 * @param valueOffset
+		 *            the offset that is added to the value marks of the
+		 *            range's records
+		 */
+		Range(int root, int end, int parent, int valueOffset) {
+			this.root = root;
+			this.end = end;
+			this.parent = parent;
+			this.valueOffset = valueOffset;
+			this.mapping = new int[end - root];
+			this.next = root;
+		}
+
+	}
+
+	/**
+	 * The class {@link Subtree}. It is intended to hold a copy of recorded
+	 * nodes (see {@link CompactTreeBuilder#copy(int)}). Parents and value
+	 * marks are stored relative to the subtree's root, so that the subtree can
+	 * be added at any position (see {@link CompactTreeBuilder#paste(Subtree)}).
+	 *
+	 * @author Claas Ahlrichs
+	 */
+	public static class Subtree {
+
+		private final int[] kinds;
+		private final int[] nameIds;
+		private final int[] starts;
+		private final int[] ends;
+		private final int[] parents;
+		private final int[] valueMarks;
+		private final Object[] values;
+
+		/**
+		 * Constructs a new {@link Subtree} with the specified parameters.
+		 *
+		 * @param kinds
+		 *            the kind of each record
+		 * @param nameIds
+		 *            the name of each record
+		 * @param starts
+		 *            the start offset of each record
+		 * @param ends
+		 *            the end offset of each record
+		 * @param parents
+		 *            the parent of each record (relative to the root)
+		 * @param valueMarks
+		 *            the value mark of each record (relative to the root)
+		 * @param values
+		 *            the values of the subtree
+		 */
+		Subtree(int[] kinds, int[] nameIds, int[] starts, int[] ends, int[] parents, int[] valueMarks,
+				Object[] values) {
+			this.kinds = kinds;
+			this.nameIds = nameIds;
+			this.starts = starts;
+			this.ends = ends;
+			this.parents = parents;
+			this.valueMarks = valueMarks;
+			this.values = values;
+		}
+
+		/**
+		 * Returns the number of records in this subtree.
+		 *
+		 * @return the number of records in this subtree
+		 */
+		public int size() {
+			return this.kinds.length;
+		}
+
+		/**
+		 * Returns the end offset of this subtree's root.
+		 *
+		 * @return the end offset of this subtree's root
+		 */
+		public int getEnd() {
+			return this.ends[0];
+		}
+
+	}
+
+}
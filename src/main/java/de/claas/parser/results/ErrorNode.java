@@ -0,0 +1,40 @@
+package de.claas.parser.results;
+
+import de.claas.parser.Grammar;
+import de.claas.parser.Node;
+import de.claas.parser.NodeVisitor;
+
+/**
+ * The class {@link ErrorNode}. It is an implementation of the
+ * {@link TerminalNode} class. It is intended to represent invalid data that
+ * was skipped while parsing sentences in recovery mode. Instances of this class
+ * hold the skipped data.
+ * 
+ * @author Claas Ahlrichs
+ * 
+ * @see Grammar#parseWithRecovery(String, java.util.List)
+ *
+ */
+public class ErrorNode extends TerminalNode {
+
+	/**
+	 * Constructs a new {@link ErrorNode} with the specified parameter.
+	 * 
+	 * @param terminal
+	 *            the skipped data
+	 */
+	public ErrorNode(String terminal) {
+		super(terminal);
+	}
+
+	@Override
+	public void visit(NodeVisitor visitor) {
+		visitor.visitErrorNode(this);
+	}
+
+	@Override
+	public String toString() {
+		return String.format("E:%s", getTerminal());
+	}
+
+}
@@ -0,0 +1,139 @@
+package de.claas.parser.results;
+
+import java.util.Iterator;
+import java.util.Objects;
+
+import de.claas.parser.Grammar;
+import de.claas.parser.Node;
+
+/**
+ * The class {@link NodeInterner}. It is intended to share structurally
+ * identical subtrees (i.e. <i>hash-consing</i>). For every distinct subtree, a
+ * single (canonical) {@link Node} is kept. Interning a node returns the
+ * canonical node that is structurally identical to it.
+ * <p>
+ * Nodes are interned bottom-up. Two nodes are considered to be structurally
+ * identical if they are of the same class, have the same terminal symbol (or
+ * name) and their children are identical (i.e. the very same, canonical
+ * instances in the same order). Consequently, the children of a node must
+ * have been interned before the node itself is interned. Nodes are looked up
+ * by their (incrementally maintained) structural hash code (see
+ * {@link Node#hashCode()}). Since shared subtrees are compared by identity,
+ * comparing them for equality is a pointer comparison.
+ * <p>
+ * Interned nodes are shared by all trees that contain them. They must not be
+ * modified afterwards. An instance of this class can be reused for many parses
+ * (see {@link Grammar#setInterner(NodeInterner)}), such that repeated
+ * sub-derivations of different inputs share the same nodes.
+ *
+ * @author Claas Ahlrichs
+ */
+public class NodeInterner {
+
+	private Node[] nodes = new Node[16];
+	private int[] hashCodes = new int[16];
+	private int size = 0;
+
+	/**
+	 * Returns the number of distinct (canonical) nodes.
+	 *
+	 * @return the number of distinct nodes
+	 */
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * Returns the canonical node that is structurally identical to the
+	 * specified node. If there is no such node, the specified node becomes
+	 * canonical and is returned. The children of the specified node must
+	 * already be canonical.
+	 *
+	 * @param node
+	 *            the node
+	 * @return the canonical node
+	 */
+	public Node intern(Node node) {
+		int hashCode = node.hashCode();
+		int mask = this.nodes.length - 1;
+		int index = mix(hashCode) & mask;
+		Node candidate;
+		while ((candidate = this.nodes[index]) != null) {
+			if (this.hashCodes[index] == hashCode && (candidate == node || isIdentical(candidate, node)))
+				return candidate;
+			index = (index + 1) & mask;
+		}
+
+		this.nodes[index] = node;
+		this.hashCodes[index] = hashCode;
+		if (++this.size * 2 > this.nodes.length)
+			grow();
+		return node;
+	}
+
+	/**
+	 * A helper function that doubles the capacity of the (open addressing)
+	 * table of canonical nodes.
+	 */
+	private void grow() {
+		Node[] oldNodes = this.nodes;
+		int[] oldHashCodes = this.hashCodes;
+		this.nodes = new Node[oldNodes.length * 2];
+		this.hashCodes = new int[oldNodes.length * 2];
+		int mask = this.nodes.length - 1;
+		for (int i = 0; i < oldNodes.length; i++) {
+			if (oldNodes[i] != null) {
+				int index = mix(oldHashCodes[i]) & mask;
+				while (this.nodes[index] != null)
+					index = (index + 1) & mask;
+				this.nodes[index] = oldNodes[i];
+				this.hashCodes[index] = oldHashCodes[i];
+			}
+		}
+	}
+
+	/**
+	 * A helper function that spreads the bits of the specified hash code.
+	 * Structural hash codes are sums and tend to cluster in the lower bits.
+	 *
+	 * @param hashCode
+	 *            the hash code
+	 * @return the spread hash code
+	 */
+	private static int mix(int hashCode) {
+		int h = hashCode * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+
+	/**
+	 * A helper function that returns <code>true</code> if the two nodes are
+	 * structurally identical. Children are compared by identity.
+	 *
+	 * @param node
+	 *            the (canonical) node
+	 * @param other
+	 *            the other node
+	 * @return <code>true</code> if the two nodes are structurally identical,
+	 *         <code>false</code> otherwise
+	 */
+	private static boolean isIdentical(Node node, Node other) {
+		if (node.getClass() != other.getClass())
+			return false;
+		if (node instanceof TerminalNode) {
+			if (!Objects.equals(((TerminalNode) node).getTerminal(), ((TerminalNode) other).getTerminal()))
+				return false;
+		} else if (node instanceof NonTerminalNode) {
+			if (!Objects.equals(((NonTerminalNode) node).getName(), ((NonTerminalNode) other).getName()))
+				return false;
+		}
+
+		Iterator<Node> children = node.iterator();
+		Iterator<Node> otherChildren = other.iterator();
+		while (children.hasNext() && otherChildren.hasNext()) {
+			if (children.next() != otherChildren.next())
+				return false;
+		}
+		return !children.hasNext() && !otherChildren.hasNext();
+	}
+
+}
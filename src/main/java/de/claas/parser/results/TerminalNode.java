@@ -48,6 +48,11 @@ public class TerminalNode extends Node {
 		return false;
 	}
 
+	@Override
+	public boolean removeChildren() {
+		return false;
+	}
+
 	@Override
 	public void visit(NodeVisitor visitor) {
 		visitor.visitTerminalNode(this);
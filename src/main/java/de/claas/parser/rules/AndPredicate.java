@@ -0,0 +1,31 @@
+package de.claas.parser.rules;
+
+import de.claas.parser.Rule;
+import de.claas.parser.RuleVisitor;
+
+/**
+ * The class {@link AndPredicate}. It is an implementation of the
+ * {@link Decorator} class. It is intended to represent a syntactic predicate
+ * (i.e. positive lookahead) within a grammar. The predicate succeeds if the
+ * decorated rule can be processed, but it never processes any data itself.
+ * 
+ * @author Claas Ahlrichs
+ */
+public class AndPredicate extends Decorator {
+
+	/**
+	 * Constructs a new {@link AndPredicate} with the specified parameter.
+	 * 
+	 * @param rule
+	 *            the decorated rule
+	 */
+	public AndPredicate(Rule rule) {
+		super(rule);
+	}
+
+	@Override
+	public void visit(RuleVisitor visitor) {
+		visitor.visitAndPredicate(this);
+	}
+
+}
@@ -0,0 +1,33 @@
+package de.claas.parser.rules;
+
+import de.claas.parser.Rule;
+import de.claas.parser.RuleVisitor;
+
+/**
+ * The class {@link Cut}. It is an implementation of the {@link Rule} class. It
+ * is intended to represent a cut (i.e. a commitment to all decisions that were
+ * made so far) within a grammar. The cut never processes any data itself and
+ * it has no children. Once a cut was passed, the parser never reverts the
+ * state to an offset before the cut (see
+ * {@link de.claas.parser.visitors.Parser#getCutOffset()}).
+ * 
+ * @author Claas Ahlrichs
+ */
+public class Cut extends Rule {
+
+	@Override
+	public boolean addChild(Rule rule) {
+		return false;
+	}
+
+	@Override
+	public boolean removeChild(Rule rule) {
+		return false;
+	}
+
+	@Override
+	public void visit(RuleVisitor visitor) {
+		visitor.visitCut(this);
+	}
+
+}
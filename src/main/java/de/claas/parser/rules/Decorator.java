@@ -1,5 +1,6 @@
 package de.claas.parser.rules;
 
+import java.util.Collections;
 import java.util.Iterator;
 
 import de.claas.parser.Rule;
@@ -34,6 +35,8 @@ public abstract class Decorator extends Rule {
 	 */
 	public Decorator(Rule rule) {
 		this.rule = rule;
+		if (rule != null)
+			attachNestedRule(rule);
 	}
 
 	@Override
@@ -64,6 +67,11 @@ public abstract class Decorator extends Rule {
 		return this.rule.iterator();
 	}
 
+	@Override
+	protected Iterator<Rule> nestedRules() {
+		return this.rule != null ? Collections.singletonList(this.rule).iterator() : Collections.emptyIterator();
+	}
+
 	/**
 	 * Returns the decorated rule. The decorated rule acts like a
 	 * <i>singleton</i> (i.e. once set, it will never change again).
@@ -86,6 +94,8 @@ public abstract class Decorator extends Rule {
 		if (this.rule == null) {
 			invalidateHashCode();
 			this.rule = rule;
+			if (rule != null)
+				attachNestedRule(rule);
 		} else
 			throw new IllegalStateException(ONLY_ONCE);
 	}
@@ -6,19 +6,53 @@ import de.claas.parser.RuleVisitor;
 /**
  * The class {@link Disjunction}. It is an implementation of the {@link Rule}
  * class. It is intended to represent a disjunction of rules within a grammar.
+ * <p>
+ * By default, the longest alternative is chosen (see
+ * {@link de.claas.parser.visitors.Parser}). An <i>ordered</i> disjunction
+ * commits to the first alternative that is successfully processed instead
+ * (i.e. ordered choice as in parsing expression grammars).
  * 
  * @author Claas Ahlrichs
  */
 public class Disjunction extends Rule {
 
+	private final boolean ordered;
+
 	/**
 	 * Constructs a new {@link Disjunction} with the specified parameter.
+	 * Calling this constructor is equivalent to calling
+	 * <code>{@link Disjunction#Disjunction(boolean, Rule...)}</code> without
+	 * ordered choice.
 	 * 
 	 * @param children
 	 *            the children
 	 */
 	public Disjunction(Rule... children) {
+		this(false, children);
+	}
+
+	/**
+	 * Constructs a new {@link Disjunction} with the specified parameters.
+	 * 
+	 * @param ordered
+	 *            whether the first successful child is chosen (rather than
+	 *            the longest one)
+	 * @param children
+	 *            the children
+	 */
+	public Disjunction(boolean ordered, Rule... children) {
 		super(children);
+		this.ordered = ordered;
+	}
+
+	/**
+	 * Whether the first successful child is chosen or not.
+	 * 
+	 * @return <code>true</code> if the first successful child is chosen,
+	 *         <code>false</code> if the longest child is chosen
+	 */
+	public boolean isOrdered() {
+		return this.ordered;
 	}
 
 	@Override
@@ -0,0 +1,31 @@
+package de.claas.parser.rules;
+
+import de.claas.parser.Rule;
+import de.claas.parser.RuleVisitor;
+
+/**
+ * The class {@link NotPredicate}. It is an implementation of the
+ * {@link Decorator} class. It is intended to represent a syntactic predicate
+ * (i.e. negative lookahead) within a grammar. The predicate succeeds if the
+ * decorated rule cannot be processed, but it never processes any data itself.
+ * 
+ * @author Claas Ahlrichs
+ */
+public class NotPredicate extends Decorator {
+
+	/**
+	 * Constructs a new {@link NotPredicate} with the specified parameter.
+	 * 
+	 * @param rule
+	 *            the decorated rule
+	 */
+	public NotPredicate(Rule rule) {
+		super(rule);
+	}
+
+	@Override
+	public void visit(RuleVisitor visitor) {
+		visitor.visitNotPredicate(this);
+	}
+
+}
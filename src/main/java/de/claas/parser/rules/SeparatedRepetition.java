@@ -0,0 +1,145 @@
+package de.claas.parser.rules;
+
+import java.util.Iterator;
+
+import de.claas.parser.Rule;
+import de.claas.parser.RuleVisitor;
+
+/**
+ * The class {@link SeparatedRepetition}. It is an implementation of the
+ * {@link Rule} class. It is intended to represent a repeatable rule whose
+ * repetitions are separated by another rule (e.g. a comma-delimited list)
+ * within a grammar. It is equivalent to
+ * <code>element *(separator element)</code>, but its repetitions are
+ * processed without nesting (i.e. elements and separators are siblings).
+ * <p>
+ * The first child is the repeatable rule (see {@link #getElement()}) and the
+ * second child is the separator (see {@link #getSeparator()}). Further
+ * children are not accepted. The minimum and maximum number of repetitions
+ * refer to the repeatable rule and can be limited to any positive integer
+ * (i.e. 0 to {@link Integer#MAX_VALUE}).
+ * 
+ * @author Claas Ahlrichs
+ */
+public class SeparatedRepetition extends Rule {
+
+	private final int minRepetitions;
+	private final int maxRepetitions;
+
+	/**
+	 * Constructs a new {@link SeparatedRepetition} with default parameter.
+	 * Calling this constructor is equivalent to calling
+	 * <code>{@link SeparatedRepetition#SeparatedRepetition(Rule, Rule, int, int)}</code>
+	 * with at least zero (0) repetitions and at most {@link Integer#MAX_VALUE}.
+	 * 
+	 * @param element
+	 *            the repeatable rule
+	 * @param separator
+	 *            the separator
+	 * @throws IllegalArgumentException
+	 *             if a separator but no repeatable rule is specified
+	 */
+	public SeparatedRepetition(Rule element, Rule separator) {
+		this(element, separator, 0, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Constructs a new {@link SeparatedRepetition} with the specified
+	 * parameters. Both the repeatable rule and the separator may be
+	 * <code>null</code> (e.g. if they are added later on), but a separator
+	 * requires a repeatable rule. Otherwise, the separator would become the
+	 * first child and be repeated instead.
+	 * 
+	 * @param element
+	 *            the repeatable rule
+	 * @param separator
+	 *            the separator
+	 * @param minRepetitions
+	 *            the minimum number of repetitions
+	 * @param maxRepetitions
+	 *            the maximum number of repetitions
+	 * @throws IllegalArgumentException
+	 *             if a separator but no repeatable rule is specified
+	 */
+	public SeparatedRepetition(Rule element, Rule separator, int minRepetitions, int maxRepetitions) {
+		super(requireElement(element, separator), separator);
+		this.minRepetitions = minRepetitions;
+		this.maxRepetitions = maxRepetitions;
+	}
+
+	/**
+	 * A helper function that returns the specified repeatable rule. It rejects
+	 * a missing repeatable rule if a separator is specified (see
+	 * {@link #SeparatedRepetition(Rule, Rule, int, int)}).
+	 * 
+	 * @param element
+	 *            the repeatable rule
+	 * @param separator
+	 *            the separator
+	 * @return the repeatable rule
+	 * @throws IllegalArgumentException
+	 *             if a separator but no repeatable rule is specified
+	 */
+	private static Rule requireElement(Rule element, Rule separator) {
+		if (element == null && separator != null)
+			throw new IllegalArgumentException("A separator requires a repeatable rule.");
+		return element;
+	}
+
+	@Override
+	public boolean addChild(Rule rule) {
+		if (getSeparator() != null)
+			return false;
+		return super.addChild(rule);
+	}
+
+	/**
+	 * Returns the repeatable rule (i.e. the first child) or <code>null</code>
+	 * if there is none.
+	 * 
+	 * @return the repeatable rule or <code>null</code>
+	 */
+	public Rule getElement() {
+		Iterator<Rule> children = iterator();
+		return children.hasNext() ? children.next() : null;
+	}
+
+	/**
+	 * Returns the separator (i.e. the second child) or <code>null</code> if
+	 * there is none.
+	 * 
+	 * @return the separator or <code>null</code>
+	 */
+	public Rule getSeparator() {
+		Iterator<Rule> children = iterator();
+		if (children.hasNext())
+			children.next();
+		return children.hasNext() ? children.next() : null;
+	}
+
+	/**
+	 * Returns the minimum number of repetitions. By default, this is set to
+	 * zero (0).
+	 * 
+	 * @return the minimum number of repetitions
+	 */
+	public int getMinimumNumberOfRepetions() {
+		return this.minRepetitions;
+	}
+
+	/**
+	 * Returns the maximum number of repetitions. By default, this is set to
+	 * {@link Integer#MAX_VALUE}.
+	 * 
+	 * @return the maximum number of repetitions
+	 */
+	public int getMaximumNumberOfRepetions() {
+		return this.maxRepetitions;
+	}
+
+	@Override
+	public void visit(RuleVisitor visitor) {
+		visitor.visitSeparatedRepetition(this);
+	}
+
+}
@@ -1,19 +1,14 @@
 package de.claas.parser.visitors;
 
-import java.util.HashSet;
-import java.util.Set;
-
 import de.claas.parser.Node;
-import de.claas.parser.NodeVisitor;
 import de.claas.parser.exceptions.CyclicNodeException;
-import de.claas.parser.results.IntermediateNode;
-import de.claas.parser.results.NonTerminalNode;
 import de.claas.parser.results.TerminalNode;
 
 /**
- * The class {@link ConcatenateTerminals}. It is an implementation of the
- * interface {@link NodeVisitor}. It is intended to collect and concatenate
- * terminal symbols of the {@link Node} tree, that are being visited.
+ * The class {@link ConcatenateTerminals}. It is an implementation of the class
+ * {@link NodeWalker}. It is intended to collect and concatenate terminal
+ * symbols of the {@link Node} tree, that are being visited. A
+ * {@link CyclicNodeException} is thrown if a node contains itself.
  * <p>
  * This visitor is meant for one-time use, only. As such, every tree needs to be
  * concatenated with a separate instance of this visitor. An instance of this
@@ -21,38 +16,18 @@ import de.claas.parser.results.TerminalNode;
  *
  * @author Claas Ahlrichs
  */
-public class ConcatenateTerminals implements NodeVisitor {
+public class ConcatenateTerminals extends NodeWalker {
 
-	private final Set<Node> visitedPath = new HashSet<>();
 	private final StringBuilder data = new StringBuilder();
 
 	@Override
-	public void visitTerminalNode(TerminalNode node) {
+	protected void enterTerminalNode(TerminalNode node) {
 		this.data.append(node.getTerminal());
 	}
 
 	@Override
-	public void visitIntermediateNode(IntermediateNode node) {
-		if (this.visitedPath.add(node)) {
-			for (Node child : node) {
-				child.visit(this);
-			}
-			this.visitedPath.remove(node);
-		} else {
-			throw new CyclicNodeException(node);
-		}
-	}
-
-	@Override
-	public void visitNonTerminaNode(NonTerminalNode node) {
-		if (this.visitedPath.add(node)) {
-			for (Node child : node) {
-				child.visit(this);
-			}
-			this.visitedPath.remove(node);
-		} else {
-			throw new CyclicNodeException(node);
-		}
+	protected void enterCyclicNode(Node node) {
+		throw new CyclicNodeException(node);
 	}
 
 	@Override
@@ -0,0 +1,568 @@
+package de.claas.parser.visitors;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import de.claas.parser.Grammar;
+import de.claas.parser.Rule;
+import de.claas.parser.RuleVisitor;
+import de.claas.parser.exceptions.CyclicRuleException;
+import de.claas.parser.rules.AndPredicate;
+import de.claas.parser.rules.CharacterValue;
+import de.claas.parser.rules.Conjunction;
+import de.claas.parser.rules.Cut;
+import de.claas.parser.rules.Decorator;
+import de.claas.parser.rules.Disjunction;
+import de.claas.parser.rules.NonTerminal;
+import de.claas.parser.rules.NotPredicate;
+import de.claas.parser.rules.NumberValue;
+import de.claas.parser.rules.Optional;
+import de.claas.parser.rules.Repetition;
+import de.claas.parser.rules.SeparatedRepetition;
+
+/**
+ * The class {@link GrammarAnalysis}. It is an implementation of the interface
+ * {@link RuleVisitor}. It is intended to statically analyze a graph of
+ * {@link Rule}s before any data is parsed. The analysis determines which rules
+ * are <i>nullable</i> (i.e. rules that can be successfully processed without
+ * processing any data) and which rules are part of <i>non-consuming</i> cycles.
+ * Syntactic predicates (see {@link AndPredicate} and {@link NotPredicate})
+ * never process any data. Thus, they are nullable, but they may fail. Rules
+ * that are nullable and never fail are <i>infallible</i> (see
+ * {@link #isInfallible(Rule)}).
+ * <p>
+ * A rule is <i>left-recursive</i> if it can (directly or indirectly) reach
+ * itself without processing any data. Left-recursive {@link NonTerminal}s are
+ * supported by the {@link Parser} (see {@link Parser#setAnalysis(GrammarAnalysis)}).
+ * However, cycles that do not pass through any {@link NonTerminal} would cause
+ * the parser to recurse endlessly. Similarly, a {@link Repetition} without an
+ * upper bound whose decorated rule is nullable would loop without making
+ * progress. Both cases are reported by {@link #verify()}. A graph of rules
+ * without either case is considered to be <i>safe</i> (see {@link #isSafe()})
+ * and can be parsed without checking for cycles at runtime (see
+ * {@link Parser#setCycleChecks(boolean)}).
+ * <p>
+ * Furthermore, the analysis determines the characters that can start the data
+ * of every rule. A {@link Disjunction} is <i>order-sensitive</i> if ordered
+ * choice (see {@link Disjunction#isOrdered()}) could choose another
+ * alternative than the longest one: Two alternatives can start with the same
+ * character or an alternative (other than the last one) is nullable. Other
+ * disjunctions are processed the same way regardless of whether they are
+ * ordered (see {@link #getOrderSensitiveDisjunctions()}).
+ * <p>
+ * The analysis is performed once during construction. Subsequent changes to
+ * the graph of rules are not reflected by this analysis.
+ *
+ * @author Claas Ahlrichs
+ *
+ * @see Grammar
+ */
+public class GrammarAnalysis implements RuleVisitor {
+
+	private final List<Rule> rules = new ArrayList<>();
+	private final Map<Rule, Integer> indices = new IdentityHashMap<>();
+	private boolean[] nullable;
+	private boolean[] infallible;
+	private int[][] successors;
+	private final Set<Rule> leftRecursiveRules = Collections.newSetFromMap(new IdentityHashMap<>());
+	private final Set<Rule> unsupportedRules = Collections.newSetFromMap(new IdentityHashMap<>());
+	private final List<Repetition> nullableRepetitions = new ArrayList<>();
+	private BitSet[] firstCharacters;
+	private final List<Disjunction> orderSensitiveDisjunctions = new ArrayList<>();
+	private boolean currentNullable;
+	private boolean currentInfallible;
+	private final List<Rule> currentSuccessors = new ArrayList<>();
+	private final BitSet currentFirst = new BitSet();
+
+	/**
+	 * Constructs a new {@link GrammarAnalysis} with the specified parameter.
+	 * All rules that are reachable from the specified rule are analyzed.
+	 *
+	 * @param rule
+	 *            the initial rule
+	 */
+	public GrammarAnalysis(Rule rule) {
+		collectRules(rule);
+		computeNullable();
+		computeCycles(false, this.leftRecursiveRules);
+		computeCycles(true, this.unsupportedRules);
+		for (Rule r : this.rules) {
+			if (r instanceof Repetition) {
+				Repetition repetition = (Repetition) r;
+				if (repetition.getMaximumNumberOfRepetions() == Integer.MAX_VALUE && repetition.getRule() != null
+						&& isNullable(repetition.getRule()))
+					this.nullableRepetitions.add(repetition);
+			}
+		}
+		computeFirstCharacters();
+		for (Rule r : this.rules) {
+			if (r instanceof Disjunction && isOrderSensitive((Disjunction) r))
+				this.orderSensitiveDisjunctions.add((Disjunction) r);
+		}
+	}
+
+	/**
+	 * Returns <code>true</code> if the specified rule can be successfully
+	 * processed without processing any data. Returns <code>false</code> if the
+	 * rule always processes data or if the rule was not analyzed.
+	 *
+	 * @param rule
+	 *            the rule
+	 * @return <code>true</code> if the specified rule is nullable,
+	 *         <code>false</code> otherwise
+	 */
+	public boolean isNullable(Rule rule) {
+		Integer index = this.indices.get(rule);
+		return index != null && this.nullable[index.intValue()];
+	}
+
+	/**
+	 * Returns <code>true</code> if the specified rule is always successfully
+	 * processed without processing any data (i.e. it is nullable and it does
+	 * not depend on a syntactic predicate). Returns <code>false</code> if the
+	 * rule can fail or if the rule was not analyzed.
+	 *
+	 * @param rule
+	 *            the rule
+	 * @return <code>true</code> if the specified rule is infallible,
+	 *         <code>false</code> otherwise
+	 */
+	public boolean isInfallible(Rule rule) {
+		Integer index = this.indices.get(rule);
+		return index != null && this.infallible[index.intValue()];
+	}
+
+	/**
+	 * Returns <code>true</code> if the specified rule can (directly or
+	 * indirectly) reach itself without processing any data.
+	 *
+	 * @param rule
+	 *            the rule
+	 * @return <code>true</code> if the specified rule is left-recursive,
+	 *         <code>false</code> otherwise
+	 */
+	public boolean isLeftRecursive(Rule rule) {
+		return this.leftRecursiveRules.contains(rule);
+	}
+
+	/**
+	 * Returns all left-recursive rules (see {@link #isLeftRecursive(Rule)}).
+	 *
+	 * @return all left-recursive rules
+	 */
+	public Set<Rule> getLeftRecursiveRules() {
+		return Collections.unmodifiableSet(this.leftRecursiveRules);
+	}
+
+	/**
+	 * Returns all left-recursive rules that are part of a cycle without any
+	 * {@link NonTerminal}. Such cycles are not supported by the {@link Parser}.
+	 *
+	 * @return all left-recursive rules that are not supported
+	 */
+	public Set<Rule> getUnsupportedRules() {
+		return Collections.unmodifiableSet(this.unsupportedRules);
+	}
+
+	/**
+	 * Returns all {@link Repetition}s without an upper bound whose decorated
+	 * rule is nullable. Such repetitions would loop without processing data.
+	 *
+	 * @return all repetitions without an upper bound and a nullable rule
+	 */
+	public List<Repetition> getNullableRepetitions() {
+		return Collections.unmodifiableList(this.nullableRepetitions);
+	}
+
+	/**
+	 * Returns all order-sensitive {@link Disjunction}s (i.e. disjunctions
+	 * whose ordered choice could differ from the longest alternative). Such
+	 * disjunctions may be parsed differently if they are ordered (see
+	 * {@link Disjunction#isOrdered()}).
+	 *
+	 * @return all order-sensitive disjunctions
+	 */
+	public List<Disjunction> getOrderSensitiveDisjunctions() {
+		return Collections.unmodifiableList(this.orderSensitiveDisjunctions);
+	}
+
+	/**
+	 * Returns <code>true</code> if the analyzed rules contain neither
+	 * unsupported left-recursive rules (see {@link #getUnsupportedRules()})
+	 * nor unbounded repetitions of nullable rules.
+	 *
+	 * @return <code>true</code> if the analyzed rules are safe,
+	 *         <code>false</code> otherwise
+	 */
+	public boolean isSafe() {
+		return this.unsupportedRules.isEmpty() && this.nullableRepetitions.isEmpty();
+	}
+
+	/**
+	 * Throws a {@link CyclicRuleException} if the analyzed rules are not safe
+	 * (see {@link #isSafe()}).
+	 *
+	 * @throws CyclicRuleException
+	 *             if the analyzed rules are not safe
+	 */
+	public void verify() {
+		for (Rule rule : this.rules) {
+			if (this.unsupportedRules.contains(rule))
+				throw new CyclicRuleException(rule);
+		}
+		if (!this.nullableRepetitions.isEmpty())
+			throw new CyclicRuleException(this.nullableRepetitions.get(0));
+	}
+
+	@Override
+	public void visitConjunction(Conjunction rule) {
+		boolean allNullable = true;
+		boolean allInfallible = true;
+		for (Rule child : rule) {
+			if (allNullable) {
+				this.currentSuccessors.add(child);
+				addFirstCharacters(child);
+			}
+			allNullable &= isNullable(child);
+			allInfallible &= isInfallible(child);
+		}
+		this.currentNullable = rule.hasChildren() && allNullable;
+		this.currentInfallible = rule.hasChildren() && allInfallible;
+	}
+
+	@Override
+	public void visitDisjunction(Disjunction rule) {
+		boolean anyNullable = false;
+		boolean anyInfallible = false;
+		for (Rule child : rule) {
+			this.currentSuccessors.add(child);
+			addFirstCharacters(child);
+			anyNullable |= isNullable(child);
+			anyInfallible |= isInfallible(child);
+		}
+		this.currentNullable = anyNullable;
+		this.currentInfallible = anyInfallible;
+	}
+
+	@Override
+	public void visitNonTerminal(NonTerminal rule) {
+		Rule child = rule.getRule();
+		if (child != null) {
+			this.currentSuccessors.add(child);
+			addFirstCharacters(child);
+		}
+		this.currentNullable = child != null && isNullable(child);
+		this.currentInfallible = child != null && isInfallible(child);
+	}
+
+	@Override
+	public void visitOptional(Optional rule) {
+		Rule child = rule.getRule();
+		if (child != null) {
+			this.currentSuccessors.add(child);
+			addFirstCharacters(child);
+		}
+		this.currentNullable = true;
+		this.currentInfallible = true;
+	}
+
+	@Override
+	public void visitRepetition(Repetition rule) {
+		Rule child = rule.getRule();
+		if (child != null) {
+			this.currentSuccessors.add(child);
+			if (rule.getMaximumNumberOfRepetions() > 0)
+				addFirstCharacters(child);
+		}
+		this.currentNullable = rule.getMinimumNumberOfRepetions() == 0 || child != null && isNullable(child);
+		this.currentInfallible = rule.getMinimumNumberOfRepetions() == 0 || child != null && isInfallible(child);
+	}
+
+	@Override
+	public void visitSeparatedRepetition(SeparatedRepetition rule) {
+		Rule element = rule.getElement();
+		Rule separator = rule.getSeparator();
+		int min = rule.getMinimumNumberOfRepetions();
+		if (element != null) {
+			this.currentSuccessors.add(element);
+			if (rule.getMaximumNumberOfRepetions() > 0)
+				addFirstCharacters(element);
+			if (separator != null && isNullable(element)) {
+				this.currentSuccessors.add(separator);
+				if (rule.getMaximumNumberOfRepetions() > 1)
+					addFirstCharacters(separator);
+			}
+		}
+		this.currentNullable = min == 0 || element != null && isNullable(element)
+				&& (min == 1 || separator == null || isNullable(separator));
+		this.currentInfallible = min == 0 || element != null && isInfallible(element)
+				&& (min == 1 || separator == null || isInfallible(separator));
+	}
+
+	@Override
+	public void visitAndPredicate(AndPredicate rule) {
+		Rule child = rule.getRule();
+		if (child != null)
+			this.currentSuccessors.add(child);
+		this.currentNullable = true;
+		this.currentInfallible = child != null && isInfallible(child);
+	}
+
+	@Override
+	public void visitNotPredicate(NotPredicate rule) {
+		Rule child = rule.getRule();
+		if (child != null)
+			this.currentSuccessors.add(child);
+		this.currentNullable = true;
+		this.currentInfallible = false;
+	}
+
+	@Override
+	public void visitCut(Cut rule) {
+		this.currentNullable = true;
+		this.currentInfallible = true;
+	}
+
+	@Override
+	public void visitTerminal(CharacterValue rule) {
+		String terminal = rule.getTerminal();
+		this.currentNullable = terminal.isEmpty();
+		this.currentInfallible = this.currentNullable;
+		if (!terminal.isEmpty()) {
+			char c = terminal.charAt(0);
+			this.currentFirst.set(c);
+			if (!rule.isCaseSensitive()) {
+				this.currentFirst.set(Character.toUpperCase(c));
+				this.currentFirst.set(Character.toLowerCase(c));
+			}
+		}
+	}
+
+	@Override
+	public void visitTerminal(NumberValue rule) {
+		String terminal = rule.getTerminal();
+		this.currentNullable = terminal != null && terminal.isEmpty();
+		this.currentInfallible = this.currentNullable;
+		if (terminal == null)
+			this.currentFirst.set(rule.getRangeStart().charValue(), rule.getRangeEnd().charValue() + 1);
+		else if (!terminal.isEmpty())
+			this.currentFirst.set(terminal.charAt(0));
+	}
+
+	/**
+	 * A helper function that collects all rules that are reachable from the
+	 * specified rule. Rules are tracked by identity.
+	 *
+	 * @param rule
+	 *            the initial rule
+	 */
+	private void collectRules(Rule rule) {
+		Deque<Rule> pending = new ArrayDeque<>();
+		pending.push(rule);
+		while (!pending.isEmpty()) {
+			Rule current = pending.pop();
+			if (this.indices.containsKey(current))
+				continue;
+			this.indices.put(current, new Integer(this.rules.size()));
+			this.rules.add(current);
+			if (current instanceof Decorator) {
+				Rule child = ((Decorator) current).getRule();
+				if (child != null)
+					pending.push(child);
+			} else {
+				for (Rule child : current)
+					pending.push(child);
+			}
+		}
+	}
+
+	/**
+	 * A helper function that computes the nullable (and infallible) rules as a
+	 * fixed point. Initially, no rule is nullable. Rules are re-evaluated until
+	 * no further rule becomes nullable (or infallible). Afterwards, the rules
+	 * that are reachable without processing data (i.e. successors) are
+	 * determined for each rule.
+	 */
+	private void computeNullable() {
+		int size = this.rules.size();
+		this.nullable = new boolean[size];
+		this.infallible = new boolean[size];
+		boolean changed = true;
+		while (changed) {
+			changed = false;
+			for (int i = 0; i < size; i++) {
+				if (!this.nullable[i] || !this.infallible[i]) {
+					this.rules.get(i).visit(this);
+					this.currentSuccessors.clear();
+					if (this.currentNullable && !this.nullable[i]) {
+						this.nullable[i] = true;
+						changed = true;
+					}
+					if (this.currentInfallible && !this.infallible[i]) {
+						this.infallible[i] = true;
+						changed = true;
+					}
+				}
+			}
+		}
+
+		this.successors = new int[size][];
+		for (int i = 0; i < size; i++) {
+			this.rules.get(i).visit(this);
+			int[] targets = new int[this.currentSuccessors.size()];
+			for (int j = 0; j < targets.length; j++)
+				targets[j] = this.indices.get(this.currentSuccessors.get(j)).intValue();
+			this.successors[i] = targets;
+			this.currentSuccessors.clear();
+		}
+	}
+
+	/**
+	 * A helper function that computes the characters that can start the data
+	 * of every rule as a fixed point. Initially, no rule starts with any
+	 * character. Rules are re-evaluated until the characters of no rule
+	 * change.
+	 */
+	private void computeFirstCharacters() {
+		int size = this.rules.size();
+		this.firstCharacters = new BitSet[size];
+		for (int i = 0; i < size; i++)
+			this.firstCharacters[i] = new BitSet();
+		this.currentFirst.clear();
+		boolean changed = true;
+		while (changed) {
+			changed = false;
+			for (int i = 0; i < size; i++) {
+				this.rules.get(i).visit(this);
+				this.currentSuccessors.clear();
+				int cardinality = this.firstCharacters[i].cardinality();
+				this.firstCharacters[i].or(this.currentFirst);
+				this.currentFirst.clear();
+				changed |= this.firstCharacters[i].cardinality() != cardinality;
+			}
+		}
+	}
+
+	/**
+	 * A helper function that adds the characters that can start the data of
+	 * the specified rule to the characters of the current rule. Nothing is
+	 * added while the nullable rules are computed.
+	 *
+	 * @param rule
+	 *            the rule
+	 */
+	private void addFirstCharacters(Rule rule) {
+		if (this.firstCharacters != null)
+			this.currentFirst.or(this.firstCharacters[this.indices.get(rule).intValue()]);
+	}
+
+	/**
+	 * A helper function that returns <code>true</code> if ordered choice
+	 * could choose another alternative of the specified disjunction than the
+	 * longest one (i.e. two alternatives can start with the same character or
+	 * an alternative other than the last one is nullable).
+	 *
+	 * @param rule
+	 *            the disjunction
+	 * @return <code>true</code> if the disjunction is order-sensitive,
+	 *         <code>false</code> otherwise
+	 */
+	private boolean isOrderSensitive(Disjunction rule) {
+		BitSet preceding = new BitSet();
+		Rule previous = null;
+		for (Rule child : rule) {
+			if (previous != null && isNullable(previous))
+				return true;
+			BitSet first = this.firstCharacters[this.indices.get(child).intValue()];
+			if (first.intersects(preceding))
+				return true;
+			preceding.or(first);
+			previous = child;
+		}
+		return false;
+	}
+
+	/**
+	 * A helper function that determines the rules that are part of
+	 * non-consuming cycles. The strongly connected components of the graph of
+	 * successors are computed with (an iterative version of) Tarjan's
+	 * algorithm. Rules of components with more than one rule and rules that
+	 * are their own successor are part of a cycle. Optionally,
+	 * {@link NonTerminal}s (and thus cycles that pass through them) are
+	 * ignored.
+	 *
+	 * @param skipNonTerminals
+	 *            whether {@link NonTerminal}s are ignored
+	 * @param cyclicRules
+	 *            the set to which rules that are part of a cycle are added
+	 */
+	private void computeCycles(boolean skipNonTerminals, Set<Rule> cyclicRules) {
+		int size = this.rules.size();
+		int[] index = new int[size];
+		int[] lowLink = new int[size];
+		boolean[] onStack = new boolean[size];
+		int[] stack = new int[size];
+		int stackSize = 0;
+		int[] callStack = new int[size];
+		int[] callEdge = new int[size];
+		int nextIndex = 1;
+
+		for (int root = 0; root < size; root++) {
+			if (index[root] != 0 || skipNonTerminals && this.rules.get(root) instanceof NonTerminal)
+				continue;
+			int depth = 0;
+			callStack[0] = root;
+			callEdge[0] = 0;
+			index[root] = lowLink[root] = nextIndex++;
+			stack[stackSize++] = root;
+			onStack[root] = true;
+			while (depth >= 0) {
+				int v = callStack[depth];
+				if (callEdge[depth] < this.successors[v].length) {
+					int w = this.successors[v][callEdge[depth]++];
+					if (skipNonTerminals && this.rules.get(w) instanceof NonTerminal) {
+						continue;
+					} else if (index[w] == 0) {
+						index[w] = lowLink[w] = nextIndex++;
+						stack[stackSize++] = w;
+						onStack[w] = true;
+						depth++;
+						callStack[depth] = w;
+						callEdge[depth] = 0;
+					} else if (onStack[w]) {
+						lowLink[v] = Math.min(lowLink[v], index[w]);
+					}
+					continue;
+				}
+
+				if (lowLink[v] == index[v]) {
+					int first = stackSize - 1;
+					while (stack[first] != v)
+						first--;
+					boolean recursive = stackSize - first > 1;
+					for (int w : this.successors[v])
+						recursive |= w == v;
+					for (int i = first; i < stackSize; i++) {
+						onStack[stack[i]] = false;
+						if (recursive)
+							cyclicRules.add(this.rules.get(stack[i]));
+					}
+					stackSize = first;
+				}
+				depth--;
+				if (depth >= 0) {
+					int parent = callStack[depth];
+					lowLink[parent] = Math.min(lowLink[parent], lowLink[v]);
+				}
+			}
+		}
+	}
+
+}
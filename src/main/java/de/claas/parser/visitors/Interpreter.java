@@ -1,7 +1,8 @@
 package de.claas.parser.visitors;
 
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Set;
 import java.util.function.Function;
@@ -27,7 +28,7 @@ import de.claas.parser.results.TerminalNode;
  */
 public abstract class Interpreter<R> implements NodeVisitor {
 
-	private final Set<Node> visitedPath = new HashSet<>();
+	private final Set<Node> visitedPath = Collections.newSetFromMap(new IdentityHashMap<>());
 	private R result;
 	private Function<Node, Boolean> expected;
 
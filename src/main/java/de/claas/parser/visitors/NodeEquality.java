@@ -1,20 +1,21 @@
 package de.claas.parser.visitors;
 
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
-import java.util.Set;
+import java.util.List;
 
 import de.claas.parser.Node;
-import de.claas.parser.NodeVisitor;
 import de.claas.parser.Rule;
 import de.claas.parser.results.IntermediateNode;
 import de.claas.parser.results.NonTerminalNode;
 import de.claas.parser.results.TerminalNode;
 
 /**
- * The class {@link NodeEquality}. It is an implementation of the interface
- * {@link NodeVisitor}. It is intended to compare a {@link Node}-hierarchy with
- * a reference object.
+ * The class {@link NodeEquality}. It is an implementation of the class
+ * {@link NodeWalker}. It is intended to compare a {@link Node}-hierarchy with
+ * a reference object. The reference object's children are walked alongside
+ * the visited nodes and the comparison stops at the first difference.
  * <p>
  * This visitor is meant for one-time use, only. As such, every comparison needs
  * to be done with a separate instance of this visitor. An instance of this
@@ -22,10 +23,10 @@ import de.claas.parser.results.TerminalNode;
  * 
  * @author Claas Ahlrichs
  */
-public class NodeEquality implements NodeVisitor {
+public class NodeEquality extends NodeWalker {
 
-	private final Set<Integer> visitedPath = new HashSet<>();
-	private Object obj;
+	private final List<Iterator<Node>> otherChildren = new ArrayList<>();
+	private final Object obj;
 	private boolean visited = false;
 	private boolean equality = true;
 
@@ -41,46 +42,80 @@ public class NodeEquality implements NodeVisitor {
 	}
 
 	@Override
-	public void visitTerminalNode(TerminalNode node) {
+	protected void enterTerminalNode(TerminalNode node) {
 		markAsVisited();
-		if (preliminaryComparison(node, this.obj))
+		Object other = nextReference();
+		if (!this.equality || preliminaryComparison(node, other))
 			return;
 
-		TerminalNode other = (TerminalNode) this.obj;
-		if (isUnequal(node.getTerminal(), other.getTerminal()))
-			return; // already marked as unequal
+		if (isUnequal(node.getTerminal(), ((TerminalNode) other).getTerminal()))
+			stop();
 	}
 
 	@Override
-	public void visitIntermediateNode(IntermediateNode node) {
+	protected boolean enterIntermediateNode(IntermediateNode node) {
 		markAsVisited();
-		if (preliminaryComparison(node, this.obj))
-			return;
+		Object other = nextReference();
+		if (!this.equality || preliminaryComparison(node, other))
+			return false;
 
-		IntermediateNode other = (IntermediateNode) this.obj;
-		Integer uniqueId = new Integer(System.identityHashCode(node));
-		if (this.visitedPath.add(uniqueId)) {
-			visitChildren(node, other);
-			this.visitedPath.remove(uniqueId);
-		}
+		this.otherChildren.add(((Node) other).iterator());
+		return true;
 	}
 
 	@Override
-	public void visitNonTerminaNode(NonTerminalNode node) {
+	protected boolean enterNonTerminalNode(NonTerminalNode node) {
 		markAsVisited();
-		if (preliminaryComparison(node, this.obj))
-			return;
+		Object other = nextReference();
+		if (!this.equality || preliminaryComparison(node, other))
+			return false;
 
-		NonTerminalNode other = (NonTerminalNode) this.obj;
-		if (isUnequal(node.getName(), other.getName()))
-			return; // already marked as unequal
-		Integer uniqueId = new Integer(System.identityHashCode(node));
-		if (this.visitedPath.add(uniqueId)) {
-			visitChildren(node, other);
-			this.visitedPath.remove(uniqueId);
+		if (isUnequal(node.getName(), ((NonTerminalNode) other).getName())) {
+			stop();
+			return false;
+		}
+		this.otherChildren.add(((Node) other).iterator());
+		return true;
+	}
+
+	@Override
+	protected void leaveNode(Node node) {
+		// both nodes must have the same number of children
+		Iterator<Node> children = this.otherChildren.remove(this.otherChildren.size() - 1);
+		if (children.hasNext()) {
+			markAsUnequal();
+			stop();
 		}
 	}
 
+	@Override
+	protected void enterCyclicNode(Node node) {
+		// children of cyclic nodes are not compared (again)
+		this.otherChildren.set(this.otherChildren.size() - 1, Collections.emptyIterator());
+	}
+
+	/**
+	 * A helper function that returns the reference object with which the
+	 * entered node is compared. For the root, this is the object that was
+	 * passed into the constructor. Otherwise, it is the next child of the
+	 * reference object of the entered node's parent.
+	 * <p>
+	 * <b>Side effect</b>: this method may call {@link #markAsUnequal()}
+	 * 
+	 * @return the reference object or <code>null</code>
+	 */
+	private Object nextReference() {
+		if (this.otherChildren.isEmpty())
+			return this.obj;
+
+		Iterator<Node> children = this.otherChildren.get(this.otherChildren.size() - 1);
+		if (children.hasNext())
+			return children.next();
+		markAsUnequal();
+		stop();
+		return null;
+	}
+
 	/**
 	 * Marks the two rules as unequal.
 	 */
@@ -116,6 +151,7 @@ public class NodeEquality implements NodeVisitor {
 			return true; // "this.equality" is already "true"
 		if (other == null || node.getClass() != other.getClass()) {
 			markAsUnequal();
+			stop();
 			return true;
 		}
 		return false;
@@ -148,31 +184,6 @@ public class NodeEquality implements NodeVisitor {
 		return false;
 	}
 
-	/**
-	 * A helper function that successively visits all children of both specified
-	 * {@link Node}s. It is main purpose is to ensure that the order in which
-	 * the children occur is identical and that the children themselves are
-	 * equal as well.
-	 * 
-	 * @param node
-	 *            the original node
-	 * @param other
-	 *            the reference node with which the original node is compared
-	 */
-	private void visitChildren(Node node, Node other) {
-		Iterator<Node> children = node.iterator();
-		Iterator<Node> otherChildren = other.iterator();
-		while (children.hasNext() && otherChildren.hasNext()) {
-			Node child = children.next();
-			this.obj = otherChildren.next();
-			child.visit(this);
-
-			if (!this.equality)
-				return;
-		}
-		this.equality = children.hasNext() == otherChildren.hasNext();
-	}
-
 	/**
 	 * Returns <code>true</code> if the visited nodes represent the same object
 	 * that was passed into the constructor of this visitor. Otherwise
@@ -1,17 +1,13 @@
 package de.claas.parser.visitors;
 
-import java.util.HashSet;
-import java.util.Set;
-
 import de.claas.parser.Node;
-import de.claas.parser.NodeVisitor;
 import de.claas.parser.results.IntermediateNode;
 import de.claas.parser.results.NonTerminalNode;
 import de.claas.parser.results.TerminalNode;
 
 /**
- * The class {@link NodeHashCode}. It is an implementation of the interface
- * {@link NodeVisitor}. It is intended to determine a combined hash code for all
+ * The class {@link NodeHashCode}. It is an implementation of the class
+ * {@link NodeWalker}. It is intended to determine a combined hash code for all
  * visited {@link Node}s.
  * <p>
  * This visitor is meant for one-time use, only.  As such, every hash-code needs
@@ -20,42 +16,49 @@ import de.claas.parser.results.TerminalNode;
  *
  * @author Claas Ahlrichs
  */
-public class NodeHashCode implements NodeVisitor {
+public class NodeHashCode extends NodeWalker {
 
-	private final Set<Integer> visitedPath = new HashSet<>();
+	private final boolean deep;
 	private int hashCode = 0;
 
+	/**
+	 * Constructs a new {@link NodeHashCode} with default parameters. Calling
+	 * this constructor is equivalent to calling
+	 * <code>{@link #NodeHashCode(boolean)}</code> with <code>true</code>.
+	 */
+	public NodeHashCode() {
+		this(true);
+	}
+
+	/**
+	 * Constructs a new {@link NodeHashCode} with the specified parameter. If
+	 * children are not visited, only the visited {@link Node}s themselves
+	 * contribute to the combined hash code.
+	 * 
+	 * @param deep
+	 *            whether the children of visited {@link Node}s are visited
+	 */
+	public NodeHashCode(boolean deep) {
+		this.deep = deep;
+	}
+
 	@Override
-	public void visitTerminalNode(TerminalNode node) {
+	protected void enterTerminalNode(TerminalNode node) {
 		this.hashCode += node.getClass().hashCode();
 		this.hashCode += node.getTerminal().hashCode();
 	}
 
 	@Override
-	public void visitIntermediateNode(IntermediateNode node) {
+	protected boolean enterIntermediateNode(IntermediateNode node) {
 		this.hashCode += node.getClass().hashCode();
-
-		Integer uniqueId = new Integer(System.identityHashCode(node));
-		if (this.visitedPath.add(uniqueId)) {
-			for (Node child : node) {
-				child.visit(this);
-			}
-			this.visitedPath.remove(uniqueId);
-		}
+		return this.deep;
 	}
 
 	@Override
-	public void visitNonTerminaNode(NonTerminalNode node) {
+	protected boolean enterNonTerminalNode(NonTerminalNode node) {
 		this.hashCode += node.getClass().hashCode();
 		this.hashCode += node.getName().hashCode();
-
-		Integer uniqueId = new Integer(System.identityHashCode(node));
-		if (this.visitedPath.add(uniqueId)) {
-			for (Node child : node) {
-				child.visit(this);
-			}
-			this.visitedPath.remove(uniqueId);
-		}
+		return this.deep;
 	}
 
 	/**
@@ -1,19 +1,16 @@
 package de.claas.parser.visitors;
 
-import java.util.HashSet;
-import java.util.Set;
-import java.util.concurrent.atomic.AtomicInteger;
-
 import de.claas.parser.Node;
-import de.claas.parser.NodeVisitor;
 import de.claas.parser.results.IntermediateNode;
 import de.claas.parser.results.NonTerminalNode;
 import de.claas.parser.results.TerminalNode;
 
 /**
- * The class {@link NodeToString}. It is an implementation of the interface
- * {@link NodeVisitor}. It is intended to "visualize" a tree of {@link Node}
+ * The class {@link NodeToString}. It is an implementation of the class
+ * {@link NodeWalker}. It is intended to "visualize" a tree of {@link Node}
  * objects. The tree is turned into a human readable (if not "pretty") string.
+ * Nodes that contain themselves are listed, but their children are not listed
+ * again.
  * <p>
  * This visitor is meant for one-time use, only. As such, every tree needs to be
  * visualized with a separate instance of this visitor. An instance of this
@@ -21,13 +18,12 @@ import de.claas.parser.results.TerminalNode;
  * 
  * @author Claas Ahlrichs
  */
-public class NodeToString implements NodeVisitor {
+public class NodeToString extends NodeWalker {
 
 	private static final String DEFAULT_LEVEL_SEPARATOR = "  ";
 	private static final String DEFAULT_LINE_NEWLINE = "\r\n";
 	private final StringBuilder builder = new StringBuilder();
-	private final AtomicInteger levels = new AtomicInteger();
-	private final Set<Node> visitedPath = new HashSet<>();
+	private final StringBuilder indentation = new StringBuilder();
 	private final String levelSeparator;
 	private final String lineSeparator;
 
@@ -60,55 +56,28 @@ public class NodeToString implements NodeVisitor {
 	}
 
 	@Override
-	public void visitTerminalNode(TerminalNode node) {
+	protected void enterTerminalNode(TerminalNode node) {
 		appendNode(node, node.getTerminal());
 	}
 
 	@Override
-	public void visitIntermediateNode(IntermediateNode node) {
+	protected boolean enterIntermediateNode(IntermediateNode node) {
 		appendNode(node, null);
-		if (this.visitedPath.add(node)) {
-			incrementLevel();
-			for (Node n : node) {
-				n.visit(this);
-			}
-			decrementLevel();
-			this.visitedPath.remove(node);
-		}
+		return true;
 	}
 
 	@Override
-	public void visitNonTerminaNode(NonTerminalNode node) {
+	protected boolean enterNonTerminalNode(NonTerminalNode node) {
 		appendNode(node, node.getName());
-		if (this.visitedPath.add(node)) {
-			incrementLevel();
-			for (Node n : node) {
-				n.visit(this);
-			}
-			decrementLevel();
-			this.visitedPath.remove(node);
-		}
-	}
-
-	/**
-	 * Increments the level / indentation for the next node.
-	 */
-	private void incrementLevel() {
-		this.levels.incrementAndGet();
-	}
-
-	/**
-	 * Decrements the level / indentation for the next node.
-	 */
-	private void decrementLevel() {
-		this.levels.decrementAndGet();
+		return true;
 	}
 
 	/**
 	 * Appends the specified node. The node will occupy a separate line and use
 	 * the correct indentation / spacing (according to its level within the
 	 * tree). The node will be represented by its (simple) class name and an
-	 * optional postfix.
+	 * optional postfix. The indentation is cut from a prefix that grows with
+	 * the deepest level so far (i.e. it is not assembled for every node).
 	 * 
 	 * @param node
 	 *            the node
@@ -116,7 +85,13 @@ public class NodeToString implements NodeVisitor {
 	 *            the postfix
 	 */
 	private void appendNode(Node node, String postfix) {
-		this.builder.append(new String(new byte[this.levels.get()]).replaceAll("\0", this.levelSeparator));
+		if (!this.levelSeparator.isEmpty()) {
+			int length = getDepth() * this.levelSeparator.length();
+			while (this.indentation.length() < length) {
+				this.indentation.append(this.levelSeparator);
+			}
+			this.builder.append(this.indentation, 0, length);
+		}
 		this.builder.append(node.getClass().getSimpleName());
 		if (postfix != null) {
 			this.builder.append(":");
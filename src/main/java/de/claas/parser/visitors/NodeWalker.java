@@ -0,0 +1,221 @@
+package de.claas.parser.visitors;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+import de.claas.parser.Node;
+import de.claas.parser.NodeVisitor;
+import de.claas.parser.results.ErrorNode;
+import de.claas.parser.results.IntermediateNode;
+import de.claas.parser.results.NonTerminalNode;
+import de.claas.parser.results.TerminalNode;
+
+/**
+ * The class {@link NodeWalker}. It is an implementation of the interface
+ * {@link NodeVisitor}. It is intended to be the base of visitors that process
+ * all nodes of a tree in pre-order. The tree is walked iteratively (i.e. with
+ * an explicit stack rather than Java frames). Thus, the depth of walked trees
+ * is not limited by the size of the Java stack.
+ * <p>
+ * Visiting any node (see {@link Node#visit(NodeVisitor)}) walks the tree of
+ * that node. Subclasses are notified whenever a node is entered (e.g.
+ * {@link #enterNonTerminalNode(NonTerminalNode)}) and decide whether its
+ * children are walked. Nodes whose children were walked are left afterwards
+ * (see {@link #leaveNode(Node)}). Nodes are tracked by identity. A node that
+ * (directly or indirectly) contains itself is only walked once per path (see
+ * {@link #enterCyclicNode(Node)}).
+ *
+ * @author Claas Ahlrichs
+ */
+public abstract class NodeWalker implements NodeVisitor {
+
+	private final List<Node> nodes = new ArrayList<>();
+	private final List<Iterator<Node>> children = new ArrayList<>();
+	private final Set<Node> visitedPath = Collections.newSetFromMap(new IdentityHashMap<>());
+	private boolean walking = false;
+	private boolean descend = false;
+	private boolean stopped = false;
+
+	@Override
+	public final void visitTerminalNode(TerminalNode node) {
+		if (this.walking)
+			enterTerminalNode(node);
+		else
+			walk(node);
+	}
+
+	@Override
+	public final void visitErrorNode(ErrorNode node) {
+		if (this.walking)
+			enterErrorNode(node);
+		else
+			walk(node);
+	}
+
+	@Override
+	public final void visitIntermediateNode(IntermediateNode node) {
+		if (this.walking)
+			this.descend = enterIntermediateNode(node);
+		else
+			walk(node);
+	}
+
+	@Override
+	public final void visitNonTerminaNode(NonTerminalNode node) {
+		if (this.walking)
+			this.descend = enterNonTerminalNode(node);
+		else
+			walk(node);
+	}
+
+	/**
+	 * Called whenever a {@link TerminalNode} is entered.
+	 *
+	 * @param node
+	 *            the node
+	 */
+	protected void enterTerminalNode(TerminalNode node) {
+		// nothing to be done here
+	}
+
+	/**
+	 * Called whenever an {@link ErrorNode} is entered. The default
+	 * implementation treats the given node like any other {@link TerminalNode}.
+	 *
+	 * @param node
+	 *            the node
+	 */
+	protected void enterErrorNode(ErrorNode node) {
+		enterTerminalNode(node);
+	}
+
+	/**
+	 * Called whenever an {@link IntermediateNode} is entered. Returns whether
+	 * the node's children are walked. The default implementation returns
+	 * <code>true</code>.
+	 *
+	 * @param node
+	 *            the node
+	 * @return <code>true</code> if the node's children are walked,
+	 *         <code>false</code> otherwise
+	 */
+	protected boolean enterIntermediateNode(IntermediateNode node) {
+		return true;
+	}
+
+	/**
+	 * Called whenever a {@link NonTerminalNode} is entered. Returns whether
+	 * the node's children are walked. The default implementation returns
+	 * <code>true</code>.
+	 *
+	 * @param node
+	 *            the node
+	 * @return <code>true</code> if the node's children are walked,
+	 *         <code>false</code> otherwise
+	 */
+	protected boolean enterNonTerminalNode(NonTerminalNode node) {
+		return true;
+	}
+
+	/**
+	 * Called whenever the children of a node were walked (i.e. for every node
+	 * whose children were supposed to be walked, even if it has no children).
+	 * The default implementation does nothing.
+	 *
+	 * @param node
+	 *            the node
+	 */
+	protected void leaveNode(Node node) {
+		// nothing to be done here
+	}
+
+	/**
+	 * Called whenever the children of a node are supposed to be walked, but
+	 * the node is already being walked (i.e. the node contains itself). The
+	 * node's children are not walked again. The default implementation does
+	 * nothing.
+	 *
+	 * @param node
+	 *            the node
+	 */
+	protected void enterCyclicNode(Node node) {
+		// nothing to be done here
+	}
+
+	/**
+	 * Returns the depth of the node that is being entered or left. The root
+	 * has depth zero (0).
+	 *
+	 * @return the depth of the node that is being entered or left
+	 */
+	protected int getDepth() {
+		return this.nodes.size();
+	}
+
+	/**
+	 * Stops walking the tree. No further nodes are entered or left.
+	 */
+	protected void stop() {
+		this.stopped = true;
+	}
+
+	/**
+	 * A helper function that walks the tree of the specified node.
+	 *
+	 * @param root
+	 *            the root of the tree
+	 */
+	private void walk(Node root) {
+		this.walking = true;
+		this.stopped = false;
+		try {
+			enter(root);
+			while (!this.stopped && !this.nodes.isEmpty()) {
+				int top = this.nodes.size() - 1;
+				Iterator<Node> iterator = this.children.get(top);
+				if (iterator.hasNext()) {
+					enter(iterator.next());
+				} else {
+					this.children.remove(top);
+					Node node = this.nodes.remove(top);
+					this.visitedPath.remove(node);
+					leaveNode(node);
+				}
+			}
+		} finally {
+			this.walking = false;
+			this.nodes.clear();
+			this.children.clear();
+			this.visitedPath.clear();
+		}
+	}
+
+	/**
+	 * A helper function that enters the specified node and (if requested)
+	 * prepares the node's children to be walked.
+	 *
+	 * @param node
+	 *            the node
+	 */
+	private void enter(Node node) {
+		this.descend = false;
+		node.visit(this);
+		if (!this.descend || this.stopped)
+			return;
+
+		if (!node.hasChildren()) {
+			leaveNode(node);
+		} else if (!this.visitedPath.add(node)) {
+			enterCyclicNode(node);
+			leaveNode(node);
+		} else {
+			this.nodes.add(node);
+			this.children.add(node.iterator());
+		}
+	}
+
+}
@@ -1,23 +1,52 @@
 package de.claas.parser.visitors;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.BooleanSupplier;
 
+import de.claas.parser.MemoizationProfile;
 import de.claas.parser.Node;
+import de.claas.parser.ParseListener;
+import de.claas.parser.ParserLimits;
 import de.claas.parser.Rule;
 import de.claas.parser.RuleVisitor;
+import de.claas.parser.SemanticAction;
+import de.claas.parser.SemanticActions;
 import de.claas.parser.State;
+import de.claas.parser.automata.DeterministicAutomaton;
+import de.claas.parser.automata.FarthestFailure;
+import de.claas.parser.automata.PackedText;
+import de.claas.parser.automata.Tokens;
 import de.claas.parser.exceptions.CyclicRuleException;
+import de.claas.parser.exceptions.ParserException;
+import de.claas.parser.exceptions.ParserLimitException;
+import de.claas.parser.exceptions.ParserLimitException.Limit;
+import de.claas.parser.results.CompactTree;
+import de.claas.parser.results.CompactTreeBuilder;
+import de.claas.parser.results.CompactTreeBuilder.Subtree;
+import de.claas.parser.results.ErrorNode;
 import de.claas.parser.results.IntermediateNode;
-import de.claas.parser.results.NonTerminalNode;
-import de.claas.parser.results.TerminalNode;
+import de.claas.parser.results.NodeInterner;
+import de.claas.parser.rules.AndPredicate;
 import de.claas.parser.rules.CharacterValue;
 import de.claas.parser.rules.Conjunction;
+import de.claas.parser.rules.Cut;
+import de.claas.parser.rules.Decorator;
 import de.claas.parser.rules.Disjunction;
 import de.claas.parser.rules.NonTerminal;
+import de.claas.parser.rules.NotPredicate;
 import de.claas.parser.rules.NumberValue;
 import de.claas.parser.rules.Optional;
 import de.claas.parser.rules.Repetition;
+import de.claas.parser.rules.SeparatedRepetition;
 
 /**
  * The class {@link Parser}. It is an implementation of the interface
@@ -35,17 +64,31 @@ import de.claas.parser.rules.Repetition;
  * state if all children have successfully been processed.</li>
  * <li>{@link Disjunction}: This rule will successfully process a given state as
  * long as any child can successfully be processed. This rule is greedy and thus
- * it gives preference to the child that processes most data.</li>
+ * it gives preference to the child that processes most data. Ordered
+ * disjunctions (see {@link Disjunction#isOrdered()} and
+ * {@link #setOrderedChoice(boolean)}) give preference to the first child that
+ * can successfully be processed instead.</li>
  * <li>{@link NonTerminal}: This rule acts like any other rule. The only
  * difference is that it has a name and an optional comment.</li>
  * <li>{@link Optional}: This rule will successfully process a given state
  * regardless of whether the decorated rule can be successfully processed (or
  * not). Making the decorated rule optional.</li>
+ * <li>{@link AndPredicate} and {@link NotPredicate}: These rules will
+ * successfully process a given state if the decorated rule can (or cannot)
+ * successfully be processed. They never process any data and the nodes of the
+ * decorated rule are dropped. Instead, an empty {@link IntermediateNode} is
+ * recorded (see {@link #getResult(boolean)}).</li>
  * <li>{@link Repetition}: This rule's default settings are such that it will
  * successfully process a given state regardless of how often the decorated rule
  * can be processed (i.e. minimum number of repetitions is zero (0) and maximum
  * number of repetitions is {@link Integer#MAX_VALUE}). Making the decorated
- * rule optional and repeatable at the same time.</li>
+ * rule optional and repeatable at the same time. Repetitions are possessive
+ * (i.e. processed repetitions are never given back in order to let the
+ * following rules succeed).</li>
+ * <li>{@link Cut}: This rule will always successfully process a given state
+ * without processing any data. It commits to all decisions that were made so
+ * far (see {@link #getCutOffset()}). Thus, a disjunction that passes a cut in
+ * one of its children does not try any other children.</li>
  * <li>{@link CharacterValue}: This rule will successfully process a given state
  * if the next token equals the terminal symbol that this rule represents (see
  * {@link CharacterValue#getTerminal()}).</li>
@@ -57,6 +100,32 @@ import de.claas.parser.rules.Repetition;
  * {@link NumberValue#getRangeEnd()}).</li>
  * </ul>
  * <p>
+ * While parsing, no {@link Node}s are created. Instead, nodes are recorded in a
+ * compact form (see {@link CompactTreeBuilder}) and speculatively recorded
+ * nodes are dropped whenever the state is reverted. The result is converted
+ * into a tree of {@link Node}s (see {@link #getResult()}) or into a
+ * {@link CompactTree} (see {@link #getCompactResult(boolean)}) on demand or it
+ * is reported to a {@link ParseListener} (see
+ * {@link #replayResult(ParseListener)}).
+ * <p>
+ * Nested rules are not visited recursively. Instead, the progress of every rule
+ * that is being processed is kept in a frame on an explicit stack. Thus, the
+ * nesting depth of parsed data is not limited by the size of the Java stack,
+ * but only by the maximum depth (see {@link ParserLimits#getMaximumDepth()}).
+ * <p>
+ * The effort that is spent on parsing can be bounded (see {@link ParserLimits}).
+ * Optionally, invalid data can be skipped in order to continue parsing (see
+ * {@link #setSyncRules(Collection)}).
+ * <p>
+ * Optionally, regular non-terminals are matched by compiled automata (see
+ * {@link #setRegularSubgrammars(RegularSubgrammars)}) and insignificant data
+ * (e.g. white space) is skipped implicitly (see
+ * {@link #setSkipRule(NonTerminal, RegularSubgrammars, Collection)}).
+ * Selected non-terminals can be memoized (see
+ * {@link #setMemoizedRules(Collection)}) and re-invocations of non-terminals
+ * can be profiled in order to select them (see
+ * {@link #setProfile(MemoizationProfile)}).
+ * <p>
  * This visitor is meant for one-time use, only. As such, every tree needs to be
  * parsed with a separate instance of this visitor. An instance of this visitor
  * it should not be used to parse trees more than once.
@@ -65,9 +134,54 @@ import de.claas.parser.rules.Repetition;
  */
 public class Parser implements RuleVisitor {
 
-	private final State state;
-	private Node result;
-	private final Map<Rule, Integer> visitedPath = new HashMap<>();
+	private State state;
+	private final CompactTreeBuilder builder;
+	private final SemanticActions<?> actions;
+	private final ParserLimits limits;
+	private final long startTime = System.nanoTime();
+	private long invocations = 0;
+	private long backtracks = 0;
+	private int depth = 0;
+	private int farthestOffset = -1;
+	private final List<Rule> farthestExpected = new ArrayList<>();
+	private String farthestRule;
+	private final List<NonTerminal> syncRules = new ArrayList<>();
+	private final Map<Repetition, Boolean> recoveryPoints = new IdentityHashMap<>();
+	private final Map<Integer, ParserException> errors = new HashMap<>();
+	private boolean recovering = false;
+	private int predicates = 0;
+	private int growing = 0;
+	private int cutOffset = 0;
+	private int cuts = 0;
+	private int result = -1;
+	private final Map<Rule, int[]> visitedPath = new IdentityHashMap<>();
+	private boolean cycleChecks = true;
+	private boolean orderedChoice = false;
+	private GrammarAnalysis analysis;
+	private final Map<NonTerminal, Map<Integer, Seed>> seeds = new IdentityHashMap<>();
+	private final List<Frame> frames = new ArrayList<>();
+	private boolean dispatching = false;
+	private RegularSubgrammars regularSubgrammars;
+	private final Map<NonTerminal, Boolean> matchableRules = new IdentityHashMap<>();
+	private final Map<NonTerminal, Boolean> nestedActions = new IdentityHashMap<>();
+	private Tokens tokens;
+	private final Map<Integer, NonTerminal> lazyRules = new HashMap<>();
+	private Boolean alignedUpperCase;
+	private PackedText packedData;
+	private final FarthestFailure failure = new FarthestFailure();
+	private boolean expanding = false;
+	private int expandedResult = -1;
+	private int expandedRoot = -1;
+	private int expandedSize = -1;
+	private NonTerminal skipRule;
+	private RegularSubgrammars compiledSkipRule;
+	private final Set<String> skippingRules = new HashSet<>();
+	private boolean skipping = false;
+	private boolean implicit = false;
+	private final Set<String> memoizedRules = new HashSet<>();
+	private final TreeMap<Integer, Map<NonTerminal, Seed>> memos = new TreeMap<>();
+	private MemoizationProfile profile;
+	private final Map<NonTerminal, Set<Integer>> profiledOffsets = new IdentityHashMap<>();
 
 	/**
 	 * Constructs a new {@link Parser} with the specified parameter.
@@ -76,249 +190,2296 @@ public class Parser implements RuleVisitor {
 	 *            the state
 	 */
 	public Parser(State state) {
+		this(state, null);
+	}
+
+	/**
+	 * Constructs a new {@link Parser} with the specified parameters. The
+	 * semantic actions are executed whenever a {@link NonTerminal} rule was
+	 * successfully processed (see {@link #getValues()}).
+	 * 
+	 * @param state
+	 *            the state
+	 * @param actions
+	 *            the semantic actions or <code>null</code>
+	 */
+	public Parser(State state, SemanticActions<?> actions) {
+		this(state, actions, new ParserLimits());
+	}
+
+	/**
+	 * Constructs a new {@link Parser} with the specified parameters. The
+	 * semantic actions are executed whenever a {@link NonTerminal} rule was
+	 * successfully processed (see {@link #getValues()}). A
+	 * {@link ParserLimitException} is thrown as soon as any of the limits is
+	 * exceeded.
+	 * 
+	 * @param state
+	 *            the state
+	 * @param actions
+	 *            the semantic actions or <code>null</code>
+	 * @param limits
+	 *            the limits
+	 */
+	public Parser(State state, SemanticActions<?> actions, ParserLimits limits) {
 		this.state = state;
+		this.builder = new CompactTreeBuilder(state.getData());
+		this.actions = actions;
+		this.limits = limits;
+	}
+
+	/**
+	 * Sets whether "pointless" cycles (i.e. rules that are revisited without
+	 * processing any data) are detected while parsing. Cycle checks are
+	 * enabled by default. They can safely be disabled for rules that were
+	 * proven to be free of such cycles (see {@link GrammarAnalysis#isSafe()}),
+	 * which saves the bookkeeping on every visited rule.
+	 * 
+	 * @param cycleChecks
+	 *            whether cycles are detected while parsing
+	 */
+	public void setCycleChecks(boolean cycleChecks) {
+		this.cycleChecks = cycleChecks;
+	}
+
+	/**
+	 * Sets whether every {@link Disjunction} is processed as an ordered
+	 * disjunction (see {@link Disjunction#isOrdered()}). An ordered
+	 * disjunction commits to the first child that is successfully processed
+	 * and does not try the remaining children. By default, only disjunctions
+	 * that are ordered themselves are processed this way. Compiled automata
+	 * (see {@link #setRegularSubgrammars(RegularSubgrammars)}) must have been
+	 * compiled for the same choice.
+	 * 
+	 * @param orderedChoice
+	 *            whether every disjunction is processed as an ordered
+	 *            disjunction
+	 */
+	public void setOrderedChoice(boolean orderedChoice) {
+		this.orderedChoice = orderedChoice;
+	}
+
+	/**
+	 * Sets the analysis of the parsed rules (see {@link GrammarAnalysis}).
+	 * Left-recursive {@link NonTerminal}s (see
+	 * {@link GrammarAnalysis#isLeftRecursive(Rule)}) are parsed by growing a
+	 * seed: The non-terminal is first parsed with any left-recursive
+	 * invocation (at the same offset) failing. Afterwards, it is repeatedly
+	 * parsed with left-recursive invocations returning the previous result
+	 * (i.e. the seed), as long as the result processes more data. This yields
+	 * left-associative trees. Without an analysis, left recursion is treated
+	 * as a cycle (see {@link #setCycleChecks(boolean)}).
+	 * 
+	 * @param analysis
+	 *            the analysis or <code>null</code>
+	 */
+	public void setAnalysis(GrammarAnalysis analysis) {
+		this.analysis = analysis;
+	}
+
+	/**
+	 * Sets the compiled automata of regular non-terminals (see
+	 * {@link RegularSubgrammars}). A compiled non-terminal is matched in a
+	 * single step and it is recorded without any children. Its subtree is
+	 * built lazily (i.e. by parsing the matched data once more) when the
+	 * result is requested (see {@link #getResult()},
+	 * {@link #getCompactResult(boolean)} and
+	 * {@link #replayResult(ParseListener)}).
+	 * <p>
+	 * Compiled non-terminals are not matched in recovery mode (see
+	 * {@link #setSyncRules(Collection)}) or if semantic actions are attached
+	 * to any of their nested non-terminals. Failures within compiled
+	 * non-terminals are tracked by their automata as if they were processed
+	 * rule by rule (see {@link #getFarthestOffset()}).
+	 * 
+	 * @param regularSubgrammars
+	 *            the compiled automata or <code>null</code>
+	 */
+	public void setRegularSubgrammars(RegularSubgrammars regularSubgrammars) {
+		this.regularSubgrammars = regularSubgrammars;
+		this.matchableRules.clear();
+	}
+
+	/**
+	 * Sets the tokens of the parsed data (see {@link Tokens}). A lexical
+	 * {@link NonTerminal} (see
+	 * {@link de.claas.parser.automata.Lexer#getKind(NonTerminal)}) only
+	 * succeeds if the token at the current offset is of its kind. In that
+	 * case, the whole token is processed in a single step and the
+	 * non-terminal is recorded without any children (i.e. its subtree is
+	 * built lazily, see {@link #setRegularSubgrammars(RegularSubgrammars)}).
+	 * <p>
+	 * This changes the language that is accepted: A lexical non-terminal
+	 * fails wherever another lexical non-terminal describes a longer prefix of
+	 * the data (or an equally long prefix and takes precedence). Failures of
+	 * lexical non-terminals are reported by name (see
+	 * {@link #getFarthestExpected()}). If semantic actions are attached to
+	 * any of their nested non-terminals, then lexical non-terminals are
+	 * processed character by character once their token was found.
+	 * 
+	 * @param tokens
+	 *            the tokens of the parsed data or <code>null</code>
+	 */
+	public void setTokens(Tokens tokens) {
+		this.tokens = tokens;
+	}
+
+	/**
+	 * Sets the skip rule and the (skipping) non-terminals within which it is
+	 * applied. The data that is described by the skip rule (e.g. white space
+	 * or comments) is skipped before every terminal and every nested
+	 * non-terminal of a skipping non-terminal, and after a skipping
+	 * non-terminal was successfully processed. Skipping does not extend into
+	 * nested non-terminals that are not skipping themselves (i.e. they are
+	 * processed like tokens).
+	 * <p>
+	 * Skipped data is not recorded (i.e. no nodes are created for it) and
+	 * failures within the skip rule are not tracked (see
+	 * {@link #getFarthestOffset()}). If the skip rule was compiled (see
+	 * {@link RegularSubgrammars#getAutomaton(NonTerminal)}), then it is
+	 * matched in a single step. Otherwise, it is processed like any other
+	 * rule. Skipping non-terminals (or non-terminals that contain skipping
+	 * non-terminals) are never matched in a single step (see
+	 * {@link #setRegularSubgrammars(RegularSubgrammars)} and
+	 * {@link #setTokens(Tokens)}).
+	 * 
+	 * @param rule
+	 *            the skip rule or <code>null</code>
+	 * @param compiled
+	 *            the compiled automaton of the skip rule or <code>null</code>
+	 * @param rules
+	 *            the skipping non-terminals
+	 */
+	public void setSkipRule(NonTerminal rule, RegularSubgrammars compiled, Collection<NonTerminal> rules) {
+		this.skipRule = rule;
+		this.compiledSkipRule = compiled;
+		this.skippingRules.clear();
+		for (NonTerminal skippingRule : rules)
+			this.skippingRules.add(skippingRule.getName());
+	}
+
+	/**
+	 * Sets the memoized non-terminals. The result of a memoized non-terminal
+	 * (i.e. its subtree, values and farthest failure or its failure) is stored
+	 * per offset and re-invocations at the same offset reuse the stored
+	 * result rather than processing the non-terminal again. Memoization trades
+	 * memory for time, so only non-terminals that are frequently re-invoked at
+	 * the same offset should be memoized (see {@link MemoizationProfile}).
+	 * Semantic actions are not applied again when a result is reused.
+	 * <p>
+	 * Results are not memoized if they depend on the context of the
+	 * invocation (i.e. within left-recursive non-terminals, within syntactic
+	 * predicates, while data is skipped implicitly, in recovery mode and if a
+	 * cut was passed while processing the non-terminal). Stored results at
+	 * offsets before the last cut are dropped, since the state is never
+	 * reverted to these offsets (see {@link #getCutOffset()}). By default, no
+	 * non-terminals are memoized.
+	 * 
+	 * @param rules
+	 *            the memoized non-terminals
+	 */
+	public void setMemoizedRules(Collection<NonTerminal> rules) {
+		this.memoizedRules.clear();
+		for (NonTerminal rule : rules)
+			this.memoizedRules.add(rule.getName());
+	}
+
+	/**
+	 * Sets the profile that records every invocation of a non-terminal (see
+	 * {@link MemoizationProfile#record(String, boolean, long, int)}). An
+	 * invocation is a re-invocation if the non-terminal was already invoked at
+	 * the same offset (in contexts in which it could be memoized, see
+	 * {@link #setMemoizedRules(Collection)}). Non-terminals that are matched
+	 * in a single step (see {@link #setRegularSubgrammars(RegularSubgrammars)}
+	 * and {@link #setTokens(Tokens)}) are not recorded.
+	 * 
+	 * @param profile
+	 *            the profile or <code>null</code>
+	 */
+	public void setProfile(MemoizationProfile profile) {
+		this.profile = profile;
+	}
+
+	/**
+	 * Returns the number of rule invocations so far.
+	 * 
+	 * @return the number of rule invocations so far
+	 */
+	public long getInvocations() {
+		return this.invocations;
 	}
 
 	/**
-	 * Returns the result.
+	 * Returns the number of backtracks (i.e. reverted states) so far.
+	 * 
+	 * @return the number of backtracks so far
+	 */
+	public long getBacktracks() {
+		return this.backtracks;
+	}
+
+	/**
+	 * Returns whether the most recently visited rule successfully processed
+	 * the state.
+	 * 
+	 * @return <code>true</code> if the most recently visited rule successfully
+	 *         processed the state, <code>false</code> otherwise
+	 */
+	public boolean hasResult() {
+		return this.result >= 0;
+	}
+
+	/**
+	 * Returns the result (including {@link IntermediateNode}s). The result is
+	 * converted into a tree of {@link Node}s on every invocation.
 	 * 
 	 * @return the result
 	 */
 	public Node getResult() {
-		return this.result;
+		return getResult(true);
 	}
 
 	/**
-	 * Sets the result.
+	 * Returns the result. Optionally intermediate nodes (and thus
+	 * non-essential nodes) can be removed. The result is converted into a tree
+	 * of {@link Node}s on every invocation. Returns <code>null</code> if the
+	 * most recently visited rule did not successfully process the state.
 	 * 
-	 * @param result
-	 *            the result
+	 * @param retainIntermediateNodes
+	 *            whether {@link IntermediateNode} instances should be retained
+	 * @return the result
 	 */
-	private void setResult(Node result) {
-		this.result = result;
+	public Node getResult(boolean retainIntermediateNodes) {
+		return getResult(retainIntermediateNodes, null);
 	}
 
 	/**
-	 * Clears the result.
+	 * Returns the result. Optionally intermediate nodes (and thus
+	 * non-essential nodes) can be removed and structurally identical subtrees
+	 * can be shared (see {@link NodeInterner}). The result is converted into a
+	 * tree of {@link Node}s on every invocation. Returns <code>null</code> if
+	 * the most recently visited rule did not successfully process the state.
+	 * 
+	 * @param retainIntermediateNodes
+	 *            whether {@link IntermediateNode} instances should be retained
+	 * @param interner
+	 *            the interner that shares structurally identical subtrees or
+	 *            <code>null</code> if subtrees should not be shared
+	 * @return the result
 	 */
-	private void clearResult() {
-		this.result = null;
+	public Node getResult(boolean retainIntermediateNodes, NodeInterner interner) {
+		return hasResult() ? this.builder.toNode(expandedResult(), retainIntermediateNodes, interner) : null;
 	}
 
-	@Override
-	public void visitConjunction(Conjunction rule) {
-		if (addToPath(rule)) {
-			this.state.beginGroup();
-			try {
-				Node node = rule.hasChildren() ? new IntermediateNode() : null;
-				for (Rule child : rule) {
-					child.visit(this);
-					if (getResult() == null) {
-						this.state.revert();
-						clearResult();
-						return;
-					}
-					if (node != null)
-						node.addChild(getResult());
-				}
-				setResult(node);
-			} finally {
-				this.state.endGroup();
-				removeFromPath(rule);
-			}
-		} else {
-			throw new CyclicRuleException(rule);
+	/**
+	 * Returns the result in its compact form. Optionally intermediate nodes
+	 * (and thus non-essential nodes) can be removed. Returns <code>null</code>
+	 * if the most recently visited rule did not successfully process the
+	 * state.
+	 * 
+	 * @param retainIntermediateNodes
+	 *            whether intermediate nodes should be retained
+	 * @return the result in its compact form
+	 */
+	public CompactTree getCompactResult(boolean retainIntermediateNodes) {
+		return hasResult() ? this.builder.build(expandedResult(), retainIntermediateNodes) : null;
+	}
+
+	/**
+	 * Returns the farthest offset at which a terminal symbol could not be
+	 * processed. Returns <code>-1</code> if no terminal symbol failed.
+	 * 
+	 * @return the farthest offset at which a terminal symbol failed
+	 */
+	public int getFarthestOffset() {
+		return this.farthestOffset;
+	}
+
+	/**
+	 * Returns the (textual representation of) terminal symbols that failed at
+	 * the farthest offset (see {@link #getFarthestOffset()}). Each terminal
+	 * rule is reported at most once. Lexical non-terminal symbols (see
+	 * {@link #setTokens(Tokens)}) are reported by name.
+	 * 
+	 * @return the terminal symbols that failed at the farthest offset
+	 */
+	public List<String> getFarthestExpected() {
+		List<String> expected = new ArrayList<>(this.farthestExpected.size());
+		for (Rule rule : this.farthestExpected) {
+			String description = describe(rule);
+			if (!expected.contains(description))
+				expected.add(description);
 		}
+		return expected;
 	}
 
-	@Override
-	public void visitDisjunction(Disjunction rule) {
-		if (addToPath(rule)) {
-			this.state.beginGroup();
-			try {
-				// search for "greediest" rule (i.e. the rule that processes
-				// most of the unprocessed data)
-				int alreadyProcessedData = this.state.getProcessedData().length();
-				Rule bestRule = null;
-				for (Rule child : rule) {
-					this.state.beginGroup();
-					try {
-						child.visit(this);
-						if (getResult() != null) {
-							int newlyProcessedData = this.state.getProcessedData().length();
-							if (newlyProcessedData >= alreadyProcessedData) {
-								alreadyProcessedData = newlyProcessedData;
-								bestRule = child;
-							}
-						}
-					} finally {
-						this.state.revert();
-						this.state.endGroup();
-					}
-				}
+	/**
+	 * Returns the name of the innermost non-terminal symbol that was being
+	 * processed when a terminal symbol first failed at the farthest offset
+	 * (see {@link #getFarthestOffset()}). Returns <code>null</code> if there
+	 * was no such non-terminal symbol.
+	 * 
+	 * @return the name of the innermost non-terminal symbol at the farthest
+	 *         offset
+	 */
+	public String getFarthestRule() {
+		return this.farthestRule;
+	}
 
-				// re-process the greediest rule with the "global" state object
-				// (i.e. not with the local copies)
-				if (bestRule != null) {
-					bestRule.visit(this);
-					if (getResult() != null) {
-						Node node = new IntermediateNode();
-						node.addChild(getResult());
-						setResult(node);
-					} else {
-						clearResult();
-					}
-				} else {
-					this.state.revert();
-					clearResult();
+	/**
+	 * Returns the offset of the last cut that was passed (see {@link Cut}).
+	 * Once a cut was passed, the state is never reverted to an offset before
+	 * the cut. Instead, a {@link ParserException} is thrown if a rule fails
+	 * that started before the cut (i.e. the failure is final). Cuts have no
+	 * effect within syntactic predicates, within left-recursive non-terminals
+	 * (see {@link #setAnalysis(GrammarAnalysis)}) and while data is skipped
+	 * (see {@link #setSyncRules(Collection)}), since these are always
+	 * reverted. Returns <code>0</code> if no cut was passed.
+	 * 
+	 * @return the offset of the last cut that was passed
+	 */
+	public int getCutOffset() {
+		return this.cutOffset;
+	}
+
+	/**
+	 * Enables the recovery mode with the specified synchronization rules. In
+	 * recovery mode, a {@link Repetition} whose decorated rule (or any of the
+	 * decorated rule's immediate children) is one of the synchronization rules
+	 * acts as recovery point. If the decorated rule cannot be processed, then
+	 * the data up to the next offset at which any of the synchronization rules
+	 * can be processed is skipped (see {@link ErrorNode}) and the repetition
+	 * continues. Otherwise, the repetition ends as usual. The recovery mode is
+	 * disabled if no synchronization rules are specified.
+	 * 
+	 * @param syncRules
+	 *            the synchronization rules
+	 * @see #getErrors()
+	 */
+	public void setSyncRules(Collection<NonTerminal> syncRules) {
+		this.syncRules.clear();
+		this.syncRules.addAll(syncRules);
+		this.recoveryPoints.clear();
+	}
+
+	/**
+	 * Returns the errors that were encountered (and skipped) by the result (see
+	 * {@link #setSyncRules(Collection)}). The errors are returned in document
+	 * order. The returned list is empty if the most recently visited rule did
+	 * not successfully process the state.
+	 * 
+	 * @return the errors that were encountered by the result
+	 */
+	public List<ParserException> getErrors() {
+		return hasResult() ? collectErrors(this.result) : new ArrayList<>();
+	}
+
+	/**
+	 * Returns the values of the result (see {@link SemanticActions}). If the
+	 * most recently visited rule is a {@link NonTerminal} with an attached
+	 * action, then the returned list contains exactly one value. Otherwise,
+	 * the values of the closest descendants with an action are returned.
+	 * Returns <code>null</code> if the most recently visited rule did not
+	 * successfully process the state.
+	 * 
+	 * @return the values of the result
+	 */
+	public List<Object> getValues() {
+		return hasResult() ? this.builder.getValues(this.result) : null;
+	}
+
+	/**
+	 * Reports the result to the specified listener. Only the final derivation
+	 * is reported (i.e. speculative work that was discarded while parsing is
+	 * not reported). Returns <code>false</code> (without notifying the
+	 * listener) if the most recently visited rule did not successfully process
+	 * the state.
+	 * 
+	 * @param listener
+	 *            the listener
+	 * @return <code>true</code> if the result was reported, <code>false</code>
+	 *         otherwise
+	 */
+	public boolean replayResult(ParseListener listener) {
+		if (!hasResult())
+			return false;
+		this.builder.replay(expandedResult(), listener);
+		return true;
+	}
+
+	/**
+	 * Opens a new record (see {@link CompactTreeBuilder#open(int, String, int)})
+	 * that starts at the current offset.
+	 * 
+	 * @param kind
+	 *            the kind of record
+	 * @param name
+	 *            the name of the non-terminal node or <code>null</code>
+	 * @return the new record
+	 */
+	private int open(int kind, String name) {
+		return this.builder.open(kind, name, this.state.getOffset());
+	}
+
+	/**
+	 * Closes the specified record at the current offset and makes it the
+	 * result.
+	 * 
+	 * @param record
+	 *            the record
+	 */
+	private void close(int record) {
+		this.builder.close(record, this.state.getOffset());
+		this.result = record;
+	}
+
+	/**
+	 * Aborts the specified record and clears the result.
+	 * 
+	 * @param record
+	 *            the record
+	 */
+	private void abort(int record) {
+		this.builder.abort(record);
+		this.result = -1;
+	}
+
+	/**
+	 * A helper function that returns whether the specified rule is a recovery
+	 * point (see {@link #setSyncRules(Collection)}).
+	 * 
+	 * @param rule
+	 *            the rule
+	 * @return <code>true</code> if the specified rule is a recovery point,
+	 *         <code>false</code> otherwise
+	 */
+	private boolean isRecoveryPoint(Repetition rule) {
+		if (this.syncRules.isEmpty() || this.recovering || this.predicates > 0)
+			return false;
+
+		Boolean recoveryPoint = this.recoveryPoints.get(rule);
+		if (recoveryPoint == null) {
+			Rule decorated = rule.getRule();
+			boolean isSync = isSyncRule(decorated);
+			if (decorated instanceof Decorator) {
+				isSync |= isSyncRule(((Decorator) decorated).getRule());
+			} else {
+				for (Rule child : decorated) {
+					isSync |= isSyncRule(child);
 				}
-			} finally {
-				this.state.endGroup();
-				removeFromPath(rule);
 			}
-		} else {
-			throw new CyclicRuleException(rule);
+			recoveryPoint = Boolean.valueOf(isSync);
+			this.recoveryPoints.put(rule, recoveryPoint);
 		}
+		return recoveryPoint.booleanValue();
 	}
 
-	@Override
-	public void visitNonTerminal(NonTerminal rule) {
-		if (addToPath(rule)) {
-			rule.getRule().visit(this);
-			if (getResult() != null) {
-				Node node = new NonTerminalNode(rule.getName());
-				node.addChild(getResult());
-				setResult(node);
-			} else {
-				clearResult();
-			}
-			removeFromPath(rule);
-		} else {
-			throw new CyclicRuleException(rule);
+	/**
+	 * A helper function that returns whether the specified rule is one of the
+	 * synchronization rules (by identity).
+	 * 
+	 * @param rule
+	 *            the rule
+	 * @return <code>true</code> if the specified rule is one of the
+	 *         synchronization rules, <code>false</code> otherwise
+	 */
+	private boolean isSyncRule(Rule rule) {
+		for (NonTerminal syncRule : this.syncRules) {
+			if (syncRule == rule)
+				return true;
 		}
+		return false;
 	}
 
-	@Override
-	public void visitOptional(Optional rule) {
-		if (addToPath(rule)) {
-			this.state.beginGroup();
-			try {
-				Node node = new IntermediateNode();
-				rule.getRule().visit(this);
-				if (getResult() != null)
-					node.addChild(getResult());
-				setResult(node);
-			} finally {
-				this.state.endGroup();
-				removeFromPath(rule);
+	/**
+	 * A helper function that returns a snapshot of the farthest failure and
+	 * resets the farthest failure. This way, failures of a rule can be
+	 * reported independently of failures that happened before (see
+	 * {@link #recover()}).
+	 * 
+	 * @return the snapshot of the farthest failure
+	 */
+	private Farthest resetFarthest() {
+		Farthest farthest = new Farthest(this.farthestOffset, new ArrayList<>(this.farthestExpected),
+				this.farthestRule);
+		this.farthestOffset = -1;
+		this.farthestExpected.clear();
+		this.farthestRule = null;
+		return farthest;
+	}
+
+	/**
+	 * A helper function that merges the specified snapshot (see
+	 * {@link #resetFarthest()}) with the current farthest failure. The
+	 * snapshot wins if it is farther, expected terminal symbols are combined
+	 * if both are equally far.
+	 * 
+	 * @param farthest
+	 *            the snapshot of the farthest failure
+	 */
+	private void mergeFarthest(Farthest farthest) {
+		if (farthest.offset > this.farthestOffset) {
+			restoreFarthest(farthest);
+		} else if (farthest.offset == this.farthestOffset) {
+			for (Rule expected : farthest.expected) {
+				addExpected(expected);
 			}
-		} else {
-			throw new CyclicRuleException(rule);
 		}
 	}
 
-	@Override
-	public void visitRepetition(Repetition rule) {
-		if (addToPath(rule)) {
-			this.state.beginGroup();
-			try {
-				Node node = new IntermediateNode();
-				for (int repetitions = 1; repetitions <= rule.getMaximumNumberOfRepetions(); repetitions++) {
-					rule.getRule().visit(this);
-					if (getResult() == null) {
-						if (repetitions <= rule.getMinimumNumberOfRepetions()) {
-							this.state.revert();
-							clearResult();
-							return;
-						}
+	/**
+	 * A helper function that restores the specified snapshot (see
+	 * {@link #resetFarthest()}).
+	 * 
+	 * @param farthest
+	 *            the snapshot of the farthest failure
+	 */
+	private void restoreFarthest(Farthest farthest) {
+		this.farthestOffset = farthest.offset;
+		this.farthestExpected.clear();
+		this.farthestExpected.addAll(farthest.expected);
+		this.farthestRule = farthest.rule;
+	}
 
-						setResult(node);
-						return;
-					}
-					node.addChild(getResult());
-				}
-				setResult(node);
-			} finally {
-				this.state.endGroup();
-				removeFromPath(rule);
-			}
-		} else {
-			throw new CyclicRuleException(rule);
+	/**
+	 * A helper function that skips the data up to the next offset at which any
+	 * of the synchronization rules can be processed. The skipped data is
+	 * recorded as error and becomes the result. Nothing is skipped (and the
+	 * result remains cleared) if none of the synchronization rules can be
+	 * processed before the end of the data. This way, the repetition ends
+	 * normally and the subsequent rules are processed (e.g. a terminating
+	 * keyword that is not a synchronization rule).
+	 */
+	private void recover() {
+		int start = this.state.getOffset();
+		int length = this.state.getData().length();
+		int end = start + 1;
+		while (end < length && !isSynchronized(end - start)) {
+			end++;
 		}
+		if (end >= length)
+			return;
+		this.state.skip(end - start);
+		this.result = this.builder.add(CompactTree.ERROR, null, start, end);
+
+		String message = String.format("Skipped invalid data (offset %d to %d).", new Integer(start),
+				new Integer(end));
+		ParserException error;
+		if (this.farthestOffset >= start)
+			error = new ParserException(message, this.state.getData(), this.farthestOffset, getFarthestExpected(),
+					this.farthestRule);
+		else
+			error = new ParserException(message, this.state.getData(), start, new ArrayList<>(), null);
+		this.errors.put(new Integer(this.result), error);
 	}
 
-	@Override
-	public void visitTerminal(CharacterValue rule) {
+	/**
+	 * A helper function that returns whether any of the synchronization rules
+	 * can be processed at the specified distance from the current offset. The
+	 * state (as well as the results and the farthest failure) remain
+	 * unchanged.
+	 * 
+	 * @param distance
+	 *            the distance from the current offset
+	 * @return <code>true</code> if any of the synchronization rules can be
+	 *         processed, <code>false</code> otherwise
+	 */
+	private boolean isSynchronized(int distance) {
+		Farthest farthest = resetFarthest();
+		int mark = this.builder.size();
+		this.recovering = true;
 		this.state.beginGroup();
 		try {
-			String terminal = rule.getTerminal();
-			String token = this.state.process(rule.isCaseSensitive(), terminal);
-			if (token != null) {
-				setResult(new TerminalNode(token));
-				return;
+			this.state.skip(distance);
+			for (NonTerminal syncRule : this.syncRules) {
+				syncRule.visit(this);
+				if (hasResult())
+					return true;
 			}
-			clearResult();
+			return false;
 		} finally {
+			this.state.revert();
 			this.state.endGroup();
+			this.builder.truncate(mark);
+			this.recovering = false;
+			clearResult();
+			restoreFarthest(farthest);
 		}
 	}
 
-	@Override
-	public void visitTerminal(NumberValue rule) {
-		this.state.beginGroup();
-		try {
-			if (rule.getTerminal() != null) {
-				String terminal = rule.getTerminal();
-				String token = this.state.process(true, terminal);
-				if (token != null) {
-					setResult(new TerminalNode(token));
-					return;
-				}
-			} else {
-				char rangeStart = rule.getRangeStart().charValue();
-				char rangeEnd = rule.getRangeEnd().charValue();
-				String token = this.state.process(rangeStart, rangeEnd);
-				if (token != null) {
-					setResult(new TerminalNode(token));
-					return;
+	/**
+	 * A helper function that is called whenever a terminal symbol could not be
+	 * processed at the specified offset. It keeps track of the farthest
+	 * failure. Terminal symbols are compared by identity and described lazily
+	 * (see {@link #getFarthestExpected()}).
+	 * 
+	 * @param rule
+	 *            the terminal rule or lexical non-terminal rule
+	 * @param offset
+	 *            the offset
+	 */
+	private void fail(Rule rule, int offset) {
+		fail(rule, offset, null);
+	}
+
+	/**
+	 * A helper function that is called whenever a terminal symbol could not be
+	 * processed at the specified offset (see {@link #fail(Rule, int)}). The
+	 * failing terminal symbol is enclosed by the non-terminal with the
+	 * specified name (e.g. within a compiled non-terminal).
+	 * 
+	 * @param rule
+	 *            the terminal rule or lexical non-terminal rule
+	 * @param offset
+	 *            the offset
+	 * @param name
+	 *            the name of the innermost enclosing non-terminal or
+	 *            <code>null</code> if it is the innermost recorded one
+	 */
+	private void fail(Rule rule, int offset, String name) {
+		if (offset < this.farthestOffset)
+			return;
+		if (offset > this.farthestOffset) {
+			this.farthestOffset = offset;
+			this.farthestExpected.clear();
+			this.farthestRule = name;
+			for (int record = this.builder.getCurrent(); record >= 0 && name == null; record = this.builder
+					.getParent(record)) {
+				if (this.builder.getKind(record) == CompactTree.NON_TERMINAL) {
+					this.farthestRule = this.builder.getName(record);
+					break;
 				}
 			}
-			clearResult();
-		} finally {
-			this.state.endGroup();
 		}
+		addExpected(rule);
 	}
 
 	/**
-	 * A helper function that adds the specified rule to the path of visited
-	 * rules (i.e. path from the root of the tree to the specified rule). The
-	 * primary rational behind this function is to test for "pointless" cycles
-	 * within the tree. Cycles are acceptable as long as they have an effect on
-	 * the processed data (i.e. data is still being processed).
+	 * A helper function that adds the specified terminal rule to the terminal
+	 * symbols that failed at the farthest offset (unless it was already added).
+	 * Terminal symbols are compared by identity.
 	 * 
 	 * @param rule
-	 *            the rule to add to the path
-	 * @return <code>true</code> if the specified rule was added to the path of
-	 *         visited rules, otherwise <code>false</code>
+	 *            the terminal rule or lexical non-terminal rule
 	 */
-	private boolean addToPath(Rule rule) {
-		int currentlyProcessed = this.state.getProcessedData().length();
-		Integer previouslyProcessed = this.visitedPath.put(rule, new Integer(currentlyProcessed));
-		if (previouslyProcessed != null) {
-			return currentlyProcessed > previouslyProcessed.intValue();
+	private void addExpected(Rule rule) {
+		for (Rule expected : this.farthestExpected) {
+			if (expected == rule)
+				return;
 		}
-		return true;
+		this.farthestExpected.add(rule);
 	}
 
 	/**
-	 * A helper function that removes the specified rule from the path of
-	 * visited rules.
+	 * A helper function that returns a textual representation (in the style of
+	 * the augmented Backus-Naur form) of the specified terminal rule or lexical
+	 * non-terminal rule.
 	 * 
 	 * @param rule
-	 *            the rule to remove from the path
+	 *            the terminal rule or lexical non-terminal rule
+	 * @return a textual representation of the specified rule
 	 */
-	private void removeFromPath(Rule rule) {
-		this.visitedPath.remove(rule);
+	private static String describe(Rule rule) {
+		if (rule instanceof NonTerminal)
+			return ((NonTerminal) rule).getName();
+		if (rule instanceof CharacterValue) {
+			CharacterValue value = (CharacterValue) rule;
+			String terminal = value.getTerminal();
+			boolean printable = !terminal.isEmpty();
+			for (int i = 0; i < terminal.length(); i++) {
+				char c = terminal.charAt(i);
+				printable &= c >= 0x20 && c != '"' && c != 0x7F;
+			}
+			if (printable)
+				return String.format("%s\"%s\"", value.isCaseSensitive() ? "%s" : "", terminal);
+			return describe(16, terminal);
+		}
+
+		NumberValue value = (NumberValue) rule;
+		int radix = value.getRadix();
+		if (value.getTerminal() == null) {
+			String start = Integer.toString(value.getRangeStart().charValue(), radix).toUpperCase();
+			String end = Integer.toString(value.getRangeEnd().charValue(), radix).toUpperCase();
+			return String.format("%%%s%s-%s", marker(radix), start, end);
+		}
+		return describe(radix, value.getTerminal());
+	}
+
+	/**
+	 * A helper function that returns a textual representation (in the style of
+	 * the augmented Backus-Naur form) of the specified terminal symbol (e.g.
+	 * <code>%xD.A</code>).
+	 * 
+	 * @param radix
+	 *            the radix
+	 * @param terminal
+	 *            the terminal symbol
+	 * @return a textual representation of the specified terminal symbol
+	 */
+	private static String describe(int radix, String terminal) {
+		StringBuilder builder = new StringBuilder("%").append(marker(radix));
+		for (int i = 0; i < terminal.length(); i++) {
+			if (i > 0)
+				builder.append('.');
+			builder.append(Integer.toString(terminal.charAt(i), radix).toUpperCase());
+		}
+		return builder.toString();
+	}
+
+	/**
+	 * A helper function that returns the marker of the specified radix (e.g.
+	 * "x" for hexadecimal values).
+	 * 
+	 * @param radix
+	 *            the radix
+	 * @return the marker of the specified radix
+	 */
+	private static String marker(int radix) {
+		return radix == 2 ? "b" : radix == 10 ? "d" : "x";
+	}
+
+	/**
+	 * A helper function that is called whenever a rule is invoked. It enforces
+	 * the limits of this parser (see {@link ParserLimits}).
+	 * 
+	 * @throws ParserLimitException
+	 *             if any of the limits is exceeded
+	 */
+	private void enter() {
+		this.depth++;
+		this.invocations++;
+		if (this.invocations > this.limits.getMaximumInvocations())
+			throw exceededLimit(Limit.INVOCATIONS);
+		if (this.depth > this.limits.getMaximumDepth())
+			throw exceededLimit(Limit.DEPTH);
+		if (this.invocations % this.limits.getCheckInterval() == 0) {
+			if (elapsedTime() > this.limits.getTimeout())
+				throw exceededLimit(Limit.TIMEOUT);
+			BooleanSupplier cancellation = this.limits.getCancellation();
+			if (cancellation != null && cancellation.getAsBoolean())
+				throw exceededLimit(Limit.CANCELLATION);
+		}
+	}
+
+	/**
+	 * A helper function that is called whenever a rule was processed.
+	 */
+	private void leave() {
+		this.depth--;
+	}
+
+	/**
+	 * A helper function that reverts the state (see {@link State#revert()})
+	 * and enforces the maximum number of backtracks.
+	 * 
+	 * @throws ParserLimitException
+	 *             if the maximum number of backtracks is exceeded
+	 * @throws ParserException
+	 *             if the state is reverted to an offset before the last cut
+	 *             (see {@link #getCutOffset()})
+	 */
+	private void backtrack() {
+		this.state.revert();
+		this.backtracks++;
+		if (this.backtracks > this.limits.getMaximumBacktracks())
+			throw exceededLimit(Limit.BACKTRACKS);
+		if (this.state.getOffset() < this.cutOffset) {
+			String message = String.format("Could not backtrack behind cut (offset %d).",
+					new Integer(this.cutOffset));
+			if (this.farthestOffset >= this.cutOffset)
+				throw new ParserException(message, this.state.getData(), this.farthestOffset, getFarthestExpected(),
+						this.farthestRule);
+			throw new ParserException(message, this.state.getData(), this.cutOffset, new ArrayList<>(), null);
+		}
+	}
+
+	/**
+	 * A helper function that returns the time (in milliseconds) that elapsed
+	 * since this parser was created.
+	 * 
+	 * @return the elapsed time (in milliseconds)
+	 */
+	private long elapsedTime() {
+		return (System.nanoTime() - this.startTime) / 1000000L;
+	}
+
+	/**
+	 * A helper function that creates an exception for the specified limit.
+	 * 
+	 * @param limit
+	 *            the exceeded limit
+	 * @return the exception
+	 */
+	private ParserLimitException exceededLimit(Limit limit) {
+		return new ParserLimitException(limit, this.invocations, this.backtracks, this.depth, elapsedTime());
+	}
+
+	/**
+	 * Executes the semantic action that is attached to non-terminal symbols
+	 * with the specified name (if any). The values of the specified record are
+	 * replaced by the action's value.
+	 * 
+	 * @param name
+	 *            the name of the non-terminal symbol
+	 * @param record
+	 *            the (closed) record of the non-terminal symbol
+	 */
+	@SuppressWarnings("unchecked")
+	private void applyAction(String name, int record) {
+		SemanticAction<Object> action = (SemanticAction<Object>) this.actions.get(name);
+		if (action != null) {
+			List<Object> values = this.builder.popValues(record);
+			Object value = action.apply(this.state.getData(), this.builder.getStart(record),
+					this.builder.getEnd(record), values);
+			this.builder.pushValue(value);
+		}
+	}
+
+	/**
+	 * Clears the result.
+	 */
+	private void clearResult() {
+		this.result = -1;
+	}
+
+	@Override
+	public void visitConjunction(Conjunction rule) {
+		run(new ConjunctionFrame(rule));
+	}
+
+	@Override
+	public void visitDisjunction(Disjunction rule) {
+		run(new DisjunctionFrame(rule));
+	}
+
+	@Override
+	public void visitNonTerminal(NonTerminal rule) {
+		if (this.skipping)
+			skip();
+		if (this.tokens != null && scan(rule))
+			return;
+		if (this.regularSubgrammars != null && match(rule))
+			return;
+		if (this.analysis != null && this.analysis.isLeftRecursive(rule))
+			run(new LeftRecursionFrame(rule));
+		else
+			run(new NonTerminalFrame(rule));
+	}
+
+	@Override
+	public void visitOptional(Optional rule) {
+		run(new OptionalFrame(rule));
+	}
+
+	@Override
+	public void visitRepetition(Repetition rule) {
+		run(new RepetitionFrame(rule));
+	}
+
+	@Override
+	public void visitSeparatedRepetition(SeparatedRepetition rule) {
+		run(new SeparatedRepetitionFrame(rule));
+	}
+
+	@Override
+	public void visitAndPredicate(AndPredicate rule) {
+		run(new PredicateFrame(rule, false));
+	}
+
+	@Override
+	public void visitNotPredicate(NotPredicate rule) {
+		run(new PredicateFrame(rule, true));
+	}
+
+	@Override
+	public void visitCut(Cut rule) {
+		enter();
+		int offset = this.state.getOffset();
+		if (!this.recovering && this.predicates == 0 && this.growing == 0 && !this.implicit) {
+			this.cutOffset = offset;
+			this.cuts++;
+			if (!this.memos.isEmpty())
+				this.memos.headMap(new Integer(offset)).clear();
+		}
+		this.result = this.builder.add(CompactTree.INTERMEDIATE, null, offset, offset);
+		leave();
+	}
+
+	/**
+	 * A helper function that processes the specified frame. If the frame was
+	 * created on behalf of another frame (see {@link #call(Rule)}), then it is
+	 * merely pushed onto the stack of frames and processed by the loop that
+	 * processes the other frame. Otherwise, the frame (and all frames that it
+	 * pushes) is processed until it is completed.
+	 * 
+	 * @param frame
+	 *            the frame
+	 */
+	private void run(Frame frame) {
+		if (this.dispatching) {
+			this.dispatching = false;
+			this.frames.add(frame);
+			return;
+		}
+
+		int base = this.frames.size();
+		this.frames.add(frame);
+		try {
+			while (this.frames.size() > base) {
+				this.frames.get(this.frames.size() - 1).resume();
+			}
+		} finally {
+			while (this.frames.size() > base) {
+				this.frames.remove(this.frames.size() - 1);
+			}
+		}
+	}
+
+	/**
+	 * A helper function that invokes the specified rule on behalf of the
+	 * current frame. The current frame is resumed once the rule was processed
+	 * (i.e. no Java frames are used for nested rules).
+	 * 
+	 * @param rule
+	 *            the rule
+	 */
+	private void call(Rule rule) {
+		this.dispatching = true;
+		rule.visit(this);
+	}
+
+	/**
+	 * A helper function that completes the current frame (i.e. the frame on
+	 * top of the stack of frames).
+	 */
+	private void complete() {
+		this.frames.remove(this.frames.size() - 1);
+	}
+
+	/**
+	 * A helper function that returns the errors of the subtree of the
+	 * specified record (in document order).
+	 * 
+	 * @param root
+	 *            the root record
+	 * @return the errors of the subtree
+	 */
+	private List<ParserException> collectErrors(int root) {
+		List<ParserException> result = new ArrayList<>();
+		for (int record = root; record < this.builder.size()
+				&& (record == root || this.builder.getParent(record) >= root); record++) {
+			if (this.builder.getKind(record) == CompactTree.ERROR)
+				result.add(this.errors.get(new Integer(record)));
+		}
+		return result;
+	}
+
+	/**
+	 * A helper function that processes the specified non-terminal by means of
+	 * the token at the current offset (see {@link #setTokens(Tokens)}). The
+	 * processed non-terminal is recorded without children (i.e. it is expanded
+	 * lazily, see {@link #expand(int)}). Returns <code>false</code> (without
+	 * changing anything) if the non-terminal is not lexical or if it has to be
+	 * processed character by character.
+	 * 
+	 * @param rule
+	 *            the non-terminal
+	 * @return <code>true</code> if the non-terminal was processed by means of
+	 *         the token (successfully or not), <code>false</code> otherwise
+	 */
+	private boolean scan(NonTerminal rule) {
+		int kind = this.tokens.getLexer().getKind(rule);
+		if (kind < 0 || this.expanding || isSkipping(rule, this.tokens.getLexer().getNestedNames(rule)))
+			return false;
+
+		int start = this.state.getOffset();
+		boolean matched = this.tokens.getKind(start) == kind;
+		if (matched && hasNestedActions(rule, this.tokens.getLexer().getNestedNames(rule)))
+			return false;
+
+		this.dispatching = false;
+		enter();
+		try {
+			if (!matched) {
+				fail(rule, start);
+				clearResult();
+				return true;
+			}
+			int end = this.tokens.getEnd(start);
+			this.state.skip(end - start);
+			this.result = this.builder.add(CompactTree.NON_TERMINAL, rule.getName(), start, end);
+			this.lazyRules.put(new Integer(this.result), rule);
+			if (this.actions != null)
+				applyAction(rule.getName(), this.result);
+			return true;
+		} finally {
+			leave();
+		}
+	}
+
+	/**
+	 * A helper function that matches the specified non-terminal by means of
+	 * its compiled automaton (see
+	 * {@link #setRegularSubgrammars(RegularSubgrammars)}). The matched
+	 * non-terminal is recorded without children (i.e. it is expanded lazily,
+	 * see {@link #expand(int)}). The terminals that failed at the farthest
+	 * offset within the automaton are tracked as if the non-terminal had been
+	 * processed rule by rule. Returns <code>false</code> (without changing
+	 * anything) if the non-terminal cannot be matched by an automaton.
+	 * 
+	 * @param rule
+	 *            the non-terminal
+	 * @return <code>true</code> if the non-terminal was matched by its
+	 *         automaton (successfully or not), <code>false</code> otherwise
+	 */
+	private boolean match(NonTerminal rule) {
+		DeterministicAutomaton automaton = this.regularSubgrammars.getAutomaton(rule);
+		if (automaton == null || this.expanding || !this.syncRules.isEmpty() || !isMatchable(rule)
+				|| isSkipping(rule, this.regularSubgrammars.getNestedNames(rule)))
+			return false;
+
+		this.dispatching = false;
+		enter();
+		try {
+			int start = this.state.getOffset();
+			if (this.packedData == null)
+				this.packedData = new PackedText(this.state.getData());
+			this.failure.reset();
+			int end = automaton.match(this.packedData, start, this.failure);
+			for (int i = 0; i < this.failure.size(); i++) {
+				int origin = this.failure.getOrigin(i);
+				fail(this.regularSubgrammars.getTerminal(origin), this.failure.getOffset(),
+						this.regularSubgrammars.getEnclosingName(origin));
+			}
+			if (end < 0) {
+				clearResult();
+				return true;
+			}
+			this.state.skip(end - start);
+			this.result = this.builder.add(CompactTree.NON_TERMINAL, rule.getName(), start, end);
+			this.lazyRules.put(new Integer(this.result), rule);
+			if (this.actions != null)
+				applyAction(rule.getName(), this.result);
+			return true;
+		} finally {
+			leave();
+		}
+	}
+
+	/**
+	 * A helper function that returns whether the specified (compiled)
+	 * non-terminal can be matched by its automaton. This is not the case if
+	 * semantic actions are attached to any of its nested non-terminals or if
+	 * it contains case-insensitive terminals while the upper case data has a
+	 * different length than the data (see {@link State#process(boolean, String)}).
+	 * 
+	 * @param rule
+	 *            the compiled non-terminal
+	 * @return <code>true</code> if the non-terminal can be matched by its
+	 *         automaton, <code>false</code> otherwise
+	 */
+	private boolean isMatchable(NonTerminal rule) {
+		Boolean matchable = this.matchableRules.get(rule);
+		if (matchable == null) {
+			boolean result = true;
+			if (this.regularSubgrammars.isCaseInsensitive(rule))
+				result = isAlignedUpperCase();
+			result &= !hasNestedActions(rule, this.regularSubgrammars.getNestedNames(rule));
+			matchable = Boolean.valueOf(result);
+			this.matchableRules.put(rule, matchable);
+		}
+		return matchable.booleanValue();
+	}
+
+	/**
+	 * A helper function that returns whether results of non-terminals can be
+	 * memoized or profiled in the current context (see
+	 * {@link #setMemoizedRules(Collection)}).
+	 * 
+	 * @return <code>true</code> if results can be memoized,
+	 *         <code>false</code> otherwise
+	 */
+	private boolean isMemoizable() {
+		return this.growing == 0 && this.predicates == 0 && !this.implicit && !this.expanding
+				&& this.syncRules.isEmpty();
+	}
+
+	/**
+	 * A helper function that returns the stored result of the specified
+	 * memoized non-terminal at the specified offset (see
+	 * {@link #setMemoizedRules(Collection)}).
+	 * 
+	 * @param rule
+	 *            the non-terminal
+	 * @param offset
+	 *            the offset
+	 * @return the stored result or <code>null</code>
+	 */
+	private Seed getMemo(NonTerminal rule, int offset) {
+		Map<NonTerminal, Seed> memos = this.memos.get(new Integer(offset));
+		return memos != null ? memos.get(rule) : null;
+	}
+
+	/**
+	 * A helper function that stores the result of the specified memoized
+	 * non-terminal at the specified offset (see
+	 * {@link #setMemoizedRules(Collection)}).
+	 * 
+	 * @param rule
+	 *            the non-terminal
+	 * @param offset
+	 *            the offset
+	 * @param memo
+	 *            the result
+	 */
+	private void putMemo(NonTerminal rule, int offset, Seed memo) {
+		Integer key = new Integer(offset);
+		Map<NonTerminal, Seed> memos = this.memos.get(key);
+		if (memos == null) {
+			memos = new IdentityHashMap<>();
+			this.memos.put(key, memos);
+		}
+		memos.put(rule, memo);
+	}
+
+	/**
+	 * A helper function that adds the specified (successful) result of a rule
+	 * that started at the specified offset (see {@link LeftRecursionFrame} and
+	 * {@link #setMemoizedRules(Collection)}). The result becomes the current
+	 * result and the state skips the processed data.
+	 * 
+	 * @param seed
+	 *            the result
+	 * @param start
+	 *            the offset at which the rule started
+	 */
+	private void useResult(Seed seed, int start) {
+		this.result = this.builder.paste(seed.tree);
+		this.state.skip(seed.end - start);
+		int error = 0;
+		for (int record = this.result; error < seed.errors.size(); record++) {
+			if (this.builder.getKind(record) == CompactTree.ERROR)
+				this.errors.put(new Integer(record), seed.errors.get(error++));
+		}
+		registerLazyRules(this.result, seed.lazyRules);
+	}
+
+	/**
+	 * A helper function that returns whether the upper case data has the same
+	 * length as the data (see {@link State#process(boolean, String)}). Only
+	 * then, automata that contain case-insensitive terminals can be used.
+	 * 
+	 * @return <code>true</code> if the upper case data has the same length as
+	 *         the data, <code>false</code> otherwise
+	 */
+	private boolean isAlignedUpperCase() {
+		if (this.alignedUpperCase == null) {
+			String data = this.state.getData();
+			this.alignedUpperCase = Boolean.valueOf(data.toUpperCase().length() == data.length());
+		}
+		return this.alignedUpperCase.booleanValue();
+	}
+
+	/**
+	 * A helper function that returns whether the specified non-terminal or
+	 * any of the specified names of non-terminals that are nested in it are
+	 * skipping (see
+	 * {@link #setSkipRule(NonTerminal, RegularSubgrammars, Collection)}).
+	 * 
+	 * @param rule
+	 *            the non-terminal
+	 * @param names
+	 *            the names of the nested non-terminals
+	 * @return <code>true</code> if the non-terminal or any of the nested
+	 *         non-terminals are skipping, <code>false</code> otherwise
+	 */
+	private boolean isSkipping(NonTerminal rule, Iterable<String> names) {
+		if (this.skippingRules.isEmpty())
+			return false;
+		boolean result = this.skippingRules.contains(rule.getName());
+		for (String name : names)
+			result |= this.skippingRules.contains(name);
+		return result;
+	}
+
+	/**
+	 * A helper function that skips the data at the current offset that is
+	 * described by the skip rule (see
+	 * {@link #setSkipRule(NonTerminal, RegularSubgrammars, Collection)}). The
+	 * skipped data becomes part of the current processing group. Nothing is
+	 * recorded and failures within the skip rule are not tracked. Nothing is
+	 * skipped if the skip rule cannot be processed.
+	 */
+	private void skip() {
+		if (this.skipRule == null || this.implicit || this.expanding)
+			return;
+		boolean dispatching = this.dispatching;
+		int result = this.result;
+		int mark = this.builder.size();
+		Farthest farthest = resetFarthest();
+		this.dispatching = false;
+		this.implicit = true;
+		try {
+			DeterministicAutomaton automaton = this.compiledSkipRule != null
+					? this.compiledSkipRule.getAutomaton(this.skipRule) : null;
+			if (automaton != null && (!this.compiledSkipRule.isCaseInsensitive(this.skipRule) || isAlignedUpperCase())) {
+				int start = this.state.getOffset();
+				if (this.packedData == null)
+					this.packedData = new PackedText(this.state.getData());
+				int end = automaton.match(this.packedData, start);
+				if (end > start)
+					this.state.skip(end - start);
+			} else {
+				run(new NonTerminalFrame(this.skipRule));
+			}
+		} finally {
+			this.builder.truncate(mark);
+			restoreFarthest(farthest);
+			this.result = result;
+			this.implicit = false;
+			this.dispatching = dispatching;
+		}
+	}
+
+	/**
+	 * A helper function that returns whether semantic actions are attached to
+	 * any of the specified names of non-terminals that are nested in the
+	 * specified non-terminal. The result is cached for each non-terminal.
+	 * 
+	 * @param rule
+	 *            the non-terminal
+	 * @param names
+	 *            the names of the nested non-terminals
+	 * @return <code>true</code> if semantic actions are attached to any of the
+	 *         nested non-terminals, <code>false</code> otherwise
+	 */
+	private boolean hasNestedActions(NonTerminal rule, Iterable<String> names) {
+		if (this.actions == null)
+			return false;
+		Boolean nested = this.nestedActions.get(rule);
+		if (nested == null) {
+			boolean result = false;
+			for (String name : names)
+				result |= this.actions.get(name) != null;
+			nested = Boolean.valueOf(result);
+			this.nestedActions.put(rule, nested);
+		}
+		return nested.booleanValue();
+	}
+
+	/**
+	 * A helper function that returns whether the specified record is a lazily
+	 * expanded non-terminal (see {@link #match(NonTerminal)}).
+	 * 
+	 * @param record
+	 *            the record
+	 * @return <code>true</code> if the record is a lazily expanded
+	 *         non-terminal, <code>false</code> otherwise
+	 */
+	private boolean isLazy(int record) {
+		return isChildless(record) && this.lazyRules.containsKey(new Integer(record));
+	}
+
+	/**
+	 * A helper function that returns whether the specified record is a
+	 * non-terminal without children. Only lazily expanded non-terminals are
+	 * recorded without children.
+	 * 
+	 * @param record
+	 *            the record
+	 * @return <code>true</code> if the record is a non-terminal without
+	 *         children, <code>false</code> otherwise
+	 */
+	private boolean isChildless(int record) {
+		return this.builder.getKind(record) == CompactTree.NON_TERMINAL
+				&& (record + 1 >= this.builder.size() || this.builder.getParent(record + 1) != record);
+	}
+
+	/**
+	 * A helper function that returns the rules of the lazily expanded
+	 * non-terminals in the subtree of the specified record (in document
+	 * order).
+	 * 
+	 * @param root
+	 *            the root record
+	 * @return the rules of the lazily expanded non-terminals
+	 */
+	private List<NonTerminal> collectLazyRules(int root) {
+		List<NonTerminal> result = new ArrayList<>();
+		for (int record = root; record < this.builder.size() && !this.lazyRules.isEmpty(); record++) {
+			if (isLazy(record))
+				result.add(this.lazyRules.get(new Integer(record)));
+		}
+		return result;
+	}
+
+	/**
+	 * A helper function that registers the specified rules for the lazily
+	 * expanded non-terminals in the subtree of the specified record (see
+	 * {@link #collectLazyRules(int)}).
+	 * 
+	 * @param root
+	 *            the root record
+	 * @param rules
+	 *            the rules of the lazily expanded non-terminals
+	 */
+	private void registerLazyRules(int root, List<NonTerminal> rules) {
+		int index = 0;
+		for (int record = root; index < rules.size(); record++) {
+			if (isChildless(record))
+				this.lazyRules.put(new Integer(record), rules.get(index++));
+		}
+	}
+
+	/**
+	 * A helper function that returns the result with all lazily expanded
+	 * non-terminals being expanded (see {@link #expand(int)}). The expanded
+	 * result is reused as long as the result does not change.
+	 * 
+	 * @return the expanded result
+	 */
+	private int expandedResult() {
+		if (this.lazyRules.isEmpty())
+			return this.result;
+		if (this.expandedResult != this.result || this.expandedSize != this.builder.size()) {
+			int root = expand(this.result);
+			this.expandedResult = this.result;
+			this.expandedRoot = root;
+			this.expandedSize = this.builder.size();
+		}
+		return this.expandedRoot;
+	}
+
+	/**
+	 * A helper function that copies the subtree of the specified record and
+	 * replaces all lazily expanded non-terminals by their subtrees. The
+	 * subtrees are built by parsing the matched data once more (without
+	 * semantic actions). Returns the specified record if its subtree does not
+	 * contain lazily expanded non-terminals.
+	 * 
+	 * @param root
+	 *            the root record
+	 * @return the root record of the expanded copy
+	 * @throws IllegalStateException
+	 *             if a non-terminal does not process the data that its
+	 *             automaton matched
+	 */
+	private int expand(int root) {
+		int end = root + 1;
+		while (end < this.builder.size() && this.builder.getParent(end) >= root) {
+			end++;
+		}
+		boolean[] lazyRecords = new boolean[end - root];
+		boolean lazy = false;
+		for (int record = root; record < end; record++) {
+			lazyRecords[record - root] = isLazy(record);
+			lazy |= lazyRecords[record - root];
+		}
+		if (!lazy)
+			return root;
+
+		State original = this.state;
+		int result = this.result;
+		Farthest farthest = resetFarthest();
+		this.state = new State(original.getData());
+		this.expanding = true;
+		try {
+			int[] originals = new int[end - root];
+			int[] copies = new int[end - root];
+			int depth = 0;
+			int expanded = -1;
+			for (int record = root; record < end; record++) {
+				while (depth > 0 && originals[depth - 1] != this.builder.getParent(record)) {
+					depth--;
+					this.builder.close(copies[depth], this.builder.getEnd(originals[depth]));
+				}
+				int copy;
+				if (lazyRecords[record - root]) {
+					NonTerminal rule = this.lazyRules.get(new Integer(record));
+					this.state.skip(this.builder.getStart(record) - this.state.getOffset());
+					run(new NonTerminalFrame(rule));
+					if (!hasResult() || this.state.getOffset() != this.builder.getEnd(record))
+						throw new IllegalStateException("Compiled rule does not match its expansion: " + rule.getName());
+					copy = this.result;
+				} else {
+					copy = this.builder.open(this.builder.getKind(record), this.builder.getName(record),
+							this.builder.getStart(record));
+					originals[depth] = record;
+					copies[depth] = copy;
+					depth++;
+				}
+				if (record == root)
+					expanded = copy;
+			}
+			while (depth > 0) {
+				depth--;
+				this.builder.close(copies[depth], this.builder.getEnd(originals[depth]));
+			}
+			return expanded;
+		} finally {
+			this.expanding = false;
+			this.state = original;
+			this.result = result;
+			restoreFarthest(farthest);
+		}
+	}
+
+	@Override
+	public void visitTerminal(CharacterValue rule) {
+		this.dispatching = false;
+		if (this.skipping)
+			skip();
+		enter();
+		this.state.beginGroup();
+		try {
+			int start = this.state.getOffset();
+			String terminal = rule.getTerminal();
+			String token = this.state.process(rule.isCaseSensitive(), terminal);
+			if (token != null) {
+				this.result = this.builder.add(CompactTree.TERMINAL, null, start, this.state.getOffset());
+				return;
+			}
+			fail(rule, start);
+			clearResult();
+		} finally {
+			this.state.endGroup();
+			leave();
+		}
+	}
+
+	@Override
+	public void visitTerminal(NumberValue rule) {
+		this.dispatching = false;
+		if (this.skipping)
+			skip();
+		enter();
+		this.state.beginGroup();
+		try {
+			int start = this.state.getOffset();
+			String token;
+			if (rule.getTerminal() != null) {
+				String terminal = rule.getTerminal();
+				token = this.state.process(true, terminal);
+			} else {
+				char rangeStart = rule.getRangeStart().charValue();
+				char rangeEnd = rule.getRangeEnd().charValue();
+				token = this.state.process(rangeStart, rangeEnd);
+			}
+			if (token != null) {
+				this.result = this.builder.add(CompactTree.TERMINAL, null, start, this.state.getOffset());
+				return;
+			}
+			fail(rule, start);
+			clearResult();
+		} finally {
+			this.state.endGroup();
+			leave();
+		}
+	}
+
+	/**
+	 * A helper function that adds the specified rule to the path of visited
+	 * rules (i.e. path from the root of the tree to the specified rule). The
+	 * primary rational behind this function is to test for "pointless" cycles
+	 * within the tree. Cycles are acceptable as long as they have an effect on
+	 * the processed data (i.e. data is still being processed). Rules are
+	 * tracked by identity. The offset at which a rule was added is kept in a
+	 * per-rule array that is reused for the whole parse. Always returns
+	 * <code>true</code> if cycle checks are disabled.
+	 * 
+	 * @param rule
+	 *            the rule to add to the path
+	 * @return <code>true</code> if the specified rule was added to the path of
+	 *         visited rules, otherwise <code>false</code>
+	 */
+	private boolean addToPath(Rule rule) {
+		if (!this.cycleChecks)
+			return true;
+		int currentlyProcessed = this.state.getOffset();
+		int[] path = this.visitedPath.get(rule);
+		if (path == null) {
+			path = new int[2];
+			this.visitedPath.put(rule, path);
+		}
+		boolean added = path[1] == 0 || currentlyProcessed > path[0];
+		path[0] = currentlyProcessed;
+		path[1] = 1;
+		return added;
+	}
+
+	/**
+	 * A helper function that removes the specified rule from the path of
+	 * visited rules.
+	 * 
+	 * @param rule
+	 *            the rule to remove from the path
+	 */
+	private void removeFromPath(Rule rule) {
+		if (this.cycleChecks) {
+			int[] path = this.visitedPath.get(rule);
+			if (path != null)
+				path[1] = 0;
+		}
+	}
+
+	/**
+	 * The class {@link Frame}. It is intended to hold the progress of a rule
+	 * that is being processed. Instead of recursively visiting nested rules,
+	 * frames are kept on an explicit stack (see {@link Parser#run(Frame)}).
+	 * Whenever a frame invokes a nested rule (see {@link Parser#call(Rule)}),
+	 * it returns and is resumed once the nested rule was processed. The phase
+	 * of a frame tells where to resume.
+	 *
+	 * @author Claas Ahlrichs
+	 */
+	private abstract class Frame {
+
+		protected int phase = 0;
+
+		/**
+		 * Resumes processing of this frame. Implementations either invoke a
+		 * nested rule (see {@link Parser#call(Rule)}) or complete this frame
+		 * (see {@link Parser#complete()}).
+		 */
+		abstract void resume();
+
+	}
+
+	/**
+	 * The class {@link ConjunctionFrame}. It is an implementation of the
+	 * class {@link Frame}. It processes {@link Conjunction}s.
+	 *
+	 * @author Claas Ahlrichs
+	 */
+	private class ConjunctionFrame extends Frame {
+
+		private final Conjunction rule;
+		private Iterator<Rule> children;
+		private int record;
+
+		ConjunctionFrame(Conjunction rule) {
+			this.rule = rule;
+		}
+
+		@Override
+		void resume() {
+			if (this.phase == 0) {
+				enter();
+				if (!addToPath(this.rule))
+					throw new CyclicRuleException(this.rule);
+				Parser.this.state.beginGroup();
+				this.record = open(CompactTree.INTERMEDIATE, null);
+				if (!this.rule.hasChildren()) {
+					abort(this.record);
+					finish();
+					return;
+				}
+				this.children = this.rule.iterator();
+				this.phase = 1;
+			} else if (!hasResult()) {
+				backtrack();
+				abort(this.record);
+				finish();
+				return;
+			}
+
+			if (this.children.hasNext()) {
+				call(this.children.next());
+			} else {
+				close(this.record);
+				finish();
+			}
+		}
+
+		private void finish() {
+			Parser.this.state.endGroup();
+			removeFromPath(this.rule);
+			leave();
+			complete();
+		}
+
+	}
+
+	/**
+	 * The class {@link DisjunctionFrame}. It is an implementation of the
+	 * class {@link Frame}. It processes {@link Disjunction}s by trying all
+	 * children and re-processing the "greediest" child (i.e. the child that
+	 * processes most of the unprocessed data). A child that passes a cut (see
+	 * {@link Cut}) is never reverted and no other children are tried.
+	 *
+	 * @author Claas Ahlrichs
+	 */
+	private class DisjunctionFrame extends Frame {
+
+		private static final int TRY = 1;
+		private static final int REPROCESS = 2;
+
+		private final Disjunction rule;
+		private Iterator<Rule> children;
+		private Rule child;
+		private Rule bestRule;
+		private int alreadyProcessedData;
+		private int record;
+		private int mark;
+		private int cuts;
+
+		DisjunctionFrame(Disjunction rule) {
+			this.rule = rule;
+		}
+
+		@Override
+		void resume() {
+			switch (this.phase) {
+			case 0:
+				enter();
+				if (!addToPath(this.rule))
+					throw new CyclicRuleException(this.rule);
+				Parser.this.state.beginGroup();
+				this.record = open(CompactTree.INTERMEDIATE, null);
+				this.alreadyProcessedData = Parser.this.state.getOffset();
+				this.children = this.rule.iterator();
+				this.phase = TRY;
+				tryNext();
+				break;
+			case TRY:
+				boolean committed = Parser.this.cuts != this.cuts;
+				if (hasResult() && (committed || Parser.this.orderedChoice || this.rule.isOrdered())) {
+					// commit to the first successful rule (or the cut rule)
+					Parser.this.state.endGroup();
+					close(this.record);
+					finish();
+					break;
+				} else if (hasResult()) {
+					int newlyProcessedData = Parser.this.state.getOffset();
+					if (newlyProcessedData >= this.alreadyProcessedData) {
+						this.alreadyProcessedData = newlyProcessedData;
+						this.bestRule = this.child;
+					}
+				}
+				backtrack();
+				Parser.this.state.endGroup();
+				Parser.this.builder.truncate(this.mark);
+				if (committed) {
+					// the cut rules out all other children
+					backtrack();
+					abort(this.record);
+					finish();
+				} else
+					tryNext();
+				break;
+			default:
+				if (hasResult())
+					close(this.record);
+				else
+					abort(this.record);
+				finish();
+			}
+		}
+
+		private void tryNext() {
+			if (this.children.hasNext()) {
+				this.child = this.children.next();
+				Parser.this.state.beginGroup();
+				this.mark = Parser.this.builder.size();
+				this.cuts = Parser.this.cuts;
+				call(this.child);
+			} else if (this.bestRule != null) {
+				// re-process the greediest rule with the "global" state object
+				this.phase = REPROCESS;
+				call(this.bestRule);
+			} else {
+				backtrack();
+				abort(this.record);
+				finish();
+			}
+		}
+
+		private void finish() {
+			Parser.this.state.endGroup();
+			removeFromPath(this.rule);
+			leave();
+			complete();
+		}
+
+	}
+
+	/**
+	 * The class {@link NonTerminalFrame}. It is an implementation of the
+	 * class {@link Frame}. It processes {@link NonTerminal}s (without
+	 * considering left recursion).
+	 *
+	 * @author Claas Ahlrichs
+	 */
+	private class NonTerminalFrame extends Frame {
+
+		private final NonTerminal rule;
+		private int record;
+		private boolean skipping;
+		private int start;
+		private long invocations;
+		private boolean reinvocation;
+		private boolean memoizing;
+		private int cuts;
+		private Farthest farthest;
+
+		NonTerminalFrame(NonTerminal rule) {
+			this.rule = rule;
+		}
+
+		@Override
+		void resume() {
+			if (this.phase == 0) {
+				this.start = Parser.this.state.getOffset();
+				this.invocations = Parser.this.invocations;
+				if (isMemoizable()) {
+					if (Parser.this.profile != null)
+						this.reinvocation = !profileOffset();
+					if (Parser.this.memoizedRules.contains(this.rule.getName())) {
+						Seed memo = getMemo(this.rule, this.start);
+						if (memo != null) {
+							useMemo(memo);
+							return;
+						}
+						this.memoizing = true;
+						this.cuts = Parser.this.cuts;
+						this.farthest = resetFarthest();
+					}
+				}
+				enter();
+				if (!addToPath(this.rule))
+					throw new CyclicRuleException(this.rule);
+				this.record = open(CompactTree.NON_TERMINAL, this.rule.getName());
+				this.skipping = Parser.this.skipping;
+				Parser.this.skipping = Parser.this.skippingRules.contains(this.rule.getName());
+				this.phase = 1;
+				call(this.rule.getRule());
+				return;
+			}
+
+			if (hasResult()) {
+				close(this.record);
+				if (Parser.this.actions != null && !Parser.this.expanding)
+					applyAction(this.rule.getName(), this.record);
+				if (Parser.this.skipping)
+					skip();
+			} else {
+				abort(this.record);
+			}
+			Parser.this.skipping = this.skipping;
+			if (this.memoizing)
+				memoize();
+			if (Parser.this.profile != null && isMemoizable())
+				Parser.this.profile.record(this.rule.getName(), this.reinvocation,
+						Parser.this.invocations - this.invocations,
+						hasResult() ? Parser.this.builder.size() - Parser.this.result : 0);
+			removeFromPath(this.rule);
+			leave();
+			complete();
+		}
+
+		/**
+		 * A helper function that remembers that the non-terminal was invoked
+		 * at the current offset (see {@link Parser#setProfile(MemoizationProfile)}).
+		 * 
+		 * @return <code>true</code> if the non-terminal was not invoked at the
+		 *         current offset before, <code>false</code> otherwise
+		 */
+		private boolean profileOffset() {
+			Set<Integer> offsets = Parser.this.profiledOffsets.get(this.rule);
+			if (offsets == null) {
+				offsets = new HashSet<>();
+				Parser.this.profiledOffsets.put(this.rule, offsets);
+			}
+			return offsets.add(new Integer(this.start));
+		}
+
+		/**
+		 * A helper function that reuses the stored result of the non-terminal
+		 * (see {@link Parser#setMemoizedRules(Collection)}).
+		 * 
+		 * @param memo
+		 *            the stored result
+		 */
+		private void useMemo(Seed memo) {
+			enter();
+			if (memo.tree == null)
+				clearResult();
+			else
+				useResult(memo, this.start);
+			mergeFarthest(memo.farthest);
+			if (Parser.this.profile != null)
+				Parser.this.profile.record(this.rule.getName(), this.reinvocation, 1, 0);
+			leave();
+			complete();
+		}
+
+		/**
+		 * A helper function that stores the result of the non-terminal (see
+		 * {@link Parser#setMemoizedRules(Collection)}). The result is not
+		 * stored if a cut was passed while processing the non-terminal.
+		 */
+		private void memoize() {
+			Farthest farthest = resetFarthest();
+			restoreFarthest(this.farthest);
+			mergeFarthest(farthest);
+			if (Parser.this.cuts != this.cuts)
+				return;
+			Seed memo = new Seed();
+			memo.farthest = farthest;
+			if (hasResult()) {
+				memo.tree = Parser.this.builder.copy(Parser.this.result);
+				memo.errors = collectErrors(Parser.this.result);
+				memo.lazyRules = collectLazyRules(Parser.this.result);
+				memo.end = Parser.this.state.getOffset();
+			}
+			putMemo(this.rule, this.start, memo);
+		}
+
+	}
+
+	/**
+	 * The class {@link LeftRecursionFrame}. It is an implementation of the
+	 * class {@link Frame}. It processes left-recursive {@link NonTerminal}s by
+	 * growing a seed (see {@link Parser#setAnalysis(GrammarAnalysis)}). If
+	 * the rule is already being grown at the current offset, then the current
+	 * seed is used as result.
+	 * <p>
+	 * The records of every grown seed are kept in place and the next step
+	 * refers to them (see {@link CompactTreeBuilder#refer(int, int)}) instead
+	 * of copying them. Thus, each step only adds the records by which the seed
+	 * grew. The references are resolved once the seed stopped growing.
+	 *
+	 * @author Claas Ahlrichs
+	 */
+	private class LeftRecursionFrame extends Frame {
+
+		private final NonTerminal rule;
+		private Map<Integer, Seed> growing;
+		private Integer key;
+		private Seed seed;
+		private int start;
+		private int first;
+		private int mark;
+
+		LeftRecursionFrame(NonTerminal rule) {
+			this.rule = rule;
+		}
+
+		@Override
+		void resume() {
+			if (this.phase == 0) {
+				this.start = Parser.this.state.getOffset();
+				this.growing = Parser.this.seeds.get(this.rule);
+				if (this.growing == null) {
+					this.growing = new HashMap<>();
+					Parser.this.seeds.put(this.rule, this.growing);
+				}
+				this.key = new Integer(this.start);
+				this.seed = this.growing.get(this.key);
+				if (this.seed != null) {
+					referToSeed();
+					return;
+				}
+				this.seed = new Seed();
+				this.growing.put(this.key, this.seed);
+				this.first = Parser.this.builder.size();
+				this.phase = 1;
+				grow();
+				return;
+			}
+
+			Parser.this.growing--;
+			boolean grown = hasResult() && Parser.this.state.getOffset() > this.seed.end;
+			if (grown) {
+				this.seed.record = Parser.this.result;
+				this.seed.records = Parser.this.builder.size();
+				this.seed.end = Parser.this.state.getOffset();
+			}
+			backtrack();
+			Parser.this.state.endGroup();
+			if (grown) {
+				grow();
+			} else {
+				Parser.this.builder.truncate(this.mark);
+				this.growing.remove(this.key);
+				useSeed();
+			}
+		}
+
+		private void grow() {
+			Parser.this.growing++;
+			Parser.this.state.beginGroup();
+			this.mark = Parser.this.builder.size();
+			Parser.this.dispatching = true;
+			run(new NonTerminalFrame(this.rule));
+		}
+
+		/**
+		 * A helper function that uses the current seed of the rule (that is
+		 * being grown at the current offset) as result. The result refers to
+		 * the seed's records.
+		 */
+		private void referToSeed() {
+			enter();
+			if (this.seed.record < 0)
+				clearResult();
+			else {
+				Parser.this.result = Parser.this.builder.refer(this.seed.record, this.seed.records);
+				Parser.this.state.skip(this.seed.end - this.start);
+			}
+			leave();
+			complete();
+		}
+
+		/**
+		 * A helper function that uses the seed (that stopped growing) as
+		 * result. The references to the records of earlier seeds are resolved
+		 * and the records of all seeds are replaced by the resolved result.
+		 */
+		private void useSeed() {
+			enter();
+			if (this.seed.record < 0)
+				clearResult();
+			else {
+				int[] records = Parser.this.builder.resolve(this.seed.record);
+				this.seed.errors = new ArrayList<>();
+				this.seed.lazyRules = new ArrayList<>();
+				for (int record : records) {
+					if (Parser.this.builder.getKind(record) == CompactTree.ERROR)
+						this.seed.errors.add(Parser.this.errors.get(new Integer(record)));
+					if (!Parser.this.lazyRules.isEmpty() && isLazy(record))
+						this.seed.lazyRules.add(Parser.this.lazyRules.get(new Integer(record)));
+				}
+				this.seed.tree = Parser.this.builder.copy(this.seed.record);
+				Parser.this.builder.truncate(this.first);
+				useResult(this.seed, this.start);
+			}
+			leave();
+			complete();
+		}
+
+	}
+
+	/**
+	 * The class {@link OptionalFrame}. It is an implementation of the class
+	 * {@link Frame}. It processes {@link Optional}s.
+	 *
+	 * @author Claas Ahlrichs
+	 */
+	private class OptionalFrame extends Frame {
+
+		private final Optional rule;
+		private int record;
+
+		OptionalFrame(Optional rule) {
+			this.rule = rule;
+		}
+
+		@Override
+		void resume() {
+			if (this.phase == 0) {
+				enter();
+				if (!addToPath(this.rule))
+					throw new CyclicRuleException(this.rule);
+				Parser.this.state.beginGroup();
+				this.record = open(CompactTree.INTERMEDIATE, null);
+				this.phase = 1;
+				call(this.rule.getRule());
+				return;
+			}
+
+			close(this.record);
+			Parser.this.state.endGroup();
+			removeFromPath(this.rule);
+			leave();
+			complete();
+		}
+
+	}
+
+	/**
+	 * The class {@link RepetitionFrame}. It is an implementation of the class
+	 * {@link Frame}. It processes {@link Repetition}s. Each repetition resumes
+	 * this frame (i.e. repetitions do not nest).
+	 *
+	 * @author Claas Ahlrichs
+	 */
+	private class RepetitionFrame extends Frame {
+
+		private final Repetition rule;
+		private boolean recoveryPoint;
+		private int repetitions = 0;
+		private int record;
+		private Farthest farthest;
+
+		RepetitionFrame(Repetition rule) {
+			this.rule = rule;
+		}
+
+		@Override
+		void resume() {
+			if (this.phase == 0) {
+				enter();
+				if (!addToPath(this.rule))
+					throw new CyclicRuleException(this.rule);
+				Parser.this.state.beginGroup();
+				this.record = open(CompactTree.INTERMEDIATE, null);
+				this.recoveryPoint = isRecoveryPoint(this.rule);
+				this.phase = 1;
+			} else {
+				if (this.recoveryPoint) {
+					try {
+						if (!hasResult())
+							recover();
+					} finally {
+						mergeFarthest(this.farthest);
+					}
+				}
+				if (!hasResult()) {
+					if (this.repetitions <= this.rule.getMinimumNumberOfRepetions()) {
+						backtrack();
+						abort(this.record);
+					} else {
+						close(this.record);
+					}
+					finish();
+					return;
+				}
+			}
+
+			if (this.repetitions < this.rule.getMaximumNumberOfRepetions()) {
+				this.repetitions++;
+				if (this.recoveryPoint)
+					this.farthest = resetFarthest();
+				call(this.rule.getRule());
+			} else {
+				close(this.record);
+				finish();
+			}
+		}
+
+		private void finish() {
+			Parser.this.state.endGroup();
+			removeFromPath(this.rule);
+			leave();
+			complete();
+		}
+
+	}
+
+	/**
+	 * The class {@link SeparatedRepetitionFrame}. It is an implementation of
+	 * the class {@link Frame}. It processes {@link SeparatedRepetition}s by
+	 * alternately invoking the repeatable rule and the separator. Both resume
+	 * this frame and their nodes are siblings (i.e. repetitions do not nest).
+	 * A separator is reverted if it is not followed by the repeatable rule.
+	 * Processing stops as soon as a repetition (including its separator) does
+	 * not process any data.
+	 *
+	 * @author Claas Ahlrichs
+	 */
+	private class SeparatedRepetitionFrame extends Frame {
+
+		private final SeparatedRepetition rule;
+		private int repetitions = 0;
+		private int record;
+		private int mark;
+		private int start;
+
+		SeparatedRepetitionFrame(SeparatedRepetition rule) {
+			this.rule = rule;
+		}
+
+		@Override
+		void resume() {
+			if (this.phase == 0) {
+				enter();
+				if (!addToPath(this.rule))
+					throw new CyclicRuleException(this.rule);
+				Parser.this.state.beginGroup();
+				this.record = open(CompactTree.INTERMEDIATE, null);
+				if (this.rule.getElement() == null) {
+					abort(this.record);
+					finish();
+				} else if (this.rule.getMaximumNumberOfRepetions() > 0) {
+					this.phase = 1;
+					call(this.rule.getElement());
+				} else {
+					close(this.record);
+					finish();
+				}
+				return;
+			}
+
+			if (this.phase == 1) {
+				// the first repeatable rule
+				if (!hasResult()) {
+					stop();
+					return;
+				}
+				this.repetitions++;
+			} else if (this.phase == 2) {
+				// a separator
+				if (!hasResult()) {
+					Parser.this.state.endGroup();
+					stop();
+					return;
+				}
+				this.phase = 3;
+				call(this.rule.getElement());
+				return;
+			} else {
+				// a repeatable rule that follows a separator
+				if (!hasResult()) {
+					backtrack();
+					Parser.this.state.endGroup();
+					Parser.this.builder.truncate(this.mark);
+					stop();
+					return;
+				}
+				Parser.this.state.endGroup();
+				this.repetitions++;
+				if (Parser.this.state.getOffset() == this.start) {
+					stop();
+					return;
+				}
+			}
+
+			if (this.repetitions < this.rule.getMaximumNumberOfRepetions()) {
+				this.start = Parser.this.state.getOffset();
+				this.mark = Parser.this.builder.size();
+				Parser.this.state.beginGroup();
+				if (this.rule.getSeparator() != null) {
+					this.phase = 2;
+					call(this.rule.getSeparator());
+				} else {
+					this.phase = 3;
+					call(this.rule.getElement());
+				}
+			} else {
+				close(this.record);
+				finish();
+			}
+		}
+
+		private void stop() {
+			if (this.repetitions < this.rule.getMinimumNumberOfRepetions()) {
+				backtrack();
+				abort(this.record);
+			} else {
+				close(this.record);
+			}
+			finish();
+		}
+
+		private void finish() {
+			Parser.this.state.endGroup();
+			removeFromPath(this.rule);
+			leave();
+			complete();
+		}
+
+	}
+
+	/**
+	 * The class {@link PredicateFrame}. It is an implementation of the class
+	 * {@link Frame}. It processes {@link AndPredicate}s and
+	 * {@link NotPredicate}s. The decorated rule is processed speculatively
+	 * (i.e. the state and the recorded nodes are reverted afterwards). Data is
+	 * never skipped within predicates (see {@link Parser#setSyncRules(Collection)})
+	 * and failures within negated predicates are not tracked (see
+	 * {@link Parser#getFarthestOffset()}).
+	 *
+	 * @author Claas Ahlrichs
+	 */
+	private class PredicateFrame extends Frame {
+
+		private final Decorator rule;
+		private final boolean negated;
+		private int mark;
+		private Farthest farthest;
+
+		PredicateFrame(Decorator rule, boolean negated) {
+			this.rule = rule;
+			this.negated = negated;
+		}
+
+		@Override
+		void resume() {
+			if (this.phase == 0) {
+				enter();
+				if (!addToPath(this.rule))
+					throw new CyclicRuleException(this.rule);
+				Parser.this.state.beginGroup();
+				this.mark = Parser.this.builder.size();
+				if (this.negated)
+					this.farthest = resetFarthest();
+				Parser.this.predicates++;
+				this.phase = 1;
+				call(this.rule.getRule());
+				return;
+			}
+
+			Parser.this.predicates--;
+			boolean matched = hasResult();
+			if (matched)
+				backtrack();
+			if (this.negated)
+				restoreFarthest(this.farthest);
+			Parser.this.state.endGroup();
+			Parser.this.builder.truncate(this.mark);
+			if (matched != this.negated) {
+				int offset = Parser.this.state.getOffset();
+				Parser.this.result = Parser.this.builder.add(CompactTree.INTERMEDIATE, null, offset, offset);
+			} else
+				clearResult();
+			removeFromPath(this.rule);
+			leave();
+			complete();
+		}
+
+	}
+
+	/**
+	 * The class {@link Farthest}. It is intended to hold a snapshot of the
+	 * farthest failure (see {@link Parser#getFarthestOffset()}).
+	 *
+	 * @author Claas Ahlrichs
+	 */
+	private static class Farthest {
+
+		private final int offset;
+		private final List<Rule> expected;
+		private final String rule;
+
+		Farthest(int offset, List<Rule> expected, String rule) {
+			this.offset = offset;
+			this.expected = expected;
+			this.rule = rule;
+		}
+
+	}
+
+	/**
+	 * The class {@link Seed}. It is intended to hold the (so far) longest
+	 * result of a left-recursive rule at a given offset (see
+	 * {@link Parser#setAnalysis(GrammarAnalysis)}) or the stored result of a
+	 * memoized rule (see {@link Parser#setMemoizedRules(Collection)}). While
+	 * a seed grows, its result is kept as records (i.e. its root record and
+	 * the number of records when it was complete).
+	 *
+	 * @author Claas Ahlrichs
+	 */
+	private static class Seed {
+
+		private int record = -1;
+		private int records;
+		private Subtree tree;
+		private List<ParserException> errors;
+		private List<NonTerminal> lazyRules;
+		private int end = -1;
+		private Farthest farthest;
+
 	}
 
 }
@@ -0,0 +1,784 @@
+package de.claas.parser.visitors;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import de.claas.parser.Rule;
+import de.claas.parser.RuleVisitor;
+import de.claas.parser.automata.DeterministicAutomaton;
+import de.claas.parser.automata.Lexer;
+import de.claas.parser.automata.NondeterministicAutomaton;
+import de.claas.parser.rules.AndPredicate;
+import de.claas.parser.rules.CharacterValue;
+import de.claas.parser.rules.Conjunction;
+import de.claas.parser.rules.Cut;
+import de.claas.parser.rules.Decorator;
+import de.claas.parser.rules.Disjunction;
+import de.claas.parser.rules.NonTerminal;
+import de.claas.parser.rules.NotPredicate;
+import de.claas.parser.rules.NumberValue;
+import de.claas.parser.rules.Optional;
+import de.claas.parser.rules.Repetition;
+import de.claas.parser.rules.SeparatedRepetition;
+
+/**
+ * The class {@link RegularSubgrammars}. It is an implementation of the
+ * interface {@link RuleVisitor}. It is intended to detect {@link NonTerminal}s
+ * that describe regular languages (i.e. non-terminals that do not reach
+ * themselves and that do not contain syntactic predicates, cuts or
+ * {@link SeparatedRepetition}s) and to compile them into
+ * {@link DeterministicAutomaton}s. The {@link Parser}
+ * matches compiled non-terminals in a single step (see
+ * {@link Parser#setRegularSubgrammars(RegularSubgrammars)}).
+ * <p>
+ * The parser does not backtrack into rules that were successfully processed.
+ * Thus, it does not always process the longest prefix that a rule describes
+ * (e.g. <code>*"a" "a"</code> never succeeds). A non-terminal is only compiled
+ * if the parser is proven to process the longest prefix: Conjunctions must not
+ * be able to extend a child's data by the first character of the following
+ * children, and repetitions must not be able to extend the decorated rule's
+ * data by the first character of the decorated rule. Ordered disjunctions
+ * (see {@link Disjunction#isOrdered()}) must not have children that start
+ * with the same character or nullable children (except for the last one),
+ * because the first successful child is not necessarily the longest one.
+ * Furthermore, bounded
+ * repetitions are unrolled and non-terminals with too many states are not
+ * compiled (see {@link #MAXIMUM_STATES}).
+ * <p>
+ * Only the outermost regular non-terminals (that are reachable from the
+ * initial rule without passing through another compiled non-terminal) are
+ * compiled. Case-insensitive terminals are compiled for the default locale
+ * (see {@link String#toUpperCase()}).
+ * <p>
+ * The compilation is performed once during construction. Subsequent changes to
+ * the graph of rules are not reflected by the compiled automata. Lexers are
+ * compiled the same way (see {@link #createLexer(List)}).
+ * <p>
+ * Transitions are attributed to the terminals from which they originate (see
+ * {@link #getTerminal(int)}). Thus, the parser can tell which terminals failed
+ * at the farthest offset without processing a compiled non-terminal rule by
+ * rule.
+ *
+ * @author Claas Ahlrichs
+ */
+public class RegularSubgrammars implements RuleVisitor {
+
+	/**
+	 * The maximum number of (deterministic) states of a compiled non-terminal.
+	 */
+	public static final int MAXIMUM_STATES = 256;
+
+	/**
+	 * The maximum number of times that the decorated rule of a bounded
+	 * repetition is unrolled.
+	 */
+	public static final int MAXIMUM_UNROLLING = 16;
+
+	private static final int MAXIMUM_NONDETERMINISTIC_STATES = 4096;
+	private static int[] upperCases;
+
+	private final boolean orderedChoice;
+	private final Map<NonTerminal, DeterministicAutomaton> automata = new IdentityHashMap<>();
+	private final Map<NonTerminal, Set<String>> nestedNames = new IdentityHashMap<>();
+	private final Set<NonTerminal> caseInsensitiveRules = Collections.newSetFromMap(new IdentityHashMap<>());
+	private final Map<Rule, Boolean> regularRules = new IdentityHashMap<>();
+	private final Set<Rule> visitedRules = Collections.newSetFromMap(new IdentityHashMap<>());
+	private final Map<Rule, Boolean> greedyRules = new IdentityHashMap<>();
+	private final Map<Integer, int[]> upperCaseSets = new HashMap<>();
+	private NondeterministicAutomaton automaton;
+	private final Map<Rule, int[]> fragments = new IdentityHashMap<>();
+	private final Set<String> currentNames = new LinkedHashSet<>();
+	private final List<Rule> terminals = new ArrayList<>();
+	private final List<String> enclosingNames = new ArrayList<>();
+	private final Deque<String> currentEnclosingNames = new ArrayDeque<>();
+	private boolean currentCaseInsensitive;
+	private int currentStart;
+	private int currentAccept;
+
+	/**
+	 * Constructs a new {@link RegularSubgrammars} with the specified
+	 * parameter. All non-terminals that are reachable from the specified rule
+	 * are considered for compilation.
+	 *
+	 * @param rule
+	 *            the initial rule
+	 */
+	public RegularSubgrammars(Rule rule) {
+		this(rule, false);
+	}
+
+	/**
+	 * Constructs a new {@link RegularSubgrammars} with the specified
+	 * parameters. All non-terminals that are reachable from the specified rule
+	 * are considered for compilation. Optionally, every disjunction is
+	 * compiled as an ordered disjunction (see
+	 * {@link Parser#setOrderedChoice(boolean)}).
+	 *
+	 * @param rule
+	 *            the initial rule
+	 * @param orderedChoice
+	 *            whether every disjunction is an ordered disjunction
+	 */
+	public RegularSubgrammars(Rule rule, boolean orderedChoice) {
+		this(orderedChoice);
+		Set<Rule> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+		Deque<Rule> pending = new ArrayDeque<>();
+		pending.push(rule);
+		while (!pending.isEmpty()) {
+			Rule current = pending.pop();
+			if (!visited.add(current))
+				continue;
+			if (current instanceof NonTerminal && compile((NonTerminal) current))
+				continue;
+			if (current instanceof Decorator) {
+				Rule child = ((Decorator) current).getRule();
+				if (child != null)
+					pending.push(child);
+			} else {
+				for (Rule child : current)
+					pending.push(child);
+			}
+		}
+		this.regularRules.clear();
+		this.greedyRules.clear();
+		this.upperCaseSets.clear();
+	}
+
+	/**
+	 * Constructs a new {@link RegularSubgrammars} without compiling any
+	 * non-terminal.
+	 *
+	 * @param orderedChoice
+	 *            whether every disjunction is an ordered disjunction
+	 */
+	private RegularSubgrammars(boolean orderedChoice) {
+		this.orderedChoice = orderedChoice;
+	}
+
+	/**
+	 * Creates a {@link Lexer} for the specified lexical non-terminals. The
+	 * non-terminals are compiled into a single automaton that tells which of
+	 * them describes the longest prefix of the data. Each non-terminal must be
+	 * regular and the parser must be proven to process the longest prefix that
+	 * it describes (i.e. it must be compilable by itself).
+	 *
+	 * @param rules
+	 *            the lexical non-terminals (in the order of precedence)
+	 * @return the lexer
+	 * @throws IllegalArgumentException
+	 *             if any of the non-terminals cannot be compiled or if the
+	 *             automaton would exceed {@link #MAXIMUM_STATES} states per
+	 *             non-terminal
+	 */
+	public static Lexer createLexer(List<NonTerminal> rules) {
+		return createLexer(rules, false);
+	}
+
+	/**
+	 * Creates a {@link Lexer} for the specified lexical non-terminals (see
+	 * {@link #createLexer(List)}). Optionally, every disjunction is compiled
+	 * as an ordered disjunction (see {@link Parser#setOrderedChoice(boolean)}).
+	 *
+	 * @param rules
+	 *            the lexical non-terminals (in the order of precedence)
+	 * @param orderedChoice
+	 *            whether every disjunction is an ordered disjunction
+	 * @return the lexer
+	 * @throws IllegalArgumentException
+	 *             if any of the non-terminals cannot be compiled or if the
+	 *             automaton would exceed {@link #MAXIMUM_STATES} states per
+	 *             non-terminal
+	 */
+	public static Lexer createLexer(List<NonTerminal> rules, boolean orderedChoice) {
+		RegularSubgrammars compiler = new RegularSubgrammars(orderedChoice);
+		compiler.automaton = new NondeterministicAutomaton();
+		try {
+			int start = compiler.automaton.addState();
+			int[] accepts = new int[rules.size()];
+			List<Set<String>> nestedNames = new ArrayList<>();
+			boolean caseInsensitive = false;
+			for (int i = 0; i < accepts.length; i++) {
+				NonTerminal rule = rules.get(i);
+				compiler.currentNames.clear();
+				compiler.currentCaseInsensitive = false;
+				int[] fragment = compiler.isRegular(rule) ? compiler.build(rule.getRule()) : null;
+				if (fragment == null || !compiler.isGreedy(rule.getRule()))
+					throw new IllegalArgumentException("Lexical rule cannot be compiled: " + rule.getName());
+				compiler.automaton.addEpsilon(start, fragment[0]);
+				accepts[i] = fragment[1];
+				nestedNames.add(new LinkedHashSet<>(compiler.currentNames));
+				caseInsensitive |= compiler.currentCaseInsensitive;
+			}
+			DeterministicAutomaton compiled = compiler.automaton.determinize(start, accepts,
+					MAXIMUM_STATES * Math.max(1, accepts.length));
+			if (compiled == null)
+				throw new IllegalArgumentException("Lexical rules have too many states.");
+			return new Lexer(rules, nestedNames, compiled, caseInsensitive);
+		} finally {
+			compiler.automaton = null;
+			compiler.fragments.clear();
+		}
+	}
+
+	/**
+	 * Returns the automaton of the specified non-terminal. Returns
+	 * <code>null</code> if the non-terminal was not compiled.
+	 *
+	 * @param rule
+	 *            the non-terminal
+	 * @return the automaton of the specified non-terminal or <code>null</code>
+	 */
+	public DeterministicAutomaton getAutomaton(NonTerminal rule) {
+		return this.automata.get(rule);
+	}
+
+	/**
+	 * Returns all compiled non-terminals.
+	 *
+	 * @return all compiled non-terminals
+	 */
+	public Set<NonTerminal> getCompiledRules() {
+		return Collections.unmodifiableSet(this.automata.keySet());
+	}
+
+	/**
+	 * Returns the names of the non-terminals that are nested in the specified
+	 * (compiled) non-terminal. The specified non-terminal itself is not
+	 * included (unless another non-terminal has the same name).
+	 *
+	 * @param rule
+	 *            the compiled non-terminal
+	 * @return the names of the nested non-terminals
+	 */
+	public Set<String> getNestedNames(NonTerminal rule) {
+		Set<String> names = this.nestedNames.get(rule);
+		return names == null ? Collections.emptySet() : Collections.unmodifiableSet(names);
+	}
+
+	/**
+	 * Returns the terminal from which the transitions with the specified
+	 * origin originate (see
+	 * {@link NondeterministicAutomaton#addTransition(int, int[], int, int, int)}).
+	 *
+	 * @param origin
+	 *            the origin of a transition
+	 * @return the terminal of the specified origin
+	 */
+	public Rule getTerminal(int origin) {
+		return this.terminals.get(origin);
+	}
+
+	/**
+	 * Returns the name of the innermost non-terminal that encloses the
+	 * terminal of the specified origin (see {@link #getTerminal(int)}). This
+	 * is the compiled non-terminal itself if no nested non-terminal encloses
+	 * the terminal.
+	 *
+	 * @param origin
+	 *            the origin of a transition
+	 * @return the name of the innermost enclosing non-terminal
+	 */
+	public String getEnclosingName(int origin) {
+		return this.enclosingNames.get(origin);
+	}
+
+	/**
+	 * Returns <code>true</code> if the specified (compiled) non-terminal
+	 * contains case-insensitive terminals. Such terminals are compared against
+	 * the upper case data (see {@link String#toUpperCase()}). Thus, the
+	 * automaton only applies to data whose upper case has the same length.
+	 *
+	 * @param rule
+	 *            the compiled non-terminal
+	 * @return <code>true</code> if the non-terminal contains case-insensitive
+	 *         terminals, <code>false</code> otherwise
+	 */
+	public boolean isCaseInsensitive(NonTerminal rule) {
+		return this.caseInsensitiveRules.contains(rule);
+	}
+
+	/**
+	 * A helper function that tries to compile the specified non-terminal.
+	 *
+	 * @param rule
+	 *            the non-terminal
+	 * @return <code>true</code> if the non-terminal was compiled,
+	 *         <code>false</code> otherwise
+	 */
+	private boolean compile(NonTerminal rule) {
+		if (!isRegular(rule))
+			return false;
+
+		this.automaton = new NondeterministicAutomaton();
+		this.currentNames.clear();
+		this.currentCaseInsensitive = false;
+		this.currentEnclosingNames.push(rule.getName());
+		try {
+			Rule child = rule.getRule();
+			int[] fragment = build(child);
+			if (fragment == null || !isGreedy(child))
+				return false;
+			DeterministicAutomaton compiled = this.automaton.determinize(fragment[0], fragment[1], MAXIMUM_STATES);
+			if (compiled == null)
+				return false;
+			this.automata.put(rule, compiled);
+			this.nestedNames.put(rule, new LinkedHashSet<>(this.currentNames));
+			if (this.currentCaseInsensitive)
+				this.caseInsensitiveRules.add(rule);
+			return true;
+		} finally {
+			this.automaton = null;
+			this.fragments.clear();
+			this.currentEnclosingNames.pop();
+		}
+	}
+
+	/**
+	 * A helper function that returns whether the specified rule describes a
+	 * regular language that can be compiled (i.e. the rule does not reach
+	 * itself and it only consists of supported rules).
+	 *
+	 * @param rule
+	 *            the rule
+	 * @return <code>true</code> if the rule can be compiled,
+	 *         <code>false</code> otherwise
+	 */
+	private boolean isRegular(Rule rule) {
+		if (rule == null)
+			return false;
+		Boolean regular = this.regularRules.get(rule);
+		if (regular != null)
+			return regular.booleanValue();
+		if (!this.visitedRules.add(rule))
+			return false;
+
+		boolean result = true;
+		try {
+			if (rule instanceof CharacterValue) {
+				CharacterValue value = (CharacterValue) rule;
+				String terminal = value.getTerminal();
+				for (int i = 0; i < terminal.length() && !value.isCaseSensitive(); i++)
+					result &= upperCase(terminal.charAt(i)) >= 0 && !Character.isSurrogate(terminal.charAt(i));
+			} else if (rule instanceof Repetition) {
+				Repetition repetition = (Repetition) rule;
+				int min = repetition.getMinimumNumberOfRepetions();
+				int max = repetition.getMaximumNumberOfRepetions();
+				result = min <= max && min <= MAXIMUM_UNROLLING
+						&& (max == Integer.MAX_VALUE || max <= MAXIMUM_UNROLLING) && isRegular(repetition.getRule());
+			} else if (rule instanceof AndPredicate || rule instanceof NotPredicate || rule instanceof Cut
+					|| rule instanceof SeparatedRepetition) {
+				result = false;
+			} else if (rule instanceof Decorator) {
+				result = isRegular(((Decorator) rule).getRule());
+			} else if (!(rule instanceof NumberValue)) {
+				for (Rule child : rule)
+					result &= isRegular(child);
+			}
+		} finally {
+			this.visitedRules.remove(rule);
+		}
+		this.regularRules.put(rule, Boolean.valueOf(result));
+		return result;
+	}
+
+	/**
+	 * A helper function that returns whether the parser is proven to process
+	 * the longest prefix that the specified rule describes. The rule must have
+	 * been built as part of the current automaton (see {@link #build(Rule)}).
+	 *
+	 * @param rule
+	 *            the rule
+	 * @return <code>true</code> if the parser processes the longest prefix,
+	 *         <code>false</code> otherwise
+	 */
+	private boolean isGreedy(Rule rule) {
+		Boolean greedy = this.greedyRules.get(rule);
+		if (greedy != null)
+			return greedy.booleanValue();
+
+		boolean result = true;
+		if (rule instanceof Conjunction) {
+			List<Rule> children = new ArrayList<>();
+			for (Rule child : rule)
+				children.add(child);
+			BitSet following = new BitSet();
+			for (int i = children.size() - 1; i >= 0 && result; i--) {
+				Rule child = children.get(i);
+				BitSet continuation = getContinuationClasses(child);
+				BitSet first = getFirstClasses(child);
+				result = isGreedy(child) && continuation != null && first != null
+						&& !continuation.intersects(following);
+				if (result && !isNullable(child))
+					following.clear();
+				if (first != null)
+					following.or(first);
+			}
+		} else if (rule instanceof Repetition) {
+			Repetition repetition = (Repetition) rule;
+			Rule child = repetition.getRule();
+			if (repetition.getMaximumNumberOfRepetions() > 0) {
+				result = isGreedy(child);
+				if (result && repetition.getMaximumNumberOfRepetions() > 1) {
+					BitSet continuation = getContinuationClasses(child);
+					BitSet first = getFirstClasses(child);
+					result = !isNullable(child) && continuation != null && first != null
+							&& !continuation.intersects(first);
+				}
+			}
+		} else if (rule instanceof Decorator) {
+			result = isGreedy(((Decorator) rule).getRule());
+		} else if (rule instanceof Disjunction) {
+			boolean ordered = this.orderedChoice || ((Disjunction) rule).isOrdered();
+			BitSet preceding = new BitSet();
+			Rule previous = null;
+			for (Rule child : rule) {
+				result &= isGreedy(child);
+				if (ordered && result) {
+					BitSet first = getFirstClasses(child);
+					result = first != null && !first.intersects(preceding)
+							&& (previous == null || !isNullable(previous));
+					if (first != null)
+						preceding.or(first);
+					previous = child;
+				}
+			}
+		}
+		this.greedyRules.put(rule, Boolean.valueOf(result));
+		return result;
+	}
+
+	/**
+	 * A helper function that returns whether the specified (built) rule
+	 * describes the empty string.
+	 *
+	 * @param rule
+	 *            the rule
+	 * @return <code>true</code> if the rule is nullable, <code>false</code>
+	 *         otherwise
+	 */
+	private boolean isNullable(Rule rule) {
+		int[] fragment = this.fragments.get(rule);
+		return this.automaton.isNullable(fragment[0], fragment[1]);
+	}
+
+	/**
+	 * A helper function that returns the classes of characters that start the
+	 * non-empty strings of the specified (built) rule.
+	 *
+	 * @param rule
+	 *            the rule
+	 * @return the classes of characters or <code>null</code> if the rule has
+	 *         too many states
+	 */
+	private BitSet getFirstClasses(Rule rule) {
+		int[] fragment = this.fragments.get(rule);
+		return this.automaton.getFirstClasses(fragment[0], fragment[1], MAXIMUM_STATES);
+	}
+
+	/**
+	 * A helper function that returns the classes of characters that extend
+	 * the strings of the specified (built) rule.
+	 *
+	 * @param rule
+	 *            the rule
+	 * @return the classes of characters or <code>null</code> if the rule has
+	 *         too many states
+	 */
+	private BitSet getContinuationClasses(Rule rule) {
+		int[] fragment = this.fragments.get(rule);
+		return this.automaton.getContinuationClasses(fragment[0], fragment[1], MAXIMUM_STATES);
+	}
+
+	/**
+	 * A helper function that adds a new fragment (i.e. a start state and an
+	 * accepting state) for the specified rule to the current automaton. The
+	 * first fragment of every rule is remembered for analysis. Returns
+	 * <code>null</code> if the automaton grew too large.
+	 *
+	 * @param rule
+	 *            the rule
+	 * @return the start and accepting state of the new fragment or
+	 *         <code>null</code>
+	 */
+	private int[] build(Rule rule) {
+		if (this.automaton.size() > MAXIMUM_NONDETERMINISTIC_STATES)
+			return null;
+		rule.visit(this);
+		int[] fragment = new int[] { this.currentStart, this.currentAccept };
+		if (!this.fragments.containsKey(rule))
+			this.fragments.put(rule, fragment);
+		return this.automaton.size() > MAXIMUM_NONDETERMINISTIC_STATES ? null : fragment;
+	}
+
+	/**
+	 * A helper function that builds the specified rule and connects it to the
+	 * specified state. Returns the accepting state of the built fragment or
+	 * <code>-1</code> if the automaton grew too large.
+	 *
+	 * @param rule
+	 *            the rule
+	 * @param from
+	 *            the state that precedes the built fragment
+	 * @return the accepting state of the built fragment or <code>-1</code>
+	 */
+	private int append(Rule rule, int from) {
+		int[] fragment = build(rule);
+		if (fragment == null)
+			return -1;
+		this.automaton.addEpsilon(from, fragment[0]);
+		return fragment[1];
+	}
+
+	/**
+	 * A helper function that sets the current fragment.
+	 *
+	 * @param start
+	 *            the start state
+	 * @param accept
+	 *            the accepting state
+	 */
+	private void setFragment(int start, int accept) {
+		this.currentStart = start;
+		this.currentAccept = accept;
+	}
+
+	@Override
+	public void visitConjunction(Conjunction rule) {
+		int start = this.automaton.addState();
+		int accept = this.automaton.addState();
+		if (rule.hasChildren()) {
+			int current = start;
+			for (Rule child : rule) {
+				if ((current = append(child, current)) < 0)
+					break;
+			}
+			if (current >= 0)
+				this.automaton.addEpsilon(current, accept);
+		}
+		setFragment(start, accept);
+	}
+
+	@Override
+	public void visitDisjunction(Disjunction rule) {
+		int start = this.automaton.addState();
+		int accept = this.automaton.addState();
+		for (Rule child : rule) {
+			int end = append(child, start);
+			if (end < 0)
+				break;
+			this.automaton.addEpsilon(end, accept);
+		}
+		setFragment(start, accept);
+	}
+
+	@Override
+	public void visitNonTerminal(NonTerminal rule) {
+		this.currentNames.add(rule.getName());
+		int start = this.automaton.addState();
+		int accept = this.automaton.addState();
+		this.currentEnclosingNames.push(rule.getName());
+		int end = append(rule.getRule(), start);
+		this.currentEnclosingNames.pop();
+		if (end >= 0)
+			this.automaton.addEpsilon(end, accept);
+		setFragment(start, accept);
+	}
+
+	@Override
+	public void visitOptional(Optional rule) {
+		int start = this.automaton.addState();
+		int accept = this.automaton.addState();
+		int end = append(rule.getRule(), start);
+		if (end >= 0)
+			this.automaton.addEpsilon(end, accept);
+		this.automaton.addEpsilon(start, accept);
+		setFragment(start, accept);
+	}
+
+	@Override
+	public void visitRepetition(Repetition rule) {
+		int start = this.automaton.addState();
+		int accept = this.automaton.addState();
+		int min = rule.getMinimumNumberOfRepetions();
+		int max = rule.getMaximumNumberOfRepetions();
+		int current = start;
+		for (int i = 0; i < min && current >= 0; i++)
+			current = append(rule.getRule(), current);
+		if (current >= 0 && max == Integer.MAX_VALUE) {
+			int loop = this.automaton.addState();
+			this.automaton.addEpsilon(current, loop);
+			int end = append(rule.getRule(), loop);
+			if (end >= 0)
+				this.automaton.addEpsilon(end, loop);
+			current = loop;
+		} else {
+			for (int i = min; i < max && current >= 0; i++) {
+				this.automaton.addEpsilon(current, accept);
+				current = append(rule.getRule(), current);
+			}
+		}
+		if (current >= 0)
+			this.automaton.addEpsilon(current, accept);
+		setFragment(start, accept);
+	}
+
+	@Override
+	public void visitSeparatedRepetition(SeparatedRepetition rule) {
+		// never built, since separated repetitions are not regular (see
+		// isRegular(Rule))
+		setFragment(this.automaton.addState(), this.automaton.addState());
+	}
+
+	@Override
+	public void visitAndPredicate(AndPredicate rule) {
+		// never built, since predicates are not regular (see isRegular(Rule))
+		setFragment(this.automaton.addState(), this.automaton.addState());
+	}
+
+	@Override
+	public void visitNotPredicate(NotPredicate rule) {
+		// never built, since predicates are not regular (see isRegular(Rule))
+		setFragment(this.automaton.addState(), this.automaton.addState());
+	}
+
+	@Override
+	public void visitCut(Cut rule) {
+		// never built, since cuts are not regular (see isRegular(Rule))
+		setFragment(this.automaton.addState(), this.automaton.addState());
+	}
+
+	@Override
+	public void visitTerminal(CharacterValue rule) {
+		int start = this.automaton.addState();
+		int current = start;
+		String terminal = rule.getTerminal();
+		int origin = addOrigin(rule);
+		for (int i = 0; i < terminal.length(); i++) {
+			char c = terminal.charAt(i);
+			int next = this.automaton.addState();
+			this.automaton.addTransition(current, rule.isCaseSensitive() ? new int[] { c, c } : upperCaseSet(c), next,
+					origin, i);
+			current = next;
+		}
+		int accept = this.automaton.addState();
+		this.automaton.addEpsilon(current, accept);
+		this.currentCaseInsensitive |= !rule.isCaseSensitive() && !terminal.isEmpty();
+		setFragment(start, accept);
+	}
+
+	@Override
+	public void visitTerminal(NumberValue rule) {
+		int start = this.automaton.addState();
+		int current = start;
+		int origin = addOrigin(rule);
+		if (rule.getTerminal() != null) {
+			String terminal = rule.getTerminal();
+			for (int i = 0; i < terminal.length(); i++) {
+				char c = terminal.charAt(i);
+				int next = this.automaton.addState();
+				this.automaton.addTransition(current, new int[] { c, c }, next, origin, i);
+				current = next;
+			}
+		} else {
+			char rangeStart = rule.getRangeStart().charValue();
+			char rangeEnd = rule.getRangeEnd().charValue();
+			int next = this.automaton.addState();
+			this.automaton.addTransition(current,
+					rangeStart <= rangeEnd ? new int[] { rangeStart, rangeEnd } : new int[0], next, origin, 0);
+			current = next;
+		}
+		int accept = this.automaton.addState();
+		this.automaton.addEpsilon(current, accept);
+		setFragment(start, accept);
+	}
+
+	/**
+	 * A helper function that adds a new origin for the specified terminal
+	 * (see {@link #getTerminal(int)}) and returns it. Origins are assigned in
+	 * the order in which terminals are built.
+	 *
+	 * @param rule
+	 *            the terminal
+	 * @return the origin of the terminal
+	 */
+	private int addOrigin(Rule rule) {
+		this.terminals.add(rule);
+		this.enclosingNames.add(this.currentEnclosingNames.peek());
+		return this.terminals.size() - 1;
+	}
+
+	/**
+	 * A helper function that returns the characters that match the specified
+	 * character of a case-insensitive terminal (i.e. all characters with the
+	 * same upper case).
+	 *
+	 * @param c
+	 *            the character of a case-insensitive terminal
+	 * @return the sorted, disjoint and inclusive ranges of matching characters
+	 */
+	private int[] upperCaseSet(char c) {
+		Integer upperCase = new Integer(upperCase(c));
+		int[] set = this.upperCaseSets.get(upperCase);
+		if (set == null) {
+			int[] table = upperCases();
+			List<Integer> ranges = new ArrayList<>();
+			for (int i = 0; i < table.length; i++) {
+				if (table[i] != upperCase.intValue())
+					continue;
+				int size = ranges.size();
+				if (size > 0 && ranges.get(size - 1).intValue() == i - 1)
+					ranges.set(size - 1, new Integer(i));
+				else {
+					ranges.add(new Integer(i));
+					ranges.add(new Integer(i));
+				}
+			}
+			set = new int[ranges.size()];
+			for (int i = 0; i < set.length; i++)
+				set[i] = ranges.get(i).intValue();
+			this.upperCaseSets.put(upperCase, set);
+		}
+		return set;
+	}
+
+	/**
+	 * A helper function that returns the upper case of the specified
+	 * character. Returns <code>-1</code> if the upper case consists of more
+	 * than one character.
+	 *
+	 * @param c
+	 *            the character
+	 * @return the upper case of the specified character or <code>-1</code>
+	 */
+	private static int upperCase(char c) {
+		return upperCases()[c];
+	}
+
+	/**
+	 * A helper function that returns the upper case of every character (see
+	 * {@link #upperCase(char)}). The table is created once.
+	 *
+	 * @return the upper case of every character
+	 */
+	private static synchronized int[] upperCases() {
+		if (upperCases == null) {
+			int[] table = new int[Character.MAX_VALUE + 1];
+			for (int c = 0; c <= Character.MAX_VALUE; c++) {
+				String upperCase = String.valueOf((char) c).toUpperCase();
+				table[c] = upperCase.length() == 1 ? upperCase.charAt(0) : -1;
+			}
+			upperCases = table;
+		}
+		return upperCases;
+	}
+
+}
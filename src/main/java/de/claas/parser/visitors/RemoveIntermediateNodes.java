@@ -1,91 +1,100 @@
 package de.claas.parser.visitors;
 
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
-import java.util.Stack;
 
 import de.claas.parser.Grammar;
 import de.claas.parser.Node;
-import de.claas.parser.NodeVisitor;
 import de.claas.parser.results.IntermediateNode;
 import de.claas.parser.results.NonTerminalNode;
-import de.claas.parser.results.TerminalNode;
 
 /**
  * The class {@link RemoveIntermediateNodes}. It is an implementation of the
- * interface {@link NodeVisitor}. It is intended to simplify the node structure
- * that is returned by {@link Grammar#parse(String, boolean)}. This is
- * accomplished by removing {@link IntermediateNode} instances.
+ * class {@link NodeWalker}. It is intended to simplify the node structure that
+ * is returned by {@link Grammar#parse(String, boolean)}. This is accomplished
+ * by removing {@link IntermediateNode} instances.
+ * <p>
+ * Every {@link NonTerminalNode} is processed exactly once. Its children are
+ * collected in a single (iterative) pass, where {@link IntermediateNode}
+ * instances are replaced by their (transitively collected) children, and the
+ * resulting list replaces the original children. Nodes are tracked by identity
+ * (rather than by {@link Node#equals(Object)}) so that structurally equal
+ * siblings are never confused with one another and no deep comparisons are
+ * made.
  * <p>
  * This visitor is meant for one-time use, only. As such, every tree needs to be
  * simplified with a separate instance of this visitor. An instance of this
  * visitor should not be used to simplify the node structure of multiple trees.
- * 
+ *
  * @author Claas Ahlrichs
  */
-public class RemoveIntermediateNodes implements NodeVisitor {
-
-	private final Set<Node> visitedPath = new HashSet<>();
-	private final Stack<Node> parents = new Stack<>();
+public class RemoveIntermediateNodes extends NodeWalker {
 
 	@Override
-	public void visitTerminalNode(TerminalNode node) {
-		// nothing to be done here
+	protected boolean enterIntermediateNode(IntermediateNode node) {
+		// intermediate nodes are removed by their (non-terminal) parents
+		return false;
 	}
 
 	@Override
-	public void visitIntermediateNode(IntermediateNode node) {
-		if (this.visitedPath.add(node) && !this.parents.isEmpty()) {
-			// enumerate all siblings
-			Node parent = this.parents.peek();
-			List<Node> siblings = new ArrayList<>();
-			for (Node child : parent) {
-				siblings.add(child);
-			}
-
-			// remove all siblings
-			for (Node child : siblings) {
-				parent.removeChild(child);
-			}
-
-			// add all siblings (preserving order)
-			for (Node child : siblings) {
-				if (node.equals(child)) {
-					for (Node c : node) {
-						if (!node.equals(c)) {
-							parent.addChild(c);
-						}
-					}
-				} else {
-					parent.addChild(child);
-				}
+	protected boolean enterNonTerminalNode(NonTerminalNode node) {
+		List<Node> children = new ArrayList<>();
+		if (collectChildren(node, children)) {
+			node.removeChildren();
+			for (Node child : children) {
+				node.addChild(child);
 			}
-
-			// ... now visit all children
-			for (Node child : node) {
-				child.visit(this);
-			}
-
-			this.visitedPath.remove(node);
 		}
+		return true;
 	}
 
-	@Override
-	public void visitNonTerminaNode(NonTerminalNode node) {
-		if (this.visitedPath.add(node)) {
-			this.parents.push(node);
-			ArrayList<Node> tmp = new ArrayList<>();
-			for (Node n : node) {
-				tmp.add(n);
+	/**
+	 * A helper function that collects the children of the specified node. If
+	 * a child is an {@link IntermediateNode}, then its children are
+	 * (transitively) collected instead. Intermediate nodes that directly or
+	 * indirectly reference themselves are skipped. Returns <code>true</code>
+	 * if an intermediate node was encountered (i.e. the list of children
+	 * differs from the original list of children).
+	 *
+	 * @param node
+	 *            the node
+	 * @param children
+	 *            the list of collected children
+	 * @return <code>true</code> if an intermediate node was encountered,
+	 *         <code>false</code> otherwise
+	 */
+	private static boolean collectChildren(Node node, List<Node> children) {
+		Set<Node> visitedPath = Collections.newSetFromMap(new IdentityHashMap<>());
+		List<Node> path = new ArrayList<>();
+		List<Iterator<Node>> pending = new ArrayList<>();
+		boolean modified = false;
+		path.add(node);
+		pending.add(node.iterator());
+		while (!pending.isEmpty()) {
+			int top = pending.size() - 1;
+			Iterator<Node> iterator = pending.get(top);
+			if (!iterator.hasNext()) {
+				pending.remove(top);
+				visitedPath.remove(path.remove(top));
+				continue;
 			}
-			for (Node n : tmp) {
-				n.visit(this);
+
+			Node child = iterator.next();
+			if (!(child instanceof IntermediateNode)) {
+				children.add(child);
+			} else {
+				modified = true;
+				if (visitedPath.add(child)) {
+					path.add(child);
+					pending.add(child.iterator());
+				}
 			}
-			this.parents.pop();
-			this.visitedPath.remove(node);
 		}
+		return modified;
 	}
 
 }
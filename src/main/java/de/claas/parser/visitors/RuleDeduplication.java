@@ -0,0 +1,364 @@
+package de.claas.parser.visitors;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import de.claas.parser.Rule;
+import de.claas.parser.RuleVisitor;
+import de.claas.parser.rules.AndPredicate;
+import de.claas.parser.rules.CharacterValue;
+import de.claas.parser.rules.Conjunction;
+import de.claas.parser.rules.Cut;
+import de.claas.parser.rules.Decorator;
+import de.claas.parser.rules.Disjunction;
+import de.claas.parser.rules.NonTerminal;
+import de.claas.parser.rules.NotPredicate;
+import de.claas.parser.rules.NumberValue;
+import de.claas.parser.rules.Optional;
+import de.claas.parser.rules.Repetition;
+import de.claas.parser.rules.SeparatedRepetition;
+
+/**
+ * The class {@link RuleDeduplication}. It is an implementation of the interface
+ * {@link RuleVisitor}. It is intended to normalize a graph of {@link Rule}s such
+ * that structurally identical rules exist exactly once (i.e. hash-consing of
+ * rules). Two rules are structurally identical if they are equal in terms of
+ * {@link RuleEquality} (i.e. same type, same attributes and pairwise identical
+ * nested rules in the same order). This also applies to rules that are part of
+ * cycles.
+ * <p>
+ * The identical rules are determined by partition refinement. Initially, rules
+ * are partitioned by their type and attributes (e.g. name of a
+ * {@link NonTerminal} or bounds of a {@link Repetition}). Afterwards, the
+ * partition is refined by the partitions of nested rules until it is stable.
+ * Each refinement step looks up compact signatures (i.e. <code>int</code>
+ * arrays) in a hash table. For every partition, a single (canonical) rule is
+ * created. Terminals are not copied, the first of several identical terminals
+ * is reused. The original graph of rules is not modified.
+ * <p>
+ * The normalization is performed once during construction. Subsequent changes
+ * to the graph of rules are not reflected by this normalization.
+ *
+ * @author Claas Ahlrichs
+ */
+public class RuleDeduplication implements RuleVisitor {
+
+	private final List<Rule> rules = new ArrayList<>();
+	private final Map<Rule, Integer> indices = new IdentityHashMap<>();
+	private int[][] successors;
+	private int[] partitions;
+	private Rule[] canonicalRules;
+	private List<Object> currentAttributes;
+	private Rule currentCopy;
+
+	/**
+	 * Constructs a new {@link RuleDeduplication} with the specified parameter.
+	 * All rules that are reachable from the specified rule are normalized.
+	 *
+	 * @param rule
+	 *            the initial rule
+	 */
+	public RuleDeduplication(Rule rule) {
+		collectRules(rule);
+		Rule[] copies = refinePartitions();
+		createCanonicalRules(copies);
+	}
+
+	/**
+	 * Returns the canonical rule of the initial rule (i.e. the normalized
+	 * graph of rules). The canonical rule of a {@link NonTerminal} is a
+	 * {@link NonTerminal}, too.
+	 *
+	 * @return the canonical rule of the initial rule
+	 */
+	public Rule getResult() {
+		return this.canonicalRules[this.partitions[0]];
+	}
+
+	/**
+	 * Returns the canonical rule of the specified (original) rule. Returns
+	 * <code>null</code> if the rule was not normalized.
+	 *
+	 * @param rule
+	 *            the original rule
+	 * @return the canonical rule of the specified rule
+	 */
+	public Rule getCanonicalRule(Rule rule) {
+		Integer index = this.indices.get(rule);
+		return index != null ? this.canonicalRules[this.partitions[index.intValue()]] : null;
+	}
+
+	/**
+	 * Returns the number of (original) rules that are reachable from the
+	 * initial rule.
+	 *
+	 * @return the number of original rules
+	 */
+	public int getNumberOfRules() {
+		return this.rules.size();
+	}
+
+	/**
+	 * Returns the number of distinct (canonical) rules that are reachable from
+	 * the initial rule.
+	 *
+	 * @return the number of distinct rules
+	 */
+	public int getNumberOfDistinctRules() {
+		return this.canonicalRules.length;
+	}
+
+	@Override
+	public void visitConjunction(Conjunction rule) {
+		this.currentAttributes = Arrays.asList(rule.getClass());
+		this.currentCopy = new Conjunction();
+	}
+
+	@Override
+	public void visitDisjunction(Disjunction rule) {
+		this.currentAttributes = Arrays.asList(rule.getClass(), Boolean.valueOf(rule.isOrdered()));
+		this.currentCopy = new Disjunction(rule.isOrdered());
+	}
+
+	@Override
+	public void visitNonTerminal(NonTerminal rule) {
+		this.currentAttributes = Arrays.asList(rule.getClass(), rule.getName(), rule.getComment());
+		this.currentCopy = new NonTerminal(rule.getName(), rule.getComment(), null);
+	}
+
+	@Override
+	public void visitOptional(Optional rule) {
+		this.currentAttributes = Arrays.asList(rule.getClass());
+		this.currentCopy = new Optional(null);
+	}
+
+	@Override
+	public void visitRepetition(Repetition rule) {
+		int min = rule.getMinimumNumberOfRepetions();
+		int max = rule.getMaximumNumberOfRepetions();
+		this.currentAttributes = Arrays.asList(rule.getClass(), new Integer(min), new Integer(max));
+		this.currentCopy = new Repetition(null, min, max);
+	}
+
+	@Override
+	public void visitSeparatedRepetition(SeparatedRepetition rule) {
+		int min = rule.getMinimumNumberOfRepetions();
+		int max = rule.getMaximumNumberOfRepetions();
+		this.currentAttributes = Arrays.asList(rule.getClass(), new Integer(min), new Integer(max));
+		this.currentCopy = new SeparatedRepetition(null, null, min, max);
+	}
+
+	@Override
+	public void visitAndPredicate(AndPredicate rule) {
+		this.currentAttributes = Arrays.asList(rule.getClass());
+		this.currentCopy = new AndPredicate(null);
+	}
+
+	@Override
+	public void visitNotPredicate(NotPredicate rule) {
+		this.currentAttributes = Arrays.asList(rule.getClass());
+		this.currentCopy = new NotPredicate(null);
+	}
+
+	@Override
+	public void visitCut(Cut rule) {
+		this.currentAttributes = Arrays.asList(rule.getClass());
+		this.currentCopy = rule;
+	}
+
+	@Override
+	public void visitTerminal(CharacterValue rule) {
+		this.currentAttributes = Arrays.asList(rule.getClass(), Boolean.valueOf(rule.isCaseSensitive()),
+				rule.getTerminal());
+		this.currentCopy = rule;
+	}
+
+	@Override
+	public void visitTerminal(NumberValue rule) {
+		this.currentAttributes = Arrays.asList(rule.getClass(), new Integer(rule.getRadix()), rule.getTerminal(),
+				rule.getRangeStart(), rule.getRangeEnd());
+		this.currentCopy = rule;
+	}
+
+	/**
+	 * A helper function that collects all rules that are reachable from the
+	 * specified rule and their nested rules. Rules are tracked by identity. The
+	 * specified rule has index zero (0).
+	 *
+	 * @param rule
+	 *            the initial rule
+	 */
+	private void collectRules(Rule rule) {
+		Deque<Rule> pending = new ArrayDeque<>();
+		pending.push(rule);
+		while (!pending.isEmpty()) {
+			Rule current = pending.pop();
+			if (this.indices.containsKey(current))
+				continue;
+			this.indices.put(current, new Integer(this.rules.size()));
+			this.rules.add(current);
+			for (Rule child : nestedRules(current))
+				pending.push(child);
+		}
+
+		this.successors = new int[this.rules.size()][];
+		for (int i = 0; i < this.successors.length; i++) {
+			List<Rule> children = nestedRules(this.rules.get(i));
+			int[] targets = new int[children.size()];
+			for (int j = 0; j < targets.length; j++)
+				targets[j] = this.indices.get(children.get(j)).intValue();
+			this.successors[i] = targets;
+		}
+	}
+
+	/**
+	 * A helper function that partitions the collected rules. Rules are
+	 * initially partitioned by their attributes. Partitions are refined until
+	 * rules of the same partition have nested rules of the same partitions
+	 * (in the same order). Returns a copy (without nested rules) of every
+	 * collected rule.
+	 *
+	 * @return a copy of every collected rule
+	 */
+	private Rule[] refinePartitions() {
+		int size = this.rules.size();
+		Rule[] copies = new Rule[size];
+		Map<List<Object>, Integer> initial = new HashMap<>();
+		this.partitions = new int[size];
+		for (int i = 0; i < size; i++) {
+			this.rules.get(i).visit(this);
+			copies[i] = this.currentCopy;
+			Integer partition = initial.get(this.currentAttributes);
+			if (partition == null) {
+				partition = new Integer(initial.size());
+				initial.put(this.currentAttributes, partition);
+			}
+			this.partitions[i] = partition.intValue();
+		}
+
+		int count = initial.size();
+		while (true) {
+			Map<Signature, Integer> refined = new HashMap<>();
+			int[] next = new int[size];
+			for (int i = 0; i < size; i++) {
+				int[] signature = new int[this.successors[i].length + 1];
+				signature[0] = this.partitions[i];
+				for (int j = 0; j < this.successors[i].length; j++)
+					signature[j + 1] = this.partitions[this.successors[i][j]];
+				Signature key = new Signature(signature);
+				Integer partition = refined.get(key);
+				if (partition == null) {
+					partition = new Integer(refined.size());
+					refined.put(key, partition);
+				}
+				next[i] = partition.intValue();
+			}
+			this.partitions = next;
+			if (refined.size() == count)
+				return copies;
+			count = refined.size();
+		}
+	}
+
+	/**
+	 * A helper function that creates the canonical rule of every partition.
+	 * The first rule of a partition is its representative. The copy of the
+	 * representative becomes the canonical rule and its nested rules are
+	 * replaced by the canonical rules of their partitions.
+	 *
+	 * @param copies
+	 *            a copy of every collected rule
+	 */
+	private void createCanonicalRules(Rule[] copies) {
+		int count = 0;
+		for (int partition : this.partitions)
+			count = Math.max(count, partition + 1);
+		this.canonicalRules = new Rule[count];
+		int[] representatives = new int[count];
+		for (int i = 0; i < this.partitions.length; i++) {
+			int partition = this.partitions[i];
+			if (this.canonicalRules[partition] == null) {
+				this.canonicalRules[partition] = copies[i];
+				representatives[partition] = i;
+			}
+		}
+
+		for (int partition = 0; partition < count; partition++) {
+			int representative = representatives[partition];
+			Rule copy = this.canonicalRules[partition];
+			if (copy == this.rules.get(representative))
+				continue;
+			for (int successor : this.successors[representative]) {
+				Rule child = this.canonicalRules[this.partitions[successor]];
+				if (copy instanceof Decorator)
+					((Decorator) copy).setRule(child);
+				else
+					copy.addChild(child);
+			}
+		}
+	}
+
+	/**
+	 * A helper function that returns the rules that are directly nested in
+	 * the specified rule. For {@link Decorator}s, this is the decorated rule.
+	 * For all other rules, these are the children.
+	 *
+	 * @param rule
+	 *            the rule
+	 * @return the rules that are directly nested in the specified rule
+	 */
+	private static List<Rule> nestedRules(Rule rule) {
+		List<Rule> children = new ArrayList<>();
+		if (rule instanceof Decorator) {
+			Rule child = ((Decorator) rule).getRule();
+			if (child != null)
+				children.add(child);
+		} else {
+			for (Rule child : rule)
+				children.add(child);
+		}
+		return children;
+	}
+
+	/**
+	 * The class {@link Signature}. It is intended to serve as key of the hash
+	 * table that refines partitions. A signature consists of the partition of
+	 * a rule and the partitions of its nested rules.
+	 *
+	 * @author Claas Ahlrichs
+	 */
+	private static class Signature {
+
+		private final int[] partitions;
+		private final int hashCode;
+
+		/**
+		 * Constructs a new {@link Signature} with the specified parameter.
+		 *
+		 * @param partitions
+		 *            the partition of a rule and its nested rules
+		 */
+		public Signature(int[] partitions) {
+			this.partitions = partitions;
+			this.hashCode = Arrays.hashCode(partitions);
+		}
+
+		@Override
+		public int hashCode() {
+			return this.hashCode;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			return obj instanceof Signature && Arrays.equals(this.partitions, ((Signature) obj).partitions);
+		}
+
+	}
+
+}
@@ -1,19 +1,24 @@
 package de.claas.parser.visitors;
 
-import java.util.HashSet;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.Set;
 
 import de.claas.parser.Rule;
 import de.claas.parser.RuleVisitor;
+import de.claas.parser.rules.AndPredicate;
 import de.claas.parser.rules.CharacterValue;
 import de.claas.parser.rules.Conjunction;
+import de.claas.parser.rules.Cut;
 import de.claas.parser.rules.Decorator;
 import de.claas.parser.rules.Disjunction;
 import de.claas.parser.rules.NonTerminal;
+import de.claas.parser.rules.NotPredicate;
 import de.claas.parser.rules.NumberValue;
 import de.claas.parser.rules.Optional;
 import de.claas.parser.rules.Repetition;
+import de.claas.parser.rules.SeparatedRepetition;
 
 /**
  * The class {@link RuleEquality}. It is an implementation of the interface
@@ -28,7 +33,7 @@ import de.claas.parser.rules.Repetition;
  */
 public class RuleEquality implements RuleVisitor {
 
-	private final Set<Integer> visitedPath = new HashSet<>();
+	private final Set<Rule> visitedPath = Collections.newSetFromMap(new IdentityHashMap<>());
 	private Object obj;
 	private boolean visited = false;
 	private boolean equality = true;
@@ -51,10 +56,9 @@ public class RuleEquality implements RuleVisitor {
 			return;
 
 		Conjunction other = (Conjunction) this.obj;
-		Integer uniqueId = new Integer(System.identityHashCode(rule));
-		if (this.visitedPath.add(uniqueId)) {
+		if (this.visitedPath.add(rule)) {
 			visitChildren(rule, other);
-			this.visitedPath.remove(uniqueId);
+			this.visitedPath.remove(rule);
 		}
 	}
 
@@ -65,10 +69,13 @@ public class RuleEquality implements RuleVisitor {
 			return;
 
 		Disjunction other = (Disjunction) this.obj;
-		Integer uniqueId = new Integer(System.identityHashCode(rule));
-		if (this.visitedPath.add(uniqueId)) {
+		if (rule.isOrdered() != other.isOrdered()) {
+			markAsUnequal();
+			return;
+		}
+		if (this.visitedPath.add(rule)) {
 			visitChildren(rule, other);
-			this.visitedPath.remove(uniqueId);
+			this.visitedPath.remove(rule);
 		}
 	}
 
@@ -83,10 +90,9 @@ public class RuleEquality implements RuleVisitor {
 			return; // already marked as unequal
 		if (isUnequal(rule.getComment(), other.getComment()))
 			return; // already marked as unequal
-		Integer uniqueId = new Integer(System.identityHashCode(rule));
-		if (this.visitedPath.add(uniqueId)) {
+		if (this.visitedPath.add(rule)) {
 			visitChild(rule, other);
-			this.visitedPath.remove(uniqueId);
+			this.visitedPath.remove(rule);
 		}
 	}
 
@@ -97,10 +103,9 @@ public class RuleEquality implements RuleVisitor {
 			return;
 
 		Optional other = (Optional) this.obj;
-		Integer uniqueId = new Integer(System.identityHashCode(rule));
-		if (this.visitedPath.add(uniqueId)) {
+		if (this.visitedPath.add(rule)) {
 			visitChild(rule, other);
-			this.visitedPath.remove(uniqueId);
+			this.visitedPath.remove(rule);
 		}
 	}
 
@@ -116,11 +121,60 @@ public class RuleEquality implements RuleVisitor {
 			markAsUnequal();
 			return;
 		}
-		Integer uniqueId = new Integer(System.identityHashCode(rule));
-		if (this.visitedPath.add(uniqueId)) {
+		if (this.visitedPath.add(rule)) {
 			visitChild(rule, other);
-			this.visitedPath.remove(uniqueId);
+			this.visitedPath.remove(rule);
+		}
+	}
+
+	@Override
+	public void visitSeparatedRepetition(SeparatedRepetition rule) {
+		markAsVisited();
+		if (preliminaryComparison(rule, this.obj))
+			return;
+
+		SeparatedRepetition other = (SeparatedRepetition) this.obj;
+		if (rule.getMinimumNumberOfRepetions() != other.getMinimumNumberOfRepetions()
+				|| rule.getMaximumNumberOfRepetions() != other.getMaximumNumberOfRepetions()) {
+			markAsUnequal();
+			return;
 		}
+		if (this.visitedPath.add(rule)) {
+			visitChildren(rule, other);
+			this.visitedPath.remove(rule);
+		}
+	}
+
+	@Override
+	public void visitAndPredicate(AndPredicate rule) {
+		markAsVisited();
+		if (preliminaryComparison(rule, this.obj))
+			return;
+
+		AndPredicate other = (AndPredicate) this.obj;
+		if (this.visitedPath.add(rule)) {
+			visitChild(rule, other);
+			this.visitedPath.remove(rule);
+		}
+	}
+
+	@Override
+	public void visitNotPredicate(NotPredicate rule) {
+		markAsVisited();
+		if (preliminaryComparison(rule, this.obj))
+			return;
+
+		NotPredicate other = (NotPredicate) this.obj;
+		if (this.visitedPath.add(rule)) {
+			visitChild(rule, other);
+			this.visitedPath.remove(rule);
+		}
+	}
+
+	@Override
+	public void visitCut(Cut rule) {
+		markAsVisited();
+		preliminaryComparison(rule, this.obj);
 	}
 
 	@Override
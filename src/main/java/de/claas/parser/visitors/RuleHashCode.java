@@ -1,17 +1,22 @@
 package de.claas.parser.visitors;
 
-import java.util.HashSet;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.Set;
 
 import de.claas.parser.Rule;
 import de.claas.parser.RuleVisitor;
+import de.claas.parser.rules.AndPredicate;
 import de.claas.parser.rules.CharacterValue;
 import de.claas.parser.rules.Conjunction;
+import de.claas.parser.rules.Cut;
 import de.claas.parser.rules.Disjunction;
 import de.claas.parser.rules.NonTerminal;
+import de.claas.parser.rules.NotPredicate;
 import de.claas.parser.rules.NumberValue;
 import de.claas.parser.rules.Optional;
 import de.claas.parser.rules.Repetition;
+import de.claas.parser.rules.SeparatedRepetition;
 
 /**
  * The class {@link RuleHashCode}. It is an implementation of the interface
@@ -26,32 +31,54 @@ import de.claas.parser.rules.Repetition;
  */
 public class RuleHashCode implements RuleVisitor {
 
-	private final Set<Integer> visitedPath = new HashSet<>();
+	private final Set<Rule> visitedPath = Collections.newSetFromMap(new IdentityHashMap<>());
+	private final boolean deep;
 	private int hashCode = 0;
 
+	/**
+	 * Constructs a new {@link RuleHashCode} with default parameters. Calling
+	 * this constructor is equivalent to calling
+	 * <code>{@link #RuleHashCode(boolean)}</code> with <code>true</code>.
+	 */
+	public RuleHashCode() {
+		this(true);
+	}
+
+	/**
+	 * Constructs a new {@link RuleHashCode} with the specified parameter. If
+	 * nested rules are not visited, only the visited {@link Rule}s themselves
+	 * contribute to the combined hash code.
+	 * 
+	 * @param deep
+	 *            whether the nested rules of visited {@link Rule}s are visited
+	 */
+	public RuleHashCode(boolean deep) {
+		this.deep = deep;
+	}
+
 	@Override
 	public void visitConjunction(Conjunction rule) {
 		this.hashCode += rule.getClass().hashCode();
 
-		Integer uniqueId = new Integer(System.identityHashCode(rule));
-		if (this.visitedPath.add(uniqueId)) {
+		if (this.deep && this.visitedPath.add(rule)) {
 			for (Rule child : rule) {
 				child.visit(this);
 			}
-			this.visitedPath.remove(uniqueId);
+			this.visitedPath.remove(rule);
 		}
 	}
 
 	@Override
 	public void visitDisjunction(Disjunction rule) {
 		this.hashCode += rule.getClass().hashCode();
+		if (rule.isOrdered())
+			this.hashCode += 2048;
 
-		Integer uniqueId = new Integer(System.identityHashCode(rule));
-		if (this.visitedPath.add(uniqueId)) {
+		if (this.deep && this.visitedPath.add(rule)) {
 			for (Rule child : rule) {
 				child.visit(this);
 			}
-			this.visitedPath.remove(uniqueId);
+			this.visitedPath.remove(rule);
 		}
 	}
 
@@ -62,11 +89,10 @@ public class RuleHashCode implements RuleVisitor {
 		if (rule.getComment() != null)
 			this.hashCode += rule.getComment().hashCode();
 
-		Integer uniqueId = new Integer(System.identityHashCode(rule));
-		if (this.visitedPath.add(uniqueId)) {
+		if (this.deep && this.visitedPath.add(rule)) {
 			if (rule.getRule() != null)
 				rule.getRule().visit(this);
-			this.visitedPath.remove(uniqueId);
+			this.visitedPath.remove(rule);
 		}
 	}
 
@@ -74,10 +100,9 @@ public class RuleHashCode implements RuleVisitor {
 	public void visitOptional(Optional rule) {
 		this.hashCode += rule.getClass().hashCode();
 
-		Integer uniqueId = new Integer(System.identityHashCode(rule));
-		if (this.visitedPath.add(uniqueId)) {
+		if (this.deep && this.visitedPath.add(rule)) {
 			rule.getRule().visit(this);
-			this.visitedPath.remove(uniqueId);
+			this.visitedPath.remove(rule);
 		}
 	}
 
@@ -87,13 +112,51 @@ public class RuleHashCode implements RuleVisitor {
 		this.hashCode += Integer.hashCode(rule.getMinimumNumberOfRepetions());
 		this.hashCode += Integer.hashCode(rule.getMaximumNumberOfRepetions());
 
-		Integer uniqueId = new Integer(System.identityHashCode(rule));
-		if (this.visitedPath.add(uniqueId)) {
+		if (this.deep && this.visitedPath.add(rule)) {
+			rule.getRule().visit(this);
+			this.visitedPath.remove(rule);
+		}
+	}
+
+	@Override
+	public void visitSeparatedRepetition(SeparatedRepetition rule) {
+		this.hashCode += rule.getClass().hashCode();
+		this.hashCode += Integer.hashCode(rule.getMinimumNumberOfRepetions());
+		this.hashCode += Integer.hashCode(rule.getMaximumNumberOfRepetions());
+
+		if (this.deep && this.visitedPath.add(rule)) {
+			for (Rule child : rule) {
+				child.visit(this);
+			}
+			this.visitedPath.remove(rule);
+		}
+	}
+
+	@Override
+	public void visitAndPredicate(AndPredicate rule) {
+		this.hashCode += rule.getClass().hashCode();
+
+		if (this.deep && this.visitedPath.add(rule)) {
 			rule.getRule().visit(this);
-			this.visitedPath.remove(uniqueId);
+			this.visitedPath.remove(rule);
 		}
 	}
 
+	@Override
+	public void visitNotPredicate(NotPredicate rule) {
+		this.hashCode += rule.getClass().hashCode();
+
+		if (this.deep && this.visitedPath.add(rule)) {
+			rule.getRule().visit(this);
+			this.visitedPath.remove(rule);
+		}
+	}
+
+	@Override
+	public void visitCut(Cut rule) {
+		this.hashCode += rule.getClass().hashCode();
+	}
+
 	@Override
 	public void visitTerminal(CharacterValue rule) {
 		this.hashCode += rule.getClass().hashCode();
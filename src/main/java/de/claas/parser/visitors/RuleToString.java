@@ -1,6 +1,7 @@
 package de.claas.parser.visitors;
 
-import java.util.HashSet;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.IntFunction;
@@ -8,13 +9,17 @@ import java.util.stream.Collectors;
 
 import de.claas.parser.Rule;
 import de.claas.parser.RuleVisitor;
+import de.claas.parser.rules.AndPredicate;
 import de.claas.parser.rules.CharacterValue;
 import de.claas.parser.rules.Conjunction;
+import de.claas.parser.rules.Cut;
 import de.claas.parser.rules.Disjunction;
 import de.claas.parser.rules.NonTerminal;
+import de.claas.parser.rules.NotPredicate;
 import de.claas.parser.rules.NumberValue;
 import de.claas.parser.rules.Optional;
 import de.claas.parser.rules.Repetition;
+import de.claas.parser.rules.SeparatedRepetition;
 
 /**
  * The class {@link RuleToString}. It is an implementation of the interface
@@ -33,7 +38,7 @@ public class RuleToString implements RuleVisitor {
 	private static final String DEFAULT_LINE_NEWLINE = "\r\n";
 	private final StringBuilder builder = new StringBuilder();
 	private final AtomicInteger levels = new AtomicInteger();
-	private final Set<Rule> visitedPath = new HashSet<>();
+	private final Set<Rule> visitedPath = Collections.newSetFromMap(new IdentityHashMap<>());
 	private final String levelSeparator;
 	private final String lineSeparator;
 
@@ -80,7 +85,7 @@ public class RuleToString implements RuleVisitor {
 
 	@Override
 	public void visitDisjunction(Disjunction rule) {
-		appendRule(rule, null);
+		appendRule(rule, rule.isOrdered() ? "ordered" : null);
 		if (this.visitedPath.add(rule)) {
 			incrementIndent();
 			for (Rule child : rule) {
@@ -124,6 +129,46 @@ public class RuleToString implements RuleVisitor {
 		}
 	}
 
+	@Override
+	public void visitSeparatedRepetition(SeparatedRepetition rule) {
+		appendRule(rule, null);
+		if (this.visitedPath.add(rule)) {
+			incrementIndent();
+			for (Rule child : rule) {
+				child.visit(this);
+			}
+			decrementIndent();
+			this.visitedPath.remove(rule);
+		}
+	}
+
+	@Override
+	public void visitAndPredicate(AndPredicate rule) {
+		appendRule(rule, null);
+		if (this.visitedPath.add(rule)) {
+			incrementIndent();
+			rule.getRule().visit(this);
+			decrementIndent();
+			this.visitedPath.remove(rule);
+		}
+	}
+
+	@Override
+	public void visitNotPredicate(NotPredicate rule) {
+		appendRule(rule, null);
+		if (this.visitedPath.add(rule)) {
+			incrementIndent();
+			rule.getRule().visit(this);
+			decrementIndent();
+			this.visitedPath.remove(rule);
+		}
+	}
+
+	@Override
+	public void visitCut(Cut rule) {
+		appendRule(rule, null);
+	}
+
 	@Override
 	public void visitTerminal(CharacterValue rule) {
 		appendRule(rule, rule.getTerminal());
@@ -1,20 +1,25 @@
 package de.claas.parser.visitors;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Map;
 import java.util.Set;
 
 import de.claas.parser.Rule;
 import de.claas.parser.RuleVisitor;
+import de.claas.parser.rules.AndPredicate;
 import de.claas.parser.rules.CharacterValue;
 import de.claas.parser.rules.Conjunction;
+import de.claas.parser.rules.Cut;
 import de.claas.parser.rules.Disjunction;
 import de.claas.parser.rules.NonTerminal;
+import de.claas.parser.rules.NotPredicate;
 import de.claas.parser.rules.NumberValue;
 import de.claas.parser.rules.Optional;
 import de.claas.parser.rules.Repetition;
+import de.claas.parser.rules.SeparatedRepetition;
 
 /**
  * The class {@link UpdateNonTerminalReferences}. It is an implementation of the
@@ -29,7 +34,7 @@ import de.claas.parser.rules.Repetition;
  */
 public class UpdateNonTerminalReferences implements RuleVisitor {
 
-	private final Set<Rule> visitedPath = new HashSet<>();
+	private final Set<Rule> visitedPath = Collections.newSetFromMap(new IdentityHashMap<>());
 	private final Map<String, NonTerminal> rules = new HashMap<>();
 
 	/**
@@ -102,6 +107,36 @@ public class UpdateNonTerminalReferences implements RuleVisitor {
 		}
 	}
 
+	@Override
+	public void visitSeparatedRepetition(SeparatedRepetition rule) {
+		if (this.visitedPath.add(rule)) {
+			for (Rule child : rule)
+				child.visit(this);
+			this.visitedPath.remove(rule);
+		}
+	}
+
+	@Override
+	public void visitAndPredicate(AndPredicate rule) {
+		if (this.visitedPath.add(rule)) {
+			rule.getRule().visit(this);
+			this.visitedPath.remove(rule);
+		}
+	}
+
+	@Override
+	public void visitNotPredicate(NotPredicate rule) {
+		if (this.visitedPath.add(rule)) {
+			rule.getRule().visit(this);
+			this.visitedPath.remove(rule);
+		}
+	}
+
+	@Override
+	public void visitCut(Cut rule) {
+		// nothing to be done
+	}
+
 	@Override
 	public void visitTerminal(CharacterValue rule) {
 		// nothing to be done
@@ -112,4 +147,4 @@ public class UpdateNonTerminalReferences implements RuleVisitor {
 		// nothing to be done
 	}
 
-}
\ No newline at end of file
+}
\ No newline at end of file
@@ -9,6 +9,10 @@ import java.util.Iterator;
 
 import org.junit.Test;
 
+import de.claas.parser.results.IntermediateNode;
+import de.claas.parser.results.NonTerminalNode;
+import de.claas.parser.visitors.NodeHashCode;
+
 /**
  * The JUnit test for class {@link Node}. It is intended to collect and document
  * a set of test cases for the tested class. Please refer to the individual
@@ -104,6 +108,17 @@ public abstract class NodeTest {
 		assertFalse(node.removeChild(childC));
 	}
 
+	@Test
+	public void shouldRemoveAllChildren() {
+		Node node = build();
+		assertFalse(node.removeChildren());
+		assertTrue(node.addChild(build()));
+		assertTrue(node.addChild(build()));
+		assertTrue(node.removeChildren());
+		assertFalse(node.hasChildren());
+		assertFalse(node.iterator().hasNext());
+	}
+
 	@Test
 	public void addChildShouldHandleNull() {
 		Node node = build();
@@ -161,4 +176,65 @@ public abstract class NodeTest {
 		assertEquals(nodeA.hashCode(), nodeB.hashCode());
 	}
 
+	@Test
+	public void implementationOfHashCodeShouldReflectNestedChanges() {
+		Node root = new NonTerminalNode("root");
+		Node inner = new IntermediateNode();
+		root.addChild(inner);
+		Node empty = new NonTerminalNode("root");
+		empty.addChild(new IntermediateNode());
+		assertEquals(empty.hashCode(), root.hashCode());
+
+		Node child = build();
+		inner.addChild(child);
+		NodeHashCode visitor = new NodeHashCode();
+		root.visit(visitor);
+		assertEquals(visitor.getHashCode(), root.hashCode());
+
+		inner.removeChild(child);
+		assertEquals(empty.hashCode(), root.hashCode());
+	}
+
+	@Test
+	public void implementationOfHashCodeShouldReflectChangesOfSharedNodes() {
+		Node shared = new IntermediateNode();
+		Node rootA = new NonTerminalNode("root");
+		Node rootB = new NonTerminalNode("root");
+		rootA.addChild(shared);
+		rootB.addChild(shared);
+		rootB.addChild(shared);
+		int hashCodeA = rootA.hashCode();
+		int hashCodeB = rootB.hashCode();
+
+		shared.addChild(build());
+		NodeHashCode visitorA = new NodeHashCode();
+		rootA.visit(visitorA);
+		NodeHashCode visitorB = new NodeHashCode();
+		rootB.visit(visitorB);
+		assertEquals(visitorA.getHashCode(), rootA.hashCode());
+		assertEquals(visitorB.getHashCode(), rootB.hashCode());
+		assertFalse(hashCodeA == rootA.hashCode());
+		assertFalse(hashCodeB == rootB.hashCode());
+	}
+
+	@Test
+	public void implementationOfHashCodeShouldReflectChangesWithinCycles() {
+		Node root = new NonTerminalNode("root");
+		Node inner = new IntermediateNode();
+		root.addChild(inner);
+		inner.addChild(root);
+		int hashCode = root.hashCode();
+
+		Node leaf = new IntermediateNode();
+		inner.addChild(leaf);
+		assertFalse(hashCode == root.hashCode());
+		hashCode = root.hashCode();
+
+		leaf.addChild(build());
+		NodeHashCode visitor = new NodeHashCode();
+		root.visit(visitor);
+		assertEquals(visitor.getHashCode(), root.hashCode());
+		assertFalse(hashCode == root.hashCode());
+	}
+
 }
@@ -11,7 +11,10 @@ import java.util.Iterator;
 import org.junit.Test;
 
 import de.claas.parser.rules.CharacterValue;
+import de.claas.parser.rules.Conjunction;
+import de.claas.parser.rules.NonTerminal;
 import de.claas.parser.visitors.Parser;
+import de.claas.parser.visitors.RuleHashCode;
 
 /**
  * The JUnit test for class {@link Rule}. It is intended to collect and document
@@ -276,4 +279,40 @@ public abstract class RuleTest {
 		assertEquals(ruleA.hashCode(), ruleB.hashCode());
 	}
 
+	@Test
+	public void implementationOfHashCodeShouldReflectNestedChanges() {
+		Rule inner = new Conjunction();
+		Rule root = new NonTerminal("root", inner);
+		Rule empty = new NonTerminal("root", new Conjunction());
+		assertEquals(empty.hashCode(), root.hashCode());
+
+		Rule child = build(defaultChildren());
+		inner.addChild(child);
+		RuleHashCode visitor = new RuleHashCode();
+		root.visit(visitor);
+		assertEquals(visitor.getHashCode(), root.hashCode());
+
+		inner.removeChild(child);
+		assertEquals(empty.hashCode(), root.hashCode());
+	}
+
+	@Test
+	public void implementationOfHashCodeShouldReflectChangesWithinCycles() {
+		Conjunction inner = new Conjunction();
+		NonTerminal root = new NonTerminal("root", inner);
+		inner.addChild(root);
+		int hashCode = root.hashCode();
+
+		Rule leaf = new Conjunction();
+		inner.addChild(leaf);
+		assertFalse(hashCode == root.hashCode());
+		hashCode = root.hashCode();
+
+		leaf.addChild(build(defaultChildren()));
+		RuleHashCode visitor = new RuleHashCode();
+		root.visit(visitor);
+		assertEquals(visitor.getHashCode(), root.hashCode());
+		assertFalse(hashCode == root.hashCode());
+	}
+
 }
@@ -42,6 +42,31 @@ public class StateTest {
 		assertEquals(0, state.getGroups());
 	}
 
+	@Test
+	public void shouldTrackOffset() {
+		State state = buildState("hello world");
+		assertEquals(0, state.getOffset());
+		state.beginGroup();
+		assertEquals("hello", state.process(true, "hello"));
+		assertEquals(5, state.getOffset());
+		assertEquals(" ", state.process(' ', ' '));
+		assertEquals(state.getProcessedData().length(), state.getOffset());
+		state.revert();
+		assertEquals(0, state.getOffset());
+	}
+
+	@Test
+	public void shouldSkipData() {
+		State state = buildState("hello world");
+		state.beginGroup();
+		assertEquals("hello", state.skip(5));
+		assertEquals(" world", state.getUnprocessedData());
+		assertNull(state.skip(7));
+		assertEquals("", state.skip(0));
+		state.revert();
+		assertEquals("hello world", state.getUnprocessedData());
+	}
+
 	@Test
 	public void shouldRevertNothing() {
 		State state = buildState("hello world");
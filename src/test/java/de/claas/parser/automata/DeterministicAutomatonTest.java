@@ -0,0 +1,129 @@
+package de.claas.parser.automata;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * The JUnit test for class {@link DeterministicAutomaton}. It is intended to
+ * collect and document a set of test cases for the tested class. Please refer
+ * to the individual tests for more detailed information.
+ *
+ * @author Claas Ahlrichs
+ */
+public class DeterministicAutomatonTest {
+
+	/**
+	 * A helper function that returns an automaton that accepts identifiers
+	 * (i.e. a letter followed by any number of letters or digits). Non-ASCII
+	 * letters from <code>U+00C0</code> to <code>U+00FF</code> are
+	 * accepted as well.
+	 *
+	 * @return an automaton that accepts identifiers
+	 */
+	private static DeterministicAutomaton identifier() {
+		int[] letters = new int[] { 'A', 'Z', 'a', 'z', 0xC0, 0xFF };
+		int[] lettersOrDigits = new int[] { '0', '9', 'A', 'Z', 'a', 'z', 0xC0, 0xFF };
+		NondeterministicAutomaton automaton = new NondeterministicAutomaton();
+		int start = automaton.addState();
+		int accept = automaton.addState();
+		automaton.addTransition(start, letters, accept);
+		automaton.addTransition(accept, lettersOrDigits, accept);
+		int end = automaton.addState();
+		automaton.addEpsilon(accept, end);
+		return automaton.determinize(start, end, 16);
+	}
+
+	@Test
+	public void shouldMatchLongestPrefix() {
+		DeterministicAutomaton automaton = identifier();
+		assertEquals(5, automaton.match("abc12 x", 0));
+		assertEquals(7, automaton.match("abc12 x", 6));
+		assertEquals(-1, automaton.match("1abc", 0));
+		assertEquals(-1, automaton.match("abc", 3));
+	}
+
+	@Test
+	public void shouldMatchNonAsciiCharacters() {
+		DeterministicAutomaton automaton = identifier();
+		assertEquals(4, automaton.match("\u00E4b\u00F6c\u0100", 0));
+		assertEquals(-1, automaton.match("\u0100", 0));
+	}
+
+	@Test
+	public void shouldSkipRunsOfPackedText() {
+		DeterministicAutomaton automaton = identifier();
+		String data = "abcdefghijklmnopqrstuvwxyz0123456789 \u00E4\u00F6abc\u0100";
+		assertEquals(36, automaton.match(new PackedText(data), 0));
+		assertEquals(42, automaton.match(new PackedText(data), 37));
+		assertEquals(automaton.match(data, 37), automaton.match(new PackedText(data), 37));
+
+		int state = automaton.getTransition(0, automaton.getClassOf('a'));
+		assertEquals(36, automaton.skip(state, new PackedText(data), 1));
+		assertEquals(36, automaton.skip(state, data, 1));
+		assertEquals(36, automaton.skip(state, data, 36));
+		assertEquals(0, automaton.skip(0, data, 0));
+	}
+
+	@Test
+	public void shouldTrackFarthestFailure() {
+		// comment = ";" *%x20-7E %d13.10
+		NondeterministicAutomaton nondeterministic = new NondeterministicAutomaton();
+		int start = nondeterministic.addState();
+		int loop = nondeterministic.addState();
+		int carriageReturn = nondeterministic.addState();
+		int accept = nondeterministic.addState();
+		nondeterministic.addTransition(start, new int[] { ';', ';' }, loop, 0, 0);
+		nondeterministic.addTransition(loop, new int[] { 0x20, 0x7E }, loop, 1, 0);
+		nondeterministic.addTransition(loop, new int[] { '\r', '\r' }, carriageReturn, 2, 0);
+		nondeterministic.addTransition(carriageReturn, new int[] { '\n', '\n' }, accept, 2, 1);
+		DeterministicAutomaton automaton = nondeterministic.determinize(start, accept, 16);
+
+		String data = "; abcdefghijklmnopqrstuvwxyz\r!";
+		for (CharSequence text : new CharSequence[] { data, new PackedText(data) }) {
+			FarthestFailure failure = new FarthestFailure();
+			assertEquals(-1, automaton.match(text, 0, failure));
+			assertEquals(28, failure.getOffset());
+			assertEquals(2, failure.size());
+			assertEquals(1, failure.getOrigin(0));
+			assertEquals(2, failure.getOrigin(1));
+		}
+
+		FarthestFailure failure = new FarthestFailure();
+		assertEquals(7, automaton.match(new PackedText("; abc\r\n"), 0, failure));
+		assertEquals(5, failure.getOffset());
+		assertEquals(1, failure.size());
+		assertEquals(1, failure.getOrigin(0));
+		failure.reset();
+		assertEquals(-1, automaton.match("x", 0, failure));
+		assertEquals(0, failure.getOffset());
+		assertEquals(1, failure.size());
+		assertEquals(0, failure.getOrigin(0));
+	}
+
+	@Test
+	public void shouldCompressAlphabet() {
+		DeterministicAutomaton automaton = identifier();
+		assertEquals(3, automaton.getNumberOfClasses());
+		assertEquals(automaton.getClassOf('a'), automaton.getClassOf('\u00E4'));
+		assertEquals(automaton.getClassOf('-'), automaton.getClassOf('\u0100'));
+		assertNotEquals(automaton.getClassOf('a'), automaton.getClassOf('1'));
+	}
+
+	@Test
+	public void shouldProvideTransitions() {
+		DeterministicAutomaton automaton = identifier();
+		assertFalse(automaton.isAccepting(0));
+		assertEquals(-1, automaton.getAccepted(0));
+		int state = automaton.getTransition(0, automaton.getClassOf('a'));
+		assertTrue(state > 0);
+		assertTrue(automaton.isAccepting(state));
+		assertEquals(0, automaton.getAccepted(state));
+		assertEquals(-1, automaton.getTransition(0, automaton.getClassOf('1')));
+		assertEquals(state, automaton.getTransition(state, automaton.getClassOf('1')));
+	}
+
+}
@@ -0,0 +1,89 @@
+package de.claas.parser.automata;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+
+import de.claas.parser.rules.CharacterValue;
+import de.claas.parser.rules.NonTerminal;
+
+/**
+ * The JUnit test for class {@link Lexer}. It is intended to collect and
+ * document a set of test cases for the tested class. Please refer to the
+ * individual tests for more detailed information.
+ *
+ * @author Claas Ahlrichs
+ */
+public class LexerTest {
+
+	private static final NonTerminal KEYWORD = new NonTerminal("keyword", new CharacterValue(true, "if"));
+	private static final NonTerminal NAME = new NonTerminal("name");
+
+	/**
+	 * A helper function that returns a lexer for the keyword <code>if</code>
+	 * and for names (i.e. one or more lower case letters). The keyword takes
+	 * precedence over names.
+	 *
+	 * @param caseInsensitive
+	 *            whether the lexer is case-insensitive
+	 * @return a lexer for keywords and names
+	 */
+	static Lexer build(boolean caseInsensitive) {
+		NondeterministicAutomaton automaton = new NondeterministicAutomaton();
+		int start = automaton.addState();
+		int keyword = automaton.addState();
+		int name = automaton.addState();
+		int i = automaton.addState();
+		int letters = automaton.addState();
+		automaton.addTransition(start, new int[] { 'i', 'i' }, i);
+		automaton.addTransition(i, new int[] { 'f', 'f' }, keyword);
+		automaton.addTransition(start, new int[] { 'a', 'z' }, letters);
+		automaton.addTransition(letters, new int[] { 'a', 'z' }, letters);
+		automaton.addEpsilon(letters, name);
+		DeterministicAutomaton deterministic = automaton.determinize(start, new int[] { keyword, name }, 16);
+		Set<String> none = Collections.emptySet();
+		return new Lexer(Arrays.asList(KEYWORD, NAME), Arrays.asList(none, new HashSet<>(Arrays.asList("letter"))),
+				deterministic, caseInsensitive);
+	}
+
+	@Test
+	public void shouldProvideKinds() {
+		Lexer lexer = build(false);
+		assertEquals(Arrays.asList(KEYWORD, NAME), lexer.getRules());
+		assertEquals(0, lexer.getKind(KEYWORD));
+		assertEquals(1, lexer.getKind(NAME));
+		assertEquals(-1, lexer.getKind(new NonTerminal("name")));
+	}
+
+	@Test
+	public void shouldProvideNestedNames() {
+		Lexer lexer = build(false);
+		assertTrue(lexer.getNestedNames(KEYWORD).isEmpty());
+		assertEquals(new HashSet<>(Arrays.asList("letter")), lexer.getNestedNames(NAME));
+		assertTrue(lexer.getNestedNames(new NonTerminal("other")).isEmpty());
+	}
+
+	@Test
+	public void shouldTokenizeData() {
+		assertFalse(build(false).isCaseInsensitive());
+		assertNotNull(build(false).tokenize("stra\u00DFe"));
+		assertTrue(build(true).isCaseInsensitive());
+		assertNotNull(build(true).tokenize("street"));
+		assertNull(build(true).tokenize("stra\u00DFe"));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void shouldRequireNestedNamesForEveryRule() {
+		new Lexer(Arrays.asList(KEYWORD, NAME), Collections.emptyList(), build(false).getAutomaton(), false);
+	}
+
+}
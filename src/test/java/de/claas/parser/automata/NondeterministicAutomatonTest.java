@@ -0,0 +1,158 @@
+package de.claas.parser.automata;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.BitSet;
+
+import org.junit.Test;
+
+/**
+ * The JUnit test for class {@link NondeterministicAutomaton}. It is intended
+ * to collect and document a set of test cases for the tested class. Please
+ * refer to the individual tests for more detailed information.
+ *
+ * @author Claas Ahlrichs
+ */
+public class NondeterministicAutomatonTest {
+
+	@Test
+	public void shouldPartitionCharactersIntoClasses() {
+		NondeterministicAutomaton automaton = new NondeterministicAutomaton();
+		int start = automaton.addState();
+		int accept = automaton.addState();
+		automaton.addTransition(start, new int[] { 'a', 'z' }, accept);
+		automaton.addTransition(start, new int[] { '0', '9', 'x', 'x' }, accept);
+
+		assertEquals(automaton.getClassOf('a'), automaton.getClassOf('w'));
+		assertEquals(automaton.getClassOf('y'), automaton.getClassOf('z'));
+		assertEquals(automaton.getClassOf('0'), automaton.getClassOf('9'));
+		assertEquals(automaton.getClassOf('#'), automaton.getClassOf('\uFFFF'));
+		assertNotEquals(automaton.getClassOf('a'), automaton.getClassOf('x'));
+		assertNotEquals(automaton.getClassOf('x'), automaton.getClassOf('0'));
+		assertNotEquals(automaton.getClassOf('a'), automaton.getClassOf('#'));
+	}
+
+	@Test
+	public void shouldDeterminizeFragments() {
+		NondeterministicAutomaton automaton = new NondeterministicAutomaton();
+		int start = automaton.addState();
+		int a = automaton.addState();
+		int ab = automaton.addState();
+		int accept = automaton.addState();
+		automaton.addTransition(start, new int[] { 'a', 'a' }, a);
+		automaton.addTransition(start, new int[] { 'a', 'a' }, ab);
+		automaton.addEpsilon(a, accept);
+		int b = automaton.addState();
+		automaton.addTransition(ab, new int[] { 'b', 'b' }, b);
+		automaton.addEpsilon(b, accept);
+
+		DeterministicAutomaton deterministic = automaton.determinize(start, accept, 16);
+		assertEquals(2, deterministic.match("abb", 0));
+		assertEquals(1, deterministic.match("ac", 0));
+		assertEquals(-1, deterministic.match("b", 0));
+		assertNull(automaton.determinize(start, accept, 2));
+	}
+
+	@Test
+	public void shouldDeterminizeSeveralFragments() {
+		NondeterministicAutomaton automaton = new NondeterministicAutomaton();
+		int start = automaton.addState();
+		int keyword = automaton.addState();
+		int identifier = automaton.addState();
+		int i = automaton.addState();
+		int letters = automaton.addState();
+		automaton.addTransition(start, new int[] { 'i', 'i' }, i);
+		automaton.addTransition(i, new int[] { 'f', 'f' }, keyword);
+		automaton.addTransition(start, new int[] { 'a', 'z' }, letters);
+		automaton.addTransition(letters, new int[] { 'a', 'z' }, letters);
+		automaton.addEpsilon(letters, identifier);
+
+		DeterministicAutomaton deterministic = automaton.determinize(start, new int[] { keyword, identifier }, 16);
+		int state = 0;
+		for (char c : "if".toCharArray())
+			state = deterministic.getTransition(state, deterministic.getClassOf(c));
+		assertEquals(0, deterministic.getAccepted(state));
+		state = deterministic.getTransition(state, deterministic.getClassOf('x'));
+		assertEquals(1, deterministic.getAccepted(state));
+		assertEquals(-1, deterministic.getAccepted(0));
+		assertEquals(3, deterministic.match("ifx", 0));
+	}
+
+	@Test
+	public void shouldMinimizeDeterministicAutomata() {
+		NondeterministicAutomaton automaton = new NondeterministicAutomaton();
+		int start = automaton.addState();
+		int accept = automaton.addState();
+		int a = automaton.addState();
+		int b = automaton.addState();
+		automaton.addTransition(start, new int[] { 'a', 'a' }, a);
+		automaton.addTransition(start, new int[] { 'b', 'b' }, b);
+		automaton.addEpsilon(a, start);
+		automaton.addEpsilon(b, start);
+		automaton.addEpsilon(start, accept);
+
+		DeterministicAutomaton deterministic = automaton.determinize(start, accept, 16);
+		assertEquals(1, deterministic.getNumberOfStates());
+		assertEquals(4, deterministic.skip(0, new PackedText("abba"), 0));
+		assertEquals(4, deterministic.match("abbac", 0));
+	}
+
+	@Test
+	public void shouldIgnoreTransitionsThatLeaveTheAcceptingState() {
+		NondeterministicAutomaton automaton = new NondeterministicAutomaton();
+		int start = automaton.addState();
+		int accept = automaton.addState();
+		int next = automaton.addState();
+		automaton.addTransition(start, new int[] { 'a', 'a' }, accept);
+		automaton.addTransition(accept, new int[] { 'b', 'b' }, next);
+		automaton.addEpsilon(next, accept);
+
+		assertEquals(1, automaton.determinize(start, accept, 16).match("ab", 0));
+		assertEquals(2, automaton.determinize(start, next, 16).match("ab", 0));
+	}
+
+	@Test
+	public void shouldAnalyzeFragments() {
+		NondeterministicAutomaton automaton = new NondeterministicAutomaton();
+		int start = automaton.addState();
+		int accept = automaton.addState();
+		automaton.addTransition(start, new int[] { 'a', 'a' }, accept);
+		automaton.addTransition(accept, new int[] { 'b', 'b' }, start);
+		automaton.addEpsilon(start, accept);
+		int loop = automaton.addState();
+		automaton.addTransition(start, new int[] { 'c', 'c' }, loop);
+		automaton.addTransition(loop, new int[] { 'c', 'c' }, loop);
+		automaton.addEpsilon(loop, accept);
+
+		assertTrue(automaton.isNullable(start, accept));
+		assertFalse(automaton.isNullable(start, loop));
+
+		BitSet first = automaton.getFirstClasses(start, accept, 16);
+		assertTrue(first.get(automaton.getClassOf('a')));
+		assertTrue(first.get(automaton.getClassOf('c')));
+		assertFalse(first.get(automaton.getClassOf('b')));
+
+		BitSet continuation = automaton.getContinuationClasses(start, accept, 16);
+		assertTrue(continuation.get(automaton.getClassOf('a')));
+		assertTrue(continuation.get(automaton.getClassOf('c')));
+		assertFalse(continuation.get(automaton.getClassOf('b')));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void shouldRejectUnsortedRanges() {
+		NondeterministicAutomaton automaton = new NondeterministicAutomaton();
+		int state = automaton.addState();
+		automaton.addTransition(state, new int[] { 'x', 'z', 'a', 'c' }, state);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void shouldRejectUnknownStates() {
+		NondeterministicAutomaton automaton = new NondeterministicAutomaton();
+		automaton.addEpsilon(automaton.addState(), 1);
+	}
+
+}
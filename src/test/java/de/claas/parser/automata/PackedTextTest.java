@@ -0,0 +1,72 @@
+package de.claas.parser.automata;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * The JUnit test for class {@link PackedText}. It is intended to collect and
+ * document a set of test cases for the tested class. Please refer to the
+ * individual tests for more detailed information.
+ *
+ * @author Claas Ahlrichs
+ */
+public class PackedTextTest {
+
+	private static final long[] DIGITS = PackedText.bounds(new int[] { '0', '9' });
+	private static final long[] WHITE_SPACE = PackedText.bounds(new int[] { 0x09, 0x09, 0x20, 0x20 });
+
+	@Test
+	public void shouldBehaveLikeText() {
+		PackedText text = new PackedText("a\u00E4b");
+		assertEquals(3, text.length());
+		assertEquals('\u00E4', text.charAt(1));
+		assertEquals("\u00E4b", text.subSequence(1, 3));
+		assertEquals("a\u00E4b", text.toString());
+	}
+
+	@Test
+	public void shouldSkipRuns() {
+		PackedText text = new PackedText("1234567890123x45");
+		assertEquals(13, text.skip(0, DIGITS));
+		assertEquals(13, text.skip(5, DIGITS));
+		assertEquals(13, text.skip(13, DIGITS));
+		assertEquals(16, text.skip(14, DIGITS));
+		assertEquals(16, text.skip(16, DIGITS));
+	}
+
+	@Test
+	public void shouldSkipRunsOfSeveralRanges() {
+		PackedText text = new PackedText(" \t \t         \t\t  x");
+		assertEquals(17, text.skip(0, WHITE_SPACE));
+		assertEquals(0, text.skip(0, DIGITS));
+	}
+
+	@Test
+	public void shouldStopAtNonAsciiCharacters() {
+		PackedText text = new PackedText("12\u06601");
+		assertEquals(2, text.skip(0, DIGITS));
+		assertEquals(4, text.skip(3, DIGITS));
+		assertEquals(0, new PackedText("\u0080").skip(0, PackedText.bounds(new int[] { 0x00, 0x7F })));
+	}
+
+	@Test
+	public void shouldSkipEveryPosition() {
+		StringBuilder builder = new StringBuilder();
+		for (int i = 0; i < 40; i++)
+			builder.append(i % 11 == 10 ? '-' : (char) ('0' + i % 10));
+		PackedText text = new PackedText(builder.toString());
+		for (int offset = 0; offset <= builder.length(); offset++) {
+			int expected = offset;
+			while (expected < builder.length() && builder.charAt(expected) != '-')
+				expected++;
+			assertEquals(expected, text.skip(offset, DIGITS));
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void shouldRejectNonAsciiRanges() {
+		PackedText.bounds(new int[] { 'a', 0xFF });
+	}
+
+}
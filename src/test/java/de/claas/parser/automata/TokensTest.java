@@ -0,0 +1,51 @@
+package de.claas.parser.automata;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * The JUnit test for class {@link Tokens}. It is intended to collect and
+ * document a set of test cases for the tested class. Please refer to the
+ * individual tests for more detailed information.
+ *
+ * @author Claas Ahlrichs
+ */
+public class TokensTest {
+
+	@Test
+	public void shouldSplitDataFromLeftToRight() {
+		Tokens tokens = LexerTest.build(false).tokenize("if iffy, x");
+		assertEquals("if iffy, x", tokens.getData());
+		assertEquals(3, tokens.size());
+		assertEquals(0, tokens.getStart(0));
+		assertEquals(3, tokens.getStart(1));
+		assertEquals(9, tokens.getStart(2));
+	}
+
+	@Test
+	public void shouldPreferLongestTokens() {
+		Tokens tokens = LexerTest.build(false).tokenize("if iffy");
+		assertEquals(0, tokens.getKind(0));
+		assertEquals(2, tokens.getEnd(0));
+		assertEquals(1, tokens.getKind(3));
+		assertEquals(7, tokens.getEnd(3));
+	}
+
+	@Test
+	public void shouldDetermineTokensOnDemand() {
+		Tokens tokens = LexerTest.build(false).tokenize("xif, ");
+		assertEquals(0, tokens.getKind(1));
+		assertEquals(3, tokens.getEnd(1));
+		assertEquals(1, tokens.getKind(2));
+		assertEquals(-1, tokens.getKind(3));
+		assertEquals(-1, tokens.getEnd(3));
+		assertEquals(-1, tokens.getKind(5));
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void shouldRejectUnknownTokens() {
+		LexerTest.build(false).tokenize("if").getStart(1);
+	}
+
+}
@@ -1,6 +1,7 @@
 package de.claas.parser.grammars;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 import org.junit.Test;
 
@@ -14,6 +15,7 @@ import de.claas.parser.rules.Disjunction;
 import de.claas.parser.rules.NonTerminal;
 import de.claas.parser.rules.Optional;
 import de.claas.parser.rules.Repetition;
+import de.claas.parser.rules.SeparatedRepetition;
 import de.claas.parser.visitors.InterpreterTest;
 import de.claas.parser.visitors.RuleToString;
 
@@ -150,4 +152,33 @@ public class AugmentedBackusNaurInterpreterTest extends InterpreterTest<Rule> {
 		return new NonTerminal(language, rule);
 	}
 
+	@Test
+	public void shouldBeSeparatedRepetition() {
+		String data = "list = item *(\",\" item)\r\n" + "item = \"a\"\r\n";
+		NonTerminal item = new NonTerminal("item", new CharacterValue("a"));
+		NonTerminal expected = new NonTerminal("list",
+				new SeparatedRepetition(item, new CharacterValue(","), 1, Integer.MAX_VALUE));
+
+		AugmentedBackusNaurInterpreter interpreter = new AugmentedBackusNaurInterpreter(true);
+		new AugmentedBackusNaur().parse(data).visit(interpreter);
+		assertEquals(expected, interpreter.getResult());
+
+		interpreter = build();
+		new AugmentedBackusNaur().parse(data).visit(interpreter);
+		assertTrue(((NonTerminal) interpreter.getResult()).getRule() instanceof Conjunction);
+	}
+
+	@Test
+	public void shouldBeOptionalSeparatedRepetition() {
+		String data = "list = \"[\" [item *2(\";\" \" \" item)] \"]\"\r\n" + "item = \"a\"\r\n";
+		NonTerminal item = new NonTerminal("item", new CharacterValue("a"));
+		Rule separator = new Conjunction(new CharacterValue(";"), new CharacterValue(" "));
+		NonTerminal expected = new NonTerminal("list", new Conjunction(new CharacterValue("["),
+				new SeparatedRepetition(item, separator, 0, 3), new CharacterValue("]")));
+
+		AugmentedBackusNaurInterpreter interpreter = new AugmentedBackusNaurInterpreter(true);
+		new AugmentedBackusNaur().parse(data).visit(interpreter);
+		assertEquals(expected, interpreter.getResult());
+	}
+
 }
@@ -9,13 +9,17 @@ import org.junit.Test;
 
 import de.claas.parser.Rule;
 import de.claas.parser.exceptions.CyclicRuleException;
+import de.claas.parser.rules.AndPredicate;
 import de.claas.parser.rules.CharacterValue;
 import de.claas.parser.rules.Conjunction;
+import de.claas.parser.rules.Cut;
 import de.claas.parser.rules.Disjunction;
 import de.claas.parser.rules.NonTerminal;
+import de.claas.parser.rules.NotPredicate;
 import de.claas.parser.rules.NumberValue;
 import de.claas.parser.rules.Optional;
 import de.claas.parser.rules.Repetition;
+import de.claas.parser.rules.SeparatedRepetition;
 import de.claas.parser.visitors.RuleVisitorTest;
 
 /**
@@ -76,6 +80,43 @@ public class AugmentedBackusNaurPrinterTest extends RuleVisitorTest {
 		assertEquals("ruleName = *(('A' / 'B' / 'C'))", printer.toString());
 	}
 
+	@Override
+	public void shouldHandleSeparatedRepetitionRule() {
+		NonTerminal rule = new NonTerminal(NAME, new SeparatedRepetition(ALPHA, NUM, 1, Integer.MAX_VALUE));
+		AugmentedBackusNaurPrinter printer = new AugmentedBackusNaurPrinter();
+		rule.visit(printer);
+		assertEquals("ruleName = (('A' / 'B' / 'C') *(%x30-33 ('A' / 'B' / 'C')))", printer.toString());
+
+		rule = new NonTerminal(NAME, new SeparatedRepetition(ALPHA, NUM, 0, 3));
+		printer = new AugmentedBackusNaurPrinter();
+		rule.visit(printer);
+		assertEquals("ruleName = *1((('A' / 'B' / 'C') *2(%x30-33 ('A' / 'B' / 'C'))))", printer.toString());
+	}
+
+	@Override
+	public void shouldHandleAndPredicateRule() {
+		NonTerminal rule = new NonTerminal(NAME, new AndPredicate(ALPHA));
+		AugmentedBackusNaurPrinter printer = new AugmentedBackusNaurPrinter();
+		rule.visit(printer);
+		assertEquals("ruleName = &(('A' / 'B' / 'C'))", printer.toString());
+	}
+
+	@Override
+	public void shouldHandleNotPredicateRule() {
+		NonTerminal rule = new NonTerminal(NAME, new NotPredicate(ALPHA));
+		AugmentedBackusNaurPrinter printer = new AugmentedBackusNaurPrinter();
+		rule.visit(printer);
+		assertEquals("ruleName = !(('A' / 'B' / 'C'))", printer.toString());
+	}
+
+	@Override
+	public void shouldHandleCutRule() {
+		NonTerminal rule = new NonTerminal(NAME, new Conjunction(ALPHA, new Cut(), NUM));
+		AugmentedBackusNaurPrinter printer = new AugmentedBackusNaurPrinter();
+		rule.visit(printer);
+		assertEquals("ruleName = (('A' / 'B' / 'C') ^ %x30-33)", printer.toString());
+	}
+
 	@Override
 	public void shouldHandleTerminalRule() {
 		NonTerminal rule = new NonTerminal(NAME, ALPHA);
@@ -1,18 +1,27 @@
 package de.claas.parser.grammars;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
 import java.util.List;
 
 import org.junit.Test;
 
 import de.claas.parser.Grammar;
 import de.claas.parser.GrammarTest;
+import de.claas.parser.MemoizationProfile;
 import de.claas.parser.Node;
 import de.claas.parser.Rule;
 import de.claas.parser.builders.AugmentedBackusNaurBuilder;
+import de.claas.parser.exceptions.ParserException;
+import de.claas.parser.results.ErrorNode;
+import de.claas.parser.results.NonTerminalNode;
 import de.claas.parser.rules.CharacterValue;
 import de.claas.parser.rules.Conjunction;
 import de.claas.parser.rules.Disjunction;
@@ -300,6 +309,160 @@ public class AugmentedBackusNaurTest extends GrammarTest<AugmentedBackusNaur> {
 		assertEquals(expected, actual);
 	}
 
+	@Test
+	public void shouldReportLineAndColumn() {
+		Grammar grammar = build();
+		try {
+			grammar.parse("a = b\r\nc = ?\r\n");
+			fail("Expected ParserException.");
+		} catch (ParserException e) {
+			assertEquals(11, e.getOffset());
+			assertEquals(2, e.getLine());
+			assertEquals(5, e.getColumn());
+			assertTrue(e.getExpected().contains("%x22"));
+			assertTrue(e.getMessage().contains("line 2, column 5"));
+		}
+	}
+
+	@Test
+	public void shouldRecoverFromInvalidRules() {
+		Grammar grammar = build();
+		grammar.setSyncRules("rule", "c-nl");
+		List<ParserException> errors = new ArrayList<>();
+		Node actual = grammar.parseWithRecovery("a = b\r\nc = ?\r\nd = e\r\nf = (\r\ng = h\r\n", errors);
+
+		assertEquals(2, errors.size());
+		assertEquals(11, errors.get(0).getOffset());
+		assertEquals(2, errors.get(0).getLine());
+		assertEquals(28, errors.get(1).getOffset());
+		assertEquals(5, errors.get(1).getLine());
+
+		List<String> skipped = new ArrayList<>();
+		List<String> rules = new ArrayList<>();
+		for (Node child : actual) {
+			if (child instanceof ErrorNode)
+				skipped.add(((ErrorNode) child).getTerminal());
+			else if (child instanceof NonTerminalNode && "rule".equals(((NonTerminalNode) child).getName()))
+				rules.add(child.iterator().next().toString());
+		}
+		assertEquals(Arrays.asList("c = ?", "f = ("), skipped);
+		assertEquals(3, rules.size());
+	}
+
+	@Test
+	public void shouldRecoverLikeParseWithoutErrors() {
+		Grammar grammar = build();
+		grammar.setSyncRules("rule", "c-nl");
+		List<ParserException> errors = new ArrayList<>();
+		String data = "a = b\r\nd = e\r\n";
+		assertEquals(grammar.parse(data), grammar.parseWithRecovery(data, errors));
+		assertTrue(errors.isEmpty());
+	}
+
+	@Test
+	public void shouldNotRecoverWithoutSyncRules() {
+		Grammar grammar = build();
+		List<ParserException> errors = new ArrayList<>();
+		Node actual = grammar.parseWithRecovery("a = b\r\nc = ?\r\n", errors);
+		assertEquals(grammar.parse("a = b\r\n"), actual);
+		assertEquals(1, errors.size());
+		assertEquals(11, errors.get(0).getOffset());
+	}
+
+	@Test
+	public void shouldRecoverFromInvalidStart() {
+		Grammar grammar = build();
+		grammar.setSyncRules("rule", "c-nl");
+		List<ParserException> errors = new ArrayList<>();
+		Node actual = grammar.parseWithRecovery("?\r\na = b\r\n", errors);
+		assertEquals(1, errors.size());
+		assertEquals(0, errors.get(0).getOffset());
+		assertEquals(new ErrorNode("?"), actual.iterator().next());
+	}
+
+	@Test
+	public void shouldMatchRegularRules() {
+		Grammar grammar = build();
+		Grammar compiled = build();
+		compiled.setRegularMatching(true);
+		assertTrue(compiled.isRegularMatching());
+
+		String data = "rule = %x41-5A / \"hel\" *2(\"lo\" / other) ; comment\r\nother =/ [%d13.10] <prose>\r\n";
+		assertEquals(grammar.parse(data, true), compiled.parse(data, true));
+		assertEquals(grammar.parseCompact(data).toNode(), compiled.parseCompact(data).toNode());
+		try {
+			compiled.parse("a = b\r\nc = ?\r\n");
+			fail("Expected ParserException.");
+		} catch (ParserException e) {
+			assertEquals(11, e.getOffset());
+			assertTrue(e.getExpected().contains("%x22"));
+		}
+	}
+
+	@Test
+	public void shouldReportFailuresOfRegularRules() {
+		Grammar grammar = build();
+		Grammar compiled = build();
+		compiled.setRegularMatching(true);
+
+		String data = "rule = %x41-5A / \"hel\" *2(\"lo\" / other) ; comment\r\nother =/ [%d13.10] <prose>\r\n";
+		for (int i = 0; i < data.length(); i++) {
+			for (String invalid : Arrays.asList(data.substring(0, i), data.substring(0, i) + "?")) {
+				ParserException expected = getFailure(grammar, invalid);
+				ParserException actual = getFailure(compiled, invalid);
+				if (expected == null || actual == null) {
+					assertEquals(invalid, expected, actual);
+					continue;
+				}
+				assertEquals(invalid, expected.getOffset(), actual.getOffset());
+				assertEquals(invalid, expected.getExpected(), actual.getExpected());
+				assertEquals(invalid, expected.getRule(), actual.getRule());
+			}
+		}
+	}
+
+	@Test
+	public void shouldParseLexicalRules() {
+		Grammar grammar = build();
+		Grammar lexed = build();
+		lexed.setLexicalRules("rulename", "repeat", "char-val", "num-val", "prose-val", "c-wsp", "c-nl");
+		assertEquals(new LinkedHashSet<>(Arrays.asList("rulename", "repeat", "char-val", "num-val", "prose-val",
+				"c-wsp", "c-nl")), lexed.getLexicalRules());
+
+		String data = "rule = %x41-5A / \"hel\" *2(\"lo\" / other) ; comment\r\nother =/ [%d13.10] <prose>\r\n";
+		assertEquals(grammar.parse(data, true), lexed.parse(data, true));
+		assertEquals(grammar.parseCompact(data).toNode(), lexed.parseCompact(data).toNode());
+		try {
+			lexed.parse("a = b\r\nc = ?\r\n");
+			fail("Expected ParserException.");
+		} catch (ParserException e) {
+			assertEquals(11, e.getOffset());
+			assertTrue(e.getExpected().contains("char-val"));
+		}
+	}
+
+	@Test
+	public void shouldAdaptMemoization() {
+		Grammar grammar = build();
+		Grammar memoized = build();
+		String data = "rule = %x41-5A / \"hel\" *2(\"lo\" / other) ; comment\r\nother =/ [%d13.10] <prose>\r\n";
+		MemoizationProfile profile = memoized.adaptMemoization(data);
+		assertEquals(profile.getRecommendedRules(), memoized.getMemoizedRules());
+		assertTrue(memoized.getMemoizedRules().contains("element"));
+		assertFalse(memoized.getMemoizedRules().contains("rulelist"));
+		assertTrue(profile.toString().contains("element"));
+
+		assertEquals(grammar.parse(data, true), memoized.parse(data, true));
+		assertEquals(grammar.parseCompact(data).toNode(), memoized.parseCompact(data).toNode());
+		try {
+			memoized.parse("a = b\r\nc = ?\r\n");
+			fail("Expected ParserException.");
+		} catch (ParserException e) {
+			assertEquals(11, e.getOffset());
+			assertTrue(e.getExpected().contains("%x22"));
+		}
+	}
+
 	@Test
 	public void shouldHandleComment() {
 		Grammar grammar = build();
@@ -365,4 +528,23 @@ public class AugmentedBackusNaurTest extends GrammarTest<AugmentedBackusNaur> {
 		assertNotNull(grammar.parse(data, false));
 	}
 
+	/**
+	 * A helper function that parses the specified data and returns the
+	 * resulting exception or <code>null</code> if the data is valid.
+	 *
+	 * @param grammar
+	 *            the grammar
+	 * @param data
+	 *            the data
+	 * @return the exception or <code>null</code>
+	 */
+	private static ParserException getFailure(Grammar grammar, String data) {
+		try {
+			grammar.parse(data);
+			return null;
+		} catch (ParserException e) {
+			return e;
+		}
+	}
+
 }
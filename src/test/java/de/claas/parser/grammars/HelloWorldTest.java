@@ -1,14 +1,22 @@
 package de.claas.parser.grammars;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
 
 import org.junit.Test;
 
 import de.claas.parser.Grammar;
 import de.claas.parser.GrammarTest;
 import de.claas.parser.Node;
+import de.claas.parser.ParseListener;
+import de.claas.parser.ParserLimits;
 import de.claas.parser.builders.HelloWorldBuilder;
 import de.claas.parser.exceptions.ParserException;
+import de.claas.parser.exceptions.ParserLimitException;
+import de.claas.parser.results.NodeInterner;
 
 /**
  * The JUnit test for class {@link HelloWorld}. It is intended to collect and
@@ -24,6 +32,17 @@ public class HelloWorldTest extends GrammarTest<HelloWorld> {
 		return new HelloWorld();
 	}
 
+	@Test
+	public void shouldShareIdenticalTrees() {
+		Grammar grammar = build();
+		grammar.setInterner(new NodeInterner());
+		Node actual = grammar.parse("hello world");
+		Node expected = new HelloWorldBuilder("en", "hello", "world").build();
+		assertEquals(expected, actual);
+		assertSame(actual, grammar.parse("hello world"));
+		assertSame(actual, grammar.tryParse("hello world"));
+	}
+
 	@Test
 	public void shouldHandleDE() {
 		Grammar grammar = build();
@@ -56,6 +75,71 @@ public class HelloWorldTest extends GrammarTest<HelloWorld> {
 		assertEquals(expected, actual);
 	}
 
+	@Test
+	public void shouldReportFinalDerivationOnly() {
+		Grammar grammar = build();
+		String data = "hola mundo";
+		StringBuilder events = new StringBuilder();
+		grammar.parse(data, new ParseListener() {
+
+			@Override
+			public void enterNonTerminal(String name, int start) {
+				events.append('(').append(name);
+			}
+
+			@Override
+			public void exitNonTerminal(String name, int start, int end) {
+				events.append(')');
+			}
+
+			@Override
+			public void terminal(int start, int end) {
+				events.append(' ').append(data.substring(start, end));
+			}
+		});
+		assertEquals("(hello-world(es hola   mundo))", events.toString());
+	}
+
+	@Test
+	public void shouldNotReportInvalidData() {
+		Grammar grammar = build();
+		StringBuilder events = new StringBuilder();
+		assertFalse(grammar.tryParse("hola welt", new ParseListener() {
+
+			@Override
+			public void enterNonTerminal(String name, int start) {
+				events.append(name);
+			}
+
+			@Override
+			public void exitNonTerminal(String name, int start, int end) {
+				events.append(name);
+			}
+
+			@Override
+			public void terminal(int start, int end) {
+				events.append(start);
+			}
+		}));
+		assertEquals("", events.toString());
+	}
+
+	@Test(expected = ParserLimitException.class)
+	public void shouldApplyLimits() {
+		Grammar grammar = build();
+		ParserLimits limits = new ParserLimits();
+		limits.setMaximumBacktracks(2);
+		grammar.setLimits(limits);
+		grammar.tryParse("hola mundo");
+	}
+
+	@Test(expected = ParserException.class)
+	public void shouldNotRecoverWithoutRecoveryPoints() {
+		Grammar grammar = build();
+		grammar.setSyncRules("en", "de");
+		grammar.parseWithRecovery("hello welt", new ArrayList<>());
+	}
+
 	@Test(expected = ParserException.class)
 	public void shouldNotHandleMixedLanguages() {
 		Grammar grammar = build();
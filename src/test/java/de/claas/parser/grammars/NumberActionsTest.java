@@ -0,0 +1,101 @@
+package de.claas.parser.grammars;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+import de.claas.parser.Grammar;
+import de.claas.parser.exceptions.ParserException;
+
+/**
+ * The JUnit test for class {@link NumberActions}. It is intended to collect and
+ * document a set of test cases for the tested class. Please refer to the
+ * individual tests for more detailed information.
+ *
+ * @author Claas Ahlrichs
+ */
+public class NumberActionsTest {
+
+	@Test
+	public void shouldBeIntegers() {
+		Grammar grammar = new Number();
+		assertEquals(new Integer(23), grammar.evaluate("23", new NumberActions()));
+		assertEquals(new Integer(-42), grammar.evaluate("-42", new NumberActions()));
+		assertEquals(new Integer(0), grammar.evaluate("0", new NumberActions()));
+	}
+
+	@Test
+	public void shouldBeFractionalNumbers() {
+		Grammar grammar = new Number();
+		assertEquals(new Double(12.01), grammar.evaluate("12.01", new NumberActions()));
+		assertEquals(new Double(-42.5), grammar.evaluate("-42.5", new NumberActions()));
+	}
+
+	@Test
+	public void shouldBeExponentialNumbers() {
+		Grammar grammar = new Number();
+		assertEquals(new Double(23e-9), grammar.evaluate("23e-9", new NumberActions()));
+		assertEquals(new Double(-42e8), grammar.evaluate("-42E+8", new NumberActions()));
+		assertEquals(new Double(-4e3), grammar.evaluate("-4e3", new NumberActions()));
+		assertEquals(new Double(2.5e2), grammar.evaluate("2.5e2", new NumberActions()));
+	}
+
+	@Test
+	public void shouldBeLargestIntegers() {
+		Grammar grammar = new Number();
+		assertEquals(new Integer(Integer.MAX_VALUE), grammar.evaluate("2147483647", new NumberActions()));
+		assertEquals(new Integer(-Integer.MAX_VALUE), grammar.evaluate("-2147483647", new NumberActions()));
+		assertEquals(new Double(2147483647.5), grammar.evaluate("2147483647.5", new NumberActions()));
+		assertEquals(new Double(Double.POSITIVE_INFINITY), grammar.evaluate("1e2147483647", new NumberActions()));
+	}
+
+	@Test(expected = NumberFormatException.class)
+	public void shouldFailForTooLargeIntegers() {
+		Grammar grammar = new Number();
+		grammar.evaluate("2147483648", new NumberActions());
+	}
+
+	@Test(expected = NumberFormatException.class)
+	public void shouldFailForMuchTooLargeIntegers() {
+		Grammar grammar = new Number();
+		grammar.evaluate("99999999999", new NumberActions());
+	}
+
+	@Test(expected = NumberFormatException.class)
+	public void shouldFailForTooLargeIntegerParts() {
+		Grammar grammar = new Number();
+		grammar.evaluate("12345678901.5", new NumberActions());
+	}
+
+	@Test(expected = NumberFormatException.class)
+	public void shouldFailForTooLargeExponents() {
+		Grammar grammar = new Number();
+		grammar.evaluate("1e2147483648", new NumberActions());
+	}
+
+	@Test
+	public void shouldMatchInterpreter() {
+		Grammar grammar = new Number();
+		String[] numbers = { "1", "-7", "3.25", "-0.5", "7e+2", "-1.5E-2", "12.01e+1", "2147483647",
+				"1.12345678901", "2147483647.12345678901" };
+		for (String number : numbers) {
+			NumberInterpreter interpreter = new NumberInterpreter();
+			grammar.parse(number).visit(interpreter);
+			assertEquals(interpreter.getResult(), grammar.evaluate(number, new NumberActions()));
+		}
+	}
+
+	@Test
+	public void shouldNotEvaluateInvalidNumbers() {
+		Grammar grammar = new Number();
+		assertNull(grammar.tryEvaluate("+1", new NumberActions()));
+	}
+
+	@Test(expected = ParserException.class)
+	public void shouldFailForInvalidNumbers() {
+		Grammar grammar = new Number();
+		grammar.evaluate("01", new NumberActions());
+	}
+
+}
@@ -1,6 +1,12 @@
 package de.claas.parser.grammars;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
 
 import org.junit.Test;
 
@@ -8,6 +14,10 @@ import de.claas.parser.Grammar;
 import de.claas.parser.GrammarTest;
 import de.claas.parser.builders.NumberBuilder;
 import de.claas.parser.exceptions.ParserException;
+import de.claas.parser.results.CompactTree;
+import de.claas.parser.rules.CharacterValue;
+import de.claas.parser.rules.NonTerminal;
+import de.claas.parser.rules.Repetition;
 
 /**
  * The JUnit test for class {@link Number}. It is intended to collect and
@@ -55,6 +65,82 @@ public class NumberTest extends GrammarTest<Number> {
 		assertEquals(new NumberBuilder("0").build(), grammar.parse("0"));
 	}
 
+	@Test
+	public void shouldParseCompactly() {
+		Grammar grammar = build();
+		CompactTree tree = grammar.parseCompact("-42.1e-66");
+		assertEquals("number", tree.getName(0));
+		assertEquals("-42.1e-66", tree.getText(0));
+		assertEquals(grammar.parse("-42.1e-66"), tree.toNode());
+		assertNull(grammar.tryParseCompact("+1"));
+	}
+
+	@Test
+	public void shouldSkipImplicitly() {
+		Grammar grammar = build();
+		NonTerminal space = new NonTerminal("space", new Repetition(new CharacterValue(" ")));
+		grammar.setSkipRule(space, "number", "frac");
+		assertEquals(space, grammar.getSkipRule());
+		assertEquals(new LinkedHashSet<>(Arrays.asList("number", "frac")), grammar.getSkippingRules());
+		assertEquals(build().parse("-42.1e5"), grammar.parse("- 42 . 1 e5 "));
+		try {
+			grammar.parse("-4 2");
+			fail("Expected ParserException.");
+		} catch (ParserException e) {
+			assertEquals(3, e.getOffset());
+		}
+		try {
+			grammar.parse("-42.1e 5");
+			fail("Expected ParserException.");
+		} catch (ParserException e) {
+			assertEquals(6, e.getOffset());
+		}
+
+		grammar.setSkipRule(null);
+		assertNull(grammar.getSkipRule());
+		assertTrue(grammar.getSkippingRules().isEmpty());
+		assertNull(grammar.tryParse("- 42"));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void shouldRejectSkippingSkipRule() {
+		Grammar grammar = build();
+		grammar.setSkipRule(new NonTerminal("space", new CharacterValue(" ")), "number", "space");
+	}
+
+	@Test(expected = ParserException.class)
+	public void shouldNotParseCompactlyInvalidData() {
+		Grammar grammar = build();
+		grammar.parseCompact("01");
+	}
+
+	@Test
+	public void shouldReportFarthestFailure() {
+		Grammar grammar = build();
+		try {
+			grammar.parse("12e");
+			fail("Expected ParserException.");
+		} catch (ParserException e) {
+			assertEquals(3, e.getOffset());
+			assertEquals(1, e.getLine());
+			assertEquals(4, e.getColumn());
+			assertTrue(e.getExpected().contains("%s\"+\""));
+			assertTrue(e.getExpected().contains("%s\"7\""));
+		}
+	}
+
+	@Test
+	public void shouldReportTrailingData() {
+		Grammar grammar = build();
+		try {
+			grammar.parse("01");
+			fail("Expected ParserException.");
+		} catch (ParserException e) {
+			assertEquals(1, e.getOffset());
+			assertEquals(Arrays.asList("%s\".\"", "%s\"e\"", "%s\"E\""), e.getExpected());
+		}
+	}
+
 	@Test(expected = ParserException.class)
 	public void shouldNotHandleZeroAsFirstDigit() {
 		Grammar grammar = build();
@@ -0,0 +1,113 @@
+package de.claas.parser.optimizers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.Iterator;
+
+import org.junit.Test;
+
+import de.claas.parser.Grammar;
+import de.claas.parser.Rule;
+import de.claas.parser.rules.CharacterValue;
+import de.claas.parser.rules.Conjunction;
+import de.claas.parser.rules.Decorator;
+import de.claas.parser.rules.Disjunction;
+import de.claas.parser.rules.NonTerminal;
+import de.claas.parser.rules.Optional;
+
+/**
+ * The JUnit test for class {@link FlattenRules}. It is intended to collect and
+ * document a set of test cases for the tested class. Please refer to the
+ * individual tests for more detailed information.
+ *
+ * @author Claas Ahlrichs
+ */
+public class FlattenRulesTest {
+
+	@Test
+	public void shouldFlattenNestedConjunctions() {
+		Rule a = new CharacterValue("a");
+		Rule b = new CharacterValue("b");
+		Rule c = new CharacterValue("c");
+		NonTerminal grammar = new NonTerminal("rule", new Conjunction(new Conjunction(a, new Conjunction(b)), c));
+
+		NonTerminal optimized = new FlattenRules().optimize(grammar, new GrammarOptimizer());
+		assertEquals(new NonTerminal("rule", new Conjunction(a, b, c)), optimized);
+	}
+
+	@Test
+	public void shouldFlattenNestedDisjunctions() {
+		Rule a = new CharacterValue("a");
+		Rule ab = new CharacterValue("ab");
+		Rule c = new CharacterValue("c");
+		NonTerminal grammar = new NonTerminal("rule", new Disjunction(new Disjunction(ab, a), c));
+
+		NonTerminal optimized = new FlattenRules().optimize(grammar, new GrammarOptimizer());
+		assertEquals(new NonTerminal("rule", new Disjunction(ab, a, c)), optimized);
+		assertEquals(new Grammar(grammar).parse("ab"), new Grammar(optimized).parse("ab"));
+	}
+
+	@Test
+	public void shouldFlattenNestedOrderedDisjunctions() {
+		Rule a = new CharacterValue("a");
+		Rule ab = new CharacterValue("ab");
+		Rule c = new CharacterValue("c");
+		NonTerminal grammar = new NonTerminal("rule",
+				new Disjunction(true, new Disjunction(true, a, ab), new Disjunction(ab, c)));
+
+		NonTerminal optimized = new FlattenRules().optimize(grammar, new GrammarOptimizer());
+		assertEquals(new NonTerminal("rule", new Disjunction(true, a, ab, new Disjunction(ab, c))), optimized);
+		for (String data : new String[] { "a", "ab", "c" })
+			assertEquals(new Grammar(grammar).tryParse(data), new Grammar(optimized).tryParse(data));
+	}
+
+	@Test
+	public void shouldNotFlattenDifferentRules() {
+		Rule a = new CharacterValue("a");
+		Rule b = new CharacterValue("b");
+		Rule rule = new Conjunction(a, new Disjunction(a, b), new Optional(new Conjunction(a, b)));
+		NonTerminal grammar = new NonTerminal("rule", rule);
+
+		NonTerminal optimized = new FlattenRules().optimize(grammar, new GrammarOptimizer());
+		assertEquals(grammar, optimized);
+	}
+
+	@Test
+	public void shouldReplaceSingleChildren() {
+		Rule a = new CharacterValue("a");
+		NonTerminal grammar = new NonTerminal("rule", new Conjunction(new Disjunction(new Conjunction(a))));
+
+		NonTerminal optimized = new FlattenRules().optimize(grammar, new GrammarOptimizer());
+		assertSame(a, optimized.getRule());
+	}
+
+	@Test
+	public void shouldHandleEmptyRules() {
+		Rule a = new CharacterValue("a");
+		Rule b = new CharacterValue("b");
+		NonTerminal grammar = new NonTerminal("rule",
+				new Disjunction(new Conjunction(a, new Conjunction(), b), new Disjunction(), a));
+
+		NonTerminal optimized = new FlattenRules().optimize(grammar, new GrammarOptimizer());
+		Rule expected = new Disjunction(new Conjunction(a, new Conjunction(), b), a);
+		assertEquals(new NonTerminal("rule", expected), optimized);
+		assertEquals(new Grammar(grammar).tryParse("ab"), new Grammar(optimized).tryParse("ab"));
+	}
+
+	@Test
+	public void shouldNotFlattenCyclicRules() {
+		Rule rule = new Conjunction(new CharacterValue("a"));
+		Rule child = new Conjunction(new Optional(rule));
+		rule.addChild(child);
+		NonTerminal grammar = new NonTerminal("rule", rule);
+
+		NonTerminal optimized = new FlattenRules().optimize(grammar, new GrammarOptimizer());
+		Rule conjunction = optimized.getRule();
+		Iterator<Rule> children = conjunction.iterator();
+		assertSame(CharacterValue.class, children.next().getClass());
+		assertSame(conjunction, ((Decorator) children.next()).getRule());
+		assertEquals(new Grammar(grammar).parse("aaa"), new Grammar(optimized).parse("aaa"));
+	}
+
+}
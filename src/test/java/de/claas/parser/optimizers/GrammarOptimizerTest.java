@@ -0,0 +1,158 @@
+package de.claas.parser.optimizers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import de.claas.parser.Grammar;
+import de.claas.parser.Node;
+import de.claas.parser.Rule;
+import de.claas.parser.grammars.AugmentedBackusNaur;
+import de.claas.parser.grammars.AugmentedBackusNaurInterpreter;
+import de.claas.parser.rules.NonTerminal;
+import de.claas.parser.visitors.ConcatenateTerminals;
+import de.claas.parser.visitors.RuleDeduplication;
+import de.claas.parser.visitors.RuleToString;
+
+/**
+ * The JUnit test for class {@link GrammarOptimizer}. It is intended to collect
+ * and document a set of test cases for the tested class. Please refer to the
+ * individual tests for more detailed information.
+ *
+ * @author Claas Ahlrichs
+ */
+public class GrammarOptimizerTest {
+
+	private static final String[] SAMPLES = { "0", "-0", "12", "-12.5", "3e7", "1.25E-3", "7e+2", "8." };
+
+	/**
+	 * A helper function that interprets the specified lines of an ABNF
+	 * grammar.
+	 *
+	 * @param lines
+	 *            the lines of the grammar
+	 * @return the start rule of the grammar
+	 */
+	private static NonTerminal interpret(String... lines) {
+		Node grammar = new AugmentedBackusNaur().parse(String.join("\r\n", lines) + "\r\n");
+		AugmentedBackusNaurInterpreter interpreter = new AugmentedBackusNaurInterpreter();
+		grammar.visit(interpreter);
+		return (NonTerminal) interpreter.getResult();
+	}
+
+	/**
+	 * A helper function that returns the ABNF grammar of (JSON) numbers.
+	 *
+	 * @return the start rule of the grammar
+	 */
+	private static NonTerminal numbers() {
+		return interpret("number = [ minus ] integer [ frac ] [ exp ]", "decimal-point = %x2E",
+				"digit1-9 = %x31-39", "digit = %x30-39", "e = %x65 / %x45",
+				"exp = ( e minus 1*digit ) / ( e plus 1*digit ) / ( e 1*digit )",
+				"frac = decimal-point [ [ 1*digit ] ]", "integer = zero / ( digit1-9 *digit ) / ( digit1-9 )",
+				"minus = %x2D", "plus = %x2B", "zero = %x30");
+	}
+
+	/**
+	 * A helper function that returns the string representation of the
+	 * specified rule.
+	 *
+	 * @param rule
+	 *            the rule
+	 * @return the string representation
+	 */
+	private static String toString(Rule rule) {
+		RuleToString visitor = new RuleToString();
+		rule.visit(visitor);
+		return visitor.toString();
+	}
+
+	@Test
+	public void shouldHaveDefaultPasses() {
+		GrammarOptimizer optimizer = new GrammarOptimizer();
+		assertEquals(5, optimizer.getPasses().size());
+		assertTrue(optimizer.isRetainNonTerminals());
+	}
+
+	@Test
+	public void shouldApplyPassesInOrder() {
+		List<String> applied = new ArrayList<>();
+		OptimizerPass first = (grammar, optimizer) -> {
+			applied.add("first");
+			return new NonTerminal("first", grammar);
+		};
+		OptimizerPass second = (grammar, optimizer) -> {
+			applied.add("second");
+			return new NonTerminal("second", grammar);
+		};
+		GrammarOptimizer optimizer = new GrammarOptimizer(first);
+		optimizer.addPass(second);
+
+		NonTerminal grammar = new NonTerminal("grammar");
+		NonTerminal optimized = optimizer.optimize(grammar);
+		assertEquals("second", optimized.getName());
+		assertEquals("first", ((NonTerminal) optimized.getRule()).getName());
+		assertSame(grammar, ((NonTerminal) optimized.getRule()).getRule());
+		assertEquals(2, applied.size());
+		assertEquals("first", applied.get(0));
+	}
+
+	@Test
+	public void shouldRetainParsedTrees() {
+		NonTerminal grammar = numbers();
+		String before = toString(grammar);
+		NonTerminal optimized = new GrammarOptimizer().optimize(grammar);
+		assertEquals(before, toString(grammar));
+		assertNotEquals(grammar, optimized);
+
+		for (String data : SAMPLES)
+			assertEquals(new Grammar(grammar).parse(data), new Grammar(optimized).parse(data));
+	}
+
+	@Test
+	public void shouldOptimizeDeduplicatedRules() {
+		NonTerminal grammar = (NonTerminal) new RuleDeduplication(numbers()).getResult();
+		NonTerminal optimized = new GrammarOptimizer().optimize(grammar);
+		for (String data : SAMPLES)
+			assertEquals(new Grammar(grammar).parse(data), new Grammar(optimized).parse(data));
+	}
+
+	@Test
+	public void shouldInlineNonTerminalsIfRequested() {
+		NonTerminal grammar = numbers();
+		GrammarOptimizer optimizer = new GrammarOptimizer();
+		optimizer.setRetainNonTerminals(false);
+		NonTerminal optimized = optimizer.optimize(grammar);
+
+		for (String data : new String[] { "0", "-12.5", "1.25E-3" }) {
+			Node expected = new Grammar(grammar).parse(data);
+			Node actual = new Grammar(optimized).parse(data);
+			assertEquals(concatenate(expected), concatenate(actual));
+			assertNotEquals(expected, actual);
+		}
+		String rules = toString(optimized);
+		assertTrue(!rules.contains("zero") && !rules.contains("minus") && !rules.contains("decimal-point"));
+		assertTrue(rules.contains("integer") && rules.contains("digit1-9"));
+	}
+
+	/**
+	 * A helper function that concatenates all terminal symbols of the
+	 * specified tree.
+	 *
+	 * @param node
+	 *            the tree
+	 * @return the concatenated terminal symbols
+	 */
+	private static String concatenate(Node node) {
+		ConcatenateTerminals visitor = new ConcatenateTerminals();
+		node.visit(visitor);
+		return visitor.toString();
+	}
+
+}
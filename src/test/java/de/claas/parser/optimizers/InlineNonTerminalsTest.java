@@ -0,0 +1,89 @@
+package de.claas.parser.optimizers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.Iterator;
+
+import org.junit.Test;
+
+import de.claas.parser.Rule;
+import de.claas.parser.rules.CharacterValue;
+import de.claas.parser.rules.Conjunction;
+import de.claas.parser.rules.Decorator;
+import de.claas.parser.rules.NonTerminal;
+import de.claas.parser.rules.NumberValue;
+import de.claas.parser.rules.Optional;
+
+/**
+ * The JUnit test for class {@link InlineNonTerminals}. It is intended to
+ * collect and document a set of test cases for the tested class. Please refer
+ * to the individual tests for more detailed information.
+ *
+ * @author Claas Ahlrichs
+ */
+public class InlineNonTerminalsTest {
+
+	/**
+	 * A helper function that returns an optimizer that does not retain named
+	 * non-terminals.
+	 *
+	 * @return the optimizer
+	 */
+	private static GrammarOptimizer inlining() {
+		GrammarOptimizer optimizer = new GrammarOptimizer(new InlineNonTerminals());
+		optimizer.setRetainNonTerminals(false);
+		return optimizer;
+	}
+
+	@Test
+	public void shouldInlineTrivialNonTerminals() {
+		Rule digit = new NumberValue(16, 0x30, 0x39);
+		Rule comma = new CharacterValue(",");
+		NonTerminal alias = new NonTerminal("alias", new NonTerminal("digit", digit));
+		NonTerminal grammar = new NonTerminal("list", new Conjunction(alias, new NonTerminal("comma", comma)));
+
+		NonTerminal optimized = inlining().optimize(grammar);
+		Iterator<Rule> children = optimized.getRule().iterator();
+		assertSame(digit, children.next());
+		assertSame(comma, children.next());
+	}
+
+	@Test
+	public void shouldNotInlineNonTrivialNonTerminals() {
+		NonTerminal number = new NonTerminal("number",
+				new Conjunction(new CharacterValue("1"), new Optional(new CharacterValue("2"))));
+		NonTerminal grammar = new NonTerminal("rule", new Conjunction(number, number));
+
+		NonTerminal optimized = inlining().optimize(grammar);
+		assertEquals(grammar, optimized);
+	}
+
+	@Test
+	public void shouldNotInlineStartRule() {
+		NonTerminal grammar = new NonTerminal("rule", new CharacterValue("a"));
+		NonTerminal optimized = inlining().optimize(grammar);
+		assertEquals(grammar, optimized);
+	}
+
+	@Test
+	public void shouldNotInlineRetainedNonTerminals() {
+		NonTerminal grammar = new NonTerminal("rule", new NonTerminal("a", new CharacterValue("a")));
+		NonTerminal optimized = new GrammarOptimizer(new InlineNonTerminals()).optimize(grammar);
+		assertEquals(grammar, optimized);
+	}
+
+	@Test
+	public void shouldHandleCyclicAliases() {
+		NonTerminal alias = new NonTerminal("alias");
+		alias.setRule(alias);
+		NonTerminal grammar = new NonTerminal("rule", new Conjunction(new CharacterValue("a"), alias));
+
+		NonTerminal optimized = inlining().optimize(grammar);
+		Iterator<Rule> children = optimized.getRule().iterator();
+		children.next();
+		Decorator copy = (Decorator) children.next();
+		assertSame(copy, copy.getRule());
+	}
+
+}
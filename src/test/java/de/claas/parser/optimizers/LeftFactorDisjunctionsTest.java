@@ -0,0 +1,97 @@
+package de.claas.parser.optimizers;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import de.claas.parser.Grammar;
+import de.claas.parser.Rule;
+import de.claas.parser.rules.CharacterValue;
+import de.claas.parser.rules.Conjunction;
+import de.claas.parser.rules.Disjunction;
+import de.claas.parser.rules.NonTerminal;
+
+/**
+ * The JUnit test for class {@link LeftFactorDisjunctions}. It is intended to
+ * collect and document a set of test cases for the tested class. Please refer
+ * to the individual tests for more detailed information.
+ *
+ * @author Claas Ahlrichs
+ */
+public class LeftFactorDisjunctionsTest {
+
+	@Test
+	public void shouldFactorCommonPrefixes() {
+		Rule a = new CharacterValue("a");
+		Rule b = new CharacterValue("b");
+		Rule c = new CharacterValue("c");
+		Rule d = new CharacterValue("d");
+		Rule e = new CharacterValue("e");
+		NonTerminal grammar = new NonTerminal("rule",
+				new Disjunction(new Conjunction(a, b, c), new Conjunction(new CharacterValue("a"), b, d), e));
+
+		NonTerminal optimized = new LeftFactorDisjunctions().optimize(grammar, new GrammarOptimizer());
+		Rule expected = new Disjunction(new Conjunction(a, b, new Disjunction(c, d)), e);
+		assertEquals(new NonTerminal("rule", expected), optimized);
+		for (String data : new String[] { "abc", "abd", "e" })
+			assertEquals(new Grammar(grammar).parse(data), new Grammar(optimized).parse(data));
+	}
+
+	@Test
+	public void shouldFactorOrderedDisjunctions() {
+		Rule a = new CharacterValue("a");
+		Rule b = new CharacterValue("b");
+		Rule c = new CharacterValue("c");
+		NonTerminal grammar = new NonTerminal("rule",
+				new Disjunction(true, new Conjunction(a, b), new Conjunction(a, b, c), new Conjunction(a, c)));
+
+		NonTerminal optimized = new LeftFactorDisjunctions().optimize(grammar, new GrammarOptimizer());
+		Rule expected = new Conjunction(a, new Disjunction(true, b, new Conjunction(b, c), c));
+		assertEquals(new NonTerminal("rule", new Disjunction(true, expected)), optimized);
+		for (String data : new String[] { "ab", "abc", "ac" })
+			assertEquals(new Grammar(grammar).tryParse(data), new Grammar(optimized).tryParse(data));
+	}
+
+	@Test
+	public void shouldFactorNestedPrefixes() {
+		Rule a = new CharacterValue("a");
+		Rule b = new CharacterValue("b");
+		Rule c = new CharacterValue("c");
+		NonTerminal grammar = new NonTerminal("rule",
+				new Disjunction(new Conjunction(a, b, a), new Conjunction(a, b, c), new Conjunction(a, c)));
+
+		NonTerminal optimized = new LeftFactorDisjunctions().optimize(grammar, new GrammarOptimizer());
+		Rule expected = new Conjunction(a, new Disjunction(new Conjunction(b, new Disjunction(a, c)), c));
+		assertEquals(new NonTerminal("rule", new Disjunction(expected)), optimized);
+		for (String data : new String[] { "aba", "abc", "ac" })
+			assertEquals(new Grammar(grammar).parse(data), new Grammar(optimized).parse(data));
+	}
+
+	@Test
+	public void shouldNotFactorEntireAlternatives() {
+		Rule a = new CharacterValue("a");
+		Rule b = new CharacterValue("b");
+		Rule c = new CharacterValue("c");
+		NonTerminal grammar = new NonTerminal("rule",
+				new Disjunction(a, new Conjunction(a, b), new Conjunction(a, c), new Conjunction(a)));
+
+		NonTerminal optimized = new LeftFactorDisjunctions().optimize(grammar, new GrammarOptimizer());
+		Rule expected = new Disjunction(a, new Conjunction(a, new Disjunction(b, c)), new Conjunction(a));
+		assertEquals(new NonTerminal("rule", expected), optimized);
+		for (String data : new String[] { "a", "ab", "ac" })
+			assertEquals(new Grammar(grammar).parse(data), new Grammar(optimized).parse(data));
+	}
+
+	@Test
+	public void shouldOnlyFactorAdjacentAlternatives() {
+		Rule a = new CharacterValue("a");
+		Rule b = new CharacterValue("b");
+		Rule c = new CharacterValue("c");
+		NonTerminal grammar = new NonTerminal("rule",
+				new Disjunction(new Conjunction(a, b), c, new Conjunction(a, c)));
+
+		NonTerminal optimized = new LeftFactorDisjunctions().optimize(grammar, new GrammarOptimizer());
+		assertEquals(grammar, optimized);
+	}
+
+}
@@ -0,0 +1,81 @@
+package de.claas.parser.optimizers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.Iterator;
+
+import org.junit.Test;
+
+import de.claas.parser.Grammar;
+import de.claas.parser.Rule;
+import de.claas.parser.rules.AndPredicate;
+import de.claas.parser.rules.CharacterValue;
+import de.claas.parser.rules.Conjunction;
+import de.claas.parser.rules.NonTerminal;
+import de.claas.parser.rules.NotPredicate;
+import de.claas.parser.rules.Optional;
+import de.claas.parser.rules.Repetition;
+
+/**
+ * The JUnit test for class {@link RemoveNoOpOptionals}. It is intended to
+ * collect and document a set of test cases for the tested class. Please refer
+ * to the individual tests for more detailed information.
+ *
+ * @author Claas Ahlrichs
+ */
+public class RemoveNoOpOptionalsTest {
+
+	@Test
+	public void shouldRemoveNestedOptionals() {
+		Rule a = new CharacterValue("a");
+		NonTerminal grammar = new NonTerminal("rule", new Optional(new Optional(new Optional(a))));
+
+		NonTerminal optimized = new RemoveNoOpOptionals().optimize(grammar, new GrammarOptimizer());
+		assertEquals(new NonTerminal("rule", new Optional(a)), optimized);
+		assertEquals(new Grammar(grammar).parse("a"), new Grammar(optimized).parse("a"));
+		assertEquals(new Grammar(grammar).parse(""), new Grammar(optimized).parse(""));
+	}
+
+	@Test
+	public void shouldRemoveOptionalNullableRules() {
+		Rule repetition = new Repetition(new CharacterValue("a"));
+		NonTerminal grammar = new NonTerminal("rule", new Conjunction(new Optional(repetition), new CharacterValue("b")));
+
+		NonTerminal optimized = new RemoveNoOpOptionals().optimize(grammar, new GrammarOptimizer());
+		Iterator<Rule> children = optimized.getRule().iterator();
+		assertEquals(repetition, children.next());
+		assertEquals(new Grammar(grammar).parse("aab"), new Grammar(optimized).parse("aab"));
+	}
+
+	@Test
+	public void shouldNotRemoveOtherOptionals() {
+		Rule optional = new Optional(new Conjunction(new CharacterValue("a"), new Optional(new CharacterValue("b"))));
+		NonTerminal grammar = new NonTerminal("rule", optional);
+
+		NonTerminal optimized = new RemoveNoOpOptionals().optimize(grammar, new GrammarOptimizer());
+		assertEquals(grammar, optimized);
+	}
+
+	@Test
+	public void shouldNotRemoveOptionalPredicates() {
+		Rule optional = new Conjunction(new Optional(new AndPredicate(new CharacterValue("a"))),
+				new Optional(new NotPredicate(new CharacterValue("b"))));
+		NonTerminal grammar = new NonTerminal("rule", optional);
+
+		NonTerminal optimized = new RemoveNoOpOptionals().optimize(grammar, new GrammarOptimizer());
+		assertEquals(grammar, optimized);
+		assertEquals(new Grammar(grammar).parse(""), new Grammar(optimized).parse(""));
+	}
+
+	@Test
+	public void shouldKeepNamedNonTerminals() {
+		NonTerminal empty = new NonTerminal("empty", new Optional(new CharacterValue("x")));
+		NonTerminal grammar = new NonTerminal("rule", new Optional(empty));
+
+		NonTerminal optimized = new RemoveNoOpOptionals().optimize(grammar, new GrammarOptimizer());
+		assertSame(NonTerminal.class, optimized.getRule().getClass());
+		assertEquals(new Grammar(grammar).parse(""), new Grammar(optimized).parse(""));
+	}
+
+}
@@ -0,0 +1,231 @@
+package de.claas.parser.optimizers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.Iterator;
+
+import org.junit.Test;
+
+import de.claas.parser.Grammar;
+import de.claas.parser.Rule;
+import de.claas.parser.rules.AndPredicate;
+import de.claas.parser.rules.CharacterValue;
+import de.claas.parser.rules.Conjunction;
+import de.claas.parser.rules.Cut;
+import de.claas.parser.rules.Decorator;
+import de.claas.parser.rules.Disjunction;
+import de.claas.parser.rules.NonTerminal;
+import de.claas.parser.rules.NotPredicate;
+import de.claas.parser.rules.NumberValue;
+import de.claas.parser.rules.Optional;
+import de.claas.parser.rules.Repetition;
+import de.claas.parser.rules.SeparatedRepetition;
+import de.claas.parser.visitors.RuleVisitorTest;
+
+/**
+ * The JUnit test for class {@link RuleRewriter}. It is intended to collect and
+ * document a set of test cases for the tested class. Please refer to the
+ * individual tests for more detailed information.
+ * <p>
+ * The tested class is abstract. Consequently, this JUnit test uses a rewriter
+ * that copies all rules as they are (i.e. none of the hooks is overridden).
+ *
+ * @author Claas Ahlrichs
+ */
+public class RuleRewriterTest extends RuleVisitorTest {
+
+	/**
+	 * A helper function that copies the specified rule by means of a rewriter
+	 * that does not override any hooks.
+	 *
+	 * @param rule
+	 *            the rule
+	 * @return the copy of the rule
+	 */
+	private static Rule copy(Rule rule) {
+		NonTerminal root = new NonTerminal("root", rule);
+		NonTerminal copy = new RuleRewriter() {
+			// copies all rules as they are
+		}.optimize(root, new GrammarOptimizer());
+		assertEquals(root, copy);
+		assertNotSame(root, copy);
+		return copy.getRule();
+	}
+
+	@Override
+	public void shouldHandleNoRule() {
+		NonTerminal root = new NonTerminal("root");
+		NonTerminal copy = new RuleRewriter() {
+			// copies all rules as they are
+		}.optimize(root, new GrammarOptimizer());
+		assertNotSame(root, copy);
+		assertEquals("root", copy.getName());
+		assertNull(copy.getRule());
+	}
+
+	@Override
+	public void shouldHandleConjunctionRule() {
+		Rule rule = new Conjunction(new CharacterValue("a"), new CharacterValue("b"));
+		Rule copy = copy(rule);
+		assertEquals(rule, copy);
+		assertNotSame(rule, copy);
+	}
+
+	@Override
+	public void shouldHandleDisjunctionRule() {
+		Rule rule = new Disjunction(new CharacterValue("a"), new CharacterValue("b"));
+		Rule copy = copy(rule);
+		assertEquals(rule, copy);
+		assertNotSame(rule, copy);
+	}
+
+	@Override
+	public void shouldHandleNonTerminalRule() {
+		Rule rule = new NonTerminal("rule", "comment", new CharacterValue("a"));
+		Rule copy = copy(rule);
+		assertEquals(rule, copy);
+		assertNotSame(rule, copy);
+	}
+
+	@Override
+	public void shouldHandleOptionalRule() {
+		Rule rule = new Optional(new CharacterValue("a"));
+		Rule copy = copy(rule);
+		assertEquals(rule, copy);
+		assertNotSame(rule, copy);
+	}
+
+	@Override
+	public void shouldHandleRepetitionRule() {
+		Rule rule = new Repetition(new CharacterValue("a"), 2, 5);
+		Rule copy = copy(rule);
+		assertEquals(rule, copy);
+		assertNotSame(rule, copy);
+	}
+
+	@Override
+	public void shouldHandleSeparatedRepetitionRule() {
+		Rule rule = new SeparatedRepetition(new CharacterValue("a"), new CharacterValue(","), 2, 5);
+		Rule copy = copy(rule);
+		assertEquals(rule, copy);
+		assertNotSame(rule, copy);
+	}
+
+	@Override
+	public void shouldHandleAndPredicateRule() {
+		Rule rule = new AndPredicate(new CharacterValue("a"));
+		Rule copy = copy(rule);
+		assertEquals(rule, copy);
+		assertNotSame(rule, copy);
+	}
+
+	@Override
+	public void shouldHandleNotPredicateRule() {
+		Rule rule = new NotPredicate(new CharacterValue("a"));
+		Rule copy = copy(rule);
+		assertEquals(rule, copy);
+		assertNotSame(rule, copy);
+	}
+
+	@Override
+	public void shouldHandleCutRule() {
+		Rule cut = new Cut();
+		assertSame(cut, copy(cut));
+	}
+
+	@Override
+	public void shouldHandleTerminalRule() {
+		Rule characters = new CharacterValue("a");
+		assertSame(characters, copy(characters));
+		Rule numbers = new NumberValue(16, 0x30, 0x39);
+		assertSame(numbers, copy(numbers));
+	}
+
+	@Override
+	public void shouldHandleRules() {
+		Rule digit = new NonTerminal("digit", new NumberValue(16, 0x30, 0x39));
+		NonTerminal list = new NonTerminal("list");
+		list.setRule(new Conjunction(digit, new Repetition(digit),
+				new Optional(new Conjunction(new CharacterValue(","), list))));
+
+		Rule copy = copy(list);
+		assertEquals(list, copy);
+		Iterator<Rule> children = ((Decorator) copy).getRule().iterator();
+		assertSame(children.next(), ((Decorator) children.next()).getRule());
+		assertEquals(new Grammar(list).parse("12,3"), new Grammar((NonTerminal) copy).parse("12,3"));
+	}
+
+	@Override
+	public void shouldHandleCyclicRepetitionRule() {
+		Repetition rule = new Repetition(new Conjunction());
+		Rule child = new Repetition(rule);
+		rule.addChild(child);
+
+		Rule copy = copy(rule);
+		assertEquals(rule, copy);
+		assertNotSame(rule, copy);
+		assertSame(copy, ((Decorator) ((Decorator) copy).getRule().iterator().next()).getRule());
+	}
+
+	@Override
+	public void shouldHandleCyclicOptionalRule() {
+		Optional rule = new Optional(new Conjunction());
+		Rule child = new Optional(rule);
+		rule.addChild(child);
+
+		Rule copy = copy(rule);
+		assertEquals(rule, copy);
+		assertSame(copy, ((Decorator) ((Decorator) copy).getRule().iterator().next()).getRule());
+	}
+
+	@Override
+	public void shouldHandleCyclicNonTerminalRule() {
+		NonTerminal rule = new NonTerminal("list");
+		rule.setRule(new Conjunction(new CharacterValue("x"), new Optional(rule)));
+
+		Rule copy = copy(rule);
+		assertEquals(rule, copy);
+		Iterator<Rule> children = ((Decorator) copy).getRule().iterator();
+		children.next();
+		assertSame(copy, ((Decorator) children.next()).getRule());
+	}
+
+	@Override
+	public void shouldHandleCyclicDisjunctionRule() {
+		Rule rule = new Disjunction();
+		Rule child = new Disjunction(rule);
+		rule.addChild(child);
+
+		Rule copy = copy(rule);
+		assertEquals(rule, copy);
+		assertSame(copy, copy.iterator().next().iterator().next());
+	}
+
+	@Override
+	public void shouldHandleCyclicConjunctionRule() {
+		Rule rule = new Conjunction();
+		Rule child = new Conjunction(rule);
+		rule.addChild(child);
+
+		Rule copy = copy(rule);
+		assertEquals(rule, copy);
+		assertSame(copy, copy.iterator().next().iterator().next());
+	}
+
+	@Test
+	public void shouldNotModifyOriginalRules() {
+		Rule a = new CharacterValue("a");
+		Optional optional = new Optional(a);
+		NonTerminal root = new NonTerminal("root", new Conjunction(optional, optional));
+		new RuleRewriter() {
+			// copies all rules as they are
+		}.optimize(root, new GrammarOptimizer());
+		assertSame(a, optional.getRule());
+		Iterator<Rule> children = root.getRule().iterator();
+		assertSame(children.next(), children.next());
+	}
+
+}
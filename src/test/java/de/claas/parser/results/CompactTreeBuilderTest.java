@@ -0,0 +1,280 @@
+package de.claas.parser.results;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.Test;
+
+import de.claas.parser.Node;
+import de.claas.parser.ParseListener;
+
+/**
+ * The JUnit test for class {@link CompactTreeBuilder}. It is intended to
+ * collect and document a set of test cases for the tested class. Please refer
+ * to the individual tests for more detailed information.
+ *
+ * @author Claas Ahlrichs
+ */
+public class CompactTreeBuilderTest {
+
+	@Test
+	public void shouldRecordNestedRecords() {
+		CompactTreeBuilder builder = new CompactTreeBuilder("ab");
+		int root = builder.open(CompactTree.NON_TERMINAL, "root", 0);
+		int intermediate = builder.open(CompactTree.INTERMEDIATE, null, 0);
+		int a = builder.add(CompactTree.TERMINAL, null, 0, 1);
+		int b = builder.add(CompactTree.TERMINAL, null, 1, 2);
+		builder.close(intermediate, 2);
+		builder.close(root, 2);
+
+		assertEquals(4, builder.size());
+		assertEquals(-1, builder.getCurrent());
+		assertEquals(-1, builder.getParent(root));
+		assertEquals(root, builder.getParent(intermediate));
+		assertEquals(intermediate, builder.getParent(a));
+		assertEquals(intermediate, builder.getParent(b));
+		assertEquals("root", builder.getName(root));
+		assertNull(builder.getName(a));
+		assertEquals(1, builder.getStart(b));
+		assertEquals(2, builder.getEnd(root));
+	}
+
+	@Test
+	public void shouldDropAbortedRecords() {
+		CompactTreeBuilder builder = new CompactTreeBuilder("ab");
+		int root = builder.open(CompactTree.NON_TERMINAL, "root", 0);
+		int aborted = builder.open(CompactTree.INTERMEDIATE, null, 0);
+		builder.add(CompactTree.TERMINAL, null, 0, 1);
+		builder.abort(aborted);
+		assertEquals(root, builder.getCurrent());
+		assertEquals(1, builder.size());
+
+		int mark = builder.size();
+		builder.add(CompactTree.TERMINAL, null, 0, 1);
+		builder.truncate(mark);
+		assertEquals(root, builder.getCurrent());
+		assertEquals(1, builder.size());
+	}
+
+	@Test
+	public void shouldConvertSubtreesIntoNodes() {
+		CompactTreeBuilder builder = new CompactTreeBuilder("ab");
+		int root = builder.open(CompactTree.NON_TERMINAL, "root", 0);
+		int intermediate = builder.open(CompactTree.INTERMEDIATE, null, 0);
+		builder.add(CompactTree.TERMINAL, null, 0, 1);
+		builder.add(CompactTree.TERMINAL, null, 1, 2);
+		builder.close(intermediate, 2);
+		builder.close(root, 2);
+
+		Node expected = new NonTerminalNode("root");
+		expected.addChild(new TerminalNode("a"));
+		expected.addChild(new TerminalNode("b"));
+		assertEquals(expected, builder.toNode(root, false));
+		assertEquals(expected, builder.build(root, false).toNode());
+
+		Node expectedIntermediate = new IntermediateNode();
+		expectedIntermediate.addChild(new TerminalNode("a"));
+		expectedIntermediate.addChild(new TerminalNode("b"));
+		assertEquals(expectedIntermediate, builder.toNode(intermediate, false));
+		assertEquals(expectedIntermediate, builder.build(intermediate, true).toNode());
+
+		expected = new NonTerminalNode("root");
+		expected.addChild(expectedIntermediate);
+		assertEquals(expected, builder.toNode(root, true));
+		assertEquals(expected, builder.build(root, true).toNode());
+	}
+
+	@Test
+	public void shouldReplayRecordsInDocumentOrder() {
+		CompactTreeBuilder builder = new CompactTreeBuilder("ab");
+		int root = builder.open(CompactTree.NON_TERMINAL, "root", 0);
+		int intermediate = builder.open(CompactTree.INTERMEDIATE, null, 0);
+		int child = builder.open(CompactTree.NON_TERMINAL, "child", 0);
+		builder.add(CompactTree.TERMINAL, null, 0, 1);
+		builder.close(child, 1);
+		builder.add(CompactTree.ERROR, null, 1, 2);
+		builder.close(intermediate, 2);
+		builder.close(root, 2);
+
+		List<String> events = new ArrayList<>();
+		builder.replay(root, new ParseListener() {
+
+			@Override
+			public void enterNonTerminal(String name, int start) {
+				events.add(String.format("enter:%s@%d", name, start));
+			}
+
+			@Override
+			public void exitNonTerminal(String name, int start, int end) {
+				events.add(String.format("exit:%s@%d-%d", name, start, end));
+			}
+
+			@Override
+			public void terminal(int start, int end) {
+				events.add(String.format("terminal@%d-%d", start, end));
+			}
+
+			@Override
+			public void error(int start, int end) {
+				events.add(String.format("error@%d-%d", start, end));
+			}
+		});
+		assertEquals(Arrays.asList("enter:root@0", "enter:child@0", "terminal@0-1", "exit:child@0-1",
+				"error@1-2", "exit:root@0-2"), events);
+	}
+
+	@Test
+	public void shouldDropValuesOfAbortedRecords() {
+		CompactTreeBuilder builder = new CompactTreeBuilder("ab");
+		int root = builder.open(CompactTree.NON_TERMINAL, "root", 0);
+		int a = builder.add(CompactTree.NON_TERMINAL, "a", 0, 1);
+		builder.pushValue("a");
+		int mark = builder.size();
+		builder.add(CompactTree.NON_TERMINAL, "b", 1, 2);
+		builder.pushValue("b");
+		builder.truncate(mark);
+		assertEquals(Arrays.asList("a"), builder.getValues(root));
+		assertEquals(Arrays.asList("a"), builder.getValues(a));
+
+		builder.add(CompactTree.NON_TERMINAL, "b", 1, 2);
+		builder.pushValue("b");
+		assertEquals(Arrays.asList("a", "b"), builder.popValues(root));
+		assertEquals(Arrays.asList(), builder.getValues(root));
+
+		builder.pushValue("ab");
+		builder.abort(a);
+		assertEquals(Arrays.asList(), builder.getValues(root));
+	}
+
+	@Test
+	public void shouldShareIdenticalSubtrees() {
+		CompactTreeBuilder builder = new CompactTreeBuilder("abab");
+		int root = builder.open(CompactTree.NON_TERMINAL, "root", 0);
+		for (int i = 0; i < 4; i += 2) {
+			int pair = builder.open(CompactTree.NON_TERMINAL, "pair", i);
+			int intermediate = builder.open(CompactTree.INTERMEDIATE, null, i);
+			builder.add(CompactTree.TERMINAL, null, i, i + 1);
+			builder.add(CompactTree.TERMINAL, null, i + 1, i + 2);
+			builder.close(intermediate, i + 2);
+			builder.close(pair, i + 2);
+		}
+		builder.close(root, 4);
+
+		NodeInterner interner = new NodeInterner();
+		Node shared = builder.toNode(root, false, interner);
+		assertEquals(builder.toNode(root, false), shared);
+		assertEquals(4, interner.size());
+
+		Iterator<Node> pairs = shared.iterator();
+		Node first = pairs.next();
+		assertSame(first, pairs.next());
+		assertEquals(builder.toNode(root, true), builder.toNode(root, true, interner));
+		assertEquals(builder.toNode(root, true), builder.toNode(root, true, null));
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void shouldNotConvertMissingRecords() {
+		CompactTreeBuilder builder = new CompactTreeBuilder("ab");
+		builder.toNode(0, true);
+	}
+
+	@Test
+	public void shouldGrowBeyondInitialCapacity() {
+		StringBuilder data = new StringBuilder();
+		for (int i = 0; i < 1000; i++) {
+			data.append('x');
+		}
+		CompactTreeBuilder builder = new CompactTreeBuilder(data.toString());
+		int root = builder.open(CompactTree.NON_TERMINAL, "root", 0);
+		for (int i = 0; i < 1000; i++) {
+			builder.add(CompactTree.TERMINAL, null, i, i + 1);
+		}
+		builder.close(root, 1000);
+		assertEquals(1001, builder.size());
+		assertEquals(1001, builder.build(root, false).size());
+	}
+
+	@Test
+	public void shouldCopyAndPasteSubtrees() {
+		CompactTreeBuilder builder = new CompactTreeBuilder("ab");
+		int root = builder.open(CompactTree.NON_TERMINAL, "root", 0);
+		int child = builder.open(CompactTree.NON_TERMINAL, "child", 0);
+		builder.add(CompactTree.TERMINAL, null, 0, 1);
+		builder.pushValue("a");
+		builder.close(child, 1);
+		CompactTreeBuilder.Subtree subtree = builder.copy(child);
+		builder.truncate(child);
+		assertEquals(1, builder.size());
+		assertEquals(2, subtree.size());
+		assertEquals(1, subtree.getEnd());
+
+		int pasted = builder.paste(subtree);
+		builder.add(CompactTree.TERMINAL, null, 1, 2);
+		builder.close(root, 2);
+		assertEquals(root, builder.getParent(pasted));
+		assertEquals(pasted, builder.getParent(pasted + 1));
+		assertEquals(Arrays.asList("a"), builder.getValues(pasted));
+
+		Node expected = new NonTerminalNode("root");
+		Node expectedChild = new NonTerminalNode("child");
+		expectedChild.addChild(new TerminalNode("a"));
+		expected.addChild(expectedChild);
+		expected.addChild(new TerminalNode("b"));
+		assertEquals(expected, builder.toNode(root, false));
+	}
+
+	@Test
+	public void shouldResolveReferences() {
+		CompactTreeBuilder builder = new CompactTreeBuilder("abc");
+		int root = builder.open(CompactTree.NON_TERMINAL, "root", 0);
+		int first = builder.open(CompactTree.NON_TERMINAL, "seed", 0);
+		builder.add(CompactTree.TERMINAL, null, 0, 1);
+		builder.pushValue("a");
+		builder.close(first, 1);
+		int firstEnd = builder.size();
+		int second = builder.open(CompactTree.NON_TERMINAL, "seed", 0);
+		int reference = builder.refer(first, firstEnd);
+		builder.add(CompactTree.TERMINAL, null, 1, 2);
+		builder.close(second, 2);
+		int secondEnd = builder.size();
+		int third = builder.open(CompactTree.NON_TERMINAL, "seed", 0);
+		builder.refer(second, secondEnd);
+		builder.add(CompactTree.TERMINAL, null, 2, 3);
+		builder.close(third, 3);
+
+		assertEquals(CompactTreeBuilder.REFERENCE, builder.getKind(reference));
+		assertNull(builder.getName(reference));
+		assertEquals(second, builder.getParent(reference));
+		assertEquals(0, builder.getStart(reference));
+		assertEquals(1, builder.getEnd(reference));
+		assertEquals(Arrays.asList("a"), builder.getValues(third));
+		int[] expectedRecords = new int[] { third, second, first, first + 1, reference + 1, third + 2 };
+		assertEquals(Arrays.toString(expectedRecords), Arrays.toString(builder.resolve(third)));
+
+		CompactTreeBuilder.Subtree subtree = builder.copy(third);
+		builder.truncate(first);
+		assertEquals(6, subtree.size());
+		int pasted = builder.paste(subtree);
+		builder.close(root, 3);
+		assertEquals(Arrays.asList("a"), builder.getValues(pasted));
+
+		Node expected = new NonTerminalNode("root");
+		Node previous = null;
+		for (String terminal : new String[] { "a", "b", "c" }) {
+			Node seed = new NonTerminalNode("seed");
+			if (previous != null)
+				seed.addChild(previous);
+			seed.addChild(new TerminalNode(terminal));
+			previous = seed;
+		}
+		expected.addChild(previous);
+		assertEquals(expected, builder.toNode(root, false));
+	}
+
+}
@@ -0,0 +1,151 @@
+package de.claas.parser.results;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import de.claas.parser.Node;
+import de.claas.parser.visitors.ConcatenateTerminals;
+
+/**
+ * The JUnit test for class {@link CompactTree}. It is intended to collect and
+ * document a set of test cases for the tested class. Please refer to the
+ * individual tests for more detailed information.
+ *
+ * @author Claas Ahlrichs
+ */
+public class CompactTreeTest {
+
+	/**
+	 * Returns a compact tree that represents "hello world" as a "greeting"
+	 * that is made up of two "word"s and a terminal (i.e. the space).
+	 * 
+	 * @return a compact tree
+	 */
+	private static CompactTree build() {
+		CompactTreeBuilder builder = new CompactTreeBuilder("hello world");
+		int root = builder.open(CompactTree.NON_TERMINAL, "greeting", 0);
+		int hello = builder.open(CompactTree.NON_TERMINAL, "word", 0);
+		builder.add(CompactTree.TERMINAL, null, 0, 5);
+		builder.close(hello, 5);
+		builder.add(CompactTree.TERMINAL, null, 5, 6);
+		int world = builder.open(CompactTree.NON_TERMINAL, "word", 6);
+		builder.add(CompactTree.TERMINAL, null, 6, 11);
+		builder.close(world, 11);
+		builder.close(root, 11);
+		return builder.build(root, false);
+	}
+
+	@Test
+	public void shouldStoreNodesInPreOrder() {
+		CompactTree tree = build();
+		assertEquals(6, tree.size());
+		assertEquals("hello world", tree.getData());
+		assertEquals(CompactTree.NON_TERMINAL, tree.getKind(0));
+		assertEquals("greeting", tree.getName(0));
+		assertEquals("word", tree.getName(1));
+		assertEquals(CompactTree.TERMINAL, tree.getKind(2));
+		assertNull(tree.getName(2));
+		assertEquals("hello", tree.getText(2));
+		assertEquals(" ", tree.getText(3));
+		assertEquals(6, tree.getStart(4));
+		assertEquals(11, tree.getEnd(4));
+	}
+
+	@Test
+	public void shouldLinkChildrenAndSiblings() {
+		CompactTree tree = build();
+		assertEquals(1, tree.getFirstChild(0));
+		assertEquals(3, tree.getNextSibling(1));
+		assertEquals(4, tree.getNextSibling(3));
+		assertEquals(-1, tree.getNextSibling(4));
+		assertEquals(-1, tree.getFirstChild(3));
+	}
+
+	@Test
+	public void shouldConvertIntoNodes() {
+		Node hello = new NonTerminalNode("word");
+		hello.addChild(new TerminalNode("hello"));
+		Node world = new NonTerminalNode("word");
+		world.addChild(new TerminalNode("world"));
+		Node expected = new NonTerminalNode("greeting");
+		expected.addChild(hello);
+		expected.addChild(new TerminalNode(" "));
+		expected.addChild(world);
+
+		CompactTree tree = build();
+		assertEquals(expected, tree.toNode());
+		assertEquals(world, tree.toNode(4));
+	}
+
+	@Test
+	public void shouldWalkWithCursor() {
+		CompactTree.Cursor cursor = build().cursor();
+		assertEquals("greeting", cursor.getName());
+		assertFalse(cursor.gotoNextSibling());
+		assertFalse(cursor.gotoParent());
+
+		assertTrue(cursor.gotoFirstChild());
+		assertEquals(1, cursor.getDepth());
+		assertEquals("hello", cursor.getText());
+		assertTrue(cursor.gotoNextSibling());
+		assertEquals(CompactTree.TERMINAL, cursor.getKind());
+		assertFalse(cursor.gotoFirstChild());
+		assertTrue(cursor.gotoNextSibling());
+		assertEquals(6, cursor.getStart());
+		assertEquals(11, cursor.getEnd());
+		assertFalse(cursor.gotoNextSibling());
+
+		ConcatenateTerminals visitor = new ConcatenateTerminals();
+		cursor.visit(visitor);
+		assertEquals("world", visitor.toString());
+
+		assertTrue(cursor.gotoParent());
+		assertEquals(0, cursor.getNode());
+	}
+
+	@Test
+	public void shouldWalkDeepTrees() {
+		CompactTreeBuilder builder = new CompactTreeBuilder("x");
+		int depth = 1000;
+		int[] records = new int[depth];
+		for (int i = 0; i < depth; i++) {
+			records[i] = builder.open(CompactTree.NON_TERMINAL, "nested", 0);
+		}
+		builder.add(CompactTree.TERMINAL, null, 0, 1);
+		for (int i = depth - 1; i >= 0; i--) {
+			builder.close(records[i], 1);
+		}
+
+		CompactTree tree = builder.build(records[0], false);
+		CompactTree.Cursor cursor = tree.cursor();
+		while (cursor.gotoFirstChild()) {
+			// walk down
+		}
+		assertEquals(depth, cursor.getDepth());
+		assertEquals("x", cursor.getText());
+		assertEquals(depth + 1, countNodes(tree.toNode()));
+	}
+
+	/**
+	 * A helper function that counts the nodes in the specified tree (without
+	 * recursion).
+	 * 
+	 * @param root
+	 *            the root of the tree
+	 * @return the number of nodes
+	 */
+	private static int countNodes(Node root) {
+		int count = 0;
+		Node node = root;
+		while (node != null) {
+			count++;
+			node = node.hasChildren() ? node.iterator().next() : null;
+		}
+		return count;
+	}
+
+}
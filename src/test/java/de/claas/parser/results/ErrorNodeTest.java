@@ -0,0 +1,31 @@
+package de.claas.parser.results;
+
+import static org.junit.Assert.assertNotEquals;
+
+import org.junit.Test;
+
+import de.claas.parser.Node;
+
+/**
+ * The JUnit test for class {@link ErrorNode}. It is intended to collect and
+ * document a set of test cases for the tested class. Please refer to the
+ * individual tests for more detailed information.
+ *
+ * @author Claas Ahlrichs
+ */
+public class ErrorNodeTest extends TerminalNodeTest {
+
+	private static final String DEFAULT_TERMINAL = "error";
+
+	@Override
+	protected Node build(Node... children) {
+		return new ErrorNode(DEFAULT_TERMINAL);
+	}
+
+	@Test
+	public void shouldDifferFromTerminalNodes() {
+		assertNotEquals(new TerminalNode(DEFAULT_TERMINAL), build());
+		assertNotEquals(build(), new TerminalNode(DEFAULT_TERMINAL));
+	}
+
+}
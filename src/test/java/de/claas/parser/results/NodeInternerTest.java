@@ -0,0 +1,88 @@
+package de.claas.parser.results;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+import de.claas.parser.Node;
+
+/**
+ * The JUnit test for class {@link NodeInterner}. It is intended to collect and
+ * document a set of test cases for the tested class. Please refer to the
+ * individual tests for more detailed information.
+ *
+ * @author Claas Ahlrichs
+ */
+public class NodeInternerTest {
+
+	@Test
+	public void shouldInternTerminalNodes() {
+		NodeInterner interner = new NodeInterner();
+		Node a = new TerminalNode("a");
+		assertSame(a, interner.intern(a));
+		assertSame(a, interner.intern(new TerminalNode("a")));
+		assertNotSame(a, interner.intern(new TerminalNode("b")));
+		assertNotSame(a, interner.intern(new ErrorNode("a")));
+		assertEquals(3, interner.size());
+	}
+
+	@Test
+	public void shouldInternNodesWithIdenticalChildren() {
+		NodeInterner interner = new NodeInterner();
+		Node a = interner.intern(new TerminalNode("a"));
+		Node b = interner.intern(new TerminalNode("b"));
+
+		Node node = new NonTerminalNode("node");
+		node.addChild(a);
+		node.addChild(b);
+		assertSame(node, interner.intern(node));
+
+		Node same = new NonTerminalNode("node");
+		same.addChild(a);
+		same.addChild(b);
+		assertSame(node, interner.intern(same));
+
+		Node reordered = new NonTerminalNode("node");
+		reordered.addChild(b);
+		reordered.addChild(a);
+		assertNotSame(node, interner.intern(reordered));
+
+		Node renamed = new NonTerminalNode("other");
+		renamed.addChild(a);
+		renamed.addChild(b);
+		assertNotSame(node, interner.intern(renamed));
+
+		Node fewer = new NonTerminalNode("node");
+		fewer.addChild(a);
+		assertNotSame(node, interner.intern(fewer));
+	}
+
+	@Test
+	public void shouldNotInternNodesWithEqualButDistinctChildren() {
+		NodeInterner interner = new NodeInterner();
+		Node node = new IntermediateNode();
+		node.addChild(interner.intern(new TerminalNode("a")));
+		interner.intern(node);
+
+		Node other = new IntermediateNode();
+		other.addChild(new TerminalNode("a"));
+		assertEquals(node, other);
+		assertSame(other, interner.intern(other));
+	}
+
+	@Test
+	public void shouldGrowBeyondInitialCapacity() {
+		NodeInterner interner = new NodeInterner();
+		for (int i = 0; i < 1000; i++) {
+			interner.intern(new TerminalNode(Integer.toString(i)));
+		}
+		assertEquals(1000, interner.size());
+		for (int i = 0; i < 1000; i++) {
+			interner.intern(new TerminalNode(Integer.toString(i)));
+		}
+		assertEquals(1000, interner.size());
+	}
+
+}
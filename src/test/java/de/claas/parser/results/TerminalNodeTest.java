@@ -41,6 +41,14 @@ public class TerminalNodeTest extends NodeTest {
 		shouldNotAddChildren();
 	}
 
+	@Override
+	public void shouldRemoveAllChildren() {
+		// terminal nodes do not have children!
+		Node node = build();
+		assertFalse(node.removeChildren());
+		shouldNotAddChildren();
+	}
+
 	@Test
 	public void shouldNotAddChildren() {
 		Node node = build();
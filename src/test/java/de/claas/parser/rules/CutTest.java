@@ -0,0 +1,136 @@
+package de.claas.parser.rules;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import de.claas.parser.Grammar;
+import de.claas.parser.ParseListener;
+import de.claas.parser.Rule;
+import de.claas.parser.RuleTest;
+import de.claas.parser.SemanticActions;
+import de.claas.parser.State;
+import de.claas.parser.exceptions.ParserException;
+
+/**
+ * The JUnit test for class {@link Cut}. It is intended to collect and document
+ * a set of test cases for the tested class. Please refer to the individual
+ * tests for more detailed information.
+ *
+ * @author Claas Ahlrichs
+ */
+public class CutTest extends RuleTest {
+
+	@Override
+	protected Rule build(Rule... children) {
+		return new Cut();
+	}
+
+	@Override
+	protected Rule[] defaultChildren() {
+		return new Rule[] {};
+	}
+
+	@Override
+	protected State processibleState() {
+		return buildState("anything");
+	}
+
+	@Override
+	protected State unprocessibleState() {
+		return null;
+	}
+
+	@Override
+	public void shouldHaveChildren() {
+		// cuts do not have children!
+		shouldNotAddChildren();
+	}
+
+	@Override
+	public void shouldHaveNonEmptyIterator() {
+		// cuts do not have children!
+		shouldNotAddChildren();
+	}
+
+	@Override
+	public void shouldManageChildren() {
+		// cuts do not have children!
+		shouldNotAddChildren();
+	}
+
+	@Test
+	public void shouldNotAddChildren() {
+		Rule rule = build();
+		assertFalse(rule.addChild(new Cut()));
+	}
+
+	/**
+	 * Returns a grammar that commits to its first alternative once an "a" was
+	 * processed (i.e. <code>s = ("a" ^ "b") / ("a" "c")</code>).
+	 * 
+	 * @return the grammar
+	 */
+	private static Grammar committingGrammar() {
+		Rule a = new CharacterValue("a");
+		return new Grammar(new NonTerminal("s", new Disjunction(
+				new Conjunction(a, new Cut(), new CharacterValue("b")), new Conjunction(a, new CharacterValue("c")))));
+	}
+
+	@Test(expected = ParserException.class)
+	public void shouldFailParseAfterCut() {
+		committingGrammar().parse("ac");
+	}
+
+	@Test
+	public void shouldFailTryParseAfterCut() {
+		Grammar grammar = committingGrammar();
+		assertNotNull(grammar.tryParse("ab", false));
+		assertNull(grammar.tryParse("ac", false));
+		assertNull(grammar.tryParse("ac", true));
+	}
+
+	@Test
+	public void shouldFailTryParseCompactAfterCut() {
+		Grammar grammar = committingGrammar();
+		assertNotNull(grammar.tryParseCompact("ab"));
+		assertNull(grammar.tryParseCompact("ac"));
+	}
+
+	@Test
+	public void shouldFailTryParseWithListenerAfterCut() {
+		Grammar grammar = committingGrammar();
+		ParseListener listener = new ParseListener() {
+
+			@Override
+			public void enterNonTerminal(String name, int start) {
+				// nothing to do
+			}
+
+			@Override
+			public void exitNonTerminal(String name, int start, int end) {
+				// nothing to do
+			}
+
+			@Override
+			public void terminal(int start, int end) {
+				// nothing to do
+			}
+
+		};
+		assertTrue(grammar.tryParse("ab", listener));
+		assertFalse(grammar.tryParse("ac", listener));
+	}
+
+	@Test
+	public void shouldFailTryEvaluateAfterCut() {
+		Grammar grammar = committingGrammar();
+		SemanticActions<String> actions = new SemanticActions<String>().put("s",
+				(data, start, end, values) -> data.substring(start, end));
+		assertNull(grammar.tryEvaluate("ac", actions));
+	}
+
+}
@@ -1,5 +1,10 @@
 package de.claas.parser.rules;
 
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
 import de.claas.parser.Rule;
 import de.claas.parser.RuleTest;
 import de.claas.parser.State;
@@ -33,4 +38,11 @@ public class DisjunctionTest extends RuleTest {
 		return buildState("invalid");
 	}
 
+	@Test
+	public void shouldBeOrderedIfRequested() {
+		assertFalse(new Disjunction(defaultChildren()).isOrdered());
+		assertTrue(new Disjunction(true, defaultChildren()).isOrdered());
+		assertFalse(new Disjunction(true).equals(new Disjunction()));
+	}
+
 }
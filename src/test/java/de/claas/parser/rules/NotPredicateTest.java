@@ -0,0 +1,53 @@
+package de.claas.parser.rules;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+import de.claas.parser.Rule;
+import de.claas.parser.State;
+import de.claas.parser.visitors.Parser;
+
+/**
+ * The JUnit test for class {@link NotPredicate}. It is intended to collect
+ * and document a set of test cases for the tested class. Please refer to the
+ * individual tests for more detailed information.
+ *
+ * @author Claas Ahlrichs
+ */
+public class NotPredicateTest extends DecoratorTest {
+
+	@Override
+	protected Decorator build(Rule rule) {
+		return new NotPredicate(rule);
+	}
+
+	@Override
+	protected Rule[] defaultChildren() {
+		return new Rule[] { new CharacterValue("decorated") };
+	}
+
+	@Override
+	protected State processibleState() {
+		return buildState("other");
+	}
+
+	@Override
+	protected State unprocessibleState() {
+		// the empty state is processible
+		return null;
+	}
+
+	@Test
+	public void shouldNotProcessDecoratedData() {
+		State state = buildState("decorated");
+		Parser parser = new Parser(state);
+		build(defaultChildren()).visit(parser);
+		assertNull(parser.getResult());
+		assertEquals("", state.getProcessedData());
+		assertEquals("decorated", state.getUnprocessedData());
+		assertEquals(0, state.getGroups());
+	}
+
+}
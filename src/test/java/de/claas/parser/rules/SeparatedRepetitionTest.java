@@ -0,0 +1,97 @@
+package de.claas.parser.rules;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Iterator;
+
+import org.junit.Test;
+
+import de.claas.parser.Rule;
+import de.claas.parser.RuleTest;
+import de.claas.parser.State;
+
+/**
+ * The JUnit test for class {@link SeparatedRepetition}. It is intended to
+ * collect and document a set of test cases for the tested class. Please refer
+ * to the individual tests for more detailed information.
+ *
+ * @author Claas Ahlrichs
+ */
+public class SeparatedRepetitionTest extends RuleTest {
+
+	@Override
+	protected Rule build(Rule... children) {
+		Rule rule = new SeparatedRepetition(null, null, 1, Integer.MAX_VALUE);
+		for (Rule child : children)
+			rule.addChild(child);
+		return rule;
+	}
+
+	@Override
+	protected Rule[] defaultChildren() {
+		return new Rule[] { new CharacterValue("a"), new CharacterValue(",") };
+	}
+
+	@Override
+	protected State processibleState() {
+		return buildState("a,a,a");
+	}
+
+	@Override
+	protected State unprocessibleState() {
+		return buildState(",a");
+	}
+
+	@Override
+	public void shouldManageChildren() {
+		Rule rule = build();
+		Rule childA = new CharacterValue("A");
+		Rule childB = new CharacterValue("B");
+		Rule childC = new CharacterValue("C");
+		assertTrue(rule.addChild(childA));
+		assertTrue(rule.addChild(childB));
+		assertFalse(rule.addChild(childC));
+
+		// everybody there?
+		Iterator<Rule> iterator = rule.iterator();
+		assertTrue(iterator.hasNext());
+		assertEquals(childA, iterator.next());
+		assertEquals(childB, iterator.next());
+		assertFalse(iterator.hasNext());
+
+		// remove separator
+		assertTrue(rule.removeChild(childB));
+		assertEquals(childA, ((SeparatedRepetition) rule).getElement());
+		assertNull(((SeparatedRepetition) rule).getSeparator());
+
+		// remove element
+		assertTrue(rule.removeChild(childA));
+		assertFalse(rule.iterator().hasNext());
+	}
+
+	@Test
+	public void shouldHaveElementAndSeparator() {
+		Rule element = new CharacterValue("a");
+		Rule separator = new CharacterValue(",");
+		SeparatedRepetition rule = new SeparatedRepetition(element, separator);
+		assertEquals(element, rule.getElement());
+		assertEquals(separator, rule.getSeparator());
+		assertEquals(0, rule.getMinimumNumberOfRepetions());
+		assertEquals(Integer.MAX_VALUE, rule.getMaximumNumberOfRepetions());
+
+		rule = new SeparatedRepetition(null, null, 2, 3);
+		assertNull(rule.getElement());
+		assertNull(rule.getSeparator());
+		assertEquals(2, rule.getMinimumNumberOfRepetions());
+		assertEquals(3, rule.getMaximumNumberOfRepetions());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void shouldRejectSeparatorWithoutElement() {
+		new SeparatedRepetition(null, new CharacterValue(","));
+	}
+
+}
@@ -97,4 +97,10 @@ public class ConcatenateTerminalsTest extends NodeVisitorTest {
 		node.visit(this.visitor);
 	}
 
+	@Test
+	public void shouldHandleDeepTrees() {
+		NodeWalkerTest.deepTree(100000).visit(this.visitor);
+		assertEquals("leaf", this.visitor.toString());
+	}
+
 }
@@ -0,0 +1,379 @@
+package de.claas.parser.visitors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import org.junit.Test;
+
+import de.claas.parser.Grammar;
+import de.claas.parser.Rule;
+import de.claas.parser.exceptions.CyclicRuleException;
+import de.claas.parser.grammars.AugmentedBackusNaur;
+import de.claas.parser.grammars.HelloWorld;
+import de.claas.parser.grammars.Number;
+import de.claas.parser.grammars.Repeat;
+import de.claas.parser.rules.AndPredicate;
+import de.claas.parser.rules.CharacterValue;
+import de.claas.parser.rules.Conjunction;
+import de.claas.parser.rules.Cut;
+import de.claas.parser.rules.Disjunction;
+import de.claas.parser.rules.NonTerminal;
+import de.claas.parser.rules.NotPredicate;
+import de.claas.parser.rules.NumberValue;
+import de.claas.parser.rules.Optional;
+import de.claas.parser.rules.Repetition;
+import de.claas.parser.rules.SeparatedRepetition;
+
+/**
+ * The JUnit test for class {@link GrammarAnalysis}. It is intended to collect
+ * and document a set of test cases for the tested class. Please refer to the
+ * individual tests for more detailed information.
+ *
+ * @author Claas Ahlrichs
+ */
+public class GrammarAnalysisTest extends RuleVisitorTest {
+
+	@Override
+	public void shouldHandleNoRule() {
+		GrammarAnalysis analysis = new GrammarAnalysis(new Conjunction());
+		assertFalse(analysis.isNullable(new Conjunction()));
+		assertTrue(analysis.isSafe());
+	}
+
+	@Override
+	public void shouldHandleConjunctionRule() {
+		Rule terminal = new CharacterValue("a");
+		Rule optional = new Optional(new CharacterValue("b"));
+		Rule rule = new Conjunction(optional, terminal);
+		GrammarAnalysis analysis = new GrammarAnalysis(rule);
+		assertFalse(analysis.isNullable(rule));
+		assertTrue(analysis.isNullable(optional));
+		assertFalse(analysis.isNullable(terminal));
+
+		rule = new Conjunction(new Optional(new CharacterValue("a")), new Optional(new CharacterValue("b")));
+		analysis = new GrammarAnalysis(rule);
+		assertTrue(analysis.isNullable(rule));
+		assertTrue(analysis.isSafe());
+	}
+
+	@Override
+	public void shouldHandleDisjunctionRule() {
+		Rule rule = new Disjunction(new CharacterValue("a"), new CharacterValue("b"));
+		GrammarAnalysis analysis = new GrammarAnalysis(rule);
+		assertFalse(analysis.isNullable(rule));
+
+		rule = new Disjunction(new CharacterValue("a"), new Optional(new CharacterValue("b")));
+		analysis = new GrammarAnalysis(rule);
+		assertTrue(analysis.isNullable(rule));
+		assertTrue(analysis.isSafe());
+	}
+
+	@Override
+	public void shouldHandleNonTerminalRule() {
+		Rule rule = new NonTerminal("rule", new CharacterValue("a"));
+		GrammarAnalysis analysis = new GrammarAnalysis(rule);
+		assertFalse(analysis.isNullable(rule));
+
+		rule = new NonTerminal("rule", new CharacterValue(""));
+		analysis = new GrammarAnalysis(rule);
+		assertTrue(analysis.isNullable(rule));
+
+		rule = new NonTerminal("rule");
+		analysis = new GrammarAnalysis(rule);
+		assertFalse(analysis.isNullable(rule));
+		assertTrue(analysis.isSafe());
+	}
+
+	@Override
+	public void shouldHandleOptionalRule() {
+		Rule rule = new Optional(new CharacterValue("a"));
+		GrammarAnalysis analysis = new GrammarAnalysis(rule);
+		assertTrue(analysis.isNullable(rule));
+		assertTrue(analysis.isSafe());
+	}
+
+	@Override
+	public void shouldHandleRepetitionRule() {
+		Rule rule = new Repetition(new CharacterValue("a"));
+		GrammarAnalysis analysis = new GrammarAnalysis(rule);
+		assertTrue(analysis.isNullable(rule));
+		assertTrue(analysis.isSafe());
+
+		rule = new Repetition(new CharacterValue("a"), 1, 3);
+		analysis = new GrammarAnalysis(rule);
+		assertFalse(analysis.isNullable(rule));
+		assertTrue(analysis.isSafe());
+	}
+
+	@Override
+	public void shouldHandleSeparatedRepetitionRule() {
+		Rule rule = new SeparatedRepetition(new CharacterValue("a"), new CharacterValue(","));
+		GrammarAnalysis analysis = new GrammarAnalysis(rule);
+		assertTrue(analysis.isNullable(rule));
+		assertTrue(analysis.isInfallible(rule));
+		assertTrue(analysis.isSafe());
+
+		rule = new SeparatedRepetition(new Optional(new CharacterValue("a")), new CharacterValue(","), 2, 3);
+		analysis = new GrammarAnalysis(rule);
+		assertFalse(analysis.isNullable(rule));
+
+		rule = new SeparatedRepetition(new Optional(new CharacterValue("a")), new Optional(new CharacterValue(",")),
+				2, Integer.MAX_VALUE);
+		analysis = new GrammarAnalysis(rule);
+		assertTrue(analysis.isNullable(rule));
+		assertTrue(analysis.isSafe());
+	}
+
+	@Override
+	public void shouldHandleAndPredicateRule() {
+		Rule rule = new AndPredicate(new CharacterValue("a"));
+		GrammarAnalysis analysis = new GrammarAnalysis(rule);
+		assertTrue(analysis.isNullable(rule));
+		assertFalse(analysis.isInfallible(rule));
+		assertTrue(analysis.isSafe());
+
+		rule = new AndPredicate(new Optional(new CharacterValue("a")));
+		analysis = new GrammarAnalysis(rule);
+		assertTrue(analysis.isInfallible(rule));
+	}
+
+	@Override
+	public void shouldHandleNotPredicateRule() {
+		Rule rule = new NotPredicate(new Optional(new CharacterValue("a")));
+		GrammarAnalysis analysis = new GrammarAnalysis(rule);
+		assertTrue(analysis.isNullable(rule));
+		assertFalse(analysis.isInfallible(rule));
+		assertTrue(analysis.isSafe());
+	}
+
+	@Override
+	public void shouldHandleCutRule() {
+		Rule rule = new Cut();
+		GrammarAnalysis analysis = new GrammarAnalysis(rule);
+		assertTrue(analysis.isNullable(rule));
+		assertTrue(analysis.isInfallible(rule));
+		assertTrue(analysis.isSafe());
+	}
+
+	@Override
+	public void shouldHandleTerminalRule() {
+		GrammarAnalysis analysis = new GrammarAnalysis(new CharacterValue("a"));
+		assertFalse(analysis.isNullable(new CharacterValue("a")));
+
+		Rule rule = new NumberValue(16, 0x30, 0x39);
+		analysis = new GrammarAnalysis(rule);
+		assertFalse(analysis.isNullable(rule));
+
+		rule = new NumberValue(16);
+		analysis = new GrammarAnalysis(rule);
+		assertTrue(analysis.isNullable(rule));
+	}
+
+	@Override
+	public void shouldHandleRules() {
+		NonTerminal list = new NonTerminal("list");
+		NonTerminal item = new NonTerminal("item", new CharacterValue("x"));
+		list.setRule(new Conjunction(item, new Optional(new Conjunction(new CharacterValue(","), list))));
+		GrammarAnalysis analysis = new GrammarAnalysis(list);
+		assertFalse(analysis.isNullable(list));
+		assertFalse(analysis.isLeftRecursive(list));
+		assertTrue(analysis.isSafe());
+		analysis.verify();
+	}
+
+	@Override
+	@Test(expected = CyclicRuleException.class)
+	public void shouldHandleCyclicRepetitionRule() {
+		Rule rule = new Repetition(new Conjunction());
+		Rule child = new Repetition(rule);
+		rule.addChild(child);
+
+		GrammarAnalysis analysis = new GrammarAnalysis(rule);
+		assertTrue(analysis.isLeftRecursive(rule));
+		assertTrue(analysis.isLeftRecursive(child));
+		analysis.verify();
+	}
+
+	@Override
+	@Test(expected = CyclicRuleException.class)
+	public void shouldHandleCyclicOptionalRule() {
+		Rule rule = new Optional(new Conjunction());
+		Rule child = new Optional(rule);
+		rule.addChild(child);
+
+		GrammarAnalysis analysis = new GrammarAnalysis(rule);
+		assertTrue(analysis.isLeftRecursive(rule));
+		assertTrue(analysis.getUnsupportedRules().contains(rule));
+		analysis.verify();
+	}
+
+	@Override
+	public void shouldHandleCyclicNonTerminalRule() {
+		Rule rule = new NonTerminal("rule", new Conjunction());
+		Rule child = new NonTerminal("child", rule);
+		rule.addChild(child);
+
+		GrammarAnalysis analysis = new GrammarAnalysis(rule);
+		assertTrue(analysis.isLeftRecursive(rule));
+		assertTrue(analysis.isLeftRecursive(child));
+		assertTrue(analysis.getUnsupportedRules().isEmpty());
+		assertTrue(analysis.isSafe());
+		analysis.verify();
+	}
+
+	@Override
+	@Test(expected = CyclicRuleException.class)
+	public void shouldHandleCyclicDisjunctionRule() {
+		Rule rule = new Disjunction();
+		Rule child = new Disjunction(rule);
+		rule.addChild(child);
+
+		GrammarAnalysis analysis = new GrammarAnalysis(rule);
+		assertTrue(analysis.isLeftRecursive(rule));
+		assertTrue(analysis.getUnsupportedRules().contains(rule));
+		analysis.verify();
+	}
+
+	@Override
+	@Test(expected = CyclicRuleException.class)
+	public void shouldHandleCyclicConjunctionRule() {
+		Rule rule = new Conjunction();
+		Rule child = new Conjunction(rule);
+		rule.addChild(child);
+
+		GrammarAnalysis analysis = new GrammarAnalysis(rule);
+		assertTrue(analysis.isLeftRecursive(rule));
+		assertTrue(analysis.getUnsupportedRules().contains(rule));
+		analysis.verify();
+	}
+
+	@Test
+	public void shouldDetectIndirectLeftRecursion() {
+		NonTerminal expression = new NonTerminal("expression");
+		NonTerminal term = new NonTerminal("term");
+		expression.setRule(new Disjunction(new Conjunction(term, new CharacterValue("+"), term), term));
+		term.setRule(new Disjunction(new Conjunction(new Optional(new CharacterValue("-")), expression),
+				new CharacterValue("1")));
+
+		GrammarAnalysis analysis = new GrammarAnalysis(expression);
+		assertTrue(analysis.isLeftRecursive(expression));
+		assertTrue(analysis.isLeftRecursive(term));
+		assertTrue(analysis.isSafe());
+		analysis.verify();
+	}
+
+	@Test
+	public void shouldReportUnsupportedCycles() {
+		Disjunction cycle = new Disjunction();
+		cycle.addChild(new Conjunction(cycle, new CharacterValue("a")));
+		cycle.addChild(new CharacterValue("b"));
+		NonTerminal rule = new NonTerminal("rule", cycle);
+
+		GrammarAnalysis analysis = new GrammarAnalysis(rule);
+		assertFalse(analysis.isLeftRecursive(rule));
+		assertTrue(analysis.isLeftRecursive(cycle));
+		assertTrue(analysis.getUnsupportedRules().contains(cycle));
+		assertFalse(analysis.isSafe());
+		try {
+			analysis.verify();
+			fail();
+		} catch (CyclicRuleException e) {
+			assertEquals(cycle.toString(), e.getMessage());
+		}
+	}
+
+	@Test
+	public void shouldNotReportConsumingRecursion() {
+		NonTerminal rule = new NonTerminal("rule");
+		rule.setRule(new Disjunction(new Conjunction(new CharacterValue("("), rule, new CharacterValue(")")),
+				new CharacterValue("x")));
+
+		GrammarAnalysis analysis = new GrammarAnalysis(rule);
+		assertFalse(analysis.isLeftRecursive(rule));
+		assertTrue(analysis.isSafe());
+	}
+
+	@Test(expected = CyclicRuleException.class)
+	public void shouldDetectRepetitionOfNullableRule() {
+		Repetition rule = new Repetition(new Optional(new CharacterValue("a")));
+		GrammarAnalysis analysis = new GrammarAnalysis(rule);
+		assertEquals(1, analysis.getNullableRepetitions().size());
+		assertTrue(analysis.getLeftRecursiveRules().isEmpty());
+		assertFalse(analysis.isSafe());
+		analysis.verify();
+	}
+
+	@Test
+	public void shouldAllowBoundedRepetitionOfNullableRule() {
+		Repetition rule = new Repetition(new Optional(new CharacterValue("a")), 0, 3);
+		GrammarAnalysis analysis = new GrammarAnalysis(rule);
+		assertTrue(analysis.isSafe());
+	}
+
+	@Test(expected = CyclicRuleException.class)
+	public void shouldRejectUnsafeGrammar() {
+		NonTerminal rule = new NonTerminal("rule", new Repetition(new Optional(new CharacterValue("a"))));
+		new Grammar(rule);
+	}
+
+	@Test
+	public void shouldAcceptLeftRecursiveGrammar() {
+		NonTerminal rule = new NonTerminal("rule");
+		rule.setRule(new Disjunction(new Conjunction(rule, new CharacterValue("a")), new CharacterValue("b")));
+		Grammar grammar = new Grammar(rule);
+		assertTrue(grammar.getAnalysis().isLeftRecursive(rule));
+	}
+
+	@Test(timeout = 10000)
+	public void shouldCheckCyclesOfRulesChangedAfterAnalysis() {
+		NonTerminal rule = new NonTerminal("rule");
+		Disjunction disjunction = new Disjunction(new CharacterValue("b"));
+		rule.setRule(disjunction);
+		Grammar grammar = new Grammar(rule);
+		assertTrue(grammar.isAnalysisCurrent());
+		assertNotNull(grammar.parse("b"));
+
+		disjunction.addChild(new Conjunction(rule, new CharacterValue("a")));
+		assertFalse(grammar.isAnalysisCurrent());
+		try {
+			grammar.parse("ba");
+			fail("CyclicRuleException expected");
+		} catch (CyclicRuleException e) {
+			// expected: rule became left-recursive after the analysis
+		}
+	}
+
+	@Test
+	public void shouldDetectOrderSensitiveDisjunctions() {
+		Disjunction disjoint = new Disjunction(new CharacterValue("a"), new NumberValue(16, 0x30, 0x39),
+				new Optional(new CharacterValue("b")));
+		Disjunction prefix = new Disjunction(new CharacterValue("a"), new CharacterValue("ab"));
+		Disjunction caseInsensitive = new Disjunction(new CharacterValue(true, "x"), new CharacterValue(false, "X"));
+		Disjunction nullable = new Disjunction(new Optional(new CharacterValue("a")), new CharacterValue("b"));
+		NonTerminal digit = new NonTerminal("digit", new NumberValue(16, 0x30, 0x39));
+		Disjunction nested = new Disjunction(new Conjunction(new Optional(new CharacterValue("a")), digit),
+				new CharacterValue("5"));
+		Rule rule = new Conjunction(disjoint, prefix, caseInsensitive, nullable, nested);
+
+		GrammarAnalysis analysis = new GrammarAnalysis(rule);
+		List<Disjunction> expected = Arrays.asList(prefix, caseInsensitive, nullable, nested);
+		assertEquals(new HashSet<>(expected), new HashSet<>(analysis.getOrderSensitiveDisjunctions()));
+		assertEquals(expected.size(), analysis.getOrderSensitiveDisjunctions().size());
+	}
+
+	@Test
+	public void shouldAcceptExistingGrammars() {
+		Grammar[] grammars = { new AugmentedBackusNaur(), new HelloWorld(), new Number(), new Repeat() };
+		for (Grammar grammar : grammars) {
+			assertTrue(grammar.getAnalysis().isSafe());
+		}
+	}
+
+}
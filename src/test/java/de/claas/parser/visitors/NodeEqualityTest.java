@@ -1,6 +1,8 @@
 package de.claas.parser.visitors;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertTrue;
 
 import org.junit.Test;
@@ -177,4 +179,10 @@ public class NodeEqualityTest extends NodeVisitorTest {
 		assertTrue(visitor.isEquality());
 	}
 
+	@Test
+	public void shouldHandleDeepTrees() {
+		assertEquals(NodeWalkerTest.deepTree(100000), NodeWalkerTest.deepTree(100000));
+		assertNotEquals(NodeWalkerTest.deepTree(100000), NodeWalkerTest.deepTree(99999));
+	}
+
 }
@@ -2,6 +2,8 @@ package de.claas.parser.visitors;
 
 import static org.junit.Assert.assertEquals;
 
+import org.junit.Test;
+
 import de.claas.parser.Node;
 import de.claas.parser.results.IntermediateNode;
 import de.claas.parser.results.NonTerminalNode;
@@ -108,4 +110,15 @@ public class NodeHashCodeTest extends NodeVisitorTest {
 		assertEquals(expected, visitor.getHashCode());
 	}
 
+	@Test
+	public void shouldHandleDeepTrees() {
+		NodeHashCode visitor = build();
+		NodeWalkerTest.deepTree(100000).visit(visitor);
+
+		int expected = 50000 * (NonTerminalNode.class.hashCode() + "node".hashCode());
+		expected += 50000 * IntermediateNode.class.hashCode();
+		expected += TerminalNode.class.hashCode() + "leaf".hashCode();
+		assertEquals(expected, visitor.getHashCode());
+	}
+
 }
@@ -1,11 +1,13 @@
 package de.claas.parser.visitors;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
 import java.util.List;
 
 import org.junit.Before;
+import org.junit.Test;
 
 import de.claas.parser.Node;
 import de.claas.parser.NodeVisitor;
@@ -101,4 +103,11 @@ public class NodeToStringTest extends NodeVisitorTest {
 		assertEquals(String.join("\n", lines) + "\n", this.visitor.toString());
 	}
 
+	@Test(timeout = 10000)
+	public void shouldHandleDeepTrees() {
+		NodeToString visitor = new NodeToString("", "\n");
+		NodeWalkerTest.deepTree(100000).visit(visitor);
+		assertTrue(visitor.toString().endsWith("IntermediateNode\nTerminalNode:leaf\n"));
+	}
+
 }
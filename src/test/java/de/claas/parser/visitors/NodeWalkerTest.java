@@ -0,0 +1,169 @@
+package de.claas.parser.visitors;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import de.claas.parser.Node;
+import de.claas.parser.results.ErrorNode;
+import de.claas.parser.results.IntermediateNode;
+import de.claas.parser.results.NonTerminalNode;
+import de.claas.parser.results.TerminalNode;
+
+/**
+ * The JUnit test for class {@link NodeWalker}. It is intended to collect and
+ * document a set of test cases for the tested class. Please refer to the
+ * individual tests for more detailed information.
+ *
+ * @author Claas Ahlrichs
+ */
+public class NodeWalkerTest extends NodeVisitorTest {
+
+	private final List<String> events = new ArrayList<>();
+	private NodeWalker walker;
+
+	@Before
+	public void before() {
+		this.events.clear();
+		this.walker = new NodeWalker() {
+
+			@Override
+			protected void enterTerminalNode(TerminalNode node) {
+				NodeWalkerTest.this.events.add(getDepth() + ":" + node.getTerminal());
+			}
+
+			@Override
+			protected boolean enterIntermediateNode(IntermediateNode node) {
+				NodeWalkerTest.this.events.add(getDepth() + ":I");
+				return true;
+			}
+
+			@Override
+			protected boolean enterNonTerminalNode(NonTerminalNode node) {
+				NodeWalkerTest.this.events.add(getDepth() + ":" + node.getName());
+				return !"skipped".equals(node.getName());
+			}
+
+			@Override
+			protected void leaveNode(Node node) {
+				NodeWalkerTest.this.events.add(getDepth() + ":/");
+			}
+
+			@Override
+			protected void enterCyclicNode(Node node) {
+				NodeWalkerTest.this.events.add(getDepth() + ":cycle");
+			}
+
+		};
+	}
+
+	@Override
+	public void shouldHandleNoNode() {
+		assertEquals(Arrays.asList(), this.events);
+	}
+
+	@Override
+	public void shouldHandleTerminalNode() {
+		new TerminalNode("terminal").visit(this.walker);
+		new ErrorNode("error").visit(this.walker);
+		assertEquals(Arrays.asList("0:terminal", "0:error"), this.events);
+	}
+
+	@Override
+	public void shouldHandleIntermediateNode() {
+		Node node = new IntermediateNode();
+		node.addChild(new TerminalNode("a"));
+		node.addChild(new TerminalNode("b"));
+		node.visit(this.walker);
+		assertEquals(Arrays.asList("0:I", "1:a", "1:b", "0:/"), this.events);
+	}
+
+	@Override
+	public void shouldHandleNonTerminalNode() {
+		Node node = new NonTerminalNode("name");
+		node.visit(this.walker);
+		assertEquals(Arrays.asList("0:name", "0:/"), this.events);
+	}
+
+	@Override
+	public void shouldHandleNodes() {
+		Node root = new NonTerminalNode("root");
+		Node intermediate = new IntermediateNode();
+		Node skipped = new NonTerminalNode("skipped");
+		skipped.addChild(new TerminalNode("hidden"));
+		intermediate.addChild(new TerminalNode("a"));
+		intermediate.addChild(skipped);
+		root.addChild(intermediate);
+		root.addChild(new TerminalNode("b"));
+		root.visit(this.walker);
+		assertEquals(Arrays.asList("0:root", "1:I", "2:a", "2:skipped", "1:/", "1:b", "0:/"), this.events);
+	}
+
+	@Override
+	public void shouldHandleCyclicNonTerminalNode() {
+		Node node = new NonTerminalNode("root");
+		node.addChild(node);
+		node.visit(this.walker);
+		assertEquals(Arrays.asList("0:root", "1:root", "1:cycle", "1:/", "0:/"), this.events);
+	}
+
+	@Override
+	public void shouldHandleCyclicIntermediateNode() {
+		Node node = new IntermediateNode();
+		node.addChild(node);
+		node.visit(this.walker);
+		assertEquals(Arrays.asList("0:I", "1:I", "1:cycle", "1:/", "0:/"), this.events);
+	}
+
+	@Test
+	public void shouldStopWalking() {
+		NodeWalker stopping = new NodeWalker() {
+
+			@Override
+			protected void enterTerminalNode(TerminalNode node) {
+				NodeWalkerTest.this.events.add(node.getTerminal());
+				stop();
+			}
+
+		};
+		Node node = new IntermediateNode();
+		node.addChild(new TerminalNode("a"));
+		node.addChild(new TerminalNode("b"));
+		node.visit(stopping);
+		assertEquals(Arrays.asList("a"), this.events);
+	}
+
+	@Test
+	public void shouldWalkDeepTrees() {
+		Node root = deepTree(100000);
+		root.visit(this.walker);
+		assertEquals(2 * 100000 + 1, this.events.size());
+		assertEquals("100000:leaf", this.events.get(100000));
+	}
+
+	/**
+	 * Returns a tree of nested {@link NonTerminalNode}s with the specified
+	 * depth and a single {@link TerminalNode} ("leaf") at the bottom.
+	 * 
+	 * @param depth
+	 *            the depth of the tree
+	 * @return the tree
+	 */
+	static Node deepTree(int depth) {
+		Node root = new NonTerminalNode("node");
+		Node current = root;
+		for (int i = 1; i < depth; i++) {
+			Node child = i % 2 == 0 ? new NonTerminalNode("node") : new IntermediateNode();
+			current.addChild(child);
+			current = child;
+		}
+		current.addChild(new TerminalNode("leaf"));
+		return root;
+	}
+
+}
@@ -1,24 +1,45 @@
 package de.claas.parser.visitors;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.junit.Test;
 
+import de.claas.parser.MemoizationProfile;
+import de.claas.parser.MemoizationProfile.RuleProfile;
 import de.claas.parser.Node;
+import de.claas.parser.ParserLimits;
 import de.claas.parser.Rule;
+import de.claas.parser.SemanticActions;
 import de.claas.parser.State;
+import de.claas.parser.automata.Lexer;
 import de.claas.parser.exceptions.CyclicRuleException;
+import de.claas.parser.exceptions.ParserException;
+import de.claas.parser.exceptions.ParserLimitException;
+import de.claas.parser.exceptions.ParserLimitException.Limit;
+import de.claas.parser.results.CompactTree;
+import de.claas.parser.results.ErrorNode;
 import de.claas.parser.results.IntermediateNode;
 import de.claas.parser.results.NonTerminalNode;
 import de.claas.parser.results.TerminalNode;
+import de.claas.parser.rules.AndPredicate;
 import de.claas.parser.rules.CharacterValue;
 import de.claas.parser.rules.Conjunction;
+import de.claas.parser.rules.Cut;
 import de.claas.parser.rules.Disjunction;
 import de.claas.parser.rules.NonTerminal;
+import de.claas.parser.rules.NotPredicate;
 import de.claas.parser.rules.NumberValue;
 import de.claas.parser.rules.Optional;
 import de.claas.parser.rules.Repetition;
+import de.claas.parser.rules.SeparatedRepetition;
 
 /**
  * The JUnit test for class {@link Parser}. It is intended to collect and
@@ -127,6 +148,46 @@ public class ParserTest extends RuleVisitorTest {
 		assertEquals(expected, parser.getResult());
 	}
 
+	@Test
+	public void orderedDisjunctionShouldCommitToFirstSuccessfulChild() {
+		Rule rule = new Disjunction(true, new CharacterValue("a"), new CharacterValue("ab"));
+		Parser parser = build("ab");
+		rule.visit(parser);
+		Node expected = new IntermediateNode();
+		expected.addChild(new TerminalNode("a"));
+		assertEquals(expected, parser.getResult());
+		assertEquals(0, parser.getBacktracks());
+
+		rule = new Conjunction(rule, new CharacterValue("c"));
+		parser = build("abc");
+		rule.visit(parser);
+		assertNull(parser.getResult());
+
+		rule = new Disjunction(true, new CharacterValue("x"), new CharacterValue("ab"));
+		parser = build("ab");
+		rule.visit(parser);
+		expected = new IntermediateNode();
+		expected.addChild(new TerminalNode("ab"));
+		assertEquals(expected, parser.getResult());
+	}
+
+	@Test
+	public void shouldProcessEveryDisjunctionAsOrderedDisjunction() {
+		Rule rule = new Disjunction(new CharacterValue("a"), new CharacterValue("ab"));
+		Parser parser = build("ab");
+		parser.setOrderedChoice(true);
+		rule.visit(parser);
+		Node expected = new IntermediateNode();
+		expected.addChild(new TerminalNode("a"));
+		assertEquals(expected, parser.getResult());
+
+		parser = build("ab");
+		rule.visit(parser);
+		expected = new IntermediateNode();
+		expected.addChild(new TerminalNode("ab"));
+		assertEquals(expected, parser.getResult());
+	}
+
 	@Override
 	public void shouldHandleNonTerminalRule() {
 		Rule rule = new NonTerminal("some name", new Conjunction(CHILDREN));
@@ -258,6 +319,150 @@ public class ParserTest extends RuleVisitorTest {
 		assertEquals(expected, parser.getResult());
 	}
 
+	@Override
+	public void shouldHandleSeparatedRepetitionRule() {
+		Rule rule = new SeparatedRepetition(new CharacterValue("re"), new CharacterValue(","));
+		Parser parser = build("re,re,re??");
+		rule.visit(parser);
+
+		Node expected = new IntermediateNode();
+		expected.addChild(new TerminalNode("re"));
+		expected.addChild(new TerminalNode(","));
+		expected.addChild(new TerminalNode("re"));
+		expected.addChild(new TerminalNode(","));
+		expected.addChild(new TerminalNode("re"));
+		assertEquals(expected, parser.getResult());
+	}
+
+	@Test
+	public void separatedRepetitionShouldNotProcessTrailingSeparators() {
+		Rule rule = new Conjunction(new SeparatedRepetition(new CharacterValue("re"), new CharacterValue(",")),
+				new CharacterValue(",x"));
+		Parser parser = build("re,re,x");
+		rule.visit(parser);
+		assertTrue(parser.hasResult());
+		assertEquals(0, parser.getCutOffset());
+	}
+
+	@Test
+	public void separatedRepetitionShouldRespectBounds() {
+		Rule rule = new SeparatedRepetition(new CharacterValue("re"), new CharacterValue(","), 2, 3);
+		Parser parser = build("re,");
+		rule.visit(parser);
+		assertNull(parser.getResult());
+
+		State state = new State("re,re,re,re");
+		parser = new Parser(state);
+		rule.visit(parser);
+		assertTrue(parser.hasResult());
+		assertEquals("re,re,re", state.getProcessedData());
+	}
+
+	@Test
+	public void separatedRepetitionShouldStopWithoutProgress() {
+		Rule rule = new SeparatedRepetition(new Optional(new CharacterValue("re")),
+				new Optional(new CharacterValue(",")));
+		State state = new State("re,x");
+		Parser parser = new Parser(state);
+		rule.visit(parser);
+		assertTrue(parser.hasResult());
+		assertEquals("re,", state.getProcessedData());
+	}
+
+	@Override
+	public void shouldHandleAndPredicateRule() {
+		Rule rule = new Conjunction(new AndPredicate(new CharacterValue(HELLO)), new CharacterValue(HELLO));
+		Parser parser = build(DATA);
+		rule.visit(parser);
+
+		Node expected = new IntermediateNode();
+		expected.addChild(new IntermediateNode());
+		expected.addChild(new TerminalNode(HELLO));
+		assertEquals(expected, parser.getResult());
+
+		State state = new State(WORLD);
+		parser = new Parser(state);
+		rule.visit(parser);
+		assertNull(parser.getResult());
+		assertEquals(WORLD, state.getUnprocessedData());
+	}
+
+	@Override
+	public void shouldHandleNotPredicateRule() {
+		Rule rule = new Conjunction(new NotPredicate(new CharacterValue(WORLD)), new CharacterValue(HELLO));
+		Parser parser = build(DATA);
+		rule.visit(parser);
+
+		Node expected = new IntermediateNode();
+		expected.addChild(new IntermediateNode());
+		expected.addChild(new TerminalNode(HELLO));
+		assertEquals(expected, parser.getResult());
+
+		State state = new State(WORLD);
+		parser = new Parser(state);
+		rule.visit(parser);
+		assertNull(parser.getResult());
+		assertEquals(WORLD, state.getUnprocessedData());
+	}
+
+	@Override
+	public void shouldHandleCutRule() {
+		Rule rule = new Disjunction(new Conjunction(new CharacterValue(HELLO), new Cut()),
+				new Conjunction(CHILDREN));
+		State state = new State(DATA);
+		Parser parser = new Parser(state);
+		rule.visit(parser);
+
+		Node expected = new IntermediateNode();
+		Node conjunction = new IntermediateNode();
+		conjunction.addChild(new TerminalNode(HELLO));
+		conjunction.addChild(new IntermediateNode());
+		expected.addChild(conjunction);
+		assertEquals(expected, parser.getResult());
+		assertEquals(WORLD, state.getUnprocessedData());
+		assertEquals(HELLO.length(), parser.getCutOffset());
+	}
+
+	@Test
+	public void cutShouldRuleOutOtherChildren() {
+		Rule rule = new Disjunction(new Conjunction(new Cut(), new CharacterValue(WORLD)), new CharacterValue(HELLO));
+		State state = new State(DATA);
+		Parser parser = new Parser(state);
+		rule.visit(parser);
+		assertNull(parser.getResult());
+		assertEquals(DATA, state.getUnprocessedData());
+	}
+
+	@Test
+	public void cutShouldPreventBacktracking() {
+		Rule rule = new Disjunction(new Conjunction(new CharacterValue(HELLO), new Cut(), new CharacterValue(HELLO)),
+				new Conjunction(CHILDREN));
+		try {
+			rule.visit(build(DATA));
+			fail("Expected a ParserException");
+		} catch (ParserException e) {
+			assertEquals(HELLO.length(), e.getOffset());
+		}
+	}
+
+	@Test
+	public void cutShouldHaveNoEffectWithinPredicates() {
+		Rule rule = new Conjunction(new AndPredicate(new Conjunction(new CharacterValue(HELLO), new Cut())),
+				new CharacterValue(HELLO), new CharacterValue(WORLD));
+		Parser parser = build(DATA);
+		rule.visit(parser);
+		assertTrue(parser.hasResult());
+		assertEquals(0, parser.getCutOffset());
+	}
+
+	@Test
+	public void repetitionShouldBePossessive() {
+		Rule rule = new Conjunction(new Repetition(new CharacterValue(HELLO)), new CharacterValue(HELLO));
+		Parser parser = build(HELLO + HELLO);
+		rule.visit(parser);
+		assertNull(parser.getResult());
+	}
+
 	@Override
 	public void shouldHandleTerminalRule() {
 		Rule rule = new CharacterValue(DATA);
@@ -414,4 +619,590 @@ public class ParserTest extends RuleVisitorTest {
 		rule.visit(parser);
 	}
 
+
+	/**
+	 * Returns an instantiated {@link Parser} class with the specified data and
+	 * limits.
+	 * 
+	 * @param data
+	 *            the data
+	 * @param limits
+	 *            the limits
+	 * @return an instantiated {@link Parser} class
+	 */
+	@SuppressWarnings("static-method")
+	private Parser build(String data, ParserLimits limits) {
+		return new Parser(new State(data), null, limits);
+	}
+
+	@Test
+	public void shouldLimitInvocations() {
+		ParserLimits limits = new ParserLimits();
+		limits.setMaximumInvocations(10);
+		Parser parser = build("aaaaaaaaaaaaaaaaaaaa", limits);
+		try {
+			new Repetition(new CharacterValue("a")).visit(parser);
+			fail("Expected ParserLimitException.");
+		} catch (ParserLimitException e) {
+			assertEquals(Limit.INVOCATIONS, e.getLimit());
+			assertEquals(11, e.getInvocations());
+			assertEquals(2, e.getDepth());
+		}
+	}
+
+	@Test
+	public void shouldLimitBacktracks() {
+		ParserLimits limits = new ParserLimits();
+		limits.setMaximumBacktracks(1);
+		Parser parser = build(DATA, limits);
+		try {
+			new Disjunction(CHILDREN).visit(parser);
+			fail("Expected ParserLimitException.");
+		} catch (ParserLimitException e) {
+			assertEquals(Limit.BACKTRACKS, e.getLimit());
+			assertEquals(2, e.getBacktracks());
+		}
+	}
+
+	@Test
+	public void shouldLimitDepth() {
+		Rule rule = new CharacterValue(HELLO);
+		for (int i = 0; i < 5; i++) {
+			rule = new NonTerminal("nested", rule);
+		}
+		ParserLimits limits = new ParserLimits();
+		limits.setMaximumDepth(5);
+		Parser parser = build(DATA, limits);
+		try {
+			rule.visit(parser);
+			fail("Expected ParserLimitException.");
+		} catch (ParserLimitException e) {
+			assertEquals(Limit.DEPTH, e.getLimit());
+			assertEquals(6, e.getDepth());
+		}
+
+		limits.setMaximumDepth(6);
+		parser = build(DATA, limits);
+		rule.visit(parser);
+		assertEquals(6, parser.getInvocations());
+	}
+
+	@Test
+	public void shouldLimitTime() throws InterruptedException {
+		ParserLimits limits = new ParserLimits();
+		limits.setTimeout(1);
+		limits.setCheckInterval(1);
+		Parser parser = build(DATA, limits);
+		Thread.sleep(10);
+		try {
+			new CharacterValue(HELLO).visit(parser);
+			fail("Expected ParserLimitException.");
+		} catch (ParserLimitException e) {
+			assertEquals(Limit.TIMEOUT, e.getLimit());
+			assertTrue(e.getElapsedTime() > 1);
+		}
+	}
+
+	@Test
+	public void shouldBeCancellable() {
+		AtomicBoolean cancelled = new AtomicBoolean();
+		ParserLimits limits = new ParserLimits();
+		limits.setCancellation(cancelled::get);
+		limits.setCheckInterval(2);
+		Parser parser = build(DATA, limits);
+		new Conjunction(CHILDREN).visit(parser);
+		cancelled.set(true);
+		try {
+			new Conjunction(CHILDREN).visit(parser);
+			fail("Expected ParserLimitException.");
+		} catch (ParserLimitException e) {
+			assertEquals(Limit.CANCELLATION, e.getLimit());
+			assertEquals(4, e.getInvocations());
+		}
+	}
+
+	@Test
+	public void shouldTrackFarthestFailure() {
+		Rule hello = new CharacterValue(HELLO);
+		Rule rule = new NonTerminal("greeting", new Conjunction(hello, new Disjunction(new CharacterValue("there"),
+				new NumberValue(16, 0x30, 0x39), new CharacterValue("there"))));
+		Parser parser = build(DATA);
+		assertEquals(-1, parser.getFarthestOffset());
+		rule.visit(parser);
+		assertNull(parser.getResult());
+		assertEquals(HELLO.length(), parser.getFarthestOffset());
+		assertEquals(Arrays.asList("\"there\"", "%x30-39"), parser.getFarthestExpected());
+		assertEquals("greeting", parser.getFarthestRule());
+	}
+
+	@Test
+	public void shouldTrackFarthestFailureOnly() {
+		Rule rule = new Disjunction(new Conjunction(new CharacterValue(HELLO), new CharacterValue("\r\n")),
+				new CharacterValue("bye"));
+		Parser parser = build(DATA);
+		rule.visit(parser);
+		assertEquals(HELLO.length(), parser.getFarthestOffset());
+		assertEquals(Arrays.asList("%xD.A"), parser.getFarthestExpected());
+		assertNull(parser.getFarthestRule());
+	}
+
+	@Test
+	public void shouldRecoverAtSyncRules() {
+		NonTerminal word = new NonTerminal("word", new Disjunction(new CharacterValue(HELLO), new CharacterValue(WORLD)));
+		Rule rule = new Repetition(word);
+		Parser parser = build(HELLO + "xyz" + WORLD + "!");
+		parser.setSyncRules(Arrays.asList(word));
+		rule.visit(parser);
+
+		Node expected = new IntermediateNode();
+		Node hello = new NonTerminalNode("word");
+		hello.addChild(new IntermediateNode());
+		hello.iterator().next().addChild(new TerminalNode(HELLO));
+		Node world = new NonTerminalNode("word");
+		world.addChild(new IntermediateNode());
+		world.iterator().next().addChild(new TerminalNode(WORLD));
+		expected.addChild(hello);
+		expected.addChild(new ErrorNode("xyz"));
+		expected.addChild(world);
+		assertEquals(expected, parser.getResult());
+
+		List<ParserException> errors = parser.getErrors();
+		assertEquals(1, errors.size());
+		assertEquals(HELLO.length(), errors.get(0).getOffset());
+		assertEquals("word", errors.get(0).getRule());
+	}
+
+	@Test
+	public void shouldNotRecoverWithoutSyncPoint() {
+		NonTerminal item = new NonTerminal("item", new Conjunction(new CharacterValue("a"), new CharacterValue(";")));
+		NonTerminal list = new NonTerminal("list", new Conjunction(new Repetition(item), new CharacterValue("end")));
+		Parser parser = build("a;a;end");
+		parser.setSyncRules(Arrays.asList(item));
+		list.visit(parser);
+		assertEquals(7, parser.getCompactResult(true).getEnd(0));
+		assertTrue(parser.getErrors().isEmpty());
+	}
+
+	@Test
+	public void shouldNotRecoverWithoutSyncRules() {
+		NonTerminal word = new NonTerminal("word", new CharacterValue(HELLO));
+		Parser parser = build(HELLO + "xyz");
+		new Repetition(word).visit(parser);
+		assertEquals(HELLO.length(), parser.getCompactResult(true).getEnd(0));
+		assertTrue(parser.getErrors().isEmpty());
+	}
+
+	@Test
+	public void shouldGrowLeftRecursiveRules() {
+		NonTerminal number = new NonTerminal("number", new NumberValue(16, 0x30, 0x39));
+		NonTerminal expression = new NonTerminal("expression");
+		expression.setRule(new Disjunction(new Conjunction(expression, new CharacterValue("-"), number), number));
+		Parser parser = build("3-2-1");
+		parser.setAnalysis(new GrammarAnalysis(expression));
+		expression.visit(parser);
+
+		Node three = new NonTerminalNode("expression");
+		three.addChild(numberNode("3"));
+		Node two = new NonTerminalNode("expression");
+		two.addChild(three);
+		two.addChild(new TerminalNode("-"));
+		two.addChild(numberNode("2"));
+		Node expected = new NonTerminalNode("expression");
+		expected.addChild(two);
+		expected.addChild(new TerminalNode("-"));
+		expected.addChild(numberNode("1"));
+		assertEquals(expected, parser.getResult(false));
+	}
+
+	@Test(timeout = 10000)
+	public void shouldGrowLongLeftRecursiveRules() {
+		NonTerminal number = new NonTerminal("number", new NumberValue(16, 0x30, 0x39));
+		NonTerminal expression = new NonTerminal("expression");
+		expression.setRule(new Disjunction(new Conjunction(expression, new CharacterValue("-"), number), number));
+		StringBuilder data = new StringBuilder("9");
+		for (int i = 1; i < 32768; i++)
+			data.append("-").append(i % 10);
+		Parser parser = build(data.toString());
+		parser.setAnalysis(new GrammarAnalysis(expression));
+		expression.visit(parser);
+
+		CompactTree tree = parser.getCompactResult(false);
+		assertEquals(data.length(), tree.getEnd(0));
+		int node = 0;
+		for (int depth = 1; depth < 32768; depth++) {
+			node = tree.getFirstChild(node);
+			assertEquals(data.length() - 2 * depth, tree.getEnd(node));
+		}
+		assertEquals("9", tree.getText(tree.getFirstChild(node)));
+	}
+
+	@Test
+	public void shouldGrowIndirectlyLeftRecursiveRules() {
+		NonTerminal a = new NonTerminal("a");
+		NonTerminal b = new NonTerminal("b");
+		a.setRule(new Disjunction(new Conjunction(b, new CharacterValue("x")), new CharacterValue("a")));
+		b.setRule(new Disjunction(new Conjunction(a, new CharacterValue("y")), new CharacterValue("b")));
+		Parser parser = build("ayxyx");
+		parser.setAnalysis(new GrammarAnalysis(a));
+		a.visit(parser);
+		assertEquals(5, parser.getCompactResult(false).getEnd(0));
+
+		parser = build("bxyx!");
+		parser.setAnalysis(new GrammarAnalysis(a));
+		a.visit(parser);
+		assertEquals(4, parser.getCompactResult(false).getEnd(0));
+	}
+
+	@Test
+	public void shouldApplyActionsToLeftRecursiveRules() {
+		NonTerminal number = new NonTerminal("number", new NumberValue(16, 0x30, 0x39));
+		NonTerminal expression = new NonTerminal("expression");
+		expression.setRule(new Disjunction(new Conjunction(expression, new CharacterValue("-"), number), number));
+		SemanticActions<Integer> actions = new SemanticActions<Integer>()
+				.put("number", (data, start, end, values) -> Integer.valueOf(data.substring(start, end)))
+				.put("expression", (data, start, end, values) -> values.size() == 1 ? values.get(0)
+						: Integer.valueOf(values.get(0).intValue() - values.get(1).intValue()));
+		Parser parser = new Parser(new State("9-3-2"), actions);
+		parser.setAnalysis(new GrammarAnalysis(expression));
+		expression.visit(parser);
+		assertEquals(Arrays.asList(Integer.valueOf(4)), parser.getValues());
+	}
+
+	@Test(expected = CyclicRuleException.class)
+	public void shouldRejectLeftRecursionWithoutAnalysis() {
+		NonTerminal expression = new NonTerminal("expression");
+		expression.setRule(new Disjunction(new Conjunction(expression, new CharacterValue("-")),
+				new CharacterValue("1")));
+		expression.visit(build("1-"));
+	}
+
+	@Test
+	public void shouldMatchRegularSubgrammars() {
+		NonTerminal digit = new NonTerminal("digit", new NumberValue(16, 0x30, 0x39));
+		NonTerminal number = new NonTerminal("number", new Repetition(digit, 1, Integer.MAX_VALUE));
+		NonTerminal expression = new NonTerminal("expression");
+		expression.setRule(new Disjunction(new Conjunction(expression, new CharacterValue("-"), number), number));
+		RegularSubgrammars regularSubgrammars = new RegularSubgrammars(expression);
+
+		for (String data : new String[] { "12-3-456", "7", "1-", "-1" }) {
+			Parser expected = build(data);
+			expected.setAnalysis(new GrammarAnalysis(expression));
+			expression.visit(expected);
+			Parser actual = build(data);
+			actual.setAnalysis(new GrammarAnalysis(expression));
+			actual.setRegularSubgrammars(regularSubgrammars);
+			expression.visit(actual);
+			assertEquals(expected.getResult(), actual.getResult());
+			assertEquals(expected.getResult(false), actual.getResult(false));
+		}
+
+		Parser parser = build("12-3");
+		parser.setAnalysis(new GrammarAnalysis(expression));
+		parser.setRegularSubgrammars(regularSubgrammars);
+		expression.visit(parser);
+		assertEquals(parser.getResult(false), parser.getCompactResult(false).toNode());
+	}
+
+	@Test
+	public void shouldApplyActionsToRegularSubgrammars() {
+		NonTerminal digit = new NonTerminal("digit", new NumberValue(16, 0x30, 0x39));
+		NonTerminal number = new NonTerminal("number", new Repetition(digit, 1, Integer.MAX_VALUE));
+		NonTerminal list = new NonTerminal("list");
+		list.setRule(new Conjunction(number, new Optional(new Conjunction(new CharacterValue(","), list))));
+		RegularSubgrammars regularSubgrammars = new RegularSubgrammars(list);
+
+		SemanticActions<Integer> actions = new SemanticActions<Integer>()
+				.put("number", (data, start, end, values) -> Integer.valueOf(data.substring(start, end)))
+				.put("list", (data, start, end, values) -> Integer
+						.valueOf(values.stream().mapToInt(value -> value.intValue()).sum()));
+		assertTrue(regularSubgrammars.getCompiledRules().contains(number));
+		Parser parser = new Parser(new State("12,30,4"), actions);
+		parser.setRegularSubgrammars(regularSubgrammars);
+		list.visit(parser);
+		assertEquals(Arrays.asList(Integer.valueOf(46)), parser.getValues());
+
+		actions.put("digit", (data, start, end, values) -> Integer.valueOf(1));
+		actions.put("number", (data, start, end, values) -> Integer.valueOf(values.size()));
+		parser = new Parser(new State("12,30,4"), actions);
+		parser.setRegularSubgrammars(regularSubgrammars);
+		list.visit(parser);
+		assertEquals(Arrays.asList(Integer.valueOf(5)), parser.getValues());
+	}
+
+	@Test
+	public void shouldProcessTokens() {
+		NonTerminal keyword = new NonTerminal("keyword", new CharacterValue(true, "if"));
+		NonTerminal letter = new NonTerminal("letter", new NumberValue(16, 0x61, 0x7A));
+		NonTerminal name = new NonTerminal("name", new Repetition(letter, 1, Integer.MAX_VALUE));
+		NonTerminal list = new NonTerminal("list");
+		list.setRule(new Conjunction(new Disjunction(name, keyword),
+				new Optional(new Conjunction(new CharacterValue(","), list))));
+		Lexer lexer = RegularSubgrammars.createLexer(Arrays.asList(keyword, name));
+
+		for (String data : new String[] { "if,iffy,x", "x,if", "if,", "" }) {
+			Parser expected = build(data);
+			list.visit(expected);
+			Parser actual = build(data);
+			actual.setTokens(lexer.tokenize(data));
+			list.visit(actual);
+			assertEquals(expected.getResult(), actual.getResult());
+			assertEquals(expected.getResult(false), actual.getResult(false));
+		}
+
+		Parser parser = build("if,x");
+		parser.setTokens(lexer.tokenize("if,x"));
+		list.visit(parser);
+		assertEquals(parser.getResult(false), parser.getCompactResult(false).toNode());
+	}
+
+	@Test
+	public void shouldPreferLongestTokens() {
+		NonTerminal keyword = new NonTerminal("keyword", new CharacterValue(true, "if"));
+		NonTerminal letter = new NonTerminal("letter", new NumberValue(16, 0x61, 0x7A));
+		NonTerminal name = new NonTerminal("name", new Repetition(letter, 1, Integer.MAX_VALUE));
+		NonTerminal statement = new NonTerminal("statement", new Conjunction(keyword, name));
+		Lexer lexer = RegularSubgrammars.createLexer(Arrays.asList(keyword, name));
+
+		Parser parser = build("iffy");
+		statement.visit(parser);
+		assertTrue(parser.hasResult());
+
+		parser = build("iffy");
+		parser.setTokens(lexer.tokenize("iffy"));
+		statement.visit(parser);
+		assertFalse(parser.hasResult());
+		assertEquals(0, parser.getFarthestOffset());
+		assertEquals(Arrays.asList("keyword"), parser.getFarthestExpected());
+		assertEquals("statement", parser.getFarthestRule());
+
+		parser = build("if x");
+		parser.setTokens(lexer.tokenize("if x"));
+		statement.visit(parser);
+		assertFalse(parser.hasResult());
+		assertEquals(2, parser.getFarthestOffset());
+		assertEquals(Arrays.asList("name"), parser.getFarthestExpected());
+	}
+
+	@Test
+	public void shouldApplyActionsToTokens() {
+		NonTerminal digit = new NonTerminal("digit", new NumberValue(16, 0x30, 0x39));
+		NonTerminal number = new NonTerminal("number", new Repetition(digit, 1, Integer.MAX_VALUE));
+		NonTerminal list = new NonTerminal("list");
+		list.setRule(new Conjunction(number, new Optional(new Conjunction(new CharacterValue(","), list))));
+		Lexer lexer = RegularSubgrammars.createLexer(Arrays.asList(number));
+
+		SemanticActions<Integer> actions = new SemanticActions<Integer>()
+				.put("number", (data, start, end, values) -> Integer.valueOf(data.substring(start, end)))
+				.put("list", (data, start, end, values) -> Integer
+						.valueOf(values.stream().mapToInt(value -> value.intValue()).sum()));
+		Parser parser = new Parser(new State("12,30,4"), actions);
+		parser.setTokens(lexer.tokenize("12,30,4"));
+		list.visit(parser);
+		assertEquals(Arrays.asList(Integer.valueOf(46)), parser.getValues());
+
+		actions.put("digit", (data, start, end, values) -> Integer.valueOf(1));
+		actions.put("number", (data, start, end, values) -> Integer.valueOf(values.size()));
+		parser = new Parser(new State("12,30,4"), actions);
+		parser.setTokens(lexer.tokenize("12,30,4"));
+		list.visit(parser);
+		assertEquals(Arrays.asList(Integer.valueOf(5)), parser.getValues());
+	}
+
+	@Test
+	public void shouldParseDeeplyNestedData() {
+		int levels = 100000;
+		NonTerminal nested = new NonTerminal("nested");
+		nested.setRule(new Conjunction(new CharacterValue("("), new Optional(nested), new CharacterValue(")")));
+		StringBuilder data = new StringBuilder();
+		for (int i = 0; i < levels; i++)
+			data.append('(');
+		for (int i = 0; i < levels; i++)
+			data.append(')');
+
+		Parser parser = build(data.toString());
+		nested.visit(parser);
+		assertEquals(2 * levels, parser.getCompactResult(false).getEnd(0));
+	}
+
+	@Test
+	public void shouldSkipImplicitly() {
+		NonTerminal space = new NonTerminal("space", new Repetition(new CharacterValue(" ")));
+		NonTerminal name = new NonTerminal("name",
+				new Repetition(new NumberValue(16, 0x61, 0x7A), 1, Integer.MAX_VALUE));
+		NonTerminal pair = new NonTerminal("pair", new Conjunction(new CharacterValue("("), name,
+				new CharacterValue(","), name, new CharacterValue(")")));
+		Parser expected = build("(ab,c)");
+		pair.visit(expected);
+
+		for (RegularSubgrammars compiled : new RegularSubgrammars[] { new RegularSubgrammars(space), null }) {
+			State state = new State("( ab ,c )  ");
+			Parser actual = new Parser(state);
+			actual.setSkipRule(space, compiled, Arrays.asList(pair));
+			pair.visit(actual);
+			assertEquals("( ab ,c )  ", state.getProcessedData());
+			assertEquals(expected.getResult(), actual.getResult());
+		}
+	}
+
+	@Test
+	public void shouldOnlySkipWithinSkippingRules() {
+		NonTerminal space = new NonTerminal("space", new Repetition(new CharacterValue(" ")));
+		NonTerminal name = new NonTerminal("name",
+				new Repetition(new NumberValue(16, 0x61, 0x7A), 1, Integer.MAX_VALUE));
+		NonTerminal list = new NonTerminal("list");
+		list.setRule(new Conjunction(name, new Optional(new Conjunction(new CharacterValue(","), list))));
+
+		Parser parser = build("a b");
+		parser.setSkipRule(space, new RegularSubgrammars(space), Arrays.asList(list));
+		list.visit(parser);
+		assertEquals(1, parser.getCompactResult(false).getEnd(0));
+
+		parser = build("ab , cd,e ");
+		parser.setSkipRule(space, new RegularSubgrammars(space), Arrays.asList(list));
+		list.visit(parser);
+		assertEquals(10, parser.getCompactResult(false).getEnd(0));
+
+		parser = build("a b , c");
+		parser.setSkipRule(space, new RegularSubgrammars(space), Arrays.asList(name));
+		list.visit(parser);
+		assertEquals(7, parser.getCompactResult(false).getEnd(0));
+	}
+
+	@Test
+	public void shouldNotCutWhileSkipping() {
+		NonTerminal space = new NonTerminal("space",
+				new Repetition(new Conjunction(new CharacterValue(" "), new Cut())));
+		NonTerminal pair = new NonTerminal("pair", new Conjunction(new CharacterValue("a"), new CharacterValue("b")));
+
+		Parser parser = build("a b");
+		parser.setSkipRule(space, null, Arrays.asList(pair));
+		pair.visit(parser);
+		assertTrue(parser.hasResult());
+		assertEquals(0, parser.getCutOffset());
+	}
+
+	@Test
+	public void shouldMemoizeRules() {
+		NonTerminal digit = new NonTerminal("digit", new NumberValue(16, 0x30, 0x39));
+		NonTerminal sum = new NonTerminal("sum");
+		NonTerminal term = new NonTerminal("term",
+				new Disjunction(new Conjunction(new CharacterValue("("), sum, new CharacterValue(")")), digit));
+		sum.setRule(new Disjunction(new Conjunction(term, new CharacterValue("+"), sum), term));
+
+		for (String data : new String[] { "((1+2)+(3+4))+5", "((1+2)+(3+", "" }) {
+			Parser expected = build(data);
+			sum.visit(expected);
+			Parser actual = build(data);
+			actual.setMemoizedRules(Arrays.asList(term));
+			sum.visit(actual);
+			assertEquals(expected.getResult(), actual.getResult());
+			assertEquals(expected.getFarthestOffset(), actual.getFarthestOffset());
+			assertEquals(expected.getFarthestExpected(), actual.getFarthestExpected());
+			if (!data.isEmpty())
+				assertTrue(actual.getInvocations() < expected.getInvocations());
+		}
+	}
+
+	@Test
+	public void shouldReuseMemoizedValues() {
+		NonTerminal digit = new NonTerminal("digit", new NumberValue(16, 0x30, 0x39));
+		NonTerminal sum = new NonTerminal("sum");
+		sum.setRule(new Disjunction(new Conjunction(digit, new CharacterValue("+"), sum), digit));
+		SemanticActions<Integer> actions = new SemanticActions<Integer>()
+				.put("digit", (data, start, end, values) -> Integer.valueOf(data.substring(start, end)))
+				.put("sum", (data, start, end, values) -> Integer
+						.valueOf(values.stream().mapToInt(value -> value.intValue()).sum()));
+
+		Parser parser = new Parser(new State("1+2+3"), actions);
+		parser.setMemoizedRules(Arrays.asList(digit, sum));
+		sum.visit(parser);
+		assertEquals(Arrays.asList(Integer.valueOf(6)), parser.getValues());
+	}
+
+	@Test
+	public void shouldMemoizeAfterCuts() {
+		NonTerminal digit = new NonTerminal("digit", new NumberValue(16, 0x30, 0x39));
+		NonTerminal item = new NonTerminal("item",
+				new Disjunction(true, new Conjunction(digit, new CharacterValue(":"), new Cut(), digit), digit));
+		NonTerminal list = new NonTerminal("list", new Repetition(new Conjunction(item, new CharacterValue(";"))));
+
+		Parser expected = build("1:2;3;4:5;");
+		list.visit(expected);
+		Parser actual = build("1:2;3;4:5;");
+		actual.setMemoizedRules(Arrays.asList(digit, item));
+		list.visit(actual);
+		assertEquals(expected.getResult(), actual.getResult());
+		assertEquals(expected.getCutOffset(), actual.getCutOffset());
+	}
+
+	@Test
+	public void shouldNotMemoizeWithinPredicates() {
+		NonTerminal item = new NonTerminal("item", new Conjunction(new CharacterValue("a"), new Cut()));
+		Rule rule = new Conjunction(new AndPredicate(item), item, new CharacterValue("b"));
+
+		Parser expected = build("ab");
+		rule.visit(expected);
+		Parser actual = build("ab");
+		actual.setMemoizedRules(Arrays.asList(item));
+		rule.visit(actual);
+		assertEquals(expected.getResult(), actual.getResult());
+		assertEquals(1, expected.getCutOffset());
+		assertEquals(expected.getCutOffset(), actual.getCutOffset());
+	}
+
+	@Test
+	public void shouldNotMemoizeWhileSkipping() {
+		NonTerminal blank = new NonTerminal("blank", new Conjunction(new CharacterValue(" "), new Cut()));
+		NonTerminal space = new NonTerminal("space", new Conjunction(blank, new CharacterValue("!")));
+		NonTerminal word = new NonTerminal("word", new CharacterValue("a"));
+		Rule rule = new Conjunction(word, blank, new CharacterValue("b"));
+
+		Parser expected = build("a b");
+		expected.setSkipRule(space, null, Arrays.asList(word));
+		rule.visit(expected);
+		Parser actual = build("a b");
+		actual.setSkipRule(space, null, Arrays.asList(word));
+		actual.setMemoizedRules(Arrays.asList(blank));
+		rule.visit(actual);
+		assertEquals(expected.getResult(), actual.getResult());
+		assertEquals(2, expected.getCutOffset());
+		assertEquals(expected.getCutOffset(), actual.getCutOffset());
+		assertEquals(expected.getFarthestOffset(), actual.getFarthestOffset());
+	}
+
+	@Test
+	public void shouldProfileReinvocations() {
+		NonTerminal digit = new NonTerminal("digit", new NumberValue(16, 0x30, 0x39));
+		NonTerminal sum = new NonTerminal("sum");
+		sum.setRule(new Disjunction(true, new Conjunction(digit, new CharacterValue("+"), sum), digit));
+
+		MemoizationProfile profile = new MemoizationProfile();
+		for (int i = 0; i < 2; i++) {
+			Parser parser = build("1+2+3");
+			parser.setProfile(profile);
+			sum.visit(parser);
+		}
+		RuleProfile digitProfile = profile.getRule("digit");
+		assertEquals(8, digitProfile.getInvocations());
+		assertEquals(2, digitProfile.getReinvocations());
+		assertEquals(6, digitProfile.getEntries());
+		assertEquals(4, digitProfile.getSavedInvocations());
+		assertEquals(12, digitProfile.getStoredRecords());
+		assertEquals(0, profile.getRule("sum").getReinvocations());
+		assertTrue(profile.getRecommendedRules().isEmpty());
+	}
+
+	/**
+	 * Returns a non-terminal node named "number" with the specified terminal.
+	 * 
+	 * @param terminal
+	 *            the terminal
+	 * @return the non-terminal node
+	 */
+	private static Node numberNode(String terminal) {
+		Node node = new NonTerminalNode("number");
+		node.addChild(new TerminalNode(terminal));
+		return node;
+	}
+
 }
@@ -0,0 +1,257 @@
+package de.claas.parser.visitors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+import org.junit.Test;
+
+import de.claas.parser.Rule;
+import de.claas.parser.automata.DeterministicAutomaton;
+import de.claas.parser.automata.Lexer;
+import de.claas.parser.rules.AndPredicate;
+import de.claas.parser.rules.CharacterValue;
+import de.claas.parser.rules.Conjunction;
+import de.claas.parser.rules.Cut;
+import de.claas.parser.rules.Disjunction;
+import de.claas.parser.rules.NonTerminal;
+import de.claas.parser.rules.NotPredicate;
+import de.claas.parser.rules.NumberValue;
+import de.claas.parser.rules.Optional;
+import de.claas.parser.rules.Repetition;
+import de.claas.parser.rules.SeparatedRepetition;
+
+/**
+ * The JUnit test for class {@link RegularSubgrammars}. It is intended to
+ * collect and document a set of test cases for the tested class. Please refer
+ * to the individual tests for more detailed information.
+ *
+ * @author Claas Ahlrichs
+ */
+public class RegularSubgrammarsTest extends RuleVisitorTest {
+
+	/**
+	 * A helper function that compiles the specified rule (as part of a
+	 * non-terminal) and returns its automaton.
+	 *
+	 * @param rule
+	 *            the rule
+	 * @return the automaton of the rule or <code>null</code>
+	 */
+	private static DeterministicAutomaton compile(Rule rule) {
+		NonTerminal root = new NonTerminal("root", rule);
+		return new RegularSubgrammars(root).getAutomaton(root);
+	}
+
+	@Override
+	public void shouldHandleNoRule() {
+		NonTerminal root = new NonTerminal("root");
+		RegularSubgrammars regularSubgrammars = new RegularSubgrammars(root);
+		assertNull(regularSubgrammars.getAutomaton(root));
+		assertTrue(regularSubgrammars.getCompiledRules().isEmpty());
+	}
+
+	@Override
+	public void shouldHandleConjunctionRule() {
+		DeterministicAutomaton automaton = compile(new Conjunction(new CharacterValue("a"), new CharacterValue("b")));
+		assertEquals(2, automaton.match("abc", 0));
+		assertEquals(-1, automaton.match("ac", 0));
+		assertEquals(-1, compile(new Conjunction()).match("", 0));
+	}
+
+	@Override
+	public void shouldHandleDisjunctionRule() {
+		DeterministicAutomaton automaton = compile(
+				new Disjunction(new CharacterValue("a"), new CharacterValue("ab"), new CharacterValue("b")));
+		assertEquals(2, automaton.match("abc", 0));
+		assertEquals(1, automaton.match("b", 0));
+		assertEquals(-1, automaton.match("c", 0));
+	}
+
+	@Override
+	public void shouldHandleNonTerminalRule() {
+		NonTerminal a = new NonTerminal("a", new CharacterValue("a"));
+		NonTerminal b = new NonTerminal("b", new CharacterValue("b"));
+		NonTerminal root = new NonTerminal("root", new Conjunction(a, b, a));
+		RegularSubgrammars regularSubgrammars = new RegularSubgrammars(root);
+		assertEquals(new HashSet<>(Arrays.asList(root)), regularSubgrammars.getCompiledRules());
+		assertEquals(new HashSet<>(Arrays.asList("a", "b")), regularSubgrammars.getNestedNames(root));
+		assertEquals(3, regularSubgrammars.getAutomaton(root).match("aba", 0));
+	}
+
+	@Override
+	public void shouldHandleOptionalRule() {
+		DeterministicAutomaton automaton = compile(new Optional(new CharacterValue("a")));
+		assertEquals(1, automaton.match("a", 0));
+		assertEquals(0, automaton.match("b", 0));
+	}
+
+	@Override
+	public void shouldHandleRepetitionRule() {
+		DeterministicAutomaton automaton = compile(new Repetition(new CharacterValue("a"), 2, 3));
+		assertEquals(-1, automaton.match("a", 0));
+		assertEquals(2, automaton.match("aa", 0));
+		assertEquals(3, automaton.match("aaaa", 0));
+
+		automaton = compile(new Repetition(new CharacterValue("a"), 1, Integer.MAX_VALUE));
+		assertEquals(-1, automaton.match("b", 0));
+		assertEquals(5, automaton.match("aaaaab", 0));
+		assertNull(compile(new Repetition(new CharacterValue("a"), 0, RegularSubgrammars.MAXIMUM_UNROLLING + 1)));
+	}
+
+	@Override
+	public void shouldHandleSeparatedRepetitionRule() {
+		assertNull(compile(new SeparatedRepetition(new CharacterValue("a"), new CharacterValue(","))));
+	}
+
+	@Override
+	public void shouldHandleAndPredicateRule() {
+		assertNull(compile(new AndPredicate(new CharacterValue("a"))));
+		assertNull(compile(new Conjunction(new AndPredicate(new CharacterValue("a")), new CharacterValue("a"))));
+	}
+
+	@Override
+	public void shouldHandleNotPredicateRule() {
+		assertNull(compile(new NotPredicate(new CharacterValue("a"))));
+		assertNull(compile(new Conjunction(new NotPredicate(new CharacterValue("a")), new CharacterValue("b"))));
+	}
+
+	@Override
+	public void shouldHandleCutRule() {
+		assertNull(compile(new Cut()));
+		assertNull(compile(new Conjunction(new CharacterValue("a"), new Cut())));
+	}
+
+	@Override
+	public void shouldHandleTerminalRule() {
+		DeterministicAutomaton automaton = compile(new CharacterValue(false, "ab"));
+		assertEquals(2, automaton.match("aB", 0));
+		assertEquals(3, automaton.match("xAb", 1));
+
+		automaton = compile(new NumberValue(16, 0x30, 0x39));
+		assertEquals(1, automaton.match("5", 0));
+		assertEquals(-1, automaton.match("a", 0));
+		automaton = compile(new NumberValue(16, new char[] { 0x0D, 0x0A }));
+		assertEquals(2, automaton.match("\r\n", 0));
+
+		NonTerminal sensitive = new NonTerminal("root", new CharacterValue(true, "a"));
+		assertFalse(new RegularSubgrammars(sensitive).isCaseInsensitive(sensitive));
+		NonTerminal insensitive = new NonTerminal("root", new CharacterValue(false, "a"));
+		assertTrue(new RegularSubgrammars(insensitive).isCaseInsensitive(insensitive));
+	}
+
+	@Override
+	public void shouldHandleRules() {
+		NonTerminal digit = new NonTerminal("digit", new NumberValue(16, 0x30, 0x39));
+		NonTerminal number = new NonTerminal("number", new Repetition(digit, 1, Integer.MAX_VALUE));
+		NonTerminal list = new NonTerminal("list");
+		list.setRule(new Conjunction(number, new Optional(new Conjunction(new CharacterValue(","), list))));
+
+		RegularSubgrammars regularSubgrammars = new RegularSubgrammars(list);
+		assertEquals(new HashSet<>(Arrays.asList(number)), regularSubgrammars.getCompiledRules());
+		assertEquals(3, regularSubgrammars.getAutomaton(number).match("123,4", 0));
+	}
+
+	@Override
+	public void shouldHandleCyclicRepetitionRule() {
+		Repetition rule = new Repetition(new Conjunction(new CharacterValue("a")));
+		rule.addChild(new Repetition(rule));
+		assertNull(compile(rule));
+	}
+
+	@Override
+	public void shouldHandleCyclicOptionalRule() {
+		Optional rule = new Optional(new Conjunction(new CharacterValue("a")));
+		rule.addChild(new Optional(rule));
+		assertNull(compile(rule));
+	}
+
+	@Override
+	public void shouldHandleCyclicNonTerminalRule() {
+		NonTerminal rule = new NonTerminal("list");
+		rule.setRule(new Conjunction(new CharacterValue("x"), new Optional(rule)));
+		RegularSubgrammars regularSubgrammars = new RegularSubgrammars(rule);
+		assertNull(regularSubgrammars.getAutomaton(rule));
+		assertTrue(regularSubgrammars.getCompiledRules().isEmpty());
+	}
+
+	@Override
+	public void shouldHandleCyclicDisjunctionRule() {
+		Rule rule = new Disjunction(new CharacterValue("a"));
+		rule.addChild(new Disjunction(rule));
+		assertNull(compile(rule));
+	}
+
+	@Override
+	public void shouldHandleCyclicConjunctionRule() {
+		Rule rule = new Conjunction(new CharacterValue("a"));
+		rule.addChild(new Conjunction(rule));
+		assertNull(compile(rule));
+	}
+
+	@Test
+	public void shouldNotCompileRulesThatAreNotGreedy() {
+		Rule a = new CharacterValue("a");
+		assertNull(compile(new Conjunction(new Repetition(a), a)));
+		assertNull(compile(new Conjunction(new Optional(a), a)));
+		assertNull(compile(new Repetition(new Disjunction(a, new CharacterValue("aa")))));
+		assertNull(compile(new Conjunction(new Repetition(a), new Optional(new CharacterValue("b")), a)));
+		assertNotNull(compile(new Conjunction(new Repetition(a), new CharacterValue("b"))));
+		assertNotNull(compile(new Repetition(new Conjunction(a, new CharacterValue("b")))));
+	}
+
+	@Test
+	public void shouldOnlyCompileOrderedDisjunctionsWithDistinctChildren() {
+		Rule a = new CharacterValue("a");
+		Rule b = new CharacterValue("b");
+		assertNull(compile(new Disjunction(true, a, new CharacterValue("ab"))));
+		assertNull(compile(new Disjunction(true, new Optional(a), b)));
+		assertNotNull(compile(new Disjunction(true, a, new Optional(b))));
+		assertEquals(2, compile(new Disjunction(true, new CharacterValue("ab"), b)).match("ab", 0));
+
+		NonTerminal root = new NonTerminal("root", new Disjunction(a, new CharacterValue("ab")));
+		assertNotNull(new RegularSubgrammars(root).getAutomaton(root));
+		assertNull(new RegularSubgrammars(root, true).getAutomaton(root));
+	}
+
+	@Test
+	public void shouldCreateLexers() {
+		NonTerminal digit = new NonTerminal("digit", new NumberValue(16, 0x30, 0x39));
+		NonTerminal number = new NonTerminal("number", new Repetition(digit, 1, Integer.MAX_VALUE));
+		NonTerminal keyword = new NonTerminal("keyword", new CharacterValue(false, "if"));
+		NonTerminal name = new NonTerminal("name",
+				new Repetition(new NumberValue(16, 0x61, 0x7A), 1, Integer.MAX_VALUE));
+
+		Lexer lexer = RegularSubgrammars.createLexer(Arrays.asList(number, keyword, name));
+		assertEquals(Arrays.asList(number, keyword, name), lexer.getRules());
+		assertEquals(new HashSet<>(Arrays.asList("digit")), lexer.getNestedNames(number));
+		assertTrue(lexer.isCaseInsensitive());
+		DeterministicAutomaton automaton = lexer.getAutomaton();
+		assertEquals(2, automaton.match("if", 0));
+		assertEquals(3, automaton.match("123a", 0));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void shouldRejectLexicalRulesThatCannotBeCompiled() {
+		Rule a = new CharacterValue("a");
+		RegularSubgrammars.createLexer(Arrays.asList(new NonTerminal("root", new Conjunction(new Repetition(a), a))));
+	}
+
+	@Test
+	public void shouldCompileOutermostRules() {
+		NonTerminal inner = new NonTerminal("inner", new CharacterValue("a"));
+		NonTerminal outer = new NonTerminal("outer", new Repetition(inner, 1, Integer.MAX_VALUE));
+		NonTerminal root = new NonTerminal("root");
+		root.setRule(new Conjunction(outer, new Optional(root)));
+
+		RegularSubgrammars regularSubgrammars = new RegularSubgrammars(root);
+		assertEquals(new HashSet<>(Arrays.asList(outer)), regularSubgrammars.getCompiledRules());
+		assertNull(regularSubgrammars.getAutomaton(inner));
+	}
+
+}
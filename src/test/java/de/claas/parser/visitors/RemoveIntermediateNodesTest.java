@@ -2,6 +2,7 @@ package de.claas.parser.visitors;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import java.util.Iterator;
@@ -80,6 +81,59 @@ public class RemoveIntermediateNodesTest extends NodeVisitorTest {
 		assertFalse(n5.hasChildren());
 	}
 
+	@Test
+	public void shouldRemoveStructurallyEqualNodesIndividually() {
+		Node n1 = new NonTerminalNode("n1");
+		Node n2 = new IntermediateNode();
+		Node n3 = new IntermediateNode();
+		Node t1 = new TerminalNode("t");
+		Node t2 = new TerminalNode("t");
+		Node n4 = new TerminalNode("n4");
+		n1.addChild(n2);
+		n1.addChild(n4);
+		n1.addChild(n3);
+		n2.addChild(t1);
+		n3.addChild(t2);
+		n1.visit(this.visitor);
+
+		Iterator<Node> iterator = n1.iterator();
+		assertSame(t1, iterator.next());
+		assertSame(n4, iterator.next());
+		assertSame(t2, iterator.next());
+		assertFalse(iterator.hasNext());
+	}
+
+	@Test(timeout = 10000)
+	public void shouldHandleLargeTrees() {
+		int width = 1000;
+		Node root = new NonTerminalNode("root");
+		for (int i = 0; i < width; i++) {
+			Node intermediate = new IntermediateNode();
+			Node nonTerminal = new NonTerminalNode("child");
+			Node nested = new IntermediateNode();
+			for (int j = 0; j < width - 3; j++) {
+				nested.addChild(new TerminalNode("t"));
+			}
+			nonTerminal.addChild(nested);
+			intermediate.addChild(nonTerminal);
+			root.addChild(intermediate);
+		}
+		root.visit(this.visitor);
+
+		int nonTerminals = 0;
+		int terminals = 0;
+		for (Node child : root) {
+			assertTrue(child instanceof NonTerminalNode);
+			nonTerminals++;
+			for (Node grandChild : child) {
+				assertTrue(grandChild instanceof TerminalNode);
+				terminals++;
+			}
+		}
+		assertEquals(width, nonTerminals);
+		assertEquals(width * (width - 3), terminals);
+	}
+
 	@Override
 	public void shouldHandleNoNode() {
 		// nothing to be done
@@ -154,4 +208,17 @@ public class RemoveIntermediateNodesTest extends NodeVisitorTest {
 		assertFalse(root.hasChildren());
 	}
 
+	@Test
+	public void shouldHandleDeepTrees() {
+		Node node = NodeWalkerTest.deepTree(100000);
+		node.visit(new RemoveIntermediateNodes());
+		int depth = 0;
+		while (node.hasChildren()) {
+			assertFalse(node instanceof IntermediateNode);
+			node = node.iterator().next();
+			depth++;
+		}
+		assertEquals(50000, depth);
+	}
+
 }
@@ -0,0 +1,307 @@
+package de.claas.parser.visitors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Iterator;
+
+import org.junit.Test;
+
+import de.claas.parser.Grammar;
+import de.claas.parser.Node;
+import de.claas.parser.Rule;
+import de.claas.parser.grammars.AugmentedBackusNaur;
+import de.claas.parser.rules.AndPredicate;
+import de.claas.parser.rules.CharacterValue;
+import de.claas.parser.rules.Conjunction;
+import de.claas.parser.rules.Cut;
+import de.claas.parser.rules.Decorator;
+import de.claas.parser.rules.Disjunction;
+import de.claas.parser.rules.NonTerminal;
+import de.claas.parser.rules.NotPredicate;
+import de.claas.parser.rules.NumberValue;
+import de.claas.parser.rules.Optional;
+import de.claas.parser.rules.Repetition;
+import de.claas.parser.rules.SeparatedRepetition;
+
+/**
+ * The JUnit test for class {@link RuleDeduplication}. It is intended to
+ * collect and document a set of test cases for the tested class. Please refer
+ * to the individual tests for more detailed information.
+ *
+ * @author Claas Ahlrichs
+ */
+public class RuleDeduplicationTest extends RuleVisitorTest {
+
+	@Override
+	public void shouldHandleNoRule() {
+		Rule rule = new Conjunction();
+		RuleDeduplication deduplication = new RuleDeduplication(rule);
+		assertEquals(rule, deduplication.getResult());
+		assertEquals(1, deduplication.getNumberOfDistinctRules());
+		assertNull(deduplication.getCanonicalRule(new Conjunction()));
+	}
+
+	@Override
+	public void shouldHandleConjunctionRule() {
+		Rule rule = new Conjunction(new CharacterValue("a"), new CharacterValue("a"), new CharacterValue("b"));
+		RuleDeduplication deduplication = new RuleDeduplication(rule);
+		Rule result = deduplication.getResult();
+		assertEquals(rule, result);
+		assertNotSame(rule, result);
+		assertEquals(4, deduplication.getNumberOfRules());
+		assertEquals(3, deduplication.getNumberOfDistinctRules());
+
+		Iterator<Rule> children = result.iterator();
+		assertSame(children.next(), children.next());
+	}
+
+	@Override
+	public void shouldHandleDisjunctionRule() {
+		Rule rule = new Disjunction(new Conjunction(new CharacterValue("a")),
+				new Conjunction(new CharacterValue("a")));
+		RuleDeduplication deduplication = new RuleDeduplication(rule);
+		Rule result = deduplication.getResult();
+		assertEquals(rule, result);
+		assertEquals(3, deduplication.getNumberOfDistinctRules());
+
+		Iterator<Rule> children = result.iterator();
+		assertSame(children.next(), children.next());
+	}
+
+	@Override
+	public void shouldHandleNonTerminalRule() {
+		Rule rule = new Conjunction(new NonTerminal("a", new CharacterValue("x")),
+				new NonTerminal("a", new CharacterValue("x")), new NonTerminal("b", new CharacterValue("x")),
+				new NonTerminal("a", "comment", new CharacterValue("x")));
+		RuleDeduplication deduplication = new RuleDeduplication(rule);
+		Rule result = deduplication.getResult();
+		assertEquals(rule, result);
+		assertEquals(5, deduplication.getNumberOfDistinctRules());
+
+		Iterator<Rule> children = result.iterator();
+		Rule a = children.next();
+		assertSame(a, children.next());
+		assertNotSame(a, children.next());
+		assertNotSame(a, children.next());
+	}
+
+	@Override
+	public void shouldHandleOptionalRule() {
+		Rule rule = new Conjunction(new Optional(new CharacterValue("a")), new Optional(new CharacterValue("a")),
+				new Optional(new CharacterValue("b")));
+		RuleDeduplication deduplication = new RuleDeduplication(rule);
+		Rule result = deduplication.getResult();
+		assertEquals(rule, result);
+		assertEquals(5, deduplication.getNumberOfDistinctRules());
+
+		Iterator<Rule> children = result.iterator();
+		Rule a = children.next();
+		assertSame(a, children.next());
+		assertNotSame(a, children.next());
+	}
+
+	@Override
+	public void shouldHandleRepetitionRule() {
+		Rule rule = new Conjunction(new Repetition(new CharacterValue("a")), new Repetition(new CharacterValue("a")),
+				new Repetition(new CharacterValue("a"), 1, 2));
+		RuleDeduplication deduplication = new RuleDeduplication(rule);
+		Rule result = deduplication.getResult();
+		assertEquals(rule, result);
+		assertEquals(4, deduplication.getNumberOfDistinctRules());
+
+		Iterator<Rule> children = result.iterator();
+		Rule a = children.next();
+		assertSame(a, children.next());
+		assertNotSame(a, children.next());
+	}
+
+	@Override
+	public void shouldHandleSeparatedRepetitionRule() {
+		Rule rule = new Conjunction(new SeparatedRepetition(new CharacterValue("a"), new CharacterValue(",")),
+				new SeparatedRepetition(new CharacterValue("a"), new CharacterValue(",")),
+				new SeparatedRepetition(new CharacterValue("a"), new CharacterValue(","), 1, 2));
+		RuleDeduplication deduplication = new RuleDeduplication(rule);
+		Rule result = deduplication.getResult();
+		assertEquals(rule, result);
+		assertEquals(5, deduplication.getNumberOfDistinctRules());
+
+		Iterator<Rule> children = result.iterator();
+		Rule a = children.next();
+		assertSame(a, children.next());
+		assertNotSame(a, children.next());
+	}
+
+	@Override
+	public void shouldHandleAndPredicateRule() {
+		Rule rule = new Conjunction(new AndPredicate(new CharacterValue("a")), new AndPredicate(new CharacterValue("a")),
+				new NotPredicate(new CharacterValue("a")));
+		RuleDeduplication deduplication = new RuleDeduplication(rule);
+		Rule result = deduplication.getResult();
+		assertEquals(rule, result);
+		assertEquals(4, deduplication.getNumberOfDistinctRules());
+
+		Iterator<Rule> children = result.iterator();
+		Rule a = children.next();
+		assertSame(a, children.next());
+		assertNotSame(a, children.next());
+	}
+
+	@Override
+	public void shouldHandleNotPredicateRule() {
+		Rule rule = new Conjunction(new NotPredicate(new CharacterValue("a")), new NotPredicate(new CharacterValue("a")),
+				new NotPredicate(new CharacterValue("b")));
+		RuleDeduplication deduplication = new RuleDeduplication(rule);
+		Rule result = deduplication.getResult();
+		assertEquals(rule, result);
+		assertEquals(5, deduplication.getNumberOfDistinctRules());
+
+		Iterator<Rule> children = result.iterator();
+		Rule a = children.next();
+		assertSame(a, children.next());
+		assertNotSame(a, children.next());
+	}
+
+	@Override
+	public void shouldHandleCutRule() {
+		Rule rule = new Conjunction(new Cut(), new CharacterValue("a"), new Cut());
+		RuleDeduplication deduplication = new RuleDeduplication(rule);
+		Rule result = deduplication.getResult();
+		assertEquals(rule, result);
+		assertEquals(3, deduplication.getNumberOfDistinctRules());
+
+		Iterator<Rule> children = result.iterator();
+		Rule cut = children.next();
+		children.next();
+		assertSame(cut, children.next());
+	}
+
+	@Override
+	public void shouldHandleTerminalRule() {
+		Rule rule = new Conjunction(new CharacterValue("a"), new CharacterValue(true, "a"),
+				new NumberValue(16, 'a'), new NumberValue(16, 'a'), new NumberValue(16, 0x30, 0x39));
+		RuleDeduplication deduplication = new RuleDeduplication(rule);
+		Rule result = deduplication.getResult();
+		assertEquals(rule, result);
+		assertEquals(5, deduplication.getNumberOfDistinctRules());
+
+		Iterator<Rule> children = result.iterator();
+		assertNotSame(children.next(), children.next());
+		assertSame(children.next(), children.next());
+	}
+
+	@Override
+	public void shouldHandleRules() {
+		Rule firstDigit = new NonTerminal("digit", new NumberValue(16, 0x30, 0x39));
+		Rule otherDigit = new NonTerminal("digit", new NumberValue(16, 0x30, 0x39));
+		Rule number = new NonTerminal("number", new Conjunction(firstDigit, new Repetition(otherDigit)));
+		NonTerminal list = new NonTerminal("list");
+		list.setRule(new Conjunction(number, new Optional(new Conjunction(new CharacterValue(","), list))));
+
+		RuleDeduplication deduplication = new RuleDeduplication(list);
+		NonTerminal result = (NonTerminal) deduplication.getResult();
+		assertEquals(list, result);
+		assertEquals(deduplication.getNumberOfRules() - 2, deduplication.getNumberOfDistinctRules());
+		assertSame(deduplication.getCanonicalRule(firstDigit), deduplication.getCanonicalRule(otherDigit));
+
+		Node expected = new Grammar(list).parse("12,3");
+		assertEquals(expected, new Grammar(result).parse("12,3"));
+	}
+
+	@Override
+	public void shouldHandleCyclicRepetitionRule() {
+		Rule rule = new Repetition(new Conjunction());
+		Rule child = new Repetition(rule);
+		rule.addChild(child);
+
+		RuleDeduplication deduplication = new RuleDeduplication(rule);
+		Rule result = deduplication.getResult();
+		assertEquals(rule, result);
+		assertSame(deduplication.getCanonicalRule(rule), result);
+	}
+
+	@Override
+	public void shouldHandleCyclicOptionalRule() {
+		Rule rule = new Optional(new Conjunction());
+		Rule child = new Optional(rule);
+		rule.addChild(child);
+
+		RuleDeduplication deduplication = new RuleDeduplication(rule);
+		Rule result = deduplication.getResult();
+		assertEquals(rule, result);
+		assertSame(deduplication.getCanonicalRule(rule), result);
+	}
+
+	@Override
+	public void shouldHandleCyclicNonTerminalRule() {
+		NonTerminal a = new NonTerminal("list");
+		a.setRule(new Conjunction(new CharacterValue("x"), new Optional(a)));
+		NonTerminal b = new NonTerminal("list");
+		b.setRule(new Conjunction(new CharacterValue("x"), new Optional(b)));
+		Rule rule = new Disjunction(a, b);
+
+		RuleDeduplication deduplication = new RuleDeduplication(rule);
+		Rule result = deduplication.getResult();
+		assertEquals(rule, result);
+		assertEquals(9, deduplication.getNumberOfRules());
+		assertEquals(5, deduplication.getNumberOfDistinctRules());
+		assertSame(deduplication.getCanonicalRule(a), deduplication.getCanonicalRule(b));
+
+		NonTerminal list = (NonTerminal) deduplication.getCanonicalRule(a);
+		Iterator<Rule> children = list.getRule().iterator();
+		assertTrue(children.next() instanceof CharacterValue);
+		assertSame(list, ((Optional) children.next()).getRule());
+	}
+
+	@Override
+	public void shouldHandleCyclicDisjunctionRule() {
+		Rule rule = new Disjunction();
+		Rule child = new Disjunction(rule);
+		rule.addChild(child);
+
+		RuleDeduplication deduplication = new RuleDeduplication(rule);
+		Rule result = deduplication.getResult();
+		assertEquals(rule, result);
+		assertEquals(2, deduplication.getNumberOfRules());
+		assertEquals(1, deduplication.getNumberOfDistinctRules());
+		assertSame(result, result.iterator().next());
+	}
+
+	@Override
+	public void shouldHandleCyclicConjunctionRule() {
+		Rule rule = new Conjunction();
+		Rule child = new Conjunction(rule);
+		rule.addChild(child);
+
+		RuleDeduplication deduplication = new RuleDeduplication(rule);
+		Rule result = deduplication.getResult();
+		assertEquals(rule, result);
+		assertEquals(2, deduplication.getNumberOfRules());
+		assertEquals(1, deduplication.getNumberOfDistinctRules());
+		assertSame(result, result.iterator().next());
+	}
+
+	@Test
+	public void shouldNotModifyOriginalRules() {
+		Rule a = new CharacterValue("a");
+		Rule conjunction = new Conjunction(new Optional(a), new Optional(new CharacterValue("a")));
+		Decorator optional = (Decorator) conjunction.iterator().next();
+		new RuleDeduplication(conjunction);
+		assertSame(a, optional.getRule());
+
+		Iterator<Rule> children = conjunction.iterator();
+		assertNotSame(children.next(), children.next());
+	}
+
+	@Test
+	public void shouldDeduplicateAugmentedBackusNaur() {
+		Grammar grammar = new AugmentedBackusNaur();
+		String data = "rule = *(\"a\" / %x30-39) [rule] ; comment\r\n";
+		Node actual = grammar.parse(data);
+		assertEquals(new AugmentedBackusNaur().parse(data), actual);
+	}
+
+}
@@ -7,13 +7,17 @@ import org.junit.Before;
 import org.junit.Test;
 
 import de.claas.parser.Rule;
+import de.claas.parser.rules.AndPredicate;
 import de.claas.parser.rules.CharacterValue;
 import de.claas.parser.rules.Conjunction;
+import de.claas.parser.rules.Cut;
 import de.claas.parser.rules.Disjunction;
 import de.claas.parser.rules.NonTerminal;
+import de.claas.parser.rules.NotPredicate;
 import de.claas.parser.rules.NumberValue;
 import de.claas.parser.rules.Optional;
 import de.claas.parser.rules.Repetition;
+import de.claas.parser.rules.SeparatedRepetition;
 import de.claas.parser.rules.Terminal;
 
 /**
@@ -77,6 +81,11 @@ public class RuleEqualityTest extends RuleVisitorTest {
 		rule.visit(visitor);
 		assertTrue(visitor.isEquality());
 
+		visitor = build(obj);
+		rule = new Disjunction(true, this.defaultChild);
+		rule.visit(visitor);
+		assertFalse(visitor.isEquality());
+
 		visitor = build(obj);
 		rule = new Conjunction(this.defaultChild);
 		rule.visit(visitor);
@@ -128,6 +137,70 @@ public class RuleEqualityTest extends RuleVisitorTest {
 		assertFalse(visitor.isEquality());
 	}
 
+	@Override
+	public void shouldHandleSeparatedRepetitionRule() {
+		Object obj = new SeparatedRepetition(this.defaultChild, this.defaultChild, 10, 42);
+
+		RuleEquality visitor = build(obj);
+		Rule rule = new SeparatedRepetition(this.defaultChild, this.defaultChild, 10, 42);
+		rule.visit(visitor);
+		assertTrue(visitor.isEquality());
+
+		visitor = build(obj);
+		rule = new SeparatedRepetition(this.defaultChild, null, 10, 42);
+		rule.visit(visitor);
+		assertFalse(visitor.isEquality());
+
+		visitor = build(obj);
+		rule = new Repetition(this.defaultChild, 10, 42);
+		rule.visit(visitor);
+		assertFalse(visitor.isEquality());
+	}
+
+	@Override
+	public void shouldHandleAndPredicateRule() {
+		Object obj = new AndPredicate(this.defaultChild);
+
+		RuleEquality visitor = build(obj);
+		Rule rule = new AndPredicate(this.defaultChild);
+		rule.visit(visitor);
+		assertTrue(visitor.isEquality());
+
+		visitor = build(obj);
+		rule = new NotPredicate(this.defaultChild);
+		rule.visit(visitor);
+		assertFalse(visitor.isEquality());
+	}
+
+	@Override
+	public void shouldHandleNotPredicateRule() {
+		Object obj = new NotPredicate(this.defaultChild);
+
+		RuleEquality visitor = build(obj);
+		Rule rule = new NotPredicate(this.defaultChild);
+		rule.visit(visitor);
+		assertTrue(visitor.isEquality());
+
+		visitor = build(obj);
+		rule = new AndPredicate(this.defaultChild);
+		rule.visit(visitor);
+		assertFalse(visitor.isEquality());
+	}
+
+	@Override
+	public void shouldHandleCutRule() {
+		Object obj = new Cut();
+
+		RuleEquality visitor = build(obj);
+		Rule rule = new Cut();
+		rule.visit(visitor);
+		assertTrue(visitor.isEquality());
+
+		visitor = build(new Conjunction());
+		rule.visit(visitor);
+		assertFalse(visitor.isEquality());
+	}
+
 	@Override
 	public void shouldHandleTerminalRule() {
 		Object obj = CharacterValue.alternatives(true, "child", "node");
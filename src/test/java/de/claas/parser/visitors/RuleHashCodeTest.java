@@ -5,13 +5,17 @@ import static org.junit.Assert.assertEquals;
 import org.junit.Before;
 
 import de.claas.parser.Rule;
+import de.claas.parser.rules.AndPredicate;
 import de.claas.parser.rules.CharacterValue;
 import de.claas.parser.rules.Conjunction;
+import de.claas.parser.rules.Cut;
 import de.claas.parser.rules.Disjunction;
 import de.claas.parser.rules.NonTerminal;
+import de.claas.parser.rules.NotPredicate;
 import de.claas.parser.rules.NumberValue;
 import de.claas.parser.rules.Optional;
 import de.claas.parser.rules.Repetition;
+import de.claas.parser.rules.SeparatedRepetition;
 
 /**
  * The JUnit test for class {@link RuleHashCode}. It is intended to collect and
@@ -69,6 +73,10 @@ public class RuleHashCodeTest extends RuleVisitorTest {
 		int expected = rule.getClass().hashCode();
 		expected += this.defaultChildHashCode;
 		assertEquals(expected, visitor.getHashCode());
+
+		visitor = build();
+		new Disjunction(true, this.defaultChild).visit(visitor);
+		assertEquals(expected + 2048, visitor.getHashCode());
 	}
 
 	@Override
@@ -108,6 +116,49 @@ public class RuleHashCodeTest extends RuleVisitorTest {
 		assertEquals(expected, visitor.getHashCode());
 	}
 
+	@Override
+	public void shouldHandleSeparatedRepetitionRule() {
+		RuleHashCode visitor = build();
+		Rule rule = new SeparatedRepetition(this.defaultChild, this.defaultChild, 10, 42);
+		rule.visit(visitor);
+
+		int expected = rule.getClass().hashCode();
+		expected += Integer.hashCode(10);
+		expected += Integer.hashCode(42);
+		expected += 2 * this.defaultChildHashCode;
+		assertEquals(expected, visitor.getHashCode());
+	}
+
+	@Override
+	public void shouldHandleAndPredicateRule() {
+		RuleHashCode visitor = build();
+		Rule rule = new AndPredicate(this.defaultChild);
+		rule.visit(visitor);
+
+		int expected = rule.getClass().hashCode();
+		expected += this.defaultChildHashCode;
+		assertEquals(expected, visitor.getHashCode());
+	}
+
+	@Override
+	public void shouldHandleNotPredicateRule() {
+		RuleHashCode visitor = build();
+		Rule rule = new NotPredicate(this.defaultChild);
+		rule.visit(visitor);
+
+		int expected = rule.getClass().hashCode();
+		expected += this.defaultChildHashCode;
+		assertEquals(expected, visitor.getHashCode());
+	}
+
+	@Override
+	public void shouldHandleCutRule() {
+		RuleHashCode visitor = build();
+		Rule rule = new Cut();
+		rule.visit(visitor);
+		assertEquals(rule.getClass().hashCode(), visitor.getHashCode());
+	}
+
 	@Override
 	public void shouldHandleTerminalRule() {
 		RuleHashCode visitor = build();
@@ -6,16 +6,21 @@ import java.util.ArrayList;
 import java.util.List;
 
 import org.junit.Before;
+import org.junit.Test;
 
 import de.claas.parser.Rule;
 import de.claas.parser.RuleVisitor;
+import de.claas.parser.rules.AndPredicate;
 import de.claas.parser.rules.CharacterValue;
 import de.claas.parser.rules.Conjunction;
+import de.claas.parser.rules.Cut;
 import de.claas.parser.rules.Disjunction;
 import de.claas.parser.rules.NonTerminal;
+import de.claas.parser.rules.NotPredicate;
 import de.claas.parser.rules.NumberValue;
 import de.claas.parser.rules.Optional;
 import de.claas.parser.rules.Repetition;
+import de.claas.parser.rules.SeparatedRepetition;
 
 /**
  * The JUnit test for class {@link RuleToString}. It is intended to collect and
@@ -60,6 +65,17 @@ public class RuleToStringTest extends RuleVisitorTest {
 		assertEquals(String.join("\n", lines) + "\n", this.visitor.toString());
 	}
 
+	@Test
+	public void shouldHandleOrderedDisjunctionRule() {
+		Rule r1 = new CharacterValue("t");
+		new Disjunction(true, r1).visit(this.visitor);
+
+		List<String> lines = new ArrayList<>();
+		lines.add("Disjunction:ordered");
+		lines.add("  CharacterValue:t");
+		assertEquals(String.join("\n", lines) + "\n", this.visitor.toString());
+	}
+
 	@Override
 	public void shouldHandleNonTerminalRule() {
 		Rule r1 = new CharacterValue("t");
@@ -93,6 +109,47 @@ public class RuleToStringTest extends RuleVisitorTest {
 		assertEquals(String.join("\n", lines) + "\n", this.visitor.toString());
 	}
 
+	@Override
+	public void shouldHandleSeparatedRepetitionRule() {
+		Rule r1 = new CharacterValue("t");
+		Rule r2 = new CharacterValue(",");
+		new SeparatedRepetition(r1, r2).visit(this.visitor);
+
+		List<String> lines = new ArrayList<>();
+		lines.add("SeparatedRepetition");
+		lines.add("  CharacterValue:t");
+		lines.add("  CharacterValue:,");
+		assertEquals(String.join("\n", lines) + "\n", this.visitor.toString());
+	}
+
+	@Override
+	public void shouldHandleAndPredicateRule() {
+		Rule r1 = new CharacterValue("t");
+		new AndPredicate(r1).visit(this.visitor);
+
+		List<String> lines = new ArrayList<>();
+		lines.add("AndPredicate");
+		lines.add("  CharacterValue:t");
+		assertEquals(String.join("\n", lines) + "\n", this.visitor.toString());
+	}
+
+	@Override
+	public void shouldHandleNotPredicateRule() {
+		Rule r1 = new CharacterValue("t");
+		new NotPredicate(r1).visit(this.visitor);
+
+		List<String> lines = new ArrayList<>();
+		lines.add("NotPredicate");
+		lines.add("  CharacterValue:t");
+		assertEquals(String.join("\n", lines) + "\n", this.visitor.toString());
+	}
+
+	@Override
+	public void shouldHandleCutRule() {
+		new Cut().visit(this.visitor);
+		assertEquals("Cut\n", this.visitor.toString());
+	}
+
 	@Override
 	public void shouldHandleTerminalRule() {
 		new CharacterValue("some-terminal").visit(this.visitor);
@@ -198,6 +255,7 @@ public class RuleToStringTest extends RuleVisitorTest {
 		List<String> lines = new ArrayList<>();
 		lines.add("Conjunction");
 		lines.add("  Conjunction");
+		lines.add("    Conjunction");
 		assertEquals(String.join("\n", lines) + "\n", this.visitor.toString());
 	}
 
@@ -35,6 +35,18 @@ public abstract class RuleVisitorTest {
 	@Test
 	public abstract void shouldHandleRepetitionRule();
 
+	@Test
+	public abstract void shouldHandleSeparatedRepetitionRule();
+
+	@Test
+	public abstract void shouldHandleAndPredicateRule();
+
+	@Test
+	public abstract void shouldHandleNotPredicateRule();
+
+	@Test
+	public abstract void shouldHandleCutRule();
+
 	@Test
 	public abstract void shouldHandleTerminalRule();
 
@@ -11,13 +11,17 @@ import org.junit.Test;
 
 import de.claas.parser.Rule;
 import de.claas.parser.RuleVisitor;
+import de.claas.parser.rules.AndPredicate;
 import de.claas.parser.rules.CharacterValue;
 import de.claas.parser.rules.Conjunction;
+import de.claas.parser.rules.Cut;
 import de.claas.parser.rules.Decorator;
 import de.claas.parser.rules.Disjunction;
 import de.claas.parser.rules.NonTerminal;
+import de.claas.parser.rules.NotPredicate;
 import de.claas.parser.rules.Optional;
 import de.claas.parser.rules.Repetition;
+import de.claas.parser.rules.SeparatedRepetition;
 
 /**
  * The JUnit test for class {@link UpdateNonTerminalReferences}. It is intended
@@ -109,6 +113,46 @@ public class UpdateNonTerminalReferencesTest extends RuleVisitorTest {
 		assertEquals(expected, actual);
 	}
 
+	@Override
+	public void shouldHandleSeparatedRepetitionRule() {
+		Rule actual = new SeparatedRepetition(new NonTerminal(this.NON_TERMINAL), new CharacterValue(","));
+		RuleVisitor visitor = build(this.rules.values());
+		actual.visit(visitor);
+
+		Rule expected = new SeparatedRepetition(this.rules.get(this.NON_TERMINAL), new CharacterValue(","));
+		assertEquals(expected, actual);
+	}
+
+	@Override
+	public void shouldHandleAndPredicateRule() {
+		Rule actual = new AndPredicate(new NonTerminal(this.NON_TERMINAL));
+		RuleVisitor visitor = build(this.rules.values());
+		actual.visit(visitor);
+
+		Rule expected = new AndPredicate(this.rules.get(this.NON_TERMINAL));
+		assertEquals(expected, actual);
+	}
+
+	@Override
+	public void shouldHandleNotPredicateRule() {
+		Rule actual = new NotPredicate(new NonTerminal(this.NON_TERMINAL));
+		RuleVisitor visitor = build(this.rules.values());
+		actual.visit(visitor);
+
+		Rule expected = new NotPredicate(this.rules.get(this.NON_TERMINAL));
+		assertEquals(expected, actual);
+	}
+
+	@Override
+	public void shouldHandleCutRule() {
+		Rule actual = new Conjunction(new Cut(), new NonTerminal(this.NON_TERMINAL));
+		RuleVisitor visitor = build(this.rules.values());
+		actual.visit(visitor);
+
+		Rule expected = new Conjunction(new Cut(), this.rules.get(this.NON_TERMINAL));
+		assertEquals(expected, actual);
+	}
+
 	@Override
 	public void shouldHandleTerminalRule() {
 		Rule actual = new CharacterValue(this.TERMINAL);